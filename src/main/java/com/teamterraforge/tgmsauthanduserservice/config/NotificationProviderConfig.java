@@ -0,0 +1,57 @@
+package com.teamterraforge.tgmsauthanduserservice.config;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.service.LoggingNotificationProvider;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationProvider;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationSecretResolver;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationTemplates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Logging stand-ins for the email, SMS and push providers. Each is replaced by
+ * setting notifications.providers.{channel}.type and registering a real provider.
+ */
+@Configuration
+public class NotificationProviderConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "notifications.providers.email", name = "type", havingValue = "log", matchIfMissing = true)
+    public NotificationProvider emailNotificationProvider(
+            NotificationTemplates templates,
+            List<NotificationSecretResolver> secretResolvers,
+            @Value("${notifications.providers.email.batch-size:50}") int batchSize) {
+        return new LoggingNotificationProvider(NotificationChannel.EMAIL, batchSize, templates,
+                secretTemplateKeys(secretResolvers));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "notifications.providers.sms", name = "type", havingValue = "log", matchIfMissing = true)
+    public NotificationProvider smsNotificationProvider(
+            NotificationTemplates templates,
+            List<NotificationSecretResolver> secretResolvers,
+            @Value("${notifications.providers.sms.batch-size:100}") int batchSize) {
+        return new LoggingNotificationProvider(NotificationChannel.SMS, batchSize, templates,
+                secretTemplateKeys(secretResolvers));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "notifications.providers.push", name = "type", havingValue = "log", matchIfMissing = true)
+    public NotificationProvider pushNotificationProvider(
+            NotificationTemplates templates,
+            List<NotificationSecretResolver> secretResolvers,
+            @Value("${notifications.providers.push.batch-size:500}") int batchSize) {
+        return new LoggingNotificationProvider(NotificationChannel.PUSH, batchSize, templates,
+                secretTemplateKeys(secretResolvers));
+    }
+
+    private static Set<String> secretTemplateKeys(List<NotificationSecretResolver> secretResolvers) {
+        return secretResolvers.stream().map(NotificationSecretResolver::templateKey).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,46 @@
+package com.teamterraforge.tgmsauthanduserservice.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their reads stay on the primary
+ * until the replica has had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private final long stickyWindowMs;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long stickyWindowMs) {
+        this.stickyWindowMs = stickyWindowMs;
+    }
+
+    /**
+     * Pin the subject's reads to the primary for the sticky window
+     */
+    public void recordWrite(String subject) {
+        if (subject != null) {
+            pinnedUntil.put(subject, System.currentTimeMillis() + stickyWindowMs);
+        }
+    }
+
+    /**
+     * Whether the subject wrote within the sticky window
+     */
+    public boolean isPinnedToPrimary(String subject) {
+        if (subject == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(subject);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.sticky-window-ms:5000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+}
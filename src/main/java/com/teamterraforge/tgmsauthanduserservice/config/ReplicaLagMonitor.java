@@ -0,0 +1,78 @@
+package com.teamterraforge.tgmsauthanduserservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Periodically measures replication lag on the replica.
+ * The replica is considered healthy only while the last check succeeded recently
+ * and reported a lag within the configured bound.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final long staleAfterMs;
+
+    private volatile long lastLagMs = Long.MAX_VALUE;
+    private volatile long lastSuccessMs;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMs, long checkIntervalMs) {
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.staleAfterMs = checkIntervalMs * 3;
+    }
+
+    /**
+     * Whether read-only traffic may currently be sent to the replica
+     */
+    public boolean isHealthy() {
+        return lastLagMs <= maxLagMs && System.currentTimeMillis() - lastSuccessMs <= staleAfterMs;
+    }
+
+    /**
+     * Force primary routing until the next successful lag check
+     */
+    public void markUnhealthy() {
+        lastLagMs = Long.MAX_VALUE;
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        boolean wasHealthy = isHealthy();
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+            resultSet.next();
+            lastLagMs = (long) resultSet.getDouble(1);
+            lastSuccessMs = System.currentTimeMillis();
+        } catch (Exception e) {
+            log.warn("Replica lag check failed: {}", e.getMessage());
+            markUnhealthy();
+        }
+
+        boolean healthy = isHealthy();
+        if (wasHealthy != healthy) {
+            log.info("Replica routing {} (lag: {} ms, max: {} ms)",
+                    healthy ? "enabled" : "disabled", lastLagMs, maxLagMs);
+        }
+    }
+}
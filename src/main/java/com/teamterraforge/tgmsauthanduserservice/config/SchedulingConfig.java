@@ -0,0 +1,14 @@
+package com.teamterraforge.tgmsauthanduserservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs.
+ * They run on Boot's shared scheduler pool, sized by spring.task.scheduling.pool.size
+ * so long daily jobs do not hold up the jobs that run every second.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -3,6 +3,7 @@ package com.teamterraforge.tgmsauthanduserservice.config;
 import com.teamterraforge.tgmsauthanduserservice.security.CustomUserDetailsService;
 import com.teamterraforge.tgmsauthanduserservice.security.JwtAuthenticationEntryPoint;
 import com.teamterraforge.tgmsauthanduserservice.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -55,10 +56,13 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches continue a request that was already authorized (SSE, streaming export)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/users/forgot-password",
                                 "/api/users/reset-password",
+                                "/api/users/reset-password/validate",
                                 "/api/users/*/public-profile",
                                 "/actuator/health",
                                 "/actuator/info",
@@ -0,0 +1,97 @@
+package com.teamterraforge.tgmsauthanduserservice.controller;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary;
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditStateResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.service.AuditQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * REST controller for audit history (Admin only)
+ */
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@Slf4j
+public class AuditController {
+
+    private final AuditQueryService auditQueryService;
+
+    /**
+     * Audit history of one resource, newest first
+     * GET /api/audit/resources/USER/{resourceId}?limit=50&cursor=...
+     */
+    @GetMapping("/resources/{resourceType}/{resourceId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponse<AuditLogSummary>> getResourceHistory(
+            @PathVariable String resourceType,
+            @PathVariable UUID resourceId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+
+        log.info("Audit history requested for {} {}", resourceType, resourceId);
+        return ResponseEntity.ok(auditQueryService.getResourceHistory(resourceType, resourceId, limit, cursor));
+    }
+
+    /**
+     * Actions performed by one user, newest first
+     * GET /api/audit/actors/{actorUserId}?limit=50&cursor=...
+     */
+    @GetMapping("/actors/{actorUserId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponse<AuditLogSummary>> getActorHistory(
+            @PathVariable UUID actorUserId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+
+        log.info("Audit history requested for actor {}", actorUserId);
+        return ResponseEntity.ok(auditQueryService.getActorHistory(actorUserId, limit, cursor));
+    }
+
+    /**
+     * All audit entries in a time window, newest first
+     * GET /api/audit?from=2024-01-01T00:00:00Z&to=2024-01-02T00:00:00Z&limit=50&cursor=...
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponse<AuditLogSummary>> getWindow(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+
+        log.info("Audit entries requested from {} to {}", from, to);
+        return ResponseEntity.ok(auditQueryService.getWindow(from, to, limit, cursor));
+    }
+
+    /**
+     * Audit entry as stored: full state for checkpoints, otherwise a patch
+     * GET /api/audit/{id}
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditLogResponse> getEntry(@PathVariable Long id) {
+        log.info("Audit entry requested: {}", id);
+        return ResponseEntity.ok(auditQueryService.getEntry(id));
+    }
+
+    /**
+     * Reconstructed state of the resource right after an audit entry
+     * GET /api/audit/{id}/state
+     */
+    @GetMapping("/{id}/state")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditStateResponse> getStateAt(@PathVariable Long id) {
+        log.info("Audit state requested at entry {}", id);
+        return ResponseEntity.ok(auditQueryService.getStateAt(id));
+    }
+}
@@ -0,0 +1,43 @@
+package com.teamterraforge.tgmsauthanduserservice.controller;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.GuideSearchResponse;
+import com.teamterraforge.tgmsauthanduserservice.service.GuideSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+/**
+ * REST controller for guide discovery
+ */
+@RestController
+@RequestMapping("/api/guides")
+@RequiredArgsConstructor
+@Slf4j
+public class GuideController {
+
+    private final GuideSearchService guideSearchService;
+
+    /**
+     * Search guides by text, language, currency, verification and rate range
+     * GET /api/guides/search?q=galle fort&language=English&currency=USD&verified=true&minRate=20&maxRate=80&limit=20&cursor=...
+     */
+    @GetMapping("/search")
+    public ResponseEntity<GuideSearchResponse> searchGuides(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) BigDecimal minRate,
+            @RequestParam(required = false) BigDecimal maxRate,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        log.debug("Guide search - query: {}, language: {}, currency: {}", q, language, currency);
+
+        GuideSearchResponse response = guideSearchService.search(
+                q, language, currency, verified, minRate, maxRate, limit, cursor);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,90 @@
+package com.teamterraforge.tgmsauthanduserservice.controller;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.BroadcastRequest;
+import com.teamterraforge.tgmsauthanduserservice.dto.BroadcastResponse;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationBroadcastService;
+import com.teamterraforge.tgmsauthanduserservice.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for notification broadcasts (Admin only)
+ */
+@RestController
+@RequestMapping("/api/notifications/broadcasts")
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationBroadcastController {
+
+    private final NotificationBroadcastService broadcastService;
+    private final UserService userService;
+
+    /**
+     * Start a broadcast to all users or all users of one role
+     * POST /api/notifications/broadcasts
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BroadcastResponse> createBroadcast(@Valid @RequestBody BroadcastRequest request) {
+        log.info("Broadcast of {} over {} requested for role: {}",
+                request.getTemplateKey(), request.getChannel(), request.getRole());
+
+        BroadcastResponse response = broadcastService.create(request, getCurrentUserId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * List recent broadcasts, newest first
+     * GET /api/notifications/broadcasts?limit=20
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BroadcastResponse>> listBroadcasts(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(broadcastService.list(limit));
+    }
+
+    /**
+     * Get a broadcast's progress and delivery counts
+     * GET /api/notifications/broadcasts/{id}
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BroadcastResponse> getBroadcast(@PathVariable Long id) {
+        return ResponseEntity.ok(broadcastService.get(id));
+    }
+
+    /**
+     * Cancel a broadcast that has not finished
+     * POST /api/notifications/broadcasts/{id}/cancel
+     */
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BroadcastResponse> cancelBroadcast(@PathVariable Long id) {
+        log.info("Cancelling broadcast: {}", id);
+        return ResponseEntity.ok(broadcastService.cancel(id));
+    }
+
+    /**
+     * Helper method to get current authenticated user ID
+     */
+    private UUID getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            log.error("No authenticated user found in security context");
+            throw new IllegalStateException("User is not authenticated");
+        }
+
+        return userService.getUserByEmail(authentication.getName()).getId();
+    }
+}
@@ -1,20 +1,38 @@
 package com.teamterraforge.tgmsauthanduserservice.controller;
 
 import com.teamterraforge.tgmsauthanduserservice.dto.*;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationInboxService;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationStream;
+import com.teamterraforge.tgmsauthanduserservice.service.UserChangeFeed;
+import com.teamterraforge.tgmsauthanduserservice.service.UserDataFormat;
+import com.teamterraforge.tgmsauthanduserservice.service.UserExportService;
+import com.teamterraforge.tgmsauthanduserservice.service.UserImportService;
+import com.teamterraforge.tgmsauthanduserservice.service.UserSearchService;
 import com.teamterraforge.tgmsauthanduserservice.service.UserService;
+import com.teamterraforge.tgmsauthanduserservice.service.UserStatsService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -29,6 +47,13 @@ import java.util.UUID;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final UserSearchService userSearchService;
+    private final UserStatsService userStatsService;
+    private final UserChangeFeed userChangeFeed;
+    private final NotificationInboxService notificationInboxService;
+    private final NotificationStream notificationStream;
 
     /**
      * Get current authenticated user profile
@@ -108,13 +133,23 @@ public class UserController {
      * POST /api/users/forgot-password
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<PasswordResetResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
+    public ResponseEntity<PasswordResetResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request,
+                                                                HttpServletRequest httpRequest) {
         log.info("Forgot password request for email: {}", request.getEmail());
         
-        PasswordResetResponse response = userService.forgotPassword(request);
+        PasswordResetResponse response = userService.forgotPassword(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Check a reset token before asking for the new password
+     * POST /api/users/reset-password/validate
+     */
+    @PostMapping("/reset-password/validate")
+    public ResponseEntity<Map<String, Boolean>> validateResetToken(@Valid @RequestBody ResetTokenRequest request) {
+        return ResponseEntity.ok(Map.of("valid", userService.isResetTokenValid(request)));
+    }
+
     /**
      * Reset password with token
      * POST /api/users/reset-password
@@ -146,6 +181,66 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * List current user's notifications, newest first
+     * GET /api/users/me/notifications?limit=20&cursor=...
+     */
+    @GetMapping("/me/notifications")
+    public ResponseEntity<CursorPageResponse<NotificationResponse>> getNotifications(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        UUID userId = getCurrentUserId();
+        log.debug("Fetching notifications for user: {}", userId);
+
+        CursorPageResponse<NotificationResponse> response = notificationInboxService.getInbox(userId, limit, cursor);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get current user's unread notification count
+     * GET /api/users/me/notifications/unread-count
+     */
+    @GetMapping("/me/notifications/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadNotificationCount() {
+        UUID userId = getCurrentUserId();
+        return ResponseEntity.ok(Map.of("unread", notificationInboxService.getUnreadCount(userId)));
+    }
+
+    /**
+     * Mark one of current user's notifications read
+     * POST /api/users/me/notifications/{id}/read
+     */
+    @PostMapping("/me/notifications/{id}/read")
+    public ResponseEntity<Map<String, Long>> markNotificationRead(@PathVariable Long id) {
+        UUID userId = getCurrentUserId();
+        notificationInboxService.markRead(userId, id);
+        return ResponseEntity.ok(Map.of("unread", notificationInboxService.getUnreadCount(userId)));
+    }
+
+    /**
+     * Mark all of current user's notifications read
+     * POST /api/users/me/notifications/read-all
+     */
+    @PostMapping("/me/notifications/read-all")
+    public ResponseEntity<Map<String, Integer>> markAllNotificationsRead() {
+        UUID userId = getCurrentUserId();
+        log.info("Marking all notifications read for user: {}", userId);
+
+        int marked = notificationInboxService.markAllRead(userId);
+        return ResponseEntity.ok(Map.of("marked", marked));
+    }
+
+    /**
+     * Stream current user's in-app notifications as server-sent events
+     * GET /api/users/me/notifications/stream
+     */
+    @GetMapping(value = "/me/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications() {
+        UUID userId = getCurrentUserId();
+        log.debug("Notification stream requested by user: {}", userId);
+        return notificationStream.subscribe(userId);
+    }
+
     /**
      * Get public profile of a user
      * GET /api/users/{id}/public-profile
@@ -180,6 +275,92 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Bulk import users from a streamed CSV or NDJSON body (Admin only)
+     * POST /api/users/admin/import
+     */
+    @PostMapping(value = "/admin/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+
+        log.info("Admin bulk user import requested - content type: {}", contentType);
+
+        UserImportResponse response = userImportService.importUsers(
+                body, UserDataFormat.fromContentType(contentType));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stream all users as NDJSON or CSV (Admin only)
+     * GET /api/users/admin/export?format=ndjson
+     */
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        UserDataFormat dataFormat = UserDataFormat.fromName(format);
+        log.info("Admin user export requested - format: {}", dataFormat);
+
+        StreamingResponseBody body = output -> userExportService.exportUsers(output, dataFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(dataFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + dataFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Stream user created/updated/deleted events as server-sent events (Admin only)
+     * GET /api/users/changes/stream?types=USER_CREATED,USER_UPDATED
+     * Reconnecting clients send Last-Event-ID to resume after the last event they received
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamUserChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) String types) {
+
+        log.info("User change stream requested - lastEventId: {}, types: {}", lastEventId, types);
+        return userChangeFeed.subscribe(lastEventId, types);
+    }
+
+    /**
+     * Search users by partial name, email or phone (Admin only)
+     * GET /api/users/admin/search?q=...&limit=20&cursor=...
+     */
+    @GetMapping("/admin/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponse<UserResponse>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+
+        log.info("Admin user search - query: {}, limit: {}", q, limit);
+        CursorPageResponse<UserResponse> response = userSearchService.searchUsers(q, limit, cursor);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get dashboard user statistics for a date range (Admin only)
+     * GET /api/users/admin/stats?from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/admin/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserStatsResponse> getUserStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        log.info("Admin user stats requested - from: {}, to: {}", start, end);
+
+        UserStatsResponse response = userStatsService.getStats(start, end);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Helper method to get current authenticated user ID
      */
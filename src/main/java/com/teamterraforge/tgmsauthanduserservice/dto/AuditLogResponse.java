@@ -0,0 +1,32 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for a full audit log entry
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogResponse {
+
+    private Long id;
+    private UUID actorUserId;
+    private String action;
+    private String resourceType;
+    private UUID resourceId;
+    private Map<String, Object> beforeState;
+    private Map<String, Object> afterState;
+    private List<Map<String, Object>> patch;
+    private boolean checkpoint;
+    private Instant createdAt;
+}
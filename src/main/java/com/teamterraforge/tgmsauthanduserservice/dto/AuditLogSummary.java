@@ -0,0 +1,26 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO for an audit log entry without its before/after state
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogSummary {
+
+    private Long id;
+    private UUID actorUserId;
+    private String action;
+    private String resourceType;
+    private UUID resourceId;
+    private Instant createdAt;
+}
@@ -0,0 +1,29 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for the reconstructed state of a resource as of one audit entry.
+ * state is null if the resource did not exist after that entry.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditStateResponse {
+
+    private Long auditId;
+    private String resourceType;
+    private UUID resourceId;
+    private Instant asOf;
+    private Map<String, Object> state;
+    private Long checkpointId;
+    private int patchesApplied;
+}
@@ -0,0 +1,35 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO for starting a notification broadcast
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastRequest {
+
+    @NotNull(message = "Channel is required")
+    private NotificationChannel channel;
+
+    @NotBlank(message = "Template key is required")
+    @Size(max = 100, message = "Template key must be at most 100 characters")
+    private String templateKey;
+
+    private Map<String, Object> payload;
+
+    // Recipients' role; everyone when null
+    private UserRole role;
+}
@@ -0,0 +1,35 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for a notification broadcast and its progress
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastResponse {
+
+    private Long id;
+    private String channel;
+    private String templateKey;
+    private Map<String, Object> payload;
+    private String role;
+    private String status;
+    private long totalRecipients;
+    private long enqueued;
+    // Broadcast notifications by delivery status; only on single-broadcast reads
+    private Map<String, Long> deliveries;
+    private UUID createdBy;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,28 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO for one day of user statistics, broken down by role
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyUserStats {
+
+    private LocalDate day;
+    private Map<UserRole, Long> signups;
+    private Map<UserRole, Long> deletions;
+    private Map<UserRole, Long> activeUsers;
+    private long totalSignups;
+    private long totalDeletions;
+    private long totalActiveUsers;
+}
@@ -0,0 +1,31 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for one guide in search results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuideSearchHit {
+
+    private UUID guideId;
+    private UUID userId;
+    private String title;
+    private List<String> languages;
+    private List<String> areas;
+    private BigDecimal perDayRate;
+    private String currencyCode;
+    private boolean verified;
+    private int profileCompleteScore;
+    private double score;
+}
@@ -0,0 +1,29 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for a page of guide search results.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuideSearchResponse {
+
+    private List<GuideSearchHit> content;
+    private int size;
+    // All matching guides, not just this page
+    private int total;
+    private String nextCursor;
+    private boolean hasMore;
+    // Value counts over all matching guides: language, currency, verified and rate
+    private Map<String, Map<String, Integer>> facets;
+}
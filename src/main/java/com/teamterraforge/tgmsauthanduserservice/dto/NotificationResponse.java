@@ -0,0 +1,27 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * DTO for a notification in the user's inbox
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponse {
+
+    private Long id;
+    private String channel;
+    private String templateKey;
+    private Map<String, Object> payload;
+    private String status;
+    private Instant readAt;
+    private Instant createdAt;
+}
@@ -0,0 +1,20 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for checking a password reset token before asking for a new password
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResetTokenRequest {
+
+    @NotBlank(message = "Token is required")
+    private String token;
+}
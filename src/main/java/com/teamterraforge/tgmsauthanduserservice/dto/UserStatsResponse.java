@@ -0,0 +1,30 @@
+package com.teamterraforge.tgmsauthanduserservice.dto;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for admin dashboard user statistics over a date range
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private List<DailyUserStats> days;
+    private Map<UserRole, Long> signupsByRole;
+    private long totalSignups;
+    private long totalDeletions;
+    private Map<UserRole, Long> usersByRole;
+    private Double guideTouristRatio;
+}
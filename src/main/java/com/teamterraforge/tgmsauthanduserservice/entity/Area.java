@@ -2,6 +2,7 @@ package com.teamterraforge.tgmsauthanduserservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.util.UUID;
 
@@ -19,7 +20,7 @@ import java.util.UUID;
 public class Area {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     @Column(name = "country_code", nullable = false, length = 2)
@@ -2,11 +2,11 @@ package com.teamterraforge.tgmsauthanduserservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -24,7 +24,8 @@ import java.util.UUID;
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_id_seq")
+    @SequenceGenerator(name = "audit_log_id_seq", sequenceName = "audit_log_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "actor_user_id")
@@ -41,13 +42,36 @@ public class AuditLog {
     @Column(name = "after_state", columnDefinition = "jsonb")
     private Map<String, Object> afterState;
 
+    /**
+     * RFC 6902 operations from the previous state of the resource, for state changes
+     * that are not checkpoints
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private List<Map<String, Object>> patch;
+
+    /**
+     * True if afterState holds the full state of the resource after this entry
+     */
+    @Column(nullable = false)
+    private boolean checkpoint;
+
     @Column(name = "resource_type", nullable = false, length = 100)
     private String resourceType;
 
     @Column(name = "resource_id", nullable = false)
     private UUID resourceId;
 
-    @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    /**
+     * Keep the event time of buffered entries; default to now otherwise
+     */
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
 }
@@ -26,7 +26,8 @@ import java.util.UUID;
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_id_seq")
+    @SequenceGenerator(name = "notifications_id_seq", sequenceName = "notifications_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -53,6 +54,25 @@ public class Notification {
     @Column(name = "sent_at")
     private Instant sentAt;
 
+    // Lease held by the dispatcher that claimed the row for sending
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+
+    // Failed sends so far; a FAILED row is retried at next_attempt_at until max attempts
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "read_at")
+    private Instant readAt;
+
+    // Set on notifications fanned out by a broadcast
+    @Column(name = "broadcast_id")
+    private Long broadcastId;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
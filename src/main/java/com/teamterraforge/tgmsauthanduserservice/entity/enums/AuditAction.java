@@ -0,0 +1,14 @@
+package com.teamterraforge.tgmsauthanduserservice.entity.enums;
+
+/**
+ * Actions recorded in the audit log
+ * Stored by name in audit_log.action
+ */
+public enum AuditAction {
+    USER_REGISTERED,
+    USER_LOGIN,
+    PROFILE_UPDATED,
+    PASSWORD_CHANGED,
+    PASSWORD_RESET,
+    ACCOUNT_DELETED
+}
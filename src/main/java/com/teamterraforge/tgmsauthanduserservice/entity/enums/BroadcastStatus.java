@@ -0,0 +1,12 @@
+package com.teamterraforge.tgmsauthanduserservice.entity.enums;
+
+/**
+ * Progress of a notification broadcast
+ * Stored as text in notification_broadcasts.status
+ */
+public enum BroadcastStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    CANCELLED
+}
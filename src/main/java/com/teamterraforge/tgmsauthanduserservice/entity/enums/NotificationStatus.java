@@ -7,5 +7,6 @@ package com.teamterraforge.tgmsauthanduserservice.entity.enums;
 public enum NotificationStatus {
     PENDING,
     SENT,
-    FAILED
+    FAILED,
+    DEAD_LETTER
 }
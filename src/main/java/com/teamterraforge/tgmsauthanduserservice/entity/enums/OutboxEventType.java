@@ -0,0 +1,11 @@
+package com.teamterraforge.tgmsauthanduserservice.entity.enums;
+
+/**
+ * User lifecycle events published through the outbox
+ * Stored by name in outbox.event_type
+ */
+public enum OutboxEventType {
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED
+}
@@ -1,28 +1,121 @@
 package com.teamterraforge.tgmsauthanduserservice.repository;
 
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary;
 import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Repository for AuditLog entity operations
+ * Repository for AuditLog entity operations.
+ * History queries page newest first with a (createdAt, id) keyset and return
+ * summaries only, leaving the JSONB states unread.
  */
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
     /**
-     * Find audit logs by resource type and ID
+     * Audit history of one resource, older than the (createdAt, id) position
      */
-    List<AuditLog> findByResourceTypeAndResourceIdOrderByCreatedAtDesc(
-            String resourceType, 
-            UUID resourceId
+    @Query("""
+            SELECT new com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary(
+                a.id, a.actorUserId, a.action, a.resourceType, a.resourceId, a.createdAt)
+            FROM AuditLog a
+            WHERE a.resourceType = :resourceType
+              AND a.resourceId = :resourceId
+              AND (a.createdAt, a.id) < (:createdAt, :id)
+            ORDER BY a.createdAt DESC, a.id DESC
+            """)
+    List<AuditLogSummary> findResourceHistory(
+            @Param("resourceType") String resourceType,
+            @Param("resourceId") UUID resourceId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Limit limit
     );
 
     /**
-     * Find audit logs by actor
+     * Actions performed by one user, older than the (createdAt, id) position
      */
-    List<AuditLog> findByActorUserIdOrderByCreatedAtDesc(UUID actorUserId);
+    @Query("""
+            SELECT new com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary(
+                a.id, a.actorUserId, a.action, a.resourceType, a.resourceId, a.createdAt)
+            FROM AuditLog a
+            WHERE a.actorUserId = :actorUserId
+              AND (a.createdAt, a.id) < (:createdAt, :id)
+            ORDER BY a.createdAt DESC, a.id DESC
+            """)
+    List<AuditLogSummary> findActorHistory(
+            @Param("actorUserId") UUID actorUserId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    /**
+     * All entries in [from, to), older than the (createdAt, id) position
+     */
+    @Query("""
+            SELECT new com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary(
+                a.id, a.actorUserId, a.action, a.resourceType, a.resourceId, a.createdAt)
+            FROM AuditLog a
+            WHERE a.createdAt >= :from
+              AND a.createdAt < :to
+              AND (a.createdAt, a.id) < (:createdAt, :id)
+            ORDER BY a.createdAt DESC, a.id DESC
+            """)
+    List<AuditLogSummary> findWindow(
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    /**
+     * Latest checkpoint of a resource at or before the (createdAt, id) position
+     */
+    @Query("""
+            SELECT a FROM AuditLog a
+            WHERE a.resourceType = :resourceType
+              AND a.resourceId = :resourceId
+              AND a.checkpoint = true
+              AND (a.createdAt, a.id) <= (:createdAt, :id)
+            ORDER BY a.createdAt DESC, a.id DESC
+            """)
+    List<AuditLog> findLatestCheckpoint(
+            @Param("resourceType") String resourceType,
+            @Param("resourceId") UUID resourceId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    /**
+     * Patches of a resource after the checkpoint position up to and including the
+     * target position, in the order they are applied
+     */
+    @Query("""
+            SELECT a FROM AuditLog a
+            WHERE a.resourceType = :resourceType
+              AND a.resourceId = :resourceId
+              AND a.patch IS NOT NULL
+              AND (a.createdAt, a.id) > (:fromCreatedAt, :fromId)
+              AND (a.createdAt, a.id) <= (:toCreatedAt, :toId)
+            ORDER BY a.createdAt, a.id
+            """)
+    List<AuditLog> findPatchesBetween(
+            @Param("resourceType") String resourceType,
+            @Param("resourceId") UUID resourceId,
+            @Param("fromCreatedAt") Instant fromCreatedAt,
+            @Param("fromId") Long fromId,
+            @Param("toCreatedAt") Instant toCreatedAt,
+            @Param("toId") Long toId
+    );
 }
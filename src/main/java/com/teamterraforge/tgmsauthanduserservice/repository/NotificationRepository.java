@@ -0,0 +1,79 @@
+package com.teamterraforge.tgmsauthanduserservice.repository;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for Notification entity operations.
+ * Sending claims rows with plain SQL (FOR UPDATE SKIP LOCKED) in NotificationDispatcher;
+ * inbox pages are read newest first with an id keyset. The inbox holds only in-app (PUSH)
+ * notifications; the channel is a literal so the queries match the partial inbox indexes.
+ */
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    /**
+     * A user's in-app notifications older than the given id, newest first
+     */
+    @Query("""
+            SELECT n FROM Notification n
+            WHERE n.userId = :userId
+              AND n.channel = com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel.PUSH
+              AND n.id < :beforeId
+            ORDER BY n.id DESC
+            """)
+    List<Notification> findInbox(
+            @Param("userId") UUID userId,
+            @Param("beforeId") Long beforeId,
+            Limit limit
+    );
+
+    /**
+     * Number of the user's unread in-app notifications
+     */
+    @Query("""
+            SELECT count(n) FROM Notification n
+            WHERE n.userId = :userId
+              AND n.channel = com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel.PUSH
+              AND n.readAt IS NULL
+            """)
+    long countUnread(@Param("userId") UUID userId);
+
+    /**
+     * Mark one of the user's in-app notifications read
+     *
+     * @return 1 if it was unread, otherwise 0
+     */
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.readAt = :readAt
+            WHERE n.id = :id AND n.userId = :userId AND n.readAt IS NULL
+              AND n.channel = com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel.PUSH
+            """)
+    int markRead(@Param("userId") UUID userId, @Param("id") Long id, @Param("readAt") Instant readAt);
+
+    /**
+     * Mark all of the user's in-app notifications read
+     *
+     * @return number of notifications that were unread
+     */
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.readAt = :readAt
+            WHERE n.userId = :userId AND n.readAt IS NULL
+              AND n.channel = com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel.PUSH
+            """)
+    int markAllRead(@Param("userId") UUID userId, @Param("readAt") Instant readAt);
+
+    boolean existsByIdAndUserIdAndChannel(Long id, UUID userId, NotificationChannel channel);
+}
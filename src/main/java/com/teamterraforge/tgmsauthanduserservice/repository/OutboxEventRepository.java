@@ -0,0 +1,13 @@
+package com.teamterraforge.tgmsauthanduserservice.repository;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for OutboxEvent entity operations.
+ * Publishing claims rows with plain SQL (FOR UPDATE SKIP LOCKED) in OutboxPublisher.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
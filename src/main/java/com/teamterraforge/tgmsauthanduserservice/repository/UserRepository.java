@@ -3,9 +3,13 @@ package com.teamterraforge.tgmsauthanduserservice.repository;
 import com.teamterraforge.tgmsauthanduserservice.entity.User;
 import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -28,4 +32,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * Find user by email and role
      */
     Optional<User> findByEmailIgnoreCaseAndRole(String email, UserRole role);
+
+    /**
+     * Return which of the given user IDs still exist
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,298 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary;
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Queryable store of archived audit_log months, one memory-mapped segment file per
+ * former partition (audit_log_yYYYYmMM.seg).
+ * Archived months are always older than every month still in the database, so
+ * newest-first history continues here once the database runs out of rows.
+ */
+@Component
+@Slf4j
+public class AuditArchive {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> STATE_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Map<String, Object>>> PATCH_TYPE = new TypeReference<>() {
+    };
+
+    private static final Comparator<AuditSegmentRow> NEWEST_FIRST = Comparator
+            .comparing(AuditSegmentRow::createdAt)
+            .thenComparingLong(AuditSegmentRow::id)
+            .reversed();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final NavigableMap<YearMonth, AuditSegment> segments =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+    public AuditArchive(
+            @Value("${audit.archive.enabled:false}") boolean enabled,
+            @Value("${audit.archive.directory:./audit-archive}") String directory
+    ) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Map the segments already on disk
+     */
+    @PostConstruct
+    void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                YearMonth month = segmentMonth(file);
+                if (month == null) {
+                    continue;
+                }
+                try {
+                    segments.put(month, AuditSegment.open(file));
+                } catch (IOException e) {
+                    log.error("Skipping unreadable audit segment {}", file, e);
+                }
+            }
+        }
+        log.info("Loaded {} audit archive segments from {}", segments.size(), directory);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    Path segmentPath(String partition) {
+        return directory.resolve(partition + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Make a newly written segment queryable
+     */
+    void register(YearMonth month, AuditSegment segment) {
+        segments.put(month, segment);
+    }
+
+    List<YearMonth> months() {
+        return List.copyOf(segments.keySet());
+    }
+
+    /**
+     * Stop serving a month and delete its segment file
+     */
+    void remove(YearMonth month) throws IOException {
+        AuditSegment segment = segments.remove(month);
+        if (segment != null) {
+            // Readers holding the mapping keep working; the file is gone once they drop it
+            Files.deleteIfExists(segment.path());
+        }
+    }
+
+    /**
+     * Archived history of one resource, older than the (createdAt, id) position
+     */
+    public List<AuditLogSummary> findResourceHistory(
+            String resourceType, UUID resourceId, Instant createdAt, Long id, int limit) {
+        return newest(createdAt, id, limit,
+                block -> block.mayContainResource(resourceId),
+                row -> row.resourceId().equals(resourceId) && row.resourceType().equals(resourceType))
+                .stream().map(AuditArchive::toSummary).toList();
+    }
+
+    /**
+     * Archived actions of one user, older than the (createdAt, id) position
+     */
+    public List<AuditLogSummary> findActorHistory(UUID actorUserId, Instant createdAt, Long id, int limit) {
+        return newest(createdAt, id, limit,
+                block -> true,
+                row -> actorUserId.equals(row.actorUserId()))
+                .stream().map(AuditArchive::toSummary).toList();
+    }
+
+    /**
+     * Archived entries in [from, to), older than the (createdAt, id) position
+     */
+    public List<AuditLogSummary> findWindow(Instant from, Instant to, Instant createdAt, Long id, int limit) {
+        return newest(createdAt, id, limit,
+                block -> block.overlaps(from, to),
+                row -> !row.createdAt().isBefore(from) && row.createdAt().isBefore(to))
+                .stream().map(AuditArchive::toSummary).toList();
+    }
+
+    public Optional<AuditLog> findById(Long id) {
+        List<AuditSegmentRow> found = new ArrayList<>(1);
+        for (AuditSegment segment : segments.values()) {
+            scan(segment, block -> block.mayContainId(id), row -> row.id() == id, true, found);
+            if (!found.isEmpty()) {
+                return Optional.of(toEntity(found.get(0)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Latest archived checkpoint of a resource at or before the (createdAt, id) position
+     */
+    public Optional<AuditLog> findLatestCheckpoint(String resourceType, UUID resourceId, Instant createdAt, Long id) {
+        // The keyset is exclusive, so step just past the position to include it
+        List<AuditSegmentRow> rows = newest(createdAt, id + 1, 1,
+                block -> block.mayContainResource(resourceId),
+                row -> row.checkpoint() && row.resourceId().equals(resourceId)
+                        && row.resourceType().equals(resourceType));
+        return rows.stream().findFirst().map(row -> toEntity(stateOf(row)));
+    }
+
+    /**
+     * Archived patches of a resource after the checkpoint position up to and including
+     * the target position, oldest first
+     */
+    public List<AuditLog> findPatchesBetween(String resourceType, UUID resourceId,
+                                             Instant fromCreatedAt, Long fromId, Instant toCreatedAt, Long toId) {
+        List<AuditSegmentRow> rows = new ArrayList<>();
+        for (AuditSegment segment : segments.descendingMap().values()) {
+            scan(segment,
+                    block -> block.mayContainResource(resourceId)
+                            && block.maxCreatedAtMicros() >= AuditSegment.toMicros(fromCreatedAt),
+                    row -> !row.checkpoint()
+                            && row.resourceId().equals(resourceId) && row.resourceType().equals(resourceType)
+                            && !row.isBefore(fromCreatedAt, fromId + 1) && row.isBefore(toCreatedAt, toId + 1),
+                    true, rows);
+        }
+        return rows.stream()
+                .filter(row -> row.patch() != null)
+                .sorted(NEWEST_FIRST.reversed())
+                .map(AuditArchive::toEntity)
+                .toList();
+    }
+
+    /**
+     * Newest {@code limit} rows older than the position, walking segments newest first
+     * and stopping once a whole segment has been read with the page already full
+     */
+    private List<AuditSegmentRow> newest(Instant createdAt, Long id, int limit,
+                                         Predicate<AuditSegment.BlockIndex> blockFilter,
+                                         Predicate<AuditSegmentRow> rowFilter) {
+        PriorityQueue<AuditSegmentRow> page = new PriorityQueue<>(NEWEST_FIRST.reversed());
+        for (Map.Entry<YearMonth, AuditSegment> entry : segments.entrySet()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (monthStart(entry.getKey()).isAfter(createdAt)) {
+                continue;
+            }
+            try {
+                entry.getValue().scan(
+                        block -> blockFilter.test(block)
+                                && block.minCreatedAtMicros() <= AuditSegment.toMicros(createdAt),
+                        row -> rowFilter.test(row) && row.isBefore(createdAt, id),
+                        false,
+                        row -> {
+                            page.add(row);
+                            if (page.size() > limit) {
+                                page.poll();
+                            }
+                        });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        List<AuditSegmentRow> rows = new ArrayList<>(page);
+        rows.sort(NEWEST_FIRST);
+        return rows;
+    }
+
+    /**
+     * Re-read one row with its JSON columns
+     */
+    private AuditSegmentRow stateOf(AuditSegmentRow row) {
+        AuditSegment segment = segments.get(YearMonth.from(row.createdAt().atZone(ZoneOffset.UTC)));
+        List<AuditSegmentRow> found = new ArrayList<>(1);
+        scan(segment, block -> block.mayContainId(row.id()) && block.mayContainResource(row.resourceId()),
+                candidate -> candidate.id() == row.id(), true, found);
+        return found.get(0);
+    }
+
+    private static void scan(AuditSegment segment, Predicate<AuditSegment.BlockIndex> blockFilter,
+                             Predicate<AuditSegmentRow> rowFilter, boolean withStates, List<AuditSegmentRow> into) {
+        try {
+            segment.scan(blockFilter, rowFilter, withStates, into::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static AuditLogSummary toSummary(AuditSegmentRow row) {
+        return new AuditLogSummary(row.id(), row.actorUserId(), row.action(), row.resourceType(),
+                row.resourceId(), row.createdAt());
+    }
+
+    private static AuditLog toEntity(AuditSegmentRow row) {
+        return AuditLog.builder()
+                .id(row.id())
+                .actorUserId(row.actorUserId())
+                .action(row.action())
+                .resourceType(row.resourceType())
+                .resourceId(row.resourceId())
+                .beforeState(parse(row.beforeState(), STATE_TYPE))
+                .afterState(parse(row.afterState(), STATE_TYPE))
+                .patch(parse(row.patch(), PATCH_TYPE))
+                .checkpoint(row.checkpoint())
+                .createdAt(row.createdAt())
+                .build();
+    }
+
+    private static <T> T parse(String json, TypeReference<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt JSON in archived audit entry", e);
+        }
+    }
+
+    private static Instant monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    static YearMonth segmentMonth(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        return AuditPartitionService.partitionMonth(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
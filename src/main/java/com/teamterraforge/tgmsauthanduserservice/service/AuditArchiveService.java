@@ -0,0 +1,190 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves old audit_log partitions out of PostgreSQL into compressed columnar segment
+ * files (see {@link AuditSegmentWriter}) and expires segments past retention.
+ * A partition is dropped only after its segment has been synced, re-opened and found
+ * to hold every row of the partition, and the segment is served only once the partition
+ * is gone; if the drop fails the segment file is deleted and the next run starts over.
+ */
+@Service
+@Slf4j
+public class AuditArchiveService {
+
+    // Archive order doubles as the segment's sparse index order
+    private static final String ARCHIVE_SQL = """
+            SELECT id, actor_user_id, action, resource_type, resource_id, created_at, checkpoint,
+                   before_state::text, after_state::text, patch::text
+            FROM %s
+            ORDER BY resource_id, created_at, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditPartitionService partitionService;
+    private final AuditArchive archive;
+
+    @Value("${audit.archive.after-months:3}")
+    private int afterMonths;
+
+    @Value("${audit.partitions.retention-months:13}")
+    private int retentionMonths;
+
+    @Value("${audit.archive.fetch-size:5000}")
+    private int fetchSize;
+
+    public AuditArchiveService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               AuditPartitionService partitionService, AuditArchive archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Read-write so the copy comes from the primary, never a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionService = partitionService;
+        this.archive = archive;
+    }
+
+    /**
+     * Daily archival, scheduled ahead of partition retention
+     */
+    @Scheduled(cron = "${audit.archive.cron:0 0 1 * * *}", zone = "UTC")
+    public void archive() {
+        if (!archive.isEnabled()) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        archivePartitions(today);
+        dropExpiredSegments(today);
+    }
+
+    /**
+     * Archive every partition whose whole month is older than the archive cutoff
+     *
+     * @return names of archived partitions
+     */
+    List<String> archivePartitions(LocalDate today) {
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(afterMonths - 1L);
+        List<String> archived = new ArrayList<>();
+
+        for (String partition : partitionService.listPartitions()) {
+            YearMonth month = AuditPartitionService.partitionMonth(partition);
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+            try {
+                archivePartition(partition, month);
+                archived.add(partition);
+            } catch (IOException | RuntimeException e) {
+                // Leave the partition in place; the next run retries it
+                log.error("Failed to archive audit partition {}", partition, e);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Delete segments whose month is older than the retention window
+     */
+    List<YearMonth> dropExpiredSegments(LocalDate today) {
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(retentionMonths - 1L);
+        List<YearMonth> dropped = new ArrayList<>();
+        for (YearMonth month : archive.months()) {
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+            try {
+                archive.remove(month);
+                dropped.add(month);
+                log.info("Deleted expired audit segment for {} (retention {} months)", month, retentionMonths);
+            } catch (IOException e) {
+                log.error("Failed to delete audit segment for {}", month, e);
+            }
+        }
+        return dropped;
+    }
+
+    private void archivePartition(String partition, YearMonth month) throws IOException {
+        long started = System.nanoTime();
+        long expected = jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition, Long.class);
+
+        Path segmentPath = archive.segmentPath(partition);
+        long written;
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(segmentPath)) {
+            streamRows(partition, writer);
+            written = writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        AuditSegment segment = AuditSegment.open(segmentPath);
+        try {
+            if (written != expected || segment.rowCount() != expected) {
+                throw new IllegalStateException("Audit segment for " + partition + " holds " + segment.rowCount()
+                        + " rows, partition has " + expected);
+            }
+            // Serve the month from the segment only once the partition is gone, never from both
+            partitionService.detachAndDrop(partition);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(segmentPath);
+            throw e;
+        }
+        archive.register(month, segment);
+
+        log.info("Archived audit partition {}: {} rows in {} ms", partition, expected,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void streamRows(String partition, AuditSegmentWriter writer) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            ARCHIVE_SQL.formatted(partition), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> {
+                    try {
+                        writer.append(toRow(resultSet));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+    }
+
+    private static AuditSegmentRow toRow(ResultSet resultSet) throws SQLException {
+        Timestamp createdAt = resultSet.getTimestamp("created_at");
+        return new AuditSegmentRow(
+                resultSet.getLong("id"),
+                resultSet.getObject("actor_user_id", UUID.class),
+                resultSet.getString("action"),
+                resultSet.getString("resource_type"),
+                resultSet.getObject("resource_id", UUID.class),
+                createdAt.toInstant(),
+                resultSet.getBoolean("checkpoint"),
+                resultSet.getString("before_state"),
+                resultSet.getString("after_state"),
+                resultSet.getString("patch"));
+    }
+}
@@ -0,0 +1,225 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Computes and applies field-level JSON patches (RFC 6902 add/remove/replace) between
+ * audit states, and decides which audit entries store a full checkpoint instead.
+ * <p>
+ * A resource's state at any entry is its latest checkpoint with every later patch
+ * applied in (createdAt, id) order. Checkpoints are written for the first event of a
+ * resource this instance has seen, every {@code checkpoint-interval} state changes,
+ * and when the last one is older than {@code checkpoint-max-age}, so reconstruction
+ * never replays a long chain and survives restarts and partition retention.
+ */
+@Component
+public class AuditDiffEngine {
+
+    static final String OP_ADD = "add";
+    static final String OP_REMOVE = "remove";
+    static final String OP_REPLACE = "replace";
+
+    private final int checkpointInterval;
+    private final Duration checkpointMaxAge;
+    private final Map<ResourceKey, Tracked> tracked;
+
+    public AuditDiffEngine(
+            @Value("${audit.diff.checkpoint-interval:20}") int checkpointInterval,
+            @Value("${audit.diff.checkpoint-max-age-days:30}") int checkpointMaxAgeDays,
+            @Value("${audit.diff.tracked-resources:10000}") int trackedResources
+    ) {
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointMaxAge = Duration.ofDays(checkpointMaxAgeDays);
+        // Access-ordered LRU: resources falling out simply get a checkpoint next time
+        this.tracked = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ResourceKey, Tracked> eldest) {
+                return size() > trackedResources;
+            }
+        };
+    }
+
+    /**
+     * What to store for one audit event
+     *
+     * @param checkpoint true if {@code state} is the full state after the event
+     * @param state      full state after the event, for checkpoints; null if the resource was deleted
+     * @param patch      changes from the previous state, for non-checkpoint state changes
+     */
+    record Compacted(boolean checkpoint, Map<String, Object> state, List<Map<String, Object>> patch) {
+
+        static final Compacted NO_STATE_CHANGE = new Compacted(false, null, null);
+    }
+
+    /**
+     * Reduce an event's before/after snapshots to a checkpoint or a patch
+     */
+    Compacted compact(AuditEvent event) {
+        if (event.beforeState() == null && event.afterState() == null) {
+            return Compacted.NO_STATE_CHANGE;
+        }
+        ResourceKey key = new ResourceKey(event.resourceType(), event.resourceId());
+
+        synchronized (tracked) {
+            if (event.afterState() == null) {
+                tracked.remove(key);
+                return new Compacted(true, null, null);
+            }
+            Tracked last = tracked.get(key);
+            if (event.beforeState() == null || last == null
+                    || last.changesSinceCheckpoint() + 1 >= checkpointInterval
+                    || last.checkpointAt().plus(checkpointMaxAge).isBefore(event.occurredAt())) {
+                tracked.put(key, new Tracked(0, event.occurredAt()));
+                return new Compacted(true, event.afterState(), null);
+            }
+            tracked.put(key, new Tracked(last.changesSinceCheckpoint() + 1, last.checkpointAt()));
+        }
+        return new Compacted(false, null, diff(event.beforeState(), event.afterState()));
+    }
+
+    /**
+     * Stop tracking the resources of events that were not persisted, so their next
+     * event writes a checkpoint instead of a patch against a missing base
+     */
+    void forget(List<AuditEvent> events) {
+        synchronized (tracked) {
+            for (AuditEvent event : events) {
+                tracked.remove(new ResourceKey(event.resourceType(), event.resourceId()));
+            }
+        }
+    }
+
+    /**
+     * Minimal patch turning {@code before} into {@code after}.
+     * Nested objects are diffed field by field; arrays and scalars are replaced whole.
+     */
+    List<Map<String, Object>> diff(Map<String, Object> before, Map<String, Object> after) {
+        List<Map<String, Object>> patch = new ArrayList<>();
+        diff("", before, after, patch);
+        return patch;
+    }
+
+    /**
+     * Apply a patch to a copy of {@code state}
+     *
+     * @throws IllegalStateException if the patch does not fit the state
+     */
+    Map<String, Object> apply(Map<String, Object> state, List<Map<String, Object>> patch) {
+        Map<String, Object> result = deepCopy(state);
+        for (Map<String, Object> operation : patch) {
+            String op = (String) operation.get("op");
+            List<String> path = parsePointer((String) operation.get("path"));
+            Map<String, Object> parent = navigate(result, path);
+            String field = path.get(path.size() - 1);
+
+            switch (op) {
+                case OP_ADD, OP_REPLACE -> parent.put(field, copyValue(operation.get("value")));
+                case OP_REMOVE -> {
+                    if (!parent.containsKey(field)) {
+                        throw new IllegalStateException("Cannot remove missing field " + operation.get("path"));
+                    }
+                    parent.remove(field);
+                }
+                default -> throw new IllegalStateException("Unsupported patch operation: " + op);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void diff(String pointer, Map<String, Object> before, Map<String, Object> after,
+                             List<Map<String, Object>> patch) {
+        for (Map.Entry<String, Object> entry : before.entrySet()) {
+            String path = pointer + "/" + escape(entry.getKey());
+            if (!after.containsKey(entry.getKey())) {
+                patch.add(operation(OP_REMOVE, path, null));
+                continue;
+            }
+            Object oldValue = entry.getValue();
+            Object newValue = after.get(entry.getKey());
+            if (oldValue instanceof Map && newValue instanceof Map) {
+                diff(path, (Map<String, Object>) oldValue, (Map<String, Object>) newValue, patch);
+            } else if (!Objects.equals(oldValue, newValue)) {
+                patch.add(operation(OP_REPLACE, path, newValue));
+            }
+        }
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            if (!before.containsKey(entry.getKey())) {
+                patch.add(operation(OP_ADD, pointer + "/" + escape(entry.getKey()), entry.getValue()));
+            }
+        }
+    }
+
+    private static Map<String, Object> operation(String op, String path, Object value) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("op", op);
+        operation.put("path", path);
+        if (!OP_REMOVE.equals(op)) {
+            operation.put("value", copyValue(value));
+        }
+        return operation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> navigate(Map<String, Object> root, List<String> path) {
+        Map<String, Object> current = root;
+        for (String field : path.subList(0, path.size() - 1)) {
+            if (!(current.get(field) instanceof Map)) {
+                throw new IllegalStateException("Patch path does not match state at field " + field);
+            }
+            current = (Map<String, Object>) current.get(field);
+        }
+        return current;
+    }
+
+    private static List<String> parsePointer(String pointer) {
+        if (pointer == null || !pointer.startsWith("/")) {
+            throw new IllegalStateException("Unsupported patch path: " + pointer);
+        }
+        List<String> fields = new ArrayList<>();
+        for (String token : pointer.substring(1).split("/", -1)) {
+            fields.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return fields;
+    }
+
+    private static String escape(String field) {
+        return field.replace("~", "~0").replace("/", "~1");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deepCopy(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> copy.put(key, copyValue(value)));
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            return deepCopy((Map<String, Object>) value);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(copyValue(item)));
+            return copy;
+        }
+        return value;
+    }
+
+    private record ResourceKey(String resourceType, UUID resourceId) {
+    }
+
+    private record Tracked(int changesSinceCheckpoint, Instant checkpointAt) {
+    }
+}
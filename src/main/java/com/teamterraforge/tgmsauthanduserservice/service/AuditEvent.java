@@ -0,0 +1,21 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One audit log entry waiting to be written
+ */
+public record AuditEvent(
+        UUID actorUserId,
+        AuditAction action,
+        String resourceType,
+        UUID resourceId,
+        Map<String, Object> beforeState,
+        Map<String, Object> afterState,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,199 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import com.teamterraforge.tgmsauthanduserservice.repository.AuditLogRepository;
+import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes audit events to audit_log with JDBC insert batching.
+ * Buffered events go through a bounded in-memory queue drained by a single background
+ * thread; when the queue is full new events are dropped and counted rather than
+ * blocking the request thread, and their resources get a checkpoint on the next event.
+ * State changes are stored as patches or periodic checkpoints chosen by {@link AuditDiffEngine}.
+ */
+@Service
+@Slf4j
+public class AuditLogWriter {
+
+    private final AuditLogRepository auditLogRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditDiffEngine diffEngine;
+    private final BlockingQueue<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditLogWriter(
+            AuditLogRepository auditLogRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            AuditDiffEngine diffEngine,
+            MeterRegistry meterRegistry,
+            @Value("${audit.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${audit.batch-size:500}") int batchSize,
+            @Value("${audit.flush-interval-ms:200}") long flushIntervalMs
+    ) {
+        this.auditLogRepository = auditLogRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.diffEngine = diffEngine;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        this.writtenCounter = meterRegistry.counter("audit.events.written");
+        this.droppedCounter = meterRegistry.counter("audit.events.dropped");
+        this.failedCounter = meterRegistry.counter("audit.events.failed");
+        this.flushTimer = Timer.builder("audit.flush.latency")
+                .description("Time to write one batch of audit events")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.backlog", buffer, BlockingQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.capacity", () -> bufferCapacity)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(Math.max(flushIntervalMs * 10, 5_000));
+        if (!buffer.isEmpty()) {
+            log.warn("Audit writer stopped with {} events still buffered", buffer.size());
+        }
+    }
+
+    /**
+     * Queue an event for the background writer
+     *
+     * @return false if the buffer was full and the event was dropped
+     */
+    public boolean enqueue(AuditEvent event) {
+        if (buffer.offer(event)) {
+            return true;
+        }
+        // The chain is now missing this change, so the resource's next event must checkpoint
+        diffEngine.forget(List.of(event));
+        droppedCounter.increment();
+        log.warn("Audit buffer full, dropped {} event for resource {}", event.action(), event.resourceId());
+        return false;
+    }
+
+    /**
+     * Write events immediately, joining the caller's transaction if there is one.
+     * Inserts are batched through the pooled audit_log sequence.
+     */
+    public void write(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<AuditEvent> written = List.copyOf(events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        diffEngine.forget(written);
+                    }
+                }
+            });
+        }
+        auditLogRepository.saveAll(toEntities(events));
+        writtenCounter.increment(events.size());
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                flushBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushBatch(List<AuditEvent> batch) {
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch)));
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write batch of {} audit events", batch.size(), e);
+        }
+    }
+
+    /**
+     * Map events to entities, clearing actors that have been deleted in the meantime
+     * so one late event does not fail the whole batch on the foreign key
+     */
+    private List<AuditLog> toEntities(List<AuditEvent> events) {
+        Set<UUID> actorIds = new HashSet<>();
+        for (AuditEvent event : events) {
+            if (event.actorUserId() != null) {
+                actorIds.add(event.actorUserId());
+            }
+        }
+        Set<UUID> existingActors = actorIds.isEmpty() ? Set.of() : userRepository.findExistingIds(actorIds);
+
+        List<AuditLog> entities = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            AuditDiffEngine.Compacted compacted = diffEngine.compact(event);
+            entities.add(AuditLog.builder()
+                    .actorUserId(existingActors.contains(event.actorUserId()) ? event.actorUserId() : null)
+                    .action(event.action().name())
+                    .resourceType(event.resourceType())
+                    .resourceId(event.resourceId())
+                    .afterState(compacted.state())
+                    .patch(compacted.patch())
+                    .checkpoint(compacted.checkpoint())
+                    .createdAt(event.occurredAt())
+                    .build());
+        }
+        return entities;
+    }
+}
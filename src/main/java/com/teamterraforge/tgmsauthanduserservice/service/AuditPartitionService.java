@@ -0,0 +1,123 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly audit_log partitions.
+ * Creates partitions ahead of time so inserts never miss one, and enforces retention
+ * by detaching and dropping whole expired months instead of deleting rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditPartitionService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("audit_log_y(\\d{4})m(\\d{2})");
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'audit_log'::regclass
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.partitions.premake-months:3}")
+    private int premakeMonths;
+
+    @Value("${audit.partitions.retention-months:13}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createFuturePartitions(today());
+    }
+
+    /**
+     * Daily partition maintenance
+     */
+    @Scheduled(cron = "${audit.partitions.maintenance-cron:0 30 1 * * *}", zone = "UTC")
+    public void maintain() {
+        LocalDate today = today();
+        createFuturePartitions(today);
+        dropExpiredPartitions(today);
+    }
+
+    /**
+     * Ensure partitions exist for the current month and the configured months ahead
+     */
+    void createFuturePartitions(LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        for (int i = 0; i <= premakeMonths; i++) {
+            LocalDate monthStart = current.plusMonths(i).atDay(1);
+            jdbcTemplate.queryForObject("SELECT create_audit_log_partition(?)", String.class, Date.valueOf(monthStart));
+        }
+    }
+
+    /**
+     * Detach and drop partitions whose whole month is older than the retention window
+     *
+     * @return names of dropped partitions
+     */
+    List<String> dropExpiredPartitions(LocalDate today) {
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(retentionMonths - 1L);
+        List<String> dropped = new ArrayList<>();
+
+        for (String partition : listPartitions()) {
+            YearMonth month = partitionMonth(partition);
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+            log.info("Dropping expired audit partition {} (retention {} months)", partition, retentionMonths);
+            detachAndDrop(partition);
+            dropped.add(partition);
+        }
+        return dropped;
+    }
+
+    /**
+     * Names of the current audit_log partitions, oldest first
+     */
+    List<String> listPartitions() {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+    }
+
+    /**
+     * Remove one partition and its rows from audit_log
+     */
+    void detachAndDrop(String partition) {
+        // CONCURRENTLY only takes SHARE UPDATE EXCLUSIVE on audit_log, so writers are not blocked
+        jdbcTemplate.execute("ALTER TABLE audit_log DETACH PARTITION " + partition + " CONCURRENTLY");
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    static YearMonth partitionMonth(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
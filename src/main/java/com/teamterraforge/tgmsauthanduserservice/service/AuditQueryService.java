@@ -0,0 +1,218 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary;
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditStateResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import com.teamterraforge.tgmsauthanduserservice.repository.AuditLogRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Service for reading audit history.
+ * Pages are fetched newest first with a (createdAt, id) keyset cursor, continuing into
+ * the segment archive once the database has no older rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditQueryService {
+
+    // Start position for the first page: later than any stored entry
+    private static final Instant FIRST_PAGE_CREATED_AT = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditDiffEngine diffEngine;
+    private final AuditArchive archive;
+
+    @Value("${audit.query.max-limit:100}")
+    private int maxLimit;
+
+    /**
+     * Audit history of one resource
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuditLogSummary> getResourceHistory(
+            String resourceType, UUID resourceId, int limit, String cursor) {
+        log.debug("Fetching audit history for {} {}", resourceType, resourceId);
+        return page(limit, cursor,
+                position -> auditLogRepository.findResourceHistory(
+                        resourceType, resourceId, position.createdAt(), position.id(), Limit.of(pageSize(limit) + 1)),
+                (position, remaining) -> archive.findResourceHistory(
+                        resourceType, resourceId, position.createdAt(), position.id(), remaining));
+    }
+
+    /**
+     * Actions performed by one user
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuditLogSummary> getActorHistory(UUID actorUserId, int limit, String cursor) {
+        log.debug("Fetching audit history for actor {}", actorUserId);
+        return page(limit, cursor,
+                position -> auditLogRepository.findActorHistory(
+                        actorUserId, position.createdAt(), position.id(), Limit.of(pageSize(limit) + 1)),
+                (position, remaining) -> archive.findActorHistory(
+                        actorUserId, position.createdAt(), position.id(), remaining));
+    }
+
+    /**
+     * All audit entries in the half-open window [from, to)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuditLogSummary> getWindow(Instant from, Instant to, int limit, String cursor) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        log.debug("Fetching audit entries from {} to {}", from, to);
+        return page(limit, cursor,
+                position -> auditLogRepository.findWindow(
+                        from, to, position.createdAt(), position.id(), Limit.of(pageSize(limit) + 1)),
+                (position, remaining) -> archive.findWindow(
+                        from, to, position.createdAt(), position.id(), remaining));
+    }
+
+    /**
+     * Full audit entry as stored: a checkpoint state or a patch
+     */
+    @Transactional(readOnly = true)
+    public AuditLogResponse getEntry(Long id) {
+        AuditLog entry = findEntry(id);
+
+        return AuditLogResponse.builder()
+                .id(entry.getId())
+                .actorUserId(entry.getActorUserId())
+                .action(entry.getAction())
+                .resourceType(entry.getResourceType())
+                .resourceId(entry.getResourceId())
+                .beforeState(entry.getBeforeState())
+                .afterState(entry.getAfterState())
+                .patch(entry.getPatch())
+                .checkpoint(entry.isCheckpoint())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * State of the entry's resource right after the entry, rebuilt from the latest
+     * checkpoint at or before it plus the patches in between
+     */
+    @Transactional(readOnly = true)
+    public AuditStateResponse getStateAt(Long id) {
+        AuditLog entry = findEntry(id);
+        AuditLog checkpoint = auditLogRepository.findLatestCheckpoint(
+                        entry.getResourceType(), entry.getResourceId(), entry.getCreatedAt(), entry.getId(), Limit.of(1))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        boolean archivedCheckpoint = checkpoint == null;
+        if (archivedCheckpoint) {
+            checkpoint = archive.findLatestCheckpoint(
+                            entry.getResourceType(), entry.getResourceId(), entry.getCreatedAt(), entry.getId())
+                    .orElseThrow(() -> new EntityNotFoundException(
+                            "No retained checkpoint to reconstruct audit entry " + id));
+        }
+
+        // Archived months are older than the database, so archived patches come first
+        List<AuditLog> patches = new ArrayList<>();
+        if (archivedCheckpoint) {
+            patches.addAll(archive.findPatchesBetween(entry.getResourceType(), entry.getResourceId(),
+                    checkpoint.getCreatedAt(), checkpoint.getId(), entry.getCreatedAt(), entry.getId()));
+        }
+        patches.addAll(auditLogRepository.findPatchesBetween(
+                entry.getResourceType(), entry.getResourceId(),
+                checkpoint.getCreatedAt(), checkpoint.getId(), entry.getCreatedAt(), entry.getId()));
+
+        Map<String, Object> state = checkpoint.getAfterState();
+        for (AuditLog patch : patches) {
+            if (state == null) {
+                throw new IllegalStateException("Audit entry " + patch.getId() + " patches a deleted resource");
+            }
+            state = diffEngine.apply(state, patch.getPatch());
+        }
+        log.debug("Reconstructed state at audit entry {} from checkpoint {} and {} patches",
+                id, checkpoint.getId(), patches.size());
+
+        return AuditStateResponse.builder()
+                .auditId(entry.getId())
+                .resourceType(entry.getResourceType())
+                .resourceId(entry.getResourceId())
+                .asOf(entry.getCreatedAt())
+                .state(state)
+                .checkpointId(checkpoint.getId())
+                .patchesApplied(patches.size())
+                .build();
+    }
+
+    private AuditLog findEntry(Long id) {
+        return auditLogRepository.findById(id)
+                .or(() -> archive.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Audit entry not found with ID: " + id));
+    }
+
+    private CursorPageResponse<AuditLogSummary> page(
+            int limit, String cursor, Function<Position, List<AuditLogSummary>> query,
+            BiFunction<Position, Integer, List<AuditLogSummary>> archiveQuery) {
+        int pageSize = pageSize(limit);
+        Position position = decode(cursor);
+        List<AuditLogSummary> rows = new ArrayList<>(query.apply(position));
+        if (rows.size() <= pageSize) {
+            if (!rows.isEmpty()) {
+                AuditLogSummary last = rows.get(rows.size() - 1);
+                position = new Position(last.getCreatedAt(), last.getId());
+            }
+            rows.addAll(archiveQuery.apply(position, pageSize + 1 - rows.size()));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<AuditLogSummary> content = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            AuditLogSummary last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorPageResponse.<AuditLogSummary>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    private static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Position(FIRST_PAGE_CREATED_AT, Long.MAX_VALUE);
+        }
+        String[] parts = CursorCodec.decode(cursor, 2);
+        try {
+            return new Position(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Position(Instant createdAt, Long id) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped view of one audit archive segment written by
+ * {@link AuditSegmentWriter}. The sparse block index is loaded on open; blocks are
+ * inflated straight from the mapping, and only the columns a query needs.
+ */
+final class AuditSegment {
+
+    static final int MAGIC = 0x54474153; // "TGAS"
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+
+    static final int COL_ID = 0;
+    static final int COL_CREATED_AT = 1;
+    static final int COL_ACTOR = 2;
+    static final int COL_ACTION = 3;
+    static final int COL_RESOURCE_TYPE = 4;
+    static final int COL_RESOURCE_ID = 5;
+    static final int COL_CHECKPOINT = 6;
+    static final int COL_BEFORE_STATE = 7;
+    static final int COL_AFTER_STATE = 8;
+    static final int COL_PATCH = 9;
+    static final int COLUMNS = 10;
+
+    // indexOffset (long) + rowCount (long) + magic (int)
+    private static final int FOOTER_BYTES = 20;
+
+    private final Path path;
+    private final MappedByteBuffer mapping;
+    private final List<BlockIndex> blocks;
+    private final long rowCount;
+
+    private AuditSegment(Path path, MappedByteBuffer mapping, List<BlockIndex> blocks, long rowCount) {
+        this.path = path;
+        this.mapping = mapping;
+        this.blocks = blocks;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Map a segment file and load its index
+     *
+     * @throws IOException if the file is not a complete segment
+     */
+    static AuditSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a valid audit segment: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapping.getInt(0) != MAGIC || mapping.getInt(4) != VERSION
+                    || mapping.getInt((int) size - 4) != MAGIC) {
+                throw new IOException("Not a valid audit segment: " + path);
+            }
+            long indexOffset = mapping.getLong((int) size - FOOTER_BYTES);
+            long rowCount = mapping.getLong((int) size - FOOTER_BYTES + 8);
+
+            ByteBuffer indexBuffer = mapping.slice((int) indexOffset, (int) (size - FOOTER_BYTES - indexOffset));
+            int blockCount = indexBuffer.getInt();
+            List<BlockIndex> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(BlockIndex.readFrom(indexBuffer));
+            }
+            return new AuditSegment(path, mapping, List.copyOf(blocks), rowCount);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Visit rows of the blocks accepted by {@code blockFilter} that match {@code rowFilter}.
+     * Rows passed to {@code rowFilter} carry no JSON columns; matching rows have them
+     * filled in only if {@code withStates} is set.
+     */
+    void scan(Predicate<BlockIndex> blockFilter, Predicate<AuditSegmentRow> rowFilter, boolean withStates,
+              Consumer<AuditSegmentRow> consumer) throws IOException {
+        for (BlockIndex block : blocks) {
+            if (blockFilter.test(block)) {
+                scanBlock(block, rowFilter, withStates, consumer);
+            }
+        }
+    }
+
+    private void scanBlock(BlockIndex block, Predicate<AuditSegmentRow> rowFilter, boolean withStates,
+                           Consumer<AuditSegmentRow> consumer) throws IOException {
+        DataInputStream ids = column(block, COL_ID);
+        DataInputStream createdAts = column(block, COL_CREATED_AT);
+        DataInputStream actors = column(block, COL_ACTOR);
+        DataInputStream actions = column(block, COL_ACTION);
+        DataInputStream resourceTypes = column(block, COL_RESOURCE_TYPE);
+        DataInputStream resourceIds = column(block, COL_RESOURCE_ID);
+        DataInputStream checkpoints = column(block, COL_CHECKPOINT);
+
+        long id = 0;
+        long createdAt = 0;
+        List<Integer> matches = new ArrayList<>();
+        List<AuditSegmentRow> matched = new ArrayList<>();
+        for (int i = 0; i < block.rowCount(); i++) {
+            id += ids.readLong();
+            createdAt += createdAts.readLong();
+            AuditSegmentRow row = new AuditSegmentRow(id, readUuid(actors), actions.readUTF(),
+                    resourceTypes.readUTF(), readUuid(resourceIds), fromMicros(createdAt),
+                    checkpoints.readBoolean(), null, null, null);
+            if (rowFilter.test(row)) {
+                matches.add(i);
+                matched.add(row);
+            }
+        }
+        if (matched.isEmpty()) {
+            return;
+        }
+        if (!withStates) {
+            matched.forEach(consumer);
+            return;
+        }
+
+        String[] before = readTexts(block, COL_BEFORE_STATE);
+        String[] after = readTexts(block, COL_AFTER_STATE);
+        String[] patch = readTexts(block, COL_PATCH);
+        for (int m = 0; m < matched.size(); m++) {
+            AuditSegmentRow row = matched.get(m);
+            int i = matches.get(m);
+            consumer.accept(new AuditSegmentRow(row.id(), row.actorUserId(), row.action(), row.resourceType(),
+                    row.resourceId(), row.createdAt(), row.checkpoint(), before[i], after[i], patch[i]));
+        }
+    }
+
+    private String[] readTexts(BlockIndex block, int column) throws IOException {
+        DataInputStream in = column(block, column);
+        String[] texts = new String[block.rowCount()];
+        for (int i = 0; i < texts.length; i++) {
+            int length = in.readInt();
+            if (length >= 0) {
+                texts[i] = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Inflate one column of a block directly from the mapped file
+     */
+    private DataInputStream column(BlockIndex block, int column) throws IOException {
+        long offset = block.offset();
+        for (int i = 0; i < column; i++) {
+            offset += block.compressedLengths()[i];
+        }
+        ByteBuffer compressed = mapping.slice((int) offset, block.compressedLengths()[column]);
+        byte[] raw = new byte[block.rawLengths()[column]];
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != raw.length) {
+                throw new IOException("Corrupt column " + column + " in audit segment " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column " + column + " in audit segment " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Sparse index entry for one block
+     */
+    record BlockIndex(
+            long offset,
+            int rowCount,
+            UUID firstResourceId,
+            UUID lastResourceId,
+            long minCreatedAtMicros,
+            long maxCreatedAtMicros,
+            long minId,
+            long maxId,
+            int[] compressedLengths,
+            int[] rawLengths
+    ) {
+
+        boolean mayContainResource(UUID resourceId) {
+            return AuditSegmentRow.compareResourceIds(firstResourceId, resourceId) <= 0
+                    && AuditSegmentRow.compareResourceIds(resourceId, lastResourceId) <= 0;
+        }
+
+        boolean mayContainId(long id) {
+            return minId <= id && id <= maxId;
+        }
+
+        /**
+         * True if the block may hold rows in [from, to)
+         */
+        boolean overlaps(Instant from, Instant to) {
+            return maxCreatedAtMicros >= toMicros(from) && minCreatedAtMicros < toMicros(to);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(offset);
+            out.writeInt(rowCount);
+            out.writeLong(firstResourceId.getMostSignificantBits());
+            out.writeLong(firstResourceId.getLeastSignificantBits());
+            out.writeLong(lastResourceId.getMostSignificantBits());
+            out.writeLong(lastResourceId.getLeastSignificantBits());
+            out.writeLong(minCreatedAtMicros);
+            out.writeLong(maxCreatedAtMicros);
+            out.writeLong(minId);
+            out.writeLong(maxId);
+            for (int column = 0; column < COLUMNS; column++) {
+                out.writeInt(compressedLengths[column]);
+                out.writeInt(rawLengths[column]);
+            }
+        }
+
+        static BlockIndex readFrom(ByteBuffer in) {
+            long offset = in.getLong();
+            int rowCount = in.getInt();
+            UUID first = new UUID(in.getLong(), in.getLong());
+            UUID last = new UUID(in.getLong(), in.getLong());
+            long minCreatedAt = in.getLong();
+            long maxCreatedAt = in.getLong();
+            long minId = in.getLong();
+            long maxId = in.getLong();
+            int[] compressedLengths = new int[COLUMNS];
+            int[] rawLengths = new int[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                compressedLengths[column] = in.getInt();
+                rawLengths[column] = in.getInt();
+            }
+            return new BlockIndex(offset, rowCount, first, last, minCreatedAt, maxCreatedAt, minId, maxId,
+                    compressedLengths, rawLengths);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One archived audit_log row. JSON columns are kept as text and only parsed when an
+ * entry's state is requested.
+ */
+record AuditSegmentRow(
+        long id,
+        UUID actorUserId,
+        String action,
+        String resourceType,
+        UUID resourceId,
+        Instant createdAt,
+        boolean checkpoint,
+        String beforeState,
+        String afterState,
+        String patch
+) {
+
+    /**
+     * Archive sort order, matching PostgreSQL's ORDER BY resource_id, created_at, id
+     * (uuids compare as unsigned bytes, unlike UUID.compareTo)
+     */
+    static int compareResourceIds(UUID left, UUID right) {
+        int byHigh = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+
+    /**
+     * True if this row is older than the (createdAt, id) keyset position
+     */
+    boolean isBefore(Instant positionCreatedAt, long positionId) {
+        int byTime = createdAt.compareTo(positionCreatedAt);
+        return byTime < 0 || (byTime == 0 && id < positionId);
+    }
+}
@@ -0,0 +1,210 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an audit archive segment: rows sorted by (resource_id, created_at, id) in
+ * blocks of {@link AuditSegment#BLOCK_ROWS}, each block stored column by column with
+ * every column deflate-compressed on its own. A sparse index at the end of the file
+ * records each block's resource id range, time range and id range.
+ * <p>
+ * The segment is written to a temporary file and moved into place only after
+ * {@link #finish()}, so a crash never leaves a truncated segment behind.
+ */
+final class AuditSegmentWriter implements Closeable {
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final List<AuditSegmentRow> block = new ArrayList<>(AuditSegment.BLOCK_ROWS);
+    private final List<AuditSegment.BlockIndex> index = new ArrayList<>();
+
+    private AuditSegmentRow previous;
+    private long rowCount;
+    private boolean finished;
+
+    AuditSegmentWriter(Path target) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        writeFully(ByteBuffer.allocate(8).putInt(AuditSegment.MAGIC).putInt(AuditSegment.VERSION).flip());
+    }
+
+    /**
+     * Append a row; rows must arrive in archive sort order
+     */
+    void append(AuditSegmentRow row) throws IOException {
+        if (previous != null && compare(previous, row) > 0) {
+            throw new IllegalStateException("Audit rows must be appended in (resource_id, created_at, id) order");
+        }
+        previous = row;
+        block.add(row);
+        rowCount++;
+        if (block.size() == AuditSegment.BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Write the index and footer, sync, and move the segment into place
+     *
+     * @return number of rows written
+     */
+    long finish() throws IOException {
+        flushBlock();
+        long indexOffset = channel.position();
+
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(indexBytes);
+        out.writeInt(index.size());
+        for (AuditSegment.BlockIndex entry : index) {
+            entry.writeTo(out);
+        }
+        out.writeLong(indexOffset);
+        out.writeLong(rowCount);
+        out.writeInt(AuditSegment.MAGIC);
+        out.flush();
+        writeFully(ByteBuffer.wrap(indexBytes.toByteArray()));
+        if (channel.position() > Integer.MAX_VALUE) {
+            throw new IOException("Audit segment exceeds the 2 GiB mapping limit: " + target);
+        }
+
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        long offset = channel.position();
+        int[] compressedLengths = new int[AuditSegment.COLUMNS];
+        int[] rawLengths = new int[AuditSegment.COLUMNS];
+        for (int column = 0; column < AuditSegment.COLUMNS; column++) {
+            byte[] raw = encodeColumn(column);
+            byte[] compressed = deflate(raw);
+            rawLengths[column] = raw.length;
+            compressedLengths[column] = compressed.length;
+            writeFully(ByteBuffer.wrap(compressed));
+        }
+
+        AuditSegmentRow first = block.get(0);
+        AuditSegmentRow last = block.get(block.size() - 1);
+        long minCreatedAt = Long.MAX_VALUE;
+        long maxCreatedAt = Long.MIN_VALUE;
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        for (AuditSegmentRow row : block) {
+            long micros = AuditSegment.toMicros(row.createdAt());
+            minCreatedAt = Math.min(minCreatedAt, micros);
+            maxCreatedAt = Math.max(maxCreatedAt, micros);
+            minId = Math.min(minId, row.id());
+            maxId = Math.max(maxId, row.id());
+        }
+        index.add(new AuditSegment.BlockIndex(offset, block.size(), first.resourceId(), last.resourceId(),
+                minCreatedAt, maxCreatedAt, minId, maxId, compressedLengths, rawLengths));
+        block.clear();
+    }
+
+    private byte[] encodeColumn(int column) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long previousLong = 0;
+        for (AuditSegmentRow row : block) {
+            switch (column) {
+                // ids and timestamps are delta-encoded so deflate sees small repeating values
+                case AuditSegment.COL_ID -> {
+                    out.writeLong(row.id() - previousLong);
+                    previousLong = row.id();
+                }
+                case AuditSegment.COL_CREATED_AT -> {
+                    long micros = AuditSegment.toMicros(row.createdAt());
+                    out.writeLong(micros - previousLong);
+                    previousLong = micros;
+                }
+                case AuditSegment.COL_ACTOR -> writeUuid(out, row.actorUserId());
+                case AuditSegment.COL_ACTION -> out.writeUTF(row.action());
+                case AuditSegment.COL_RESOURCE_TYPE -> out.writeUTF(row.resourceType());
+                case AuditSegment.COL_RESOURCE_ID -> writeUuid(out, row.resourceId());
+                case AuditSegment.COL_CHECKPOINT -> out.writeBoolean(row.checkpoint());
+                case AuditSegment.COL_BEFORE_STATE -> writeText(out, row.beforeState());
+                case AuditSegment.COL_AFTER_STATE -> writeText(out, row.afterState());
+                case AuditSegment.COL_PATCH -> writeText(out, row.patch());
+                default -> throw new IllegalArgumentException("Unknown column " + column);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int compare(AuditSegmentRow left, AuditSegmentRow right) {
+        int byResource = AuditSegmentRow.compareResourceIds(left.resourceId(), right.resourceId());
+        if (byResource != 0) {
+            return byResource;
+        }
+        int byTime = left.createdAt().compareTo(right.createdAt());
+        return byTime != 0 ? byTime : Long.compare(left.id(), right.id());
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service for recording audit events.
+ * With TRANSACTIONAL durability events are inserted inside the caller's transaction;
+ * with BUFFERED durability they are queued after commit and written in batches by
+ * {@link AuditLogWriter}, trading loss on crash or overflow for request latency.
+ */
+@Service
+@Slf4j
+public class AuditService {
+
+    public static final String RESOURCE_USER = "USER";
+
+    /**
+     * How audit events are persisted relative to the business transaction
+     */
+    public enum Durability {
+        TRANSACTIONAL,
+        BUFFERED
+    }
+
+    private final AuditLogWriter auditLogWriter;
+    private final Durability durability;
+
+    public AuditService(
+            AuditLogWriter auditLogWriter,
+            @Value("${audit.durability:BUFFERED}") Durability durability
+    ) {
+        this.auditLogWriter = auditLogWriter;
+        this.durability = durability;
+        log.info("Audit durability: {}", durability);
+    }
+
+    /**
+     * Record an action performed by a user on a resource
+     */
+    public void record(AuditAction action, UUID actorUserId, String resourceType, UUID resourceId,
+                       Map<String, Object> beforeState, Map<String, Object> afterState) {
+        AuditEvent event = new AuditEvent(
+                actorUserId, action, resourceType, resourceId, beforeState, afterState, Instant.now());
+
+        if (durability == Durability.TRANSACTIONAL) {
+            auditLogWriter.write(List.of(event));
+        } else {
+            AfterCommit.run(() -> auditLogWriter.enqueue(event));
+        }
+    }
+
+    /**
+     * Audit-safe view of a user: never includes the password hash
+     */
+    public static Map<String, Object> userSnapshot(User user) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("email", user.getEmail());
+        snapshot.put("name", user.getName());
+        snapshot.put("phone", user.getPhone());
+        snapshot.put("role", user.getRole() != null ? user.getRole().name() : null);
+        return snapshot;
+    }
+}
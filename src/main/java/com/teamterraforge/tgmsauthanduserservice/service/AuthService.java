@@ -5,6 +5,8 @@ import com.teamterraforge.tgmsauthanduserservice.dto.LoginRequest;
 import com.teamterraforge.tgmsauthanduserservice.dto.RegisterRequest;
 import com.teamterraforge.tgmsauthanduserservice.dto.UserResponse;
 import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.OutboxEventType;
 import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
 import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
 import com.teamterraforge.tgmsauthanduserservice.security.JwtService;
@@ -18,6 +20,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+
 /**
  * Service for authentication operations
  */
@@ -30,6 +34,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserStatsService userStatsService;
+    private final AuditService auditService;
+    private final OutboxWriter outboxWriter;
 
     /**
      * Register a new user
@@ -53,6 +60,10 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        userStatsService.recordSignup(user.getRole());
+        auditService.record(AuditAction.USER_REGISTERED, user.getId(), AuditService.RESOURCE_USER, user.getId(),
+                null, AuditService.userSnapshot(user));
+        outboxWriter.userChanged(OutboxEventType.USER_CREATED, user);
         log.info("User registered successfully with ID: {}", user.getId());
 
         // Generate JWT token
@@ -94,8 +105,12 @@ public class AuthService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Update last login
+        Instant previousLogin = user.getLastLogin();
         user.updateLastLogin();
         userRepository.save(user);
+        userStatsService.recordLogin(user.getRole(), previousLogin);
+        auditService.record(AuditAction.USER_LOGIN, user.getId(), AuditService.RESOURCE_USER, user.getId(),
+                null, null);
 
         // Generate JWT token
         String token = jwtService.generateToken(userDetails, user.getId());
@@ -0,0 +1,611 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory inverted index over guide profiles.
+ * <p>
+ * Every guide gets a dense slot number. Each term maps to a postings list of slots,
+ * kept sorted so a query intersects its terms by walking the shortest list and
+ * galloping through the others. Matches are ranked with BM25 over title (counted
+ * twice), bio, languages and area names. Language, currency and verified are kept as
+ * one bitset per value, so filters are a few bitset ANDs; rates sit in a plain array.
+ * Facet counts are taken over the filtered matches, by value ordinal.
+ * <p>
+ * Searches share a read lock; {@link #apply} updates under the write lock.
+ */
+public final class GuideSearchIndex {
+
+    public static final String LANGUAGE_FACET = "language";
+    public static final String CURRENCY_FACET = "currency";
+    public static final String VERIFIED_FACET = "verified";
+    public static final String RATE_FACET = "rate";
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+    private static final BitSet NONE = new BitSet();
+
+    private final double[] rateBounds;
+    private final List<String> rateLabels;
+    private final int maxFacetValues;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet verified = new BitSet();
+    private final FacetField languages = new FacetField();
+    private final FacetField currencies = new FacetField();
+    private Document[] documents = new Document[INITIAL_CAPACITY];
+    private Postings[][] documentTerms = new Postings[INITIAL_CAPACITY][];
+    private int[][] languageOrdinals = new int[INITIAL_CAPACITY][];
+    private int[] currencyOrdinals = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private double[] rates = new double[INITIAL_CAPACITY];
+    private long totalLength;
+
+    /**
+     * @param rateBounds     ascending upper bounds of the rate facet buckets; a last,
+     *                       open-ended bucket holds everything above them
+     * @param maxFacetValues most language and currency values returned per facet
+     */
+    public GuideSearchIndex(List<BigDecimal> rateBounds, int maxFacetValues) {
+        this.rateBounds = rateBounds.stream().mapToDouble(BigDecimal::doubleValue).sorted().toArray();
+        this.rateLabels = rateLabels(rateBounds.stream().sorted().toList());
+        this.maxFacetValues = maxFacetValues;
+    }
+
+    /**
+     * A guide as indexed. The bio is only tokenized, not kept, so hits carry a null bio.
+     */
+    public record Document(
+            UUID guideId,
+            UUID userId,
+            String title,
+            String bio,
+            List<String> languages,
+            List<String> areas,
+            BigDecimal perDayRate,
+            String currencyCode,
+            boolean verified,
+            int profileCompleteScore
+    ) {
+    }
+
+    /**
+     * Search terms and filters. Hits come best first, starting after (afterScore, afterId).
+     */
+    public record Query(
+            String text,
+            String language,
+            String currency,
+            Boolean verified,
+            BigDecimal minRate,
+            BigDecimal maxRate,
+            double afterScore,
+            UUID afterId,
+            int limit
+    ) {
+    }
+
+    /**
+     * A matching guide and its score: BM25 when the query has text, otherwise the
+     * profile completeness score
+     */
+    public record Hit(Document document, double score) {
+    }
+
+    /**
+     * @param total  all guides matching the query and filters, not just this page
+     * @param facets value counts over those guides, per facet name
+     */
+    public record Result(List<Hit> hits, int total, boolean hasMore, Map<String, Map<String, Integer>> facets) {
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace documents and drop removed guides, as one update
+     */
+    public void apply(Collection<Document> upserts, Collection<UUID> removals) {
+        lock.writeLock().lock();
+        try {
+            for (UUID guideId : removals) {
+                Integer slot = slots.remove(guideId);
+                if (slot != null) {
+                    unindex(slot);
+                }
+            }
+            for (Document document : upserts) {
+                Integer slot = slots.get(document.guideId());
+                if (slot != null) {
+                    unindex(slot);
+                } else {
+                    slot = live.nextClearBit(0);
+                    slots.put(document.guideId(), slot);
+                }
+                index(slot, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result search(Query query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query.text())));
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return new Result(List.of(), 0, false, Map.of());
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            Matcher matcher = new Matcher(query, filter(query), lists);
+            if (lists.length == 0) {
+                BitSet filter = matcher.filter;
+                for (int slot = filter.nextSetBit(0); slot >= 0; slot = filter.nextSetBit(slot + 1)) {
+                    matcher.offer(slot, documents[slot].profileCompleteScore());
+                }
+            } else {
+                matcher.intersect();
+            }
+            return matcher.result();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased, accent-free words of at least two characters, without stop words.
+     * Combining marks stay inside words, so Sinhala and Tamil words are not split.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        if (!normalized.chars().allMatch(c -> c < 128)) {
+            String stripped = DIACRITICS.matcher(Normalizer.normalize(normalized, Normalizer.Form.NFD)).replaceAll("");
+            normalized = Normalizer.normalize(stripped, Normalizer.Form.NFC);
+        }
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && isWordChar(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        int type = Character.getType(c);
+        return Character.isLetterOrDigit(c)
+                || type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private void index(int slot, Document document) {
+        ensureCapacity(slot + 1);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(document.title())) {
+            frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        addTokens(frequencies, document.bio());
+        document.languages().forEach(language -> addTokens(frequencies, language));
+        document.areas().forEach(area -> addTokens(frequencies, area));
+
+        Postings[] terms = new Postings[frequencies.size()];
+        int length = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), Postings::new);
+            list.add(slot, entry.getValue());
+            terms[i++] = list;
+            length += entry.getValue();
+        }
+
+        documents[slot] = new Document(document.guideId(), document.userId(), document.title(), null,
+                document.languages(), document.areas(), document.perDayRate(), document.currencyCode(),
+                document.verified(), document.profileCompleteScore());
+        documentTerms[slot] = terms;
+        languageOrdinals[slot] = document.languages().stream()
+                .map(language -> language.toLowerCase(Locale.ROOT))
+                .distinct()
+                .mapToInt(language -> languages.add(language, slot))
+                .toArray();
+        currencyOrdinals[slot] = document.currencyCode() != null
+                ? currencies.add(currencyKey(document.currencyCode()), slot)
+                : -1;
+        lengths[slot] = length;
+        rates[slot] = document.perDayRate() != null ? document.perDayRate().doubleValue() : Double.NaN;
+        totalLength += length;
+        live.set(slot);
+        verified.set(slot, document.verified());
+    }
+
+    private void unindex(int slot) {
+        for (Postings list : documentTerms[slot]) {
+            list.remove(slot);
+            if (list.size == 0) {
+                postings.remove(list.term);
+            }
+        }
+        for (int ordinal : languageOrdinals[slot]) {
+            languages.remove(ordinal, slot);
+        }
+        if (currencyOrdinals[slot] >= 0) {
+            currencies.remove(currencyOrdinals[slot], slot);
+        }
+        totalLength -= lengths[slot];
+        live.clear(slot);
+        verified.clear(slot);
+        documents[slot] = null;
+        documentTerms[slot] = null;
+        languageOrdinals[slot] = null;
+    }
+
+    private static void addTokens(Map<String, Integer> frequencies, String text) {
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+    }
+
+    private static String currencyKey(String currencyCode) {
+        return currencyCode.toUpperCase(Locale.ROOT);
+    }
+
+    private BitSet filter(Query query) {
+        BitSet filter = (BitSet) live.clone();
+        if (query.language() != null) {
+            filter.and(languages.slots(query.language().toLowerCase(Locale.ROOT)));
+        }
+        if (query.currency() != null) {
+            filter.and(currencies.slots(currencyKey(query.currency())));
+        }
+        if (Boolean.TRUE.equals(query.verified())) {
+            filter.and(verified);
+        } else if (Boolean.FALSE.equals(query.verified())) {
+            filter.andNot(verified);
+        }
+        return filter;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= documents.length) {
+            return;
+        }
+        int grown = Math.max(capacity, documents.length * 2);
+        documents = Arrays.copyOf(documents, grown);
+        documentTerms = Arrays.copyOf(documentTerms, grown);
+        languageOrdinals = Arrays.copyOf(languageOrdinals, grown);
+        currencyOrdinals = Arrays.copyOf(currencyOrdinals, grown);
+        lengths = Arrays.copyOf(lengths, grown);
+        rates = Arrays.copyOf(rates, grown);
+    }
+
+    private int rateBucket(double rate) {
+        int bucket = 0;
+        while (bucket < rateBounds.length && rate >= rateBounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static List<String> rateLabels(List<BigDecimal> bounds) {
+        List<String> labels = new ArrayList<>(bounds.size() + 1);
+        String lower = "0";
+        for (BigDecimal bound : bounds) {
+            String upper = bound.stripTrailingZeros().toPlainString();
+            labels.add(lower + "-" + upper);
+            lower = upper;
+        }
+        labels.add(lower + "+");
+        return labels;
+    }
+
+    /**
+     * Scores, filters and collects one query's matches: the best page in a bounded
+     * heap, and facet counts over all of them
+     */
+    private final class Matcher {
+
+        // Worst hit first, so it is the one a full page evicts
+        private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+                .thenComparing(hit -> hit.document().guideId(), Comparator.reverseOrder());
+
+        private final Query query;
+        private final BitSet filter;
+        private final Postings[] lists;
+        private final double[] idf;
+        private final double averageLength;
+        private final double minRate;
+        private final double maxRate;
+        private final PriorityQueue<Hit> page;
+        private final int[] languageCounts = new int[languages.size()];
+        private final int[] currencyCounts = new int[currencies.size()];
+        private final int[] rateCounts = new int[rateLabels.size()];
+        private int verifiedCount;
+        private int total;
+
+        Matcher(Query query, BitSet filter, Postings[] lists) {
+            this.query = query;
+            this.filter = filter;
+            this.lists = lists;
+            this.idf = new double[lists.length];
+            int documentCount = slots.size();
+            for (int i = 0; i < lists.length; i++) {
+                int df = lists[i].size;
+                idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+            this.averageLength = documentCount > 0 ? (double) totalLength / documentCount : 1;
+            this.minRate = query.minRate() != null ? query.minRate().doubleValue() : Double.NEGATIVE_INFINITY;
+            this.maxRate = query.maxRate() != null ? query.maxRate().doubleValue() : Double.POSITIVE_INFINITY;
+            this.page = new PriorityQueue<>(query.limit() + 1, WORST_FIRST);
+        }
+
+        /**
+         * Walk the shortest postings list and keep the slots every other list has too
+         */
+        void intersect() {
+            Postings lead = lists[0];
+            int[] positions = new int[lists.length];
+            for (int i = 0; i < lead.size; i++) {
+                int slot = lead.slots[i];
+                if (!filter.get(slot)) {
+                    continue;
+                }
+                double score = bm25(lead.frequencies[i], slot, 0);
+                boolean inAll = true;
+                for (int l = 1; l < lists.length && inAll; l++) {
+                    Postings list = lists[l];
+                    int position = list.advance(slot, positions[l]);
+                    positions[l] = position;
+                    if (position == list.size) {
+                        return;
+                    }
+                    inAll = list.slots[position] == slot;
+                    if (inAll) {
+                        score += bm25(list.frequencies[position], slot, l);
+                    }
+                }
+                if (inAll) {
+                    offer(slot, score);
+                }
+            }
+        }
+
+        private double bm25(int frequency, int slot, int term) {
+            double norm = K1 * (1 - B + B * lengths[slot] / averageLength);
+            return idf[term] * frequency * (K1 + 1) / (frequency + norm);
+        }
+
+        void offer(int slot, double score) {
+            double rate = rates[slot];
+            boolean rateFiltered = query.minRate() != null || query.maxRate() != null;
+            if (rateFiltered && (Double.isNaN(rate) || rate < minRate || rate > maxRate)) {
+                return;
+            }
+            count(slot, rate);
+
+            UUID guideId = documents[slot].guideId();
+            if (!before(query.afterScore(), query.afterId(), score, guideId)) {
+                return;
+            }
+            // Most matches lose to a full page; only the rest get a Hit
+            Hit worst = page.peek();
+            if (page.size() > query.limit() && !before(score, guideId, worst.score(), worst.document().guideId())) {
+                return;
+            }
+            page.offer(new Hit(documents[slot], score));
+            if (page.size() > query.limit() + 1) {
+                page.poll();
+            }
+        }
+
+        /**
+         * Whether (score, guideId) ranks ahead of (otherScore, otherId): higher scores
+         * first, then lower ids
+         */
+        private static boolean before(double score, UUID guideId, double otherScore, UUID otherId) {
+            int order = Double.compare(score, otherScore);
+            return order > 0 || (order == 0 && guideId.compareTo(otherId) < 0);
+        }
+
+        private void count(int slot, double rate) {
+            total++;
+            for (int ordinal : languageOrdinals[slot]) {
+                languageCounts[ordinal]++;
+            }
+            if (currencyOrdinals[slot] >= 0) {
+                currencyCounts[currencyOrdinals[slot]]++;
+            }
+            if (verified.get(slot)) {
+                verifiedCount++;
+            }
+            if (!Double.isNaN(rate)) {
+                rateCounts[rateBucket(rate)]++;
+            }
+        }
+
+        Result result() {
+            List<Hit> hits = new ArrayList<>(page);
+            hits.sort(WORST_FIRST.reversed());
+            boolean hasMore = hits.size() > query.limit();
+            if (hasMore) {
+                hits = hits.subList(0, query.limit());
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put(LANGUAGE_FACET, top(languages, languageCounts));
+            facets.put(CURRENCY_FACET, top(currencies, currencyCounts));
+            Map<String, Integer> verifiedCounts = new LinkedHashMap<>();
+            verifiedCounts.put("true", verifiedCount);
+            verifiedCounts.put("false", total - verifiedCount);
+            facets.put(VERIFIED_FACET, verifiedCounts);
+            Map<String, Integer> rateFacet = new LinkedHashMap<>();
+            for (int i = 0; i < rateCounts.length; i++) {
+                rateFacet.put(rateLabels.get(i), rateCounts[i]);
+            }
+            facets.put(RATE_FACET, rateFacet);
+            return new Result(List.copyOf(hits), total, hasMore, facets);
+        }
+
+        private Map<String, Integer> top(FacetField field, int[] counts) {
+            Map<String, Integer> top = new LinkedHashMap<>();
+            IntStream.range(0, counts.length)
+                    .filter(ordinal -> counts[ordinal] > 0)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingInt(ordinal -> counts[ordinal]).reversed()
+                            .thenComparing(field::value))
+                    .limit(maxFacetValues)
+                    .forEach(ordinal -> top.put(field.value(ordinal), counts[ordinal]));
+            return top;
+        }
+    }
+
+    /**
+     * Values of one facet, numbered in order of first use, each with the slots having it
+     */
+    private static final class FacetField {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> slots = new ArrayList<>();
+
+        int add(String value, int slot) {
+            Integer ordinal = ordinals.get(value);
+            if (ordinal == null) {
+                ordinal = values.size();
+                ordinals.put(value, ordinal);
+                values.add(value);
+                slots.add(new BitSet());
+            }
+            slots.get(ordinal).set(slot);
+            return ordinal;
+        }
+
+        void remove(int ordinal, int slot) {
+            slots.get(ordinal).clear(slot);
+        }
+
+        BitSet slots(String value) {
+            Integer ordinal = ordinals.get(value);
+            return ordinal != null ? slots.get(ordinal) : NONE;
+        }
+
+        String value(int ordinal) {
+            return values.get(ordinal);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Slots containing one term, ascending, with the term's weighted frequency in each
+     */
+    private static final class Postings {
+
+        private final String term;
+        private int[] slots = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int slot, int frequency) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                return;
+            }
+            position = -position - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            slots[position] = slot;
+            frequencies[position] = frequency;
+            size++;
+        }
+
+        void remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+        }
+
+        /**
+         * Position of the first slot at or after the given one, searching from a
+         * position: gallop forward, then binary search the last step
+         */
+        int advance(int slot, int from) {
+            if (from >= size || slots[from] >= slot) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + step;
+            while (high < size && slots[high] < slot) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int position = Arrays.binarySearch(slots, low + 1, Math.min(high, size - 1) + 1, slot);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.GuideSearchHit;
+import com.teamterraforge.tgmsauthanduserservice.dto.GuideSearchResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Guide search over the in-memory {@link GuideSearchIndex}.
+ * <p>
+ * Each instance loads every guide into its own index on the first refresh, then
+ * follows guide_search_changes, which triggers fill whenever a guide's searchable
+ * columns, its areas or their names change, and reloads the guides named there.
+ * Change ids are allocated before commit, so an id missing from the sequence may
+ * still appear; it is looked for again on each refresh, batch-size ids per query, for
+ * up to {@code max-gap-wait-ms} before being given up on. At most
+ * {@code max-tracked-gaps} ids are tracked; a larger hole in the sequence, such as a
+ * rolled-back bulk update, makes the next refresh reload the whole index instead.
+ */
+@Service
+@Slf4j
+public class GuideSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private static final String GUIDES_SQL = """
+            SELECT g.id, g.user_id, g.title, g.bio, g.languages, g.per_day_rate, g.currency_code,
+                   g.verified, g.profile_complete_score,
+                   COALESCE(array_agg(a.canonical_name ORDER BY a.canonical_name)
+                            FILTER (WHERE a.id IS NOT NULL), '{}') AS areas
+            FROM guides g
+            LEFT JOIN guide_areas ga ON ga.guide_id = g.id
+            LEFT JOIN areas a ON a.id = ga.area_id
+            """;
+
+    private static final String LOAD_SQL = GUIDES_SQL + """
+            WHERE g.id > :afterId
+            GROUP BY g.id
+            ORDER BY g.id
+            LIMIT :limit
+            """;
+
+    private static final String RELOAD_SQL = GUIDES_SQL + """
+            WHERE g.id IN (:guideIds)
+            GROUP BY g.id
+            """;
+
+    private static final String LAST_CHANGE_SQL = "SELECT COALESCE(max(id), 0) FROM guide_search_changes";
+
+    private static final String CHANGE_IDS_SQL = """
+            SELECT id FROM guide_search_changes
+            WHERE id > :after AND id <= :until
+            """;
+
+    private static final String CHANGES_SQL = """
+            SELECT id, guide_id FROM guide_search_changes
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String GAP_CHANGES_SQL = "SELECT id, guide_id FROM guide_search_changes WHERE id IN (:ids)";
+
+    private static final String PRUNE_SQL = """
+            DELETE FROM guide_search_changes
+            WHERE id IN (
+                SELECT id FROM guide_search_changes
+                WHERE changed_at < now() - make_interval(hours => :retentionHours)
+                ORDER BY id
+                LIMIT :batchSize
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxGapWaitMs;
+    private final int maxTrackedGaps;
+    private final int retentionHours;
+    private final int maxLimit;
+    private final List<BigDecimal> rateBuckets;
+    private final int maxFacetValues;
+
+    private final Timer searchTimer;
+    private final Counter reindexedCounter;
+
+    private volatile GuideSearchIndex index;
+    private long lastChangeId;
+    // Missing change ids still looked for, with when they were first missed
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private boolean reloadNeeded;
+
+    public GuideSearchService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${guide-search.enabled:true}") boolean enabled,
+            @Value("${guide-search.batch-size:1000}") int batchSize,
+            @Value("${guide-search.max-gap-wait-ms:30000}") long maxGapWaitMs,
+            @Value("${guide-search.max-tracked-gaps:10000}") int maxTrackedGaps,
+            @Value("${guide-search.change-retention-hours:24}") int retentionHours,
+            @Value("${guide-search.max-limit:50}") int maxLimit,
+            @Value("${guide-search.rate-buckets:50,100,200,500}") List<BigDecimal> rateBuckets,
+            @Value("${guide-search.max-facet-values:20}") int maxFacetValues
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxGapWaitMs = maxGapWaitMs;
+        this.maxTrackedGaps = maxTrackedGaps;
+        this.retentionHours = retentionHours;
+        this.maxLimit = maxLimit;
+        this.rateBuckets = List.copyOf(rateBuckets);
+        this.maxFacetValues = maxFacetValues;
+
+        this.searchTimer = meterRegistry.timer("guides.search");
+        this.reindexedCounter = meterRegistry.counter("guides.search.reindexed");
+        meterRegistry.gauge("guides.search.indexed", this, service -> {
+            GuideSearchIndex current = service.index;
+            return current != null ? current.size() : 0;
+        });
+    }
+
+    /**
+     * Search guides by free text over title, bio, languages and areas, filtered by
+     * language, currency, verified and rate range, best matches first
+     */
+    public GuideSearchResponse search(String query, String language, String currency, Boolean verified,
+                                      BigDecimal minRate, BigDecimal maxRate, int limit, String cursor) {
+        GuideSearchIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Guide search index is still loading");
+        }
+        if (query != null && query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (minRate != null && maxRate != null && minRate.compareTo(maxRate) > 0) {
+            throw new IllegalArgumentException("minRate must not be greater than maxRate");
+        }
+        int pageSize = Math.min(limit, maxLimit);
+
+        double afterScore = Double.POSITIVE_INFINITY;
+        UUID afterId = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                afterScore = Double.parseDouble(parts[0]);
+                afterId = UUID.fromString(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        GuideSearchIndex.Query search = new GuideSearchIndex.Query(query, blankToNull(language),
+                blankToNull(currency), verified, minRate, maxRate, afterScore, afterId, pageSize);
+        GuideSearchIndex.Result result = searchTimer.record(() -> current.search(search));
+
+        List<GuideSearchHit> content = result.hits().stream().map(GuideSearchService::toHit).toList();
+        String nextCursor = null;
+        if (result.hasMore()) {
+            GuideSearchIndex.Hit last = result.hits().get(result.hits().size() - 1);
+            nextCursor = CursorCodec.encode(last.score(), last.document().guideId());
+        }
+
+        return GuideSearchResponse.builder()
+                .content(content)
+                .size(content.size())
+                .total(result.total())
+                .nextCursor(nextCursor)
+                .hasMore(result.hasMore())
+                .facets(result.facets())
+                .build();
+    }
+
+    /**
+     * Load the index on the first run, or after too many change ids went missing, and
+     * apply logged guide changes otherwise
+     */
+    @Scheduled(fixedDelayString = "${guide-search.refresh-interval-ms:1000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (index == null || reloadNeeded) {
+            index = load();
+        } else {
+            applyChanges(index);
+        }
+    }
+
+    /**
+     * Build a full index. The change log position is read first, so a guide changed
+     * while loading is reloaded by the next refresh.
+     */
+    GuideSearchIndex load() {
+        long started = System.currentTimeMillis();
+        long lastChange = jdbcTemplate.getJdbcOperations().queryForObject(LAST_CHANGE_SQL, Long.class);
+        // Ids just below the last one may belong to transactions that have not committed yet
+        int window = Math.min(batchSize, maxTrackedGaps);
+        List<Long> present = jdbcTemplate.queryForList(CHANGE_IDS_SQL, new MapSqlParameterSource()
+                .addValue("after", lastChange - window)
+                .addValue("until", lastChange), Long.class);
+        Set<Long> seen = Set.copyOf(present);
+        gaps.clear();
+        reloadNeeded = false;
+        for (long id = Math.max(1, lastChange - window + 1); id <= lastChange; id++) {
+            if (!seen.contains(id)) {
+                gaps.put(id, started);
+            }
+        }
+        lastChangeId = lastChange;
+
+        GuideSearchIndex loaded = new GuideSearchIndex(rateBuckets, maxFacetValues);
+        UUID afterId = new UUID(0L, 0L);
+        List<GuideSearchIndex.Document> page;
+        do {
+            page = jdbcTemplate.query(LOAD_SQL, new MapSqlParameterSource()
+                    .addValue("afterId", afterId)
+                    .addValue("limit", batchSize), (resultSet, rowNum) -> document(resultSet));
+            loaded.apply(page, List.of());
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).guideId();
+            }
+        } while (page.size() == batchSize);
+
+        log.info("Guide search index loaded {} guides in {} ms", loaded.size(), System.currentTimeMillis() - started);
+        return loaded;
+    }
+
+    /**
+     * Reload the guides named by changes logged since the last refresh, and by
+     * changes that have filled earlier gaps
+     *
+     * @return the number of guides reindexed
+     */
+    int applyChanges(GuideSearchIndex target) {
+        long now = System.currentTimeMillis();
+        Set<UUID> changed = new LinkedHashSet<>();
+
+        // Given-up gaps are dropped before the lookup, so they are never queried again
+        gaps.values().removeIf(firstMissed -> now - firstMissed > maxGapWaitMs);
+        List<Long> open = List.copyOf(gaps.keySet());
+        for (int from = 0; from < open.size(); from += batchSize) {
+            List<Change> filled = jdbcTemplate.query(GAP_CHANGES_SQL,
+                    new MapSqlParameterSource("ids", open.subList(from, Math.min(from + batchSize, open.size()))),
+                    (resultSet, rowNum) -> change(resultSet));
+            for (Change change : filled) {
+                gaps.remove(change.id());
+                changed.add(change.guideId());
+            }
+        }
+
+        List<Change> changes;
+        do {
+            changes = jdbcTemplate.query(CHANGES_SQL, new MapSqlParameterSource()
+                    .addValue("after", lastChangeId)
+                    .addValue("limit", batchSize), (resultSet, rowNum) -> change(resultSet));
+            for (Change change : changes) {
+                for (long missing = lastChangeId + 1; missing < change.id() && !reloadNeeded; missing++) {
+                    if (gaps.size() >= maxTrackedGaps) {
+                        log.warn("More than {} guide search change ids missing, reloading the index", maxTrackedGaps);
+                        reloadNeeded = true;
+                    } else {
+                        gaps.put(missing, now);
+                    }
+                }
+                lastChangeId = change.id();
+                changed.add(change.guideId());
+            }
+        } while (changes.size() == batchSize);
+
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<UUID> guideIds = new ArrayList<>(changed);
+        for (int from = 0; from < guideIds.size(); from += batchSize) {
+            List<UUID> chunk = guideIds.subList(from, Math.min(from + batchSize, guideIds.size()));
+            List<GuideSearchIndex.Document> documents = jdbcTemplate.query(RELOAD_SQL,
+                    new MapSqlParameterSource("guideIds", chunk), (resultSet, rowNum) -> document(resultSet));
+            Set<UUID> removed = new LinkedHashSet<>(chunk);
+            documents.forEach(document -> removed.remove(document.guideId()));
+            target.apply(documents, removed);
+        }
+        reindexedCounter.increment(guideIds.size());
+        log.debug("Reindexed {} changed guides", guideIds.size());
+        return guideIds.size();
+    }
+
+    /**
+     * Delete change log rows older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${guide-search.prune-interval-ms:3600000}")
+    public void pruneChanges() {
+        if (!enabled) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("retentionHours", retentionHours)
+                .addValue("batchSize", batchSize);
+        int total = 0;
+        int removed;
+        do {
+            removed = jdbcTemplate.update(PRUNE_SQL, params);
+            total += removed;
+        } while (removed == batchSize);
+        if (total > 0) {
+            log.debug("Pruned {} guide search changes", total);
+        }
+    }
+
+    private static GuideSearchIndex.Document document(ResultSet resultSet) throws SQLException {
+        Array areas = resultSet.getArray("areas");
+        return new GuideSearchIndex.Document(
+                resultSet.getObject("id", UUID.class),
+                resultSet.getObject("user_id", UUID.class),
+                resultSet.getString("title"),
+                resultSet.getString("bio"),
+                parseLanguages(resultSet.getString("languages")),
+                areas != null ? Arrays.asList((String[]) areas.getArray()) : List.of(),
+                resultSet.getBigDecimal("per_day_rate"),
+                resultSet.getString("currency_code"),
+                resultSet.getBoolean("verified"),
+                resultSet.getInt("profile_complete_score"));
+    }
+
+    private static Change change(ResultSet resultSet) throws SQLException {
+        return new Change(resultSet.getLong("id"), resultSet.getObject("guide_id", UUID.class));
+    }
+
+    /**
+     * Languages are stored as CSV or as a JSON array of strings
+     */
+    static List<String> parseLanguages(String languages) {
+        if (languages == null || languages.isBlank()) {
+            return List.of();
+        }
+        String stripped = languages.trim();
+        if (stripped.startsWith("[") && stripped.endsWith("]")) {
+            stripped = stripped.substring(1, stripped.length() - 1);
+        }
+        List<String> parsed = new ArrayList<>();
+        for (String part : stripped.split(",")) {
+            String language = part.trim();
+            if (language.length() >= 2 && language.startsWith("\"") && language.endsWith("\"")) {
+                language = language.substring(1, language.length() - 1).trim();
+            }
+            if (!language.isEmpty()) {
+                parsed.add(language);
+            }
+        }
+        return parsed;
+    }
+
+    private static GuideSearchHit toHit(GuideSearchIndex.Hit hit) {
+        GuideSearchIndex.Document document = hit.document();
+        return GuideSearchHit.builder()
+                .guideId(document.guideId())
+                .userId(document.userId())
+                .title(document.title())
+                .languages(document.languages())
+                .areas(document.areas())
+                .perDayRate(document.perDayRate())
+                .currencyCode(document.currencyCode())
+                .verified(document.verified())
+                .profileCompleteScore(document.profileCompleteScore())
+                .score(hit.score())
+                .build();
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    record Change(long id, UUID guideId) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sink that POSTs each batch as a JSON array to a collector endpoint.
+ * Any non-2xx response fails the batch, which is then retried.
+ */
+@Component
+@ConditionalOnProperty(prefix = "outbox.sink", name = "type", havingValue = "http")
+@Slf4j
+public class HttpOutboxSink implements OutboxSink {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final RestClient restClient;
+
+    public HttpOutboxSink(
+            @Value("${outbox.sink.http.url}") String url,
+            @Value("${outbox.sink.http.timeout-ms:5000}") long timeoutMs
+    ) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+        log.info("Publishing outbox events to {}", url);
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        StringWriter body = new StringWriter(messages.size() * 256);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(body)) {
+            json.writeStartArray();
+            for (OutboxMessage message : messages) {
+                json.writeStartObject();
+                json.writeNumberField("id", message.id());
+                json.writeStringField("aggregateType", message.aggregateType());
+                json.writeStringField("aggregateId", message.aggregateId().toString());
+                json.writeStringField("eventType", message.eventType());
+                json.writeStringField("createdAt", message.createdAt().toString());
+                // payload is already a JSON document
+                json.writeFieldName("payload");
+                json.writeRawValue(message.payload());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.toString())
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
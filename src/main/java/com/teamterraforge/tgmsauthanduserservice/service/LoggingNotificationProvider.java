@@ -0,0 +1,64 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-process provider that only logs rendered notifications, for local development and tests.
+ * Bodies of templates carrying secrets (see {@link NotificationSecretResolver}) are not logged.
+ */
+@Slf4j
+public class LoggingNotificationProvider implements NotificationProvider {
+
+    private final NotificationChannel channel;
+    private final int maxBatchSize;
+    private final NotificationTemplates templates;
+    private final Set<String> secretTemplateKeys;
+
+    public LoggingNotificationProvider(NotificationChannel channel, int maxBatchSize, NotificationTemplates templates,
+                                       Set<String> secretTemplateKeys) {
+        this.channel = channel;
+        this.maxBatchSize = maxBatchSize;
+        this.templates = templates;
+        this.secretTemplateKeys = Set.copyOf(secretTemplateKeys);
+    }
+
+    @Override
+    public NotificationChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public List<NotificationDelivery> send(List<NotificationMessage> messages) {
+        List<NotificationDelivery> deliveries = new ArrayList<>(messages.size());
+        for (NotificationMessage message : messages) {
+            try {
+                boolean secret = secretTemplateKeys.contains(message.templateKey());
+                templates.render(message, body -> log.info("{} notification {} ({}) to {}: {}", channel, message.id(),
+                        message.templateKey(), recipient(message),
+                        secret ? "[body withheld, " + body.length() + " chars]" : body));
+                deliveries.add(NotificationDelivery.delivered(message.id()));
+            } catch (IllegalArgumentException e) {
+                deliveries.add(NotificationDelivery.failed(message.id(), e.getMessage()));
+            }
+        }
+        return deliveries;
+    }
+
+    private String recipient(NotificationMessage message) {
+        return switch (channel) {
+            case EMAIL -> message.email();
+            case SMS -> message.phone();
+            case PUSH -> message.userId().toString();
+        };
+    }
+}
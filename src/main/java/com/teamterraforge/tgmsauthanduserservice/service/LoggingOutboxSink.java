@@ -0,0 +1,24 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * In-process sink that only logs events, for local development and tests
+ */
+@Component
+@ConditionalOnProperty(prefix = "outbox.sink", name = "type", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("Outbox event {} {} for {} {}: {}", message.id(), message.eventType(),
+                    message.aggregateType(), message.aggregateId(), message.payload());
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamterraforge.tgmsauthanduserservice.dto.BroadcastRequest;
+import com.teamterraforge.tgmsauthanduserservice.dto.BroadcastResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.BroadcastStatus;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends one notification to every user, or every user of one role.
+ * <p>
+ * A broadcast is stored first and fanned out in the background: each chunk is one
+ * INSERT ... SELECT over the next chunk-size users in id order, committed together
+ * with the broadcast's progress, so a restart resumes after the last committed chunk
+ * and never sends twice. The inserted rows are ordinary PENDING notifications that the
+ * {@link NotificationDispatcher} sends in batches. After each PUSH chunk commits, cached
+ * unread counts are dropped and the chunk's recipients with an open
+ * {@link NotificationStream} are told to reload their inbox. Fan-out waits while more than
+ * max-pending-backlog notifications are pending, so a large broadcast never puts more
+ * than that in front of other notifications.
+ * <p>
+ * Cancelling stops further chunks and deletes the broadcast's notifications that have
+ * not been sent or claimed for sending.
+ */
+@Service
+@Slf4j
+public class NotificationBroadcastService {
+
+    // UUIDs compare bytewise, so the nil UUID sorts before every user id
+    private static final UUID FIRST_USER_ID = new UUID(0, 0);
+
+    // PostgreSQL's uuid order, unlike UUID.compareTo which compares signed halves
+    private static final Comparator<UUID> USER_ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final String COLUMNS = """
+            id, channel::text AS channel, template_key, payload::text AS payload,
+            audience_role::text AS audience_role, status, total_recipients, enqueued,
+            created_by, created_at, started_at, completed_at""";
+
+    private static final String COUNT_SQL = """
+            SELECT count(*) FROM users u
+            WHERE TRUE%s
+            """;
+
+    private static final String CREATE_SQL = """
+            INSERT INTO notification_broadcasts (channel, template_key, payload, audience_role, total_recipients, created_by)
+            VALUES (CAST(:channel AS notification_channel), :templateKey, CAST(:payload AS jsonb),
+                    CAST(:role AS user_role), :totalRecipients, :createdBy)
+            RETURNING\s""" + COLUMNS;
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM notification_broadcasts WHERE id = :id";
+
+    private static final String LIST_SQL = "SELECT " + COLUMNS + " FROM notification_broadcasts ORDER BY id DESC LIMIT :limit";
+
+    private static final String DELIVERIES_SQL = """
+            SELECT status::text AS status, count(*) AS count
+            FROM notifications
+            WHERE broadcast_id = :id
+            GROUP BY status
+            ORDER BY status
+            """;
+
+    // Held until the chunk commits; other instances move on to the next broadcast
+    private static final String CLAIM_SQL = """
+            SELECT id, channel::text AS channel, audience_role::text AS audience_role, last_user_id
+            FROM notification_broadcasts
+            WHERE status IN ('PENDING', 'RUNNING')
+            ORDER BY id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String FAN_OUT_SQL = """
+            WITH recipients AS (
+                SELECT u.id FROM users u
+                WHERE u.id > :afterUserId%s
+                ORDER BY u.id
+                LIMIT :chunkSize
+            ), inserted AS (
+                INSERT INTO notifications (user_id, channel, template_key, payload, broadcast_id)
+                SELECT r.id, b.channel, b.template_key, b.payload, b.id
+                FROM recipients r
+                CROSS JOIN notification_broadcasts b
+                WHERE b.id = :broadcastId
+                RETURNING 1
+            )
+            SELECT (SELECT count(*) FROM inserted) AS inserted,
+                   (SELECT id FROM recipients ORDER BY id DESC LIMIT 1) AS last_user_id
+            """;
+
+    private static final String PROGRESS_SQL = """
+            UPDATE notification_broadcasts
+            SET enqueued = enqueued + :inserted,
+                last_user_id = :lastUserId,
+                status = :status,
+                started_at = COALESCE(started_at, now()),
+                completed_at = CASE WHEN :status = 'COMPLETED' THEN now() END
+            WHERE id = :id
+            """;
+
+    // Counts no further than the limit, over the pending-rows partial index
+    private static final String BACKLOG_SQL = """
+            SELECT count(*) FROM (
+                SELECT 1 FROM notifications WHERE status = 'PENDING' LIMIT :limit
+            ) pending
+            """;
+
+    private static final String CANCEL_SQL = """
+            UPDATE notification_broadcasts
+            SET status = 'CANCELLED', completed_at = now()
+            WHERE id = :id AND status IN ('PENDING', 'RUNNING')
+            """;
+
+    // Rows a dispatcher holds a lease on are being sent and are left alone
+    private static final String REMOVE_UNSENT_SQL = """
+            DELETE FROM notifications
+            WHERE broadcast_id = :id
+              AND status IN ('PENDING', 'FAILED')
+              AND (claimed_until IS NULL OR claimed_until < now())
+            """;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private static final RowMapper<BroadcastResponse> BROADCAST_MAPPER = (resultSet, rowNum) -> BroadcastResponse.builder()
+            .id(resultSet.getLong("id"))
+            .channel(resultSet.getString("channel"))
+            .templateKey(resultSet.getString("template_key"))
+            .payload(parsePayload(resultSet.getString("payload")))
+            .role(resultSet.getString("audience_role"))
+            .status(resultSet.getString("status"))
+            .totalRecipients(resultSet.getLong("total_recipients"))
+            .enqueued(resultSet.getLong("enqueued"))
+            .createdBy(resultSet.getObject("created_by", UUID.class))
+            .createdAt(instant(resultSet, "created_at"))
+            .startedAt(instant(resultSet, "started_at"))
+            .completedAt(instant(resultSet, "completed_at"))
+            .build();
+
+    private static final RowMapper<ActiveBroadcast> ACTIVE_MAPPER = (resultSet, rowNum) -> new ActiveBroadcast(
+            resultSet.getLong("id"),
+            NotificationChannel.valueOf(resultSet.getString("channel")),
+            resultSet.getString("audience_role") == null ? null : UserRole.valueOf(resultSet.getString("audience_role")),
+            resultSet.getObject("last_user_id", UUID.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationTemplates templates;
+    private final NotificationInboxService inboxService;
+    private final NotificationStream stream;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final int maxPendingBacklog;
+    private final int maxListLimit;
+    private final Counter enqueuedCounter;
+    private final Counter throttledCounter;
+
+    public NotificationBroadcastService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            NotificationTemplates templates,
+            NotificationInboxService inboxService,
+            NotificationStream stream,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.broadcasts.enabled:true}") boolean enabled,
+            @Value("${notifications.broadcasts.chunk-size:5000}") int chunkSize,
+            @Value("${notifications.broadcasts.max-chunks-per-run:20}") int maxChunksPerRun,
+            @Value("${notifications.broadcasts.max-pending-backlog:20000}") int maxPendingBacklog,
+            @Value("${notifications.broadcasts.max-list-limit:100}") int maxListLimit
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.templates = templates;
+        this.inboxService = inboxService;
+        this.stream = stream;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.maxPendingBacklog = maxPendingBacklog;
+        this.maxListLimit = maxListLimit;
+        this.enqueuedCounter = meterRegistry.counter("notifications.broadcast.enqueued");
+        this.throttledCounter = meterRegistry.counter("notifications.broadcast.throttled");
+    }
+
+    /**
+     * Store a broadcast for fan-out
+     *
+     * @throws IllegalArgumentException if there is no template for the key
+     */
+    @Transactional
+    public BroadcastResponse create(BroadcastRequest request, UUID createdBy) {
+        Map<String, Object> payload = request.getPayload() == null ? Map.of() : request.getPayload();
+        Object locale = payload.get("locale");
+        templates.find(request.getTemplateKey(), locale == null ? null : locale.toString());
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("channel", request.getChannel().name())
+                .addValue("templateKey", request.getTemplateKey())
+                .addValue("payload", toJson(payload))
+                .addValue("role", request.getRole() == null ? null : request.getRole().name())
+                .addValue("createdBy", createdBy);
+        Long total = jdbcTemplate.queryForObject(
+                COUNT_SQL.formatted(audienceFilter(request.getRole(), request.getChannel())), params, Long.class);
+        params.addValue("totalRecipients", total == null ? 0 : total);
+
+        BroadcastResponse broadcast = jdbcTemplate.queryForObject(CREATE_SQL, params, BROADCAST_MAPPER);
+        log.info("Broadcast {} of {} over {} created for {} recipients", broadcast.getId(),
+                broadcast.getTemplateKey(), broadcast.getChannel(), broadcast.getTotalRecipients());
+        return broadcast;
+    }
+
+    /**
+     * A broadcast with its notifications counted by delivery status
+     *
+     * @throws EntityNotFoundException if there is no such broadcast
+     */
+    @Transactional(readOnly = true)
+    public BroadcastResponse get(Long id) {
+        BroadcastResponse broadcast = find(id);
+        Map<String, Long> deliveries = new LinkedHashMap<>();
+        jdbcTemplate.query(DELIVERIES_SQL, new MapSqlParameterSource("id", id), resultSet -> {
+            deliveries.put(resultSet.getString("status"), resultSet.getLong("count"));
+        });
+        broadcast.setDeliveries(deliveries);
+        return broadcast;
+    }
+
+    /**
+     * Most recent broadcasts, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<BroadcastResponse> list(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return jdbcTemplate.query(LIST_SQL, new MapSqlParameterSource("limit", Math.min(limit, maxListLimit)),
+                BROADCAST_MAPPER);
+    }
+
+    /**
+     * Stop a broadcast and delete its notifications that have not been sent yet
+     *
+     * @throws EntityNotFoundException  if there is no such broadcast
+     * @throws IllegalArgumentException if the broadcast has already finished
+     */
+    @Transactional
+    public BroadcastResponse cancel(Long id) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        if (jdbcTemplate.update(CANCEL_SQL, params) == 0) {
+            BroadcastResponse broadcast = find(id);
+            throw new IllegalArgumentException("Broadcast " + id + " is already " + broadcast.getStatus());
+        }
+        int removed = jdbcTemplate.update(REMOVE_UNSENT_SQL, params);
+        log.info("Broadcast {} cancelled, {} unsent notifications removed", id, removed);
+        return find(id);
+    }
+
+    /**
+     * Fan out chunks of active broadcasts until they are done, the run's chunk budget
+     * is used up or the pending backlog is full
+     */
+    @Scheduled(fixedDelayString = "${notifications.broadcasts.interval-ms:1000}")
+    public void fanOut() {
+        if (!enabled) {
+            return;
+        }
+        for (int run = 0; run < maxChunksPerRun; run++) {
+            if (backlogFull()) {
+                throttledCounter.increment();
+                break;
+            }
+            Chunk chunk = transactionTemplate.execute(status -> fanOutChunk());
+            if (chunk == null) {
+                break;
+            }
+            if (chunk.channel() == NotificationChannel.PUSH && chunk.inserted() > 0) {
+                // Recipients' cached unread counts are recounted on their next read
+                inboxService.resetUnreadCounts();
+                stream.resync(userId -> USER_ID_ORDER.compare(userId, chunk.afterUserId()) > 0
+                        && USER_ID_ORDER.compare(userId, chunk.lastUserId()) <= 0);
+            }
+            if (chunk.completed()) {
+                log.info("Broadcast {} fanned out", chunk.broadcastId());
+            }
+        }
+    }
+
+    /**
+     * Insert notifications for the next chunk of the oldest active broadcast, in the
+     * caller's transaction
+     *
+     * @return the chunk, or null if no broadcast is waiting
+     */
+    Chunk fanOutChunk() {
+        List<ActiveBroadcast> claimed = jdbcTemplate.query(CLAIM_SQL, EmptySqlParameterSource.INSTANCE, ACTIVE_MAPPER);
+        if (claimed.isEmpty()) {
+            return null;
+        }
+        ActiveBroadcast broadcast = claimed.get(0);
+        UUID afterUserId = broadcast.lastUserId() == null ? FIRST_USER_ID : broadcast.lastUserId();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("broadcastId", broadcast.id())
+                .addValue("afterUserId", afterUserId)
+                .addValue("role", broadcast.role() == null ? null : broadcast.role().name())
+                .addValue("chunkSize", chunkSize);
+        FanOut fanOut = jdbcTemplate.queryForObject(
+                FAN_OUT_SQL.formatted(audienceFilter(broadcast.role(), broadcast.channel())), params,
+                (resultSet, rowNum) -> new FanOut(
+                        resultSet.getLong("inserted"),
+                        resultSet.getObject("last_user_id", UUID.class)));
+
+        long inserted = fanOut == null ? 0 : fanOut.inserted();
+        boolean completed = inserted < chunkSize;
+        UUID lastUserId = fanOut == null || fanOut.lastUserId() == null ? afterUserId : fanOut.lastUserId();
+        jdbcTemplate.update(PROGRESS_SQL, new MapSqlParameterSource()
+                .addValue("id", broadcast.id())
+                .addValue("inserted", inserted)
+                .addValue("lastUserId", lastUserId)
+                .addValue("status", (completed ? BroadcastStatus.COMPLETED : BroadcastStatus.RUNNING).name()));
+        enqueuedCounter.increment(inserted);
+        log.debug("Broadcast {} enqueued {} notifications", broadcast.id(), inserted);
+        return new Chunk(broadcast.id(), broadcast.channel(), afterUserId, lastUserId, inserted, completed);
+    }
+
+    boolean backlogFull() {
+        Long pending = jdbcTemplate.queryForObject(BACKLOG_SQL,
+                new MapSqlParameterSource("limit", maxPendingBacklog + 1), Long.class);
+        return pending != null && pending > maxPendingBacklog;
+    }
+
+    /**
+     * Conditions on users {@code u} that pick a broadcast's recipients. SMS goes only to
+     * users with a phone number.
+     */
+    static String audienceFilter(UserRole role, NotificationChannel channel) {
+        StringBuilder filter = new StringBuilder();
+        if (role != null) {
+            filter.append(" AND u.role = CAST(:role AS user_role)");
+        }
+        if (channel == NotificationChannel.SMS) {
+            filter.append(" AND u.phone IS NOT NULL");
+        }
+        return filter.toString();
+    }
+
+    private BroadcastResponse find(Long id) {
+        List<BroadcastResponse> found = jdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("id", id),
+                BROADCAST_MAPPER);
+        if (found.isEmpty()) {
+            throw new EntityNotFoundException("Broadcast not found with ID: " + id);
+        }
+        return found.get(0);
+    }
+
+    private static String toJson(Map<String, Object> payload) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid broadcast payload", e);
+        }
+    }
+
+    private static Map<String, Object> parsePayload(String json) {
+        try {
+            return OBJECT_MAPPER.readValue(json, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt broadcast payload", e);
+        }
+    }
+
+    private static Instant instant(ResultSet resultSet, String column) throws SQLException {
+        Timestamp timestamp = resultSet.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    record ActiveBroadcast(long id, NotificationChannel channel, UserRole role, UUID lastUserId) {
+    }
+
+    record FanOut(long inserted, UUID lastUserId) {
+    }
+
+    /**
+     * One committed chunk, whose recipients are the audience's users after
+     * {@code afterUserId} up to and including {@code lastUserId}
+     */
+    record Chunk(long broadcastId, NotificationChannel channel, UUID afterUserId, UUID lastUserId, long inserted,
+                 boolean completed) {
+    }
+}
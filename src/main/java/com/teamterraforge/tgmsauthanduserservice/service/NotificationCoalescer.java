@@ -0,0 +1,160 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds notifications of coalescable templates for a window and merges those for the
+ * same user, channel and template into one digest.
+ * <p>
+ * The window opens with the first notification of a (user, channel, template) group
+ * and the group is released when it closes, or as soon as it holds max-items. A group
+ * of one is released unchanged. A larger group becomes a single notification with the
+ * template key plus {@value #DIGEST_SUFFIX}, whose payload is the latest payload plus
+ * digestCount and the most recent payloads under digestItems.
+ * <p>
+ * Held notifications live in memory only and are lost if the instance dies before
+ * they are released, so only templates that tolerate that should be listed.
+ */
+@Service
+public class NotificationCoalescer {
+
+    public static final String DIGEST_SUFFIX = ".digest";
+    static final String DIGEST_COUNT = "digestCount";
+    static final String DIGEST_ITEMS = "digestItems";
+
+    private final Set<String> templateKeys;
+    private final Duration window;
+    private final int maxItems;
+    private final int maxDigestItems;
+    private final int maxGroups;
+    private final Map<GroupKey, Group> groups = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    public NotificationCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${notifications.coalescing.template-keys:}") Set<String> templateKeys,
+            @Value("${notifications.coalescing.window-seconds:300}") long windowSeconds,
+            @Value("${notifications.coalescing.max-items:100}") int maxItems,
+            @Value("${notifications.coalescing.max-digest-items:10}") int maxDigestItems,
+            @Value("${notifications.coalescing.max-groups:100000}") int maxGroups
+    ) {
+        this.templateKeys = Set.copyOf(templateKeys);
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.maxItems = maxItems;
+        this.maxDigestItems = maxDigestItems;
+        this.maxGroups = maxGroups;
+        this.coalescedCounter = meterRegistry.counter("notifications.coalesced");
+        meterRegistry.gaugeMapSize("notifications.coalescing.groups", List.of(), groups);
+    }
+
+    /**
+     * Hold a notification for coalescing
+     *
+     * @return false if the notification is not coalesced and should be stored right away;
+     *         otherwise true, with a group that reached max-items added to the released list
+     */
+    boolean offer(UUID userId, NotificationChannel channel, String templateKey, Map<String, Object> payload,
+                  Instant now, List<Notification> released) {
+        if (!templateKeys.contains(templateKey)) {
+            return false;
+        }
+        GroupKey key = new GroupKey(userId, channel, templateKey);
+        if (groups.size() >= maxGroups && !groups.containsKey(key)) {
+            return false;
+        }
+        Group[] full = new Group[1];
+        groups.compute(key, (groupKey, group) -> {
+            Group current = group != null ? group : new Group(now);
+            current.payloads.add(payload);
+            if (current.payloads.size() >= maxItems) {
+                full[0] = current;
+                return null;
+            }
+            return current;
+        });
+        if (full[0] != null) {
+            released.add(toNotification(key, full[0]));
+        }
+        return true;
+    }
+
+    /**
+     * Remove groups whose window has closed at the given time
+     *
+     * @return one notification per released group
+     */
+    List<Notification> release(Instant now) {
+        List<Notification> released = new ArrayList<>();
+        for (Map.Entry<GroupKey, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+            boolean closed = !group.openedAt.plus(window).isAfter(now);
+            // remove(key, value) fails if the group was released concurrently
+            if (closed && groups.remove(entry.getKey(), group)) {
+                released.add(toNotification(entry.getKey(), group));
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Remove all groups, e.g. at shutdown
+     */
+    List<Notification> releaseAll() {
+        return release(Instant.MAX);
+    }
+
+    private Notification toNotification(GroupKey key, Group group) {
+        List<Map<String, Object>> payloads = group.payloads;
+        Map<String, Object> latest = payloads.get(payloads.size() - 1);
+        if (payloads.size() == 1) {
+            return notification(key.userId(), key.channel(), key.templateKey(), latest);
+        }
+        Map<String, Object> digest = new LinkedHashMap<>(latest);
+        digest.put(DIGEST_COUNT, payloads.size());
+        digest.put(DIGEST_ITEMS, List.copyOf(payloads.subList(Math.max(0, payloads.size() - maxDigestItems),
+                payloads.size())));
+        coalescedCounter.increment(payloads.size() - 1);
+        return notification(key.userId(), key.channel(), key.templateKey() + DIGEST_SUFFIX, digest);
+    }
+
+    static Notification notification(UUID userId, NotificationChannel channel, String templateKey,
+                                     Map<String, Object> payload) {
+        return Notification.builder()
+                .userId(userId)
+                .channel(channel)
+                .templateKey(templateKey)
+                .payload(payload)
+                .build();
+    }
+
+    private record GroupKey(UUID userId, NotificationChannel channel, String templateKey) {
+    }
+
+    /**
+     * Payloads of one group, only modified inside ConcurrentHashMap.compute
+     */
+    private static final class Group {
+
+        private final Instant openedAt;
+        private final List<Map<String, Object>> payloads = new ArrayList<>();
+
+        private Group(Instant openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
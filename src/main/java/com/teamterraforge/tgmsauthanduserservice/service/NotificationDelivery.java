@@ -0,0 +1,15 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+/**
+ * Outcome of one notification in a provider batch; error is null when delivered
+ */
+public record NotificationDelivery(long notificationId, boolean delivered, String error) {
+
+    public static NotificationDelivery delivered(long notificationId) {
+        return new NotificationDelivery(notificationId, true, null);
+    }
+
+    public static NotificationDelivery failed(long notificationId, String error) {
+        return new NotificationDelivery(notificationId, false, error);
+    }
+}
@@ -0,0 +1,411 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends PENDING notifications through the {@link NotificationProvider} of their channel.
+ * <p>
+ * The dispatcher claims the oldest pending rows with FOR UPDATE SKIP LOCKED and leases
+ * them by setting claimed_until, so any number of instances can run side by side and
+ * rows claimed by a crashed instance are picked up again once the lease expires.
+ * Claimed rows are grouped by channel and split into provider-sized batches. Each
+ * channel has its own concurrency limit, and a channel with as many batches in flight
+ * as its limit is left out of the next claim, so a slow provider never holds up the
+ * others. Outcomes are written back with one UPDATE per status and batch, and failed
+ * sends are handed to the {@link NotificationRetryScheduler}. Templates with a
+ * {@link NotificationSecretResolver} get their secret fields added to the claimed
+ * message right before it is sent; they are never stored.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final String CLAIM_SQL = """
+            WITH claimed AS (
+                UPDATE notifications n
+                SET claimed_until = now() + make_interval(secs => :leaseSeconds)
+                WHERE n.id IN (
+                    SELECT id FROM notifications
+                    WHERE status = 'PENDING'
+                      AND (claimed_until IS NULL OR claimed_until < now())
+                      AND channel::text IN (:channels)
+                    ORDER BY id
+                    LIMIT :batchSize
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING n.id, n.user_id, n.channel, n.template_key, n.payload, n.created_at
+            )
+            SELECT c.id, c.user_id, c.channel::text AS channel, c.template_key, c.payload::text AS payload,
+                   c.created_at, u.email, u.phone, u.name
+            FROM claimed c
+            JOIN users u ON u.id = c.user_id
+            ORDER BY c.id
+            """;
+
+    private static final String MARK_SENT_SQL = """
+            UPDATE notifications
+            SET status = 'SENT', sent_at = now(), claimed_until = NULL
+            WHERE id IN (:ids)
+            """;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private static final RowMapper<NotificationMessage> MESSAGE_MAPPER = (resultSet, rowNum) -> new NotificationMessage(
+            resultSet.getLong("id"),
+            resultSet.getObject("user_id", UUID.class),
+            NotificationChannel.valueOf(resultSet.getString("channel")),
+            resultSet.getString("template_key"),
+            parsePayload(resultSet.getString("payload")),
+            resultSet.getString("email"),
+            resultSet.getString("phone"),
+            resultSet.getString("name"),
+            resultSet.getTimestamp("created_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NotificationRetryScheduler retries;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long leaseSeconds;
+    private final Map<NotificationChannel, Lane> lanes = new EnumMap<>(NotificationChannel.class);
+    private final Map<String, NotificationSecretResolver> secretResolvers = new HashMap<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Future<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private Thread dispatcherThread;
+    private volatile boolean running;
+
+    public NotificationDispatcher(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            List<NotificationProvider> providers,
+            List<NotificationSecretResolver> secretResolvers,
+            NotificationRetryScheduler retries,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.dispatcher.enabled:true}") boolean enabled,
+            @Value("${notifications.dispatcher.batch-size:200}") int batchSize,
+            @Value("${notifications.dispatcher.poll-interval-ms:500}") long pollIntervalMs,
+            @Value("${notifications.dispatcher.lease-seconds:300}") long leaseSeconds,
+            @Value("${notifications.dispatcher.concurrency.email:4}") int emailConcurrency,
+            @Value("${notifications.dispatcher.concurrency.sms:2}") int smsConcurrency,
+            @Value("${notifications.dispatcher.concurrency.push:8}") int pushConcurrency
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retries = retries;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.leaseSeconds = leaseSeconds;
+
+        Map<NotificationChannel, Integer> concurrency = Map.of(
+                NotificationChannel.EMAIL, emailConcurrency,
+                NotificationChannel.SMS, smsConcurrency,
+                NotificationChannel.PUSH, pushConcurrency);
+        for (NotificationProvider provider : providers) {
+            NotificationChannel channel = provider.channel();
+            if (lanes.containsKey(channel)) {
+                throw new IllegalStateException("More than one notification provider for channel " + channel);
+            }
+            lanes.put(channel, new Lane(provider, concurrency.get(channel), meterRegistry));
+        }
+        for (NotificationSecretResolver resolver : secretResolvers) {
+            if (this.secretResolvers.put(resolver.templateKey(), resolver) != null) {
+                throw new IllegalStateException("More than one secret resolver for template " + resolver.templateKey());
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Notification dispatcher disabled");
+            return;
+        }
+        running = true;
+        dispatcherThread = Thread.ofPlatform()
+                .name("notification-dispatcher")
+                .daemon(true)
+                .start(this::pollLoop);
+        log.info("Notification dispatcher started for channels {}", lanes.keySet());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.join(Math.max(pollIntervalMs * 10, 5_000));
+        }
+        // Batches still in flight finish; anything unsent is reclaimed after its lease
+        awaitInFlight(Duration.ofSeconds(30));
+        executor.shutdown();
+    }
+
+    private void pollLoop() {
+        while (running) {
+            int claimed;
+            try {
+                claimed = dispatchBatch();
+            } catch (RuntimeException e) {
+                log.error("Notification dispatcher failed to claim a batch, retrying", e);
+                claimed = 0;
+            }
+            if (claimed < batchSize && !sleep()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim one batch of pending notifications for the channels with spare capacity
+     * and hand it to the providers
+     *
+     * @return number of notifications claimed
+     */
+    int dispatchBatch() {
+        List<String> channels = lanes.entrySet().stream()
+                .filter(entry -> entry.getValue().hasCapacity())
+                .map(entry -> entry.getKey().name())
+                .toList();
+        if (channels.isEmpty()) {
+            return 0;
+        }
+
+        List<NotificationMessage> claimed = jdbcTemplate.query(CLAIM_SQL, new MapSqlParameterSource()
+                .addValue("leaseSeconds", leaseSeconds)
+                .addValue("channels", channels)
+                .addValue("batchSize", batchSize), MESSAGE_MAPPER);
+
+        Map<NotificationChannel, List<NotificationMessage>> byChannel = new EnumMap<>(NotificationChannel.class);
+        for (NotificationMessage message : claimed) {
+            byChannel.computeIfAbsent(message.channel(), channel -> new ArrayList<>()).add(message);
+        }
+        byChannel.forEach((channel, messages) -> {
+            Lane lane = lanes.get(channel);
+            int size = lane.provider.maxBatchSize();
+            for (int from = 0; from < messages.size(); from += size) {
+                submit(lane, List.copyOf(messages.subList(from, Math.min(from + size, messages.size()))));
+            }
+        });
+        return claimed.size();
+    }
+
+    private void submit(Lane lane, List<NotificationMessage> batch) {
+        lane.pending.incrementAndGet();
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            try {
+                send(lane, batch);
+            } finally {
+                lane.pending.decrementAndGet();
+            }
+        }, executor);
+        inFlight.add(future);
+        future.whenComplete((result, error) -> inFlight.remove(future));
+    }
+
+    /**
+     * Send one provider batch within the channel's concurrency limit and record the outcome
+     */
+    void send(Lane lane, List<NotificationMessage> batch) {
+        List<NotificationDelivery> unresolved = new ArrayList<>();
+        List<NotificationMessage> ready = resolveSecrets(batch, unresolved);
+        List<NotificationDelivery> deliveries;
+        try {
+            lane.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            deliveries = ready.isEmpty() ? List.of() : lane.provider.send(ready);
+        } catch (RuntimeException e) {
+            log.warn("{} provider rejected a batch of {} notifications: {}", lane.channel(), ready.size(),
+                    e.getMessage());
+            deliveries = ready.stream().map(message -> NotificationDelivery.failed(message.id(), e.getMessage())).toList();
+        } finally {
+            lane.permits.release();
+        }
+        lane.batchTimer.record(Duration.ofNanos(System.nanoTime() - started));
+
+        Map<Long, NotificationDelivery> byId = new HashMap<>();
+        for (NotificationDelivery delivery : deliveries) {
+            byId.put(delivery.notificationId(), delivery);
+        }
+        for (NotificationDelivery delivery : unresolved) {
+            byId.put(delivery.notificationId(), delivery);
+        }
+        List<Long> sent = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        Instant now = Instant.now();
+        for (NotificationMessage message : batch) {
+            NotificationDelivery delivery = byId.get(message.id());
+            if (delivery != null && delivery.delivered()) {
+                sent.add(message.id());
+                lane.deliveryLagTimer.record(Duration.between(message.createdAt(), now));
+            } else {
+                failed.add(message.id());
+            }
+        }
+
+        try {
+            if (!sent.isEmpty()) {
+                jdbcTemplate.update(MARK_SENT_SQL, new MapSqlParameterSource("ids", sent));
+            }
+            if (!failed.isEmpty()) {
+                retries.recordFailures(lane.channel(), failed);
+            }
+        } catch (RuntimeException e) {
+            // The lease runs out and the batch is sent again: delivery is at-least-once
+            log.error("Failed to record outcome of {} {} notifications", batch.size(), lane.channel(), e);
+            return;
+        }
+        lane.sentCounter.increment(sent.size());
+        lane.failedCounter.increment(failed.size());
+    }
+
+    /**
+     * Add secret payload fields to the messages of templates that have them. A message
+     * whose secrets cannot be resolved is failed and retried like any failed send.
+     */
+    private List<NotificationMessage> resolveSecrets(List<NotificationMessage> batch,
+                                                     List<NotificationDelivery> unresolved) {
+        if (secretResolvers.isEmpty()) {
+            return batch;
+        }
+        List<NotificationMessage> ready = new ArrayList<>(batch.size());
+        for (NotificationMessage message : batch) {
+            NotificationSecretResolver resolver = secretResolvers.get(message.templateKey());
+            if (resolver == null) {
+                ready.add(message);
+                continue;
+            }
+            try {
+                Map<String, Object> payload = new HashMap<>(message.payload());
+                payload.putAll(resolver.resolve(message));
+                ready.add(message.withPayload(payload));
+            } catch (RuntimeException e) {
+                log.warn("Failed to resolve secrets of notification {} ({}): {}", message.id(),
+                        message.templateKey(), e.getMessage());
+                unresolved.add(NotificationDelivery.failed(message.id(), "Secret resolution failed"));
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Wait for batches handed to providers to finish
+     */
+    void awaitInFlight(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Future<?> future : List.copyOf(inFlight)) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                log.error("Notification batch failed", e.getCause());
+            } catch (TimeoutException e) {
+                log.warn("Notification batches still in flight after {}", timeout);
+                return;
+            }
+        }
+    }
+
+    private static Map<String, Object> parsePayload(String json) {
+        try {
+            return OBJECT_MAPPER.readValue(json, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt notification payload", e);
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(pollIntervalMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Provider, concurrency limit and metrics of one channel
+     */
+    static final class Lane {
+
+        private final NotificationProvider provider;
+        private final int concurrency;
+        private final Semaphore permits;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Counter sentCounter;
+        private final Counter failedCounter;
+        private final Timer batchTimer;
+        private final Timer deliveryLagTimer;
+
+        private Lane(NotificationProvider provider, int concurrency, MeterRegistry meterRegistry) {
+            this.provider = provider;
+            this.concurrency = concurrency;
+            this.permits = new Semaphore(concurrency);
+            String channel = provider.channel().name().toLowerCase();
+            this.sentCounter = meterRegistry.counter("notifications.sent", "channel", channel);
+            this.failedCounter = meterRegistry.counter("notifications.failed", "channel", channel);
+            this.batchTimer = Timer.builder("notifications.provider.latency")
+                    .description("Time for a provider to accept one batch")
+                    .tag("channel", channel)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            this.deliveryLagTimer = Timer.builder("notifications.delivery.lag")
+                    .description("Time from notification creation to successful send")
+                    .tag("channel", channel)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            meterRegistry.gauge("notifications.inflight", List.of(Tag.of("channel", channel)), pending);
+        }
+
+        NotificationChannel channel() {
+            return provider.channel();
+        }
+
+        /**
+         * Fewer batches queued or sending than the channel may send at once
+         */
+        boolean hasCapacity() {
+            return pending.get() < concurrency;
+        }
+    }
+}
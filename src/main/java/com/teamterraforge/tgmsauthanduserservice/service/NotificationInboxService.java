@@ -0,0 +1,196 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.NotificationResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A user's notification inbox: keyset pages newest first, read marks and the unread
+ * badge count. Only in-app (PUSH) notifications belong to the inbox; email and SMS rows
+ * are delivery records and never show up here.
+ * <p>
+ * Unread counts are kept in memory per user. A count is loaded from the database the
+ * first time it is asked for, then adjusted as notifications are stored and read, and
+ * counted again once it is older than reconcile-after, which also corrects for
+ * changes made on other instances.
+ */
+@Service
+@Slf4j
+public class NotificationInboxService {
+
+    private final NotificationRepository notificationRepository;
+    private final int maxLimit;
+    private final long reconcileAfterNanos;
+    private final int maxCachedUsers;
+    private final Map<UUID, UnreadCount> unreadCounts = new ConcurrentHashMap<>();
+    private final Counter reconcileCounter;
+
+    public NotificationInboxService(
+            NotificationRepository notificationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.inbox.max-limit:100}") int maxLimit,
+            @Value("${notifications.inbox.unread-reconcile-after-seconds:600}") long reconcileAfterSeconds,
+            @Value("${notifications.inbox.max-cached-users:100000}") int maxCachedUsers
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.maxLimit = maxLimit;
+        this.reconcileAfterNanos = Duration.ofSeconds(reconcileAfterSeconds).toNanos();
+        this.maxCachedUsers = maxCachedUsers;
+        this.reconcileCounter = meterRegistry.counter("notifications.unread.reconciled");
+        meterRegistry.gaugeMapSize("notifications.unread.cached", List.of(), unreadCounts);
+    }
+
+    /**
+     * Page of the user's notifications, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<NotificationResponse> getInbox(UUID userId, int limit, String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int pageSize = Math.min(limit, maxLimit);
+        List<Notification> rows = notificationRepository.findInbox(userId, decode(cursor), Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<NotificationResponse> content = new ArrayList<>(page.size());
+        for (Notification notification : page) {
+            content.add(toResponse(notification));
+        }
+        return CursorPageResponse.<NotificationResponse>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(hasMore ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Number of the user's unread notifications
+     */
+    public long getUnreadCount(UUID userId) {
+        UnreadCount cached = unreadCounts.get(userId);
+        if (cached != null && System.nanoTime() - cached.loadedAt < reconcileAfterNanos) {
+            return cached.count.get();
+        }
+        long count = notificationRepository.countUnread(userId);
+        reconcileCounter.increment();
+        if (unreadCounts.size() < maxCachedUsers || unreadCounts.containsKey(userId)) {
+            unreadCounts.put(userId, new UnreadCount(count, System.nanoTime()));
+        } else {
+            evictStale();
+        }
+        return count;
+    }
+
+    /**
+     * Mark one of the user's notifications read
+     *
+     * @throws EntityNotFoundException if the user has no such notification
+     */
+    @Transactional
+    public void markRead(UUID userId, Long notificationId) {
+        int updated = notificationRepository.markRead(userId, notificationId, Instant.now());
+        if (updated == 0 && !notificationRepository.existsByIdAndUserIdAndChannel(
+                notificationId, userId, NotificationChannel.PUSH)) {
+            throw new EntityNotFoundException("Notification not found with ID: " + notificationId);
+        }
+        adjust(userId, -updated);
+    }
+
+    /**
+     * Mark all of the user's notifications read
+     *
+     * @return number of notifications that were unread
+     */
+    @Transactional
+    public int markAllRead(UUID userId) {
+        int updated = notificationRepository.markAllRead(userId, Instant.now());
+        adjust(userId, -updated);
+        log.debug("Marked {} notifications read for user {}", updated, userId);
+        return updated;
+    }
+
+    /**
+     * Count newly stored in-app notifications towards their recipients' cached unread counts
+     */
+    void recordStored(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (notification.getChannel() == NotificationChannel.PUSH) {
+                adjust(notification.getUserId(), 1);
+            }
+        }
+    }
+
+    /**
+     * Forget all cached unread counts, after notifications were stored in bulk
+     */
+    void resetUnreadCounts() {
+        unreadCounts.clear();
+    }
+
+    private void adjust(UUID userId, long delta) {
+        UnreadCount cached = unreadCounts.get(userId);
+        if (cached != null && delta != 0) {
+            cached.count.updateAndGet(count -> Math.max(0, count + delta));
+        }
+    }
+
+    private void evictStale() {
+        long now = System.nanoTime();
+        unreadCounts.values().removeIf(cached -> now - cached.loadedAt >= reconcileAfterNanos);
+    }
+
+    private static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(CursorCodec.decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    static NotificationResponse toResponse(Notification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .channel(notification.getChannel().name())
+                .templateKey(notification.getTemplateKey())
+                .payload(notification.getPayload())
+                .status(notification.getStatus().name())
+                .readAt(notification.getReadAt())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+
+    private static final class UnreadCount {
+
+        private final AtomicLong count;
+        private final long loadedAt;
+
+        private UnreadCount(long count, long loadedAt) {
+            this.count = new AtomicLong(count);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A claimed notification with its recipient's contact details, handed to a
+ * {@link NotificationProvider}
+ */
+public record NotificationMessage(
+        long id,
+        UUID userId,
+        NotificationChannel channel,
+        String templateKey,
+        Map<String, Object> payload,
+        String email,
+        String phone,
+        String name,
+        Instant createdAt
+) {
+
+    /**
+     * The same message with another payload
+     */
+    public NotificationMessage withPayload(Map<String, Object> payload) {
+        return new NotificationMessage(id, userId, channel, templateKey, payload, email, phone, name, createdAt);
+    }
+}
@@ -0,0 +1,27 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+
+import java.util.List;
+
+/**
+ * Delivers notifications of one channel in batches, e.g. an email API's bulk send or
+ * a push service's multicast
+ */
+public interface NotificationProvider {
+
+    NotificationChannel channel();
+
+    /**
+     * Largest batch accepted by one {@link #send} call
+     */
+    int maxBatchSize();
+
+    /**
+     * Send a batch of at most {@link #maxBatchSize()} messages of this provider's channel
+     *
+     * @return one delivery outcome per message; messages without one count as failed
+     * @throws RuntimeException if the whole batch was rejected
+     */
+    List<NotificationDelivery> send(List<NotificationMessage> messages);
+}
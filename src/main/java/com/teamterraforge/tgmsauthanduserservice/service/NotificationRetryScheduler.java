@@ -0,0 +1,249 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Retries failed notifications with exponential backoff and dead-letters them after
+ * the last attempt.
+ * <p>
+ * A failed send bumps the row's attempts and sets next_attempt_at to the backoff delay
+ * with jitter (half the delay plus a random share of the other half), or moves the row
+ * to DEAD_LETTER once max-attempts is reached. Retry times are kept in a
+ * {@link TimingWheel}, rebuilt from the FAILED rows at startup, and rows are put back
+ * to PENDING for the dispatcher as they fall due, so the table is never polled for
+ * retries. Rows failed on another instance are scheduled by that instance; a periodic
+ * sweep over the next_attempt_at index requeues rows whose instance went away.
+ */
+@Service
+@Slf4j
+public class NotificationRetryScheduler {
+
+    private static final String MARK_FAILED_SQL = """
+            UPDATE notifications
+            SET attempts = attempts + 1,
+                status = (CASE WHEN attempts + 1 >= :maxAttempts THEN 'DEAD_LETTER' ELSE 'FAILED' END)::notification_status,
+                next_attempt_at = CASE WHEN attempts + 1 >= :maxAttempts THEN NULL
+                    ELSE now() + make_interval(secs => least(:maxDelaySeconds, :baseDelaySeconds * power(2, attempts))
+                                                       * (0.5 + random() / 2))
+                END,
+                claimed_until = NULL
+            WHERE id IN (:ids)
+              AND status = 'PENDING'
+            RETURNING id, status::text AS status, next_attempt_at
+            """;
+
+    private static final String REQUEUE_SQL = """
+            UPDATE notifications
+            SET status = 'PENDING', next_attempt_at = NULL, claimed_until = NULL
+            WHERE id IN (:ids)
+              AND status = 'FAILED'
+              AND next_attempt_at <= now()
+            """;
+
+    private static final String LOAD_SQL = """
+            SELECT id, next_attempt_at FROM notifications
+            WHERE status = 'FAILED' AND next_attempt_at IS NOT NULL AND id > :afterId
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String OVERDUE_SQL = """
+            SELECT id FROM notifications
+            WHERE status = 'FAILED'
+              AND next_attempt_at < now() - make_interval(secs => :graceSeconds)
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            """;
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long baseDelaySeconds;
+    private final long maxDelaySeconds;
+    private final long tickMs;
+    private final long sweepGraceSeconds;
+    private final TimingWheel wheel;
+    private final Counter retriedCounter;
+
+    private Thread tickerThread;
+    private volatile boolean running;
+
+    public NotificationRetryScheduler(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.retries.enabled:true}") boolean enabled,
+            @Value("${notifications.retries.max-attempts:5}") int maxAttempts,
+            @Value("${notifications.retries.base-delay-seconds:30}") long baseDelaySeconds,
+            @Value("${notifications.retries.max-delay-seconds:21600}") long maxDelaySeconds,
+            @Value("${notifications.retries.tick-ms:1000}") long tickMs,
+            @Value("${notifications.retries.wheel-size:64}") int wheelSize,
+            @Value("${notifications.retries.wheel-levels:3}") int wheelLevels,
+            @Value("${notifications.retries.sweep-grace-seconds:60}") long sweepGraceSeconds
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.baseDelaySeconds = baseDelaySeconds;
+        this.maxDelaySeconds = maxDelaySeconds;
+        this.tickMs = tickMs;
+        this.sweepGraceSeconds = sweepGraceSeconds;
+        this.wheel = new TimingWheel(tickMs, wheelSize, wheelLevels, System.currentTimeMillis());
+        this.retriedCounter = meterRegistry.counter("notifications.retried");
+        meterRegistry.gauge("notifications.retries.scheduled", wheel, TimingWheel::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Notification retries disabled");
+            return;
+        }
+        int scheduled = rebuild();
+        running = true;
+        tickerThread = Thread.ofPlatform()
+                .name("notification-retries")
+                .daemon(true)
+                .start(this::tickLoop);
+        log.info("Notification retry scheduler started with {} failed notifications awaiting retry", scheduled);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (tickerThread != null) {
+            tickerThread.interrupt();
+            tickerThread.join(5_000);
+        }
+    }
+
+    /**
+     * Load the retry times of all FAILED rows into the wheel
+     *
+     * @return number of rows scheduled
+     */
+    int rebuild() {
+        long afterId = 0;
+        int scheduled = 0;
+        while (true) {
+            List<long[]> page = jdbcTemplate.query(LOAD_SQL, new MapSqlParameterSource()
+                            .addValue("afterId", afterId)
+                            .addValue("limit", PAGE_SIZE),
+                    (resultSet, rowNum) -> new long[]{
+                            resultSet.getLong("id"),
+                            resultSet.getTimestamp("next_attempt_at").getTime()});
+            for (long[] row : page) {
+                wheel.schedule(row[0], row[1]);
+            }
+            scheduled += page.size();
+            if (page.size() < PAGE_SIZE) {
+                return scheduled;
+            }
+            afterId = page.get(page.size() - 1)[0];
+        }
+    }
+
+    /**
+     * Record a failed send: schedule the next attempt, or dead-letter the notifications
+     * that have used up their attempts. Rows no longer PENDING, such as ones another
+     * instance re-claimed after this lease expired and already sent, are left alone.
+     */
+    public void recordFailures(NotificationChannel channel, List<Long> ids) {
+        List<Failure> failures = jdbcTemplate.query(MARK_FAILED_SQL, new MapSqlParameterSource()
+                        .addValue("ids", ids)
+                        .addValue("maxAttempts", maxAttempts)
+                        .addValue("baseDelaySeconds", baseDelaySeconds)
+                        .addValue("maxDelaySeconds", maxDelaySeconds),
+                (resultSet, rowNum) -> new Failure(
+                        resultSet.getLong("id"),
+                        "DEAD_LETTER".equals(resultSet.getString("status")),
+                        resultSet.getTimestamp("next_attempt_at") == null
+                                ? 0 : resultSet.getTimestamp("next_attempt_at").getTime()));
+        int deadLettered = 0;
+        for (Failure failure : failures) {
+            if (failure.deadLettered()) {
+                deadLettered++;
+            } else {
+                wheel.schedule(failure.id(), failure.nextAttemptAtMs());
+            }
+        }
+        if (deadLettered > 0) {
+            log.warn("{} {} notifications dead-lettered after {} attempts", deadLettered, channel, maxAttempts);
+            meterRegistry.counter("notifications.dead_lettered", "channel", channel.name().toLowerCase())
+                    .increment(deadLettered);
+        }
+    }
+
+    /**
+     * Put notifications whose retry time has come back to PENDING
+     *
+     * @return number of notifications requeued
+     */
+    int requeueDue(long nowMs) {
+        List<Long> due = wheel.advance(nowMs);
+        int requeued = 0;
+        for (int from = 0; from < due.size(); from += PAGE_SIZE) {
+            requeued += requeue(due.subList(from, Math.min(from + PAGE_SIZE, due.size())));
+        }
+        return requeued;
+    }
+
+    /**
+     * Requeue rows left overdue, e.g. because the instance that scheduled them stopped
+     */
+    @Scheduled(fixedDelayString = "${notifications.retries.sweep-interval-ms:60000}",
+            initialDelayString = "${notifications.retries.sweep-interval-ms:60000}")
+    public void sweepOverdue() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> overdue = jdbcTemplate.queryForList(OVERDUE_SQL, new MapSqlParameterSource()
+                .addValue("graceSeconds", sweepGraceSeconds)
+                .addValue("limit", PAGE_SIZE), Long.class);
+        if (!overdue.isEmpty()) {
+            int requeued = requeue(overdue);
+            log.info("Requeued {} overdue failed notifications", requeued);
+        }
+    }
+
+    private int requeue(List<Long> ids) {
+        // Rows retried, resent or failed again since they were scheduled are left alone
+        int requeued = jdbcTemplate.update(REQUEUE_SQL, new MapSqlParameterSource("ids", ids));
+        retriedCounter.increment(requeued);
+        return requeued;
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                requeueDue(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                log.error("Failed to requeue notifications due for retry", e);
+            }
+            try {
+                Thread.sleep(tickMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Failure(long id, boolean deadLettered, long nextAttemptAtMs) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.util.Map;
+
+/**
+ * Supplies payload values that must never be stored with a notification, such as a
+ * password reset token. The {@link NotificationDispatcher} asks for them only when a
+ * claimed notification of the template is about to be sent, so they never reach the
+ * notifications table, and providers must not log the rendered body of such templates.
+ */
+public interface NotificationSecretResolver {
+
+    /**
+     * Template whose notifications carry secrets
+     */
+    String templateKey();
+
+    /**
+     * Secret payload fields for one notification, merged over its stored payload
+     */
+    Map<String, Object> resolve(NotificationMessage message);
+}
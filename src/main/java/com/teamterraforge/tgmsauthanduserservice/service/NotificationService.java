@@ -0,0 +1,74 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Entry point for creating notifications. Notifications of coalescable templates pass
+ * through the {@link NotificationCoalescer} first; everything else is stored as a
+ * PENDING row right away for the {@link NotificationDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCoalescer coalescer;
+    private final NotificationInboxService inboxService;
+    private final NotificationStream notificationStream;
+
+    /**
+     * Queue a notification for a user
+     */
+    public void notify(UUID userId, NotificationChannel channel, String templateKey, Map<String, Object> payload) {
+        List<Notification> released = new ArrayList<>(1);
+        if (!coalescer.offer(userId, channel, templateKey, payload, Instant.now(), released)) {
+            released.add(NotificationCoalescer.notification(userId, channel, templateKey, payload));
+        }
+        if (!released.isEmpty()) {
+            store(released);
+        }
+    }
+
+    /**
+     * Store the digests whose coalescing window has closed
+     */
+    @Scheduled(fixedDelayString = "${notifications.coalescing.flush-interval-ms:1000}")
+    public void flushDigests() {
+        List<Notification> released = coalescer.release(Instant.now());
+        if (!released.isEmpty()) {
+            store(released);
+            log.debug("Released {} coalesced notifications", released.size());
+        }
+    }
+
+    @PreDestroy
+    void flushAll() {
+        List<Notification> released = coalescer.releaseAll();
+        if (!released.isEmpty()) {
+            store(released);
+            log.info("Stored {} coalesced notifications at shutdown", released.size());
+        }
+    }
+
+    private void store(List<Notification> notifications) {
+        notificationRepository.saveAll(notifications);
+        AfterCommit.run(() -> {
+            inboxService.recordStored(notifications);
+            notificationStream.publish(notifications);
+        });
+    }
+}
@@ -0,0 +1,318 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.NotificationResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Pushes in-app (PUSH channel) notifications to their recipients' open server-sent-event
+ * connections as soon as they are stored, so clients do not poll the inbox.
+ * <p>
+ * Connections are registered per user, up to max-connections-per-user; a new one
+ * beyond that closes the user's oldest. Each connection has a bounded queue drained by
+ * its own virtual thread. When a slow client lets its queue fill up, the queued
+ * notifications are dropped and the client gets a "resync" event telling it to reload
+ * its inbox instead. Notifications stored in bulk, such as broadcast chunks, are not
+ * queued one by one either: their recipients get a single "resync" event. Delivery is
+ * in-process: a client only hears about notifications stored on the instance it is
+ * connected to, and falls back to the inbox for the rest.
+ */
+@Service
+@Slf4j
+public class NotificationStream {
+
+    // Queued in place of dropped notifications; never sent as a notification
+    private static final NotificationResponse RESYNC = new NotificationResponse();
+
+    // Queued when notifications were stored in bulk; never sent as a notification
+    private static final NotificationResponse BULK_RESYNC = new NotificationResponse();
+
+    private final NotificationInboxService inboxService;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final int maxConnectionsPerUser;
+    private final Map<UUID, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Counter deliveredCounter;
+    private final Counter overflowCounter;
+
+    public NotificationStream(
+            NotificationInboxService inboxService,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.stream.enabled:true}") boolean enabled,
+            @Value("${notifications.stream.queue-capacity:100}") int queueCapacity,
+            @Value("${notifications.stream.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${notifications.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${notifications.stream.max-connections-per-user:5}") int maxConnectionsPerUser
+    ) {
+        this.inboxService = inboxService;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.deliveredCounter = meterRegistry.counter("notifications.stream.delivered");
+        this.overflowCounter = meterRegistry.counter("notifications.stream.overflows");
+        meterRegistry.gauge("notifications.stream.connections", connectionCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::close));
+    }
+
+    /**
+     * Open a notification stream for a user. The first event carries the user's
+     * unread count.
+     */
+    public SseEmitter subscribe(UUID userId) {
+        if (!enabled) {
+            throw new IllegalStateException("Notification stream is disabled");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = register(userId, new NotificationSender() {
+            @Override
+            public void send(NotificationResponse notification) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(notification.getId()))
+                        .name("notification")
+                        .data(notification, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void unread(long count) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .name("unread")
+                        .data(Map.of("unread", count), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void resync(String reason) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .name("resync")
+                        .data(Map.of("reason", reason), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        });
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> connection.close());
+
+        Thread.ofVirtual()
+                .name("notification-stream")
+                .start(() -> {
+                    pump(connection);
+                    emitter.complete();
+                });
+        log.debug("Notification stream opened for user {}", userId);
+        return emitter;
+    }
+
+    Connection register(UUID userId, NotificationSender sender) {
+        Connection connection = new Connection(userId, queueCapacity, sender);
+        List<Connection> evicted = new ArrayList<>();
+        connections.compute(userId, (id, userConnections) -> {
+            Set<Connection> current = userConnections != null ? userConnections : new CopyOnWriteArraySet<>();
+            current.add(connection);
+            for (Connection existing : current) {
+                if (current.size() - evicted.size() <= maxConnectionsPerUser) {
+                    break;
+                }
+                evicted.add(existing);
+            }
+            current.removeAll(evicted);
+            return current;
+        });
+        connectionCount.addAndGet(1 - evicted.size());
+        evicted.forEach(Connection::close);
+        return connection;
+    }
+
+    /**
+     * Queue newly stored PUSH notifications for their recipients' connections
+     */
+    void publish(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (notification.getChannel() != NotificationChannel.PUSH) {
+                continue;
+            }
+            Set<Connection> userConnections = connections.get(notification.getUserId());
+            if (userConnections == null) {
+                continue;
+            }
+            NotificationResponse response = NotificationInboxService.toResponse(notification);
+            for (Connection connection : userConnections) {
+                connection.offer(response, overflowCounter);
+            }
+        }
+    }
+
+    /**
+     * Tell the open connections of matching users to reload their inbox, after
+     * notifications were stored for them in bulk
+     *
+     * @return number of connections told
+     */
+    int resync(Predicate<UUID> users) {
+        int told = 0;
+        for (Map.Entry<UUID, Set<Connection>> entry : connections.entrySet()) {
+            if (!users.test(entry.getKey())) {
+                continue;
+            }
+            for (Connection connection : entry.getValue()) {
+                connection.offer(BULK_RESYNC, overflowCounter);
+                told++;
+            }
+        }
+        return told;
+    }
+
+    /**
+     * Deliver to one connection until it closes
+     */
+    void pump(Connection connection) {
+        try {
+            connection.sender.unread(inboxService.getUnreadCount(connection.userId));
+            while (!connection.closed) {
+                if (drain(connection, heartbeatMs) == 0 && !connection.closed) {
+                    connection.sender.heartbeat();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Notification stream of user {} disconnected: {}", connection.userId, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            unregister(connection);
+        }
+    }
+
+    /**
+     * Send what the connection has queued, waiting up to waitMs for the first item
+     *
+     * @return number of events sent
+     */
+    int drain(Connection connection, long waitMs) throws IOException, InterruptedException {
+        NotificationResponse first = connection.queue.poll(waitMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<NotificationResponse> batch = new ArrayList<>();
+        batch.add(first);
+        connection.queue.drainTo(batch);
+        int delivered = 0;
+        for (NotificationResponse notification : batch) {
+            if (notification == RESYNC) {
+                connection.resynced();
+                connection.sender.resync("overflow");
+            } else if (notification == BULK_RESYNC) {
+                connection.sender.resync("bulk");
+            } else {
+                connection.sender.send(notification);
+                delivered++;
+            }
+        }
+        deliveredCounter.increment(delivered);
+        return batch.size();
+    }
+
+    int connectionCount(UUID userId) {
+        Set<Connection> userConnections = connections.get(userId);
+        return userConnections == null ? 0 : userConnections.size();
+    }
+
+    private void unregister(Connection connection) {
+        connection.close();
+        boolean[] removed = new boolean[1];
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            removed[0] = userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        if (removed[0]) {
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    interface NotificationSender {
+
+        void send(NotificationResponse notification) throws IOException;
+
+        void unread(long count) throws IOException;
+
+        void resync(String reason) throws IOException;
+
+        void heartbeat() throws IOException;
+    }
+
+    /**
+     * One open stream. {@code overflowed} is set when the queue filled up and its
+     * contents were replaced by {@link #RESYNC}, and cleared once that is taken.
+     * At most one {@link #BULK_RESYNC} is queued at a time.
+     */
+    static final class Connection {
+
+        private final UUID userId;
+        private final BlockingQueue<NotificationResponse> queue;
+        private final NotificationSender sender;
+        private boolean overflowed;
+        private volatile boolean closed;
+
+        private Connection(UUID userId, int queueCapacity, NotificationSender sender) {
+            this.userId = userId;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.sender = sender;
+        }
+
+        private synchronized void offer(NotificationResponse notification, Counter overflowCounter) {
+            if (overflowed || closed || (notification == BULK_RESYNC && queue.contains(BULK_RESYNC))) {
+                return;
+            }
+            if (!queue.offer(notification)) {
+                queue.clear();
+                queue.offer(RESYNC);
+                overflowed = true;
+                overflowCounter.increment();
+            }
+        }
+
+        private synchronized void resynced() {
+            overflowed = false;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A notification template compiled once into literal text and variable lookups.
+ * <p>
+ * Templates are plain text with {{variable}} placeholders. A variable names a payload
+ * field, with dots reaching into nested objects ({{booking.date}}), or one of the
+ * recipient fields {{recipient.name}}, {{recipient.email}} and {{recipient.phone}}.
+ * Missing values render as empty text. Rendering only appends the compiled parts, so
+ * the template text is never parsed again.
+ */
+public final class NotificationTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final String RECIPIENT = "recipient.";
+
+    private final String key;
+    private final Part[] parts;
+
+    private NotificationTemplate(String key, Part[] parts) {
+        this.key = key;
+        this.parts = parts;
+    }
+
+    /**
+     * Compile template text
+     *
+     * @throws IllegalArgumentException if a placeholder is unclosed or empty
+     */
+    public static NotificationTemplate compile(String key, String source) {
+        List<Part> parts = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                open = source.length();
+            }
+            if (open > position) {
+                parts.add(new Literal(source.substring(position, open)));
+            }
+            if (open == source.length()) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template " + key + " at offset " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder in template " + key + " at offset " + open);
+            }
+            parts.add(variable(name));
+            position = close + CLOSE.length();
+        }
+        return new NotificationTemplate(key, parts.toArray(Part[]::new));
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Append the template rendered for a message to the buffer
+     */
+    public void renderTo(NotificationMessage message, StringBuilder out) {
+        for (Part part : parts) {
+            part.appendTo(message, out);
+        }
+    }
+
+    private static Part variable(String name) {
+        if (name.startsWith(RECIPIENT)) {
+            String field = name.substring(RECIPIENT.length());
+            return switch (field) {
+                case "name" -> (message, out) -> appendValue(message.name(), out);
+                case "email" -> (message, out) -> appendValue(message.email(), out);
+                case "phone" -> (message, out) -> appendValue(message.phone(), out);
+                default -> throw new IllegalArgumentException("Unknown recipient field: " + field);
+            };
+        }
+        String[] path = name.split("\\.");
+        if (path.length == 1) {
+            return (message, out) -> appendValue(message.payload().get(name), out);
+        }
+        return (message, out) -> appendValue(resolve(message.payload(), path), out);
+    }
+
+    private static Object resolve(Map<String, Object> payload, String[] path) {
+        Object value = payload;
+        for (String segment : path) {
+            if (!(value instanceof Map<?, ?> map)) {
+                return null;
+            }
+            value = map.get(segment);
+        }
+        return value;
+    }
+
+    private static void appendValue(Object value, StringBuilder out) {
+        if (value instanceof CharSequence text) {
+            out.append(text);
+        } else if (value != null) {
+            out.append(value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Part {
+        void appendTo(NotificationMessage message, StringBuilder out);
+    }
+
+    private record Literal(String text) implements Part {
+        @Override
+        public void appendTo(NotificationMessage message, StringBuilder out) {
+            out.append(text);
+        }
+    }
+}
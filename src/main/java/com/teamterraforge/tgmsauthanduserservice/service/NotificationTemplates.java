@@ -0,0 +1,246 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compiled notification templates, cached by template key and locale.
+ * <p>
+ * Templates are read from a local directory: {dir}/{templateKey}.tmpl is the default
+ * and {dir}/{languageTag}/{templateKey}.tmpl a translation, e.g. si/booking.confirmed.tmpl.
+ * The directory is rescanned periodically and only files whose modification time or
+ * size changed are compiled again; a file that fails to compile keeps its previous
+ * version in the cache. Messages pick their locale from the payload's "locale" field.
+ * <p>
+ * Rendering goes into StringBuilders taken from a small pool, so sending a batch does
+ * not allocate a fresh buffer per message.
+ */
+@Service
+@Slf4j
+public class NotificationTemplates {
+
+    static final String EXTENSION = ".tmpl";
+    static final String LOCALE_FIELD = "locale";
+    private static final String ROOT = "";
+
+    private final Path directory;
+    private final String defaultLocale;
+    private final boolean hotReload;
+    private final Buffers buffers;
+    private final Map<TemplateId, NotificationTemplate> cache = new ConcurrentHashMap<>();
+    private final Map<Path, Loaded> files = new ConcurrentHashMap<>();
+
+    public NotificationTemplates(
+            @Value("${notifications.templates.directory:./notification-templates}") String directory,
+            @Value("${notifications.templates.default-locale:en}") String defaultLocale,
+            @Value("${notifications.templates.hot-reload:true}") boolean hotReload,
+            @Value("${notifications.templates.buffer-pool-size:64}") int bufferPoolSize,
+            @Value("${notifications.templates.max-buffer-chars:16384}") int maxBufferChars
+    ) {
+        this.directory = Path.of(directory);
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale).toLanguageTag();
+        this.hotReload = hotReload;
+        this.buffers = new Buffers(bufferPoolSize, maxBufferChars);
+    }
+
+    @PostConstruct
+    void load() {
+        int loaded = reload();
+        log.info("Loaded {} notification templates from {}", loaded, directory.toAbsolutePath());
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.templates.reload-interval-ms:5000}",
+            initialDelayString = "${notifications.templates.reload-interval-ms:5000}")
+    public void refresh() {
+        if (hotReload) {
+            int changed = reload();
+            if (changed > 0) {
+                log.info("Reloaded {} changed notification templates", changed);
+            }
+        }
+    }
+
+    /**
+     * Compile templates added or changed since the last scan and drop deleted ones
+     *
+     * @return number of templates compiled
+     */
+    public synchronized int reload() {
+        if (!Files.isDirectory(directory)) {
+            if (!files.isEmpty()) {
+                log.warn("Notification template directory {} is gone, keeping {} cached templates",
+                        directory, cache.size());
+            }
+            return 0;
+        }
+        List<Path> found;
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            found = paths.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to scan notification templates in {}", directory, e);
+            return 0;
+        }
+
+        int compiled = 0;
+        Set<Path> seen = new HashSet<>();
+        for (Path path : found) {
+            seen.add(path);
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                long modified = attributes.lastModifiedTime().toMillis();
+                Loaded previous = files.get(path);
+                if (previous != null && previous.modified() == modified && previous.size() == attributes.size()) {
+                    continue;
+                }
+                TemplateId id = templateId(path);
+                cache.put(id, NotificationTemplate.compile(id.key(), Files.readString(path, StandardCharsets.UTF_8)));
+                files.put(path, new Loaded(id, modified, attributes.size()));
+                compiled++;
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Failed to load notification template {}, keeping the previous version: {}",
+                        path, e.getMessage());
+            }
+        }
+        files.keySet().removeIf(path -> {
+            if (seen.contains(path)) {
+                return false;
+            }
+            cache.remove(files.get(path).id());
+            log.info("Notification template {} removed", path);
+            return true;
+        });
+        return compiled;
+    }
+
+    /**
+     * Template for a key in the closest available locale: the exact tag, its language,
+     * the default locale, then the untranslated default. Digests fall back to the
+     * template of the notifications they merge.
+     *
+     * @throws IllegalArgumentException if no template exists for the key
+     */
+    public NotificationTemplate find(String templateKey, String locale) {
+        Locale requested = locale == null || locale.isBlank() ? null : Locale.forLanguageTag(locale);
+        if (requested != null) {
+            NotificationTemplate template = cache.get(new TemplateId(templateKey, requested.toLanguageTag()));
+            if (template == null) {
+                template = cache.get(new TemplateId(templateKey, requested.getLanguage()));
+            }
+            if (template != null) {
+                return template;
+            }
+        }
+        NotificationTemplate template = cache.get(new TemplateId(templateKey, defaultLocale));
+        if (template == null) {
+            template = cache.get(new TemplateId(templateKey, ROOT));
+        }
+        if (template == null && templateKey.endsWith(NotificationCoalescer.DIGEST_SUFFIX)) {
+            // A digest without its own template reads like its latest notification
+            return find(templateKey.substring(0, templateKey.length() - NotificationCoalescer.DIGEST_SUFFIX.length()),
+                    locale);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("No notification template: " + templateKey);
+        }
+        return template;
+    }
+
+    /**
+     * Render a message's template as a string
+     */
+    public String render(NotificationMessage message) {
+        StringBuilder buffer = buffers.acquire();
+        try {
+            template(message).renderTo(message, buffer);
+            return buffer.toString();
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /**
+     * Render a message's template into a pooled buffer and hand it to the sink, which
+     * must not keep a reference to it after returning
+     */
+    public void render(NotificationMessage message, Consumer<CharSequence> sink) {
+        StringBuilder buffer = buffers.acquire();
+        try {
+            template(message).renderTo(message, buffer);
+            sink.accept(buffer);
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    private NotificationTemplate template(NotificationMessage message) {
+        Object locale = message.payload().get(LOCALE_FIELD);
+        return find(message.templateKey(), locale == null ? null : locale.toString());
+    }
+
+    private TemplateId templateId(Path path) {
+        String fileName = path.getFileName().toString();
+        String key = fileName.substring(0, fileName.length() - EXTENSION.length());
+        Path relative = directory.relativize(path);
+        if (relative.getNameCount() == 1) {
+            return new TemplateId(key, ROOT);
+        }
+        return new TemplateId(key, Locale.forLanguageTag(relative.getName(0).toString()).toLanguageTag());
+    }
+
+    record TemplateId(String key, String locale) {
+    }
+
+    private record Loaded(TemplateId id, long modified, long size) {
+    }
+
+    /**
+     * Bounded pool of render buffers. Buffers that grew past the size limit are dropped
+     * instead of returned, so one huge message does not pin its memory for good.
+     */
+    static final class Buffers {
+
+        private static final int INITIAL_CAPACITY = 512;
+
+        private final BlockingQueue<StringBuilder> pool;
+        private final int maxChars;
+
+        Buffers(int size, int maxChars) {
+            this.pool = new ArrayBlockingQueue<>(Math.max(1, size));
+            this.maxChars = maxChars;
+        }
+
+        StringBuilder acquire() {
+            StringBuilder buffer = pool.poll();
+            return buffer != null ? buffer : new StringBuilder(INITIAL_CAPACITY);
+        }
+
+        void release(StringBuilder buffer) {
+            if (buffer.capacity() <= maxChars) {
+                buffer.setLength(0);
+                pool.offer(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Keeps the outbox small by removing published rows in bounded batches, each in its
+ * own short transaction.
+ * <p>
+ * Published rows older than the retention window are deleted, or moved to
+ * outbox_archive. Optionally, published USER_UPDATED events superseded by a later
+ * event of the same user are collapsed earlier; every payload carries the full state,
+ * so the latest event is enough for a consumer replaying the change stream.
+ * <p>
+ * A run stops early while replicas lag or the outbox has more dead tuples than
+ * autovacuum has caught up with, so compaction never adds to either.
+ */
+@Service
+@Slf4j
+public class OutboxCompactor {
+
+    public enum Mode {
+        DELETE,
+        ARCHIVE
+    }
+
+    enum Throttle {
+        REPLICATION_LAG,
+        DEAD_TUPLES
+    }
+
+    private static final String RETENTION_SQL = """
+            WITH batch AS (
+                SELECT id FROM outbox
+                WHERE published AND created_at < :cutoff
+                ORDER BY created_at
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            ), removed AS (
+                DELETE FROM outbox o USING batch
+                WHERE o.id = batch.id
+                RETURNING o.id, o.aggregate_type, o.aggregate_id, o.event_type, o.payload, o.created_at, o.published_at
+            )%s, progress AS (
+                UPDATE outbox_compaction
+                SET compacted_through = GREATEST(compacted_through, (SELECT COALESCE(max(id), 0) FROM removed)),
+                    updated_at = now()
+                WHERE id = 1
+            )
+            SELECT count(*) FROM removed
+            """;
+
+    private static final String ARCHIVE_CTE = """
+            , archived AS (
+                INSERT INTO outbox_archive (id, aggregate_type, aggregate_id, event_type, payload, created_at, published_at)
+                SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at, published_at FROM removed
+                ON CONFLICT (id) DO NOTHING
+            )""";
+
+    // Walks published rows in (created_at, id) order so rows that stay are read once per run
+    private static final String COLLAPSE_SQL = """
+            WITH scanned AS (
+                SELECT id, aggregate_type, aggregate_id, event_type, created_at FROM outbox
+                WHERE published AND created_at < :cutoff
+                  AND (created_at, id) > (:afterCreatedAt, :afterId)
+                ORDER BY created_at, id
+                LIMIT :batchSize
+            ), superseded AS (
+                SELECT o.id FROM outbox o
+                JOIN scanned s ON s.id = o.id
+                WHERE s.event_type = 'USER_UPDATED'
+                  AND EXISTS (SELECT 1 FROM outbox later
+                              WHERE later.aggregate_id = s.aggregate_id
+                                AND later.aggregate_type = s.aggregate_type
+                                AND later.id > s.id)
+                FOR UPDATE OF o SKIP LOCKED
+            ), removed AS (
+                DELETE FROM outbox o USING superseded
+                WHERE o.id = superseded.id
+                RETURNING o.id
+            )
+            SELECT (SELECT count(*) FROM removed) AS removed, last.created_at, last.id
+            FROM (SELECT created_at, id FROM scanned ORDER BY created_at DESC, id DESC LIMIT 1) last
+            """;
+
+    private static final String REPLICATION_LAG_SQL = """
+            SELECT COALESCE(max(EXTRACT(EPOCH FROM replay_lag) * 1000), 0)::bigint
+            FROM pg_stat_replication
+            """;
+
+    private static final String DEAD_TUPLES_SQL = """
+            SELECT COALESCE(max(n_dead_tup), 0)
+            FROM pg_stat_user_tables
+            WHERE relid = 'outbox'::regclass
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Mode mode;
+    private final Duration retention;
+    private final boolean collapseSuperseded;
+    private final Duration collapseAfter;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long batchPauseMs;
+    private final long maxReplicationLagMs;
+    private final long maxDeadTuples;
+
+    public OutboxCompactor(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.compaction.enabled:true}") boolean enabled,
+            @Value("${outbox.compaction.mode:DELETE}") Mode mode,
+            @Value("${outbox.compaction.retention-hours:24}") long retentionHours,
+            @Value("${outbox.compaction.collapse-superseded:false}") boolean collapseSuperseded,
+            @Value("${outbox.compaction.collapse-after-minutes:60}") long collapseAfterMinutes,
+            @Value("${outbox.compaction.batch-size:1000}") int batchSize,
+            @Value("${outbox.compaction.max-batches-per-run:100}") int maxBatchesPerRun,
+            @Value("${outbox.compaction.batch-pause-ms:50}") long batchPauseMs,
+            @Value("${outbox.compaction.max-replication-lag-ms:5000}") long maxReplicationLagMs,
+            @Value("${outbox.compaction.max-dead-tuples:200000}") long maxDeadTuples
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.mode = mode;
+        this.retention = Duration.ofHours(retentionHours);
+        this.collapseSuperseded = collapseSuperseded;
+        this.collapseAfter = Duration.ofMinutes(collapseAfterMinutes);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.batchPauseMs = batchPauseMs;
+        this.maxReplicationLagMs = maxReplicationLagMs;
+        this.maxDeadTuples = maxDeadTuples;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.compaction.interval-ms:60000}",
+            initialDelayString = "${outbox.compaction.interval-ms:60000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        long removed = removeExpired(now);
+        long collapsed = collapseSuperseded ? collapseSuperseded(now) : 0;
+        if (removed > 0 || collapsed > 0) {
+            log.info("Outbox compaction: {} published rows {}, {} superseded events collapsed",
+                    removed, mode == Mode.ARCHIVE ? "archived" : "deleted", collapsed);
+        }
+    }
+
+    /**
+     * Delete or archive published rows older than the retention window
+     *
+     * @return number of rows removed from the outbox
+     */
+    long removeExpired(Instant now) {
+        String sql = RETENTION_SQL.formatted(mode == Mode.ARCHIVE ? ARCHIVE_CTE : "");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.from(now.minus(retention)))
+                .addValue("batchSize", batchSize);
+
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (throttled()) {
+                break;
+            }
+            Long removed = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(sql, params, Long.class));
+            long count = removed == null ? 0 : removed;
+            total += count;
+            meterRegistry.counter("outbox.compaction.removed", "reason", "retention").increment(count);
+            if (count < batchSize || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Delete published USER_UPDATED events that a later event of the same user supersedes
+     *
+     * @return number of events collapsed
+     */
+    long collapseSuperseded(Instant now) {
+        Timestamp afterCreatedAt = Timestamp.from(Instant.EPOCH);
+        long afterId = 0;
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (throttled()) {
+                break;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("cutoff", Timestamp.from(now.minus(collapseAfter)))
+                    .addValue("afterCreatedAt", afterCreatedAt)
+                    .addValue("afterId", afterId)
+                    .addValue("batchSize", batchSize);
+            List<CollapseBatch> result = transactionTemplate.execute(status ->
+                    jdbcTemplate.query(COLLAPSE_SQL, params, (resultSet, rowNum) -> new CollapseBatch(
+                            resultSet.getLong("removed"),
+                            resultSet.getTimestamp("created_at"),
+                            resultSet.getLong("id"))));
+            if (result == null || result.isEmpty()) {
+                break;
+            }
+            CollapseBatch last = result.get(0);
+            total += last.removed();
+            meterRegistry.counter("outbox.compaction.removed", "reason", "superseded").increment(last.removed());
+            afterCreatedAt = last.createdAt();
+            afterId = last.id();
+            if (!pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Whether compaction should back off for now
+     */
+    boolean throttled() {
+        Throttle reason = null;
+        Long lagMs = jdbcTemplate.getJdbcTemplate().queryForObject(REPLICATION_LAG_SQL, Long.class);
+        if (lagMs != null && lagMs > maxReplicationLagMs) {
+            reason = Throttle.REPLICATION_LAG;
+            log.info("Outbox compaction paused: replication lag {} ms exceeds {} ms", lagMs, maxReplicationLagMs);
+        } else {
+            Long deadTuples = jdbcTemplate.getJdbcTemplate().queryForObject(DEAD_TUPLES_SQL, Long.class);
+            if (deadTuples != null && deadTuples > maxDeadTuples) {
+                reason = Throttle.DEAD_TUPLES;
+                log.info("Outbox compaction paused: {} dead tuples waiting for vacuum (limit {})",
+                        deadTuples, maxDeadTuples);
+            }
+        }
+        if (reason == null) {
+            return false;
+        }
+        meterRegistry.counter("outbox.compaction.throttled", "reason", reason.name().toLowerCase()).increment();
+        return true;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Rows collapsed by one batch and the (created_at, id) of the last row it scanned
+     */
+    record CollapseBatch(long removed, Timestamp createdAt, long id) {
+    }
+}
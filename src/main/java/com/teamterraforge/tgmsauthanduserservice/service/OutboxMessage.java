@@ -0,0 +1,30 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An outbox row handed to an {@link OutboxSink}; payload is the raw JSON document
+ */
+public record OutboxMessage(
+        long id,
+        String aggregateType,
+        UUID aggregateId,
+        String eventType,
+        String payload,
+        Instant createdAt
+) {
+
+    /**
+     * Maps id, aggregate_type, aggregate_id, event_type, payload (as text) and created_at
+     */
+    static final RowMapper<OutboxMessage> ROW_MAPPER = (resultSet, rowNum) -> new OutboxMessage(
+            resultSet.getLong("id"),
+            resultSet.getString("aggregate_type"),
+            resultSet.getObject("aggregate_id", UUID.class),
+            resultSet.getString("event_type"),
+            resultSet.getString("payload"),
+            resultSet.getTimestamp("created_at").toInstant());
+}
@@ -0,0 +1,191 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes outbox rows to the configured {@link OutboxSink} with N parallel workers.
+ * <p>
+ * Each worker owns the aggregates hashing to its slot and claims its oldest unpublished
+ * rows with FOR UPDATE SKIP LOCKED, so workers never wait on each other. Every instance
+ * runs the same slots, so a worker first takes a transaction-level advisory lock on its
+ * slot and skips the poll if a worker on another instance holds it; events of one
+ * aggregate are therefore always published in order by a single worker at a time.
+ * All instances must run with the same number of workers. Rows are marked
+ * published in the same transaction that claimed them; if the sink or the commit
+ * fails, the rows stay unpublished and are retried.
+ */
+@Service
+@Slf4j
+public class OutboxPublisher {
+
+    // First key of the two-key advisory lock, keeping slot locks apart from other advisory locks
+    private static final int SLOT_LOCK_SPACE = 0x6f757462;
+
+    private static final String LOCK_SLOT_SQL = "SELECT pg_try_advisory_xact_lock(:lockSpace, :worker)";
+
+    private static final String CLAIM_SQL = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload::text AS payload, created_at
+            FROM outbox
+            WHERE NOT published
+              AND (hashtext(aggregate_id::text) & 2147483647) % :workers = :worker
+            ORDER BY id
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE outbox SET published = TRUE, published_at = now() WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMs;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final Timer batchTimer;
+
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public OutboxPublisher(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            OutboxSink sink,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.publisher.enabled:true}") boolean enabled,
+            @Value("${outbox.publisher.workers:4}") int workers,
+            @Value("${outbox.publisher.batch-size:100}") int batchSize,
+            @Value("${outbox.publisher.poll-interval-ms:250}") long pollIntervalMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sink;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+
+        this.publishedCounter = meterRegistry.counter("outbox.events.published");
+        this.failedCounter = meterRegistry.counter("outbox.publish.failed");
+        this.lagTimer = Timer.builder("outbox.publish.lag")
+                .description("Time from outbox insert to successful publish")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.batch.latency")
+                .description("Time to claim, publish and mark one outbox batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Outbox publisher disabled");
+            return;
+        }
+        running = true;
+        for (int worker = 0; worker < workers; worker++) {
+            int slot = worker;
+            workerThreads.add(Thread.ofPlatform()
+                    .name("outbox-publisher-" + slot)
+                    .daemon(true)
+                    .start(() -> pollLoop(slot)));
+        }
+        log.info("Outbox publisher started with {} workers, batch size {}", workers, batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : workerThreads) {
+            thread.join(Math.max(pollIntervalMs * 10, 5_000));
+        }
+    }
+
+    private void pollLoop(int worker) {
+        while (running) {
+            int published;
+            try {
+                published = publishBatch(worker);
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.error("Outbox worker {} failed to publish a batch, retrying", worker, e);
+                published = 0;
+            }
+            // A full batch means more rows are probably waiting
+            if (published < batchSize && !sleep()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim, publish and mark one batch for a worker slot
+     *
+     * @return number of events published
+     */
+    int publishBatch(int worker) {
+        long started = System.nanoTime();
+        List<OutboxMessage> batch = transactionTemplate.execute(status -> {
+            // Held until commit, so the slot's next batch cannot overtake this one on another instance
+            Boolean locked = jdbcTemplate.queryForObject(LOCK_SLOT_SQL, new MapSqlParameterSource()
+                    .addValue("lockSpace", SLOT_LOCK_SPACE)
+                    .addValue("worker", worker), Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) {
+                return List.<OutboxMessage>of();
+            }
+            List<OutboxMessage> claimed = jdbcTemplate.query(CLAIM_SQL, new MapSqlParameterSource()
+                    .addValue("workers", workers)
+                    .addValue("worker", worker)
+                    .addValue("batchSize", batchSize), OutboxMessage.ROW_MAPPER);
+            if (!claimed.isEmpty()) {
+                sink.publish(claimed);
+                List<Long> ids = claimed.stream().map(OutboxMessage::id).toList();
+                jdbcTemplate.update(MARK_PUBLISHED_SQL, new MapSqlParameterSource("ids", ids));
+            }
+            return claimed;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // Recorded only once the batch is committed
+        Instant now = Instant.now();
+        for (OutboxMessage message : batch) {
+            lagTimer.record(Duration.between(message.createdAt(), now));
+        }
+        batchTimer.record(Duration.ofNanos(System.nanoTime() - started));
+        publishedCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(pollIntervalMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.util.List;
+
+/**
+ * Destination for published outbox events.
+ * Delivery is at-least-once: a batch is retried if publish throws or the marking
+ * transaction fails afterwards, so consumers must deduplicate by message id.
+ */
+public interface OutboxSink {
+
+    /**
+     * Deliver a batch, in order. Events of one aggregate always arrive in outbox order.
+     *
+     * @throws RuntimeException if the batch was not accepted
+     */
+    void publish(List<OutboxMessage> messages);
+}
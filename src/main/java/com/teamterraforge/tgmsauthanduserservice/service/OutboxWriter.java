@@ -0,0 +1,68 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.OutboxEvent;
+import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.OutboxEventType;
+import com.teamterraforge.tgmsauthanduserservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Appends events to the outbox inside the caller's transaction, so an event exists
+ * if and only if the change it describes was committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxWriter {
+
+    public static final String AGGREGATE_USER = "USER";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Record a user lifecycle event carrying the user's current public state
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userChanged(OutboxEventType eventType, User user) {
+        append(AGGREGATE_USER, user.getId(), eventType, userPayload(user));
+    }
+
+    /**
+     * Record a user deletion
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userDeleted(UUID userId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", userId.toString());
+        append(AGGREGATE_USER, userId, OutboxEventType.USER_DELETED, payload);
+    }
+
+    private void append(String aggregateType, UUID aggregateId, OutboxEventType eventType, Map<String, Object> payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(payload)
+                .build());
+        log.debug("Outbox event {} recorded for {} {}", eventType, aggregateType, aggregateId);
+    }
+
+    /**
+     * Full public state, so consumers can apply the latest event without replaying
+     * history. Matches the payload built in SQL by UserImportService.
+     */
+    static Map<String, Object> userPayload(User user) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", user.getId().toString());
+        payload.putAll(AuditService.userSnapshot(user));
+        return payload;
+    }
+}
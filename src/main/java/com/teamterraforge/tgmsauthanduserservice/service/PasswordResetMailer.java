@@ -0,0 +1,145 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends password reset emails off the request thread.
+ * <p>
+ * A forgot-password request only queues the email address here, so the endpoint does
+ * the same work, and takes the same time, whether or not an account exists. A
+ * background worker looks the address up and queues an EMAIL notification for the
+ * {@link NotificationDispatcher}. The notification is stored without a token: the
+ * single-use token is issued from the {@link PasswordResetTokenStore} only when the
+ * dispatcher sends the email, so it never sits in the notifications table.
+ * <p>
+ * Before a request is queued it must pass two per-instance throttles over the same
+ * window: one per client address, so one client cannot fill the queue with made-up
+ * emails, and one per email, which also folds repeated requests for one account into
+ * a single lookup. Only requests that pass both and still find the queue full beyond
+ * queue-capacity are dropped.
+ */
+@Service
+@Slf4j
+public class PasswordResetMailer implements NotificationSecretResolver {
+
+    public static final String TEMPLATE_KEY = "password.reset";
+    static final String RESET_TOKEN_FIELD = "resetToken";
+
+    private final UserRepository userRepository;
+    private final PasswordResetTokenStore tokenStore;
+    private final NotificationService notificationService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final RequestThrottle clientThrottle;
+    private final RequestThrottle emailThrottle;
+
+    public PasswordResetMailer(
+            UserRepository userRepository,
+            PasswordResetTokenStore tokenStore,
+            NotificationService notificationService,
+            MeterRegistry meterRegistry,
+            @Value("${password-reset.queue-capacity:1000}") int queueCapacity,
+            @Value("${password-reset.throttle.window-seconds:900}") long throttleWindowSeconds,
+            @Value("${password-reset.throttle.per-client:20}") int perClient,
+            @Value("${password-reset.throttle.per-email:3}") int perEmail,
+            @Value("${password-reset.throttle.max-keys:100000}") int maxThrottledKeys
+    ) {
+        this.userRepository = userRepository;
+        this.tokenStore = tokenStore;
+        this.notificationService = notificationService;
+        this.meterRegistry = meterRegistry;
+        long windowNanos = Duration.ofSeconds(throttleWindowSeconds).toNanos();
+        this.clientThrottle = new RequestThrottle(perClient, windowNanos, maxThrottledKeys);
+        this.emailThrottle = new RequestThrottle(perEmail, windowNanos, maxThrottledKeys);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-reset-mailer").daemon().factory());
+        // Started now so the first request does not pay for creating it
+        this.executor.prestartCoreThread();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String templateKey() {
+        return TEMPLATE_KEY;
+    }
+
+    /**
+     * Issue the reset token for an email the dispatcher is about to send
+     */
+    @Override
+    public Map<String, Object> resolve(NotificationMessage message) {
+        return Map.of(RESET_TOKEN_FIELD, tokenStore.issue(message.userId()));
+    }
+
+    /**
+     * Queue a reset email for the account with this address, if there is one and
+     * neither the client nor the address is over its limit
+     */
+    public void request(String email, String clientAddress) {
+        long now = System.nanoTime();
+        if (!clientThrottle.tryAcquire(clientAddress, now)) {
+            count("throttled_client");
+            log.debug("Password reset request throttled for client {}", clientAddress);
+            return;
+        }
+        if (!emailThrottle.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now)) {
+            count("throttled_email");
+            log.debug("Password reset request throttled for email");
+            return;
+        }
+        try {
+            executor.execute(() -> send(email));
+        } catch (RejectedExecutionException e) {
+            count("dropped");
+            log.warn("Password reset queue is full, request dropped");
+        }
+    }
+
+    /**
+     * Look the address up and queue the reset email
+     */
+    void send(String email) {
+        try {
+            Optional<User> found = userRepository.findByEmailIgnoreCase(email);
+            if (found.isEmpty()) {
+                count("unknown_email");
+                log.debug("Password reset requested for unknown email");
+                return;
+            }
+            User user = found.get();
+            Map<String, Object> payload = Map.of("expiresInMinutes", tokenStore.getTokenValidity().toMinutes());
+            notificationService.notify(user.getId(), NotificationChannel.EMAIL, TEMPLATE_KEY, payload);
+            count("queued");
+            log.info("Password reset email queued for user: {}", user.getId());
+        } catch (RuntimeException e) {
+            count("failed");
+            log.error("Password reset email could not be queued", e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("password.reset.requests", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,204 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-use password reset tokens.
+ * <p>
+ * A token is 32 random bytes, URL-safe base64 encoded. Only its SHA-256 is kept, in
+ * password_reset_tokens and in an in-memory index of tokens issued or checked on this
+ * instance. Checking a token is one index lookup, or one primary-key read when the
+ * index does not know it. Consuming is one DELETE ... RETURNING on the primary key, so
+ * two concurrent resets with the same token cannot both succeed. Expired tokens are
+ * pruned from both every prune interval.
+ */
+@Service
+@Slf4j
+public class PasswordResetTokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO password_reset_tokens (token_hash, user_id, expires_at)
+            VALUES (:tokenHash, :userId, :expiresAt)
+            """;
+
+    private static final String FIND_SQL = """
+            SELECT user_id, expires_at FROM password_reset_tokens
+            WHERE token_hash = :tokenHash AND expires_at > now()
+            """;
+
+    private static final String CONSUME_SQL = """
+            DELETE FROM password_reset_tokens
+            WHERE token_hash = :tokenHash AND expires_at > now()
+            RETURNING user_id
+            """;
+
+    private static final String REVOKE_USER_SQL = "DELETE FROM password_reset_tokens WHERE user_id = :userId";
+
+    private static final String PRUNE_SQL = """
+            DELETE FROM password_reset_tokens
+            WHERE token_hash IN (
+                SELECT token_hash FROM password_reset_tokens
+                WHERE expires_at <= now()
+                LIMIT :batchSize
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Duration tokenValidity;
+    private final int maxCachedTokens;
+    private final int pruneBatchSize;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, IndexedToken> index = new ConcurrentHashMap<>();
+    private final Counter prunedCounter;
+
+    public PasswordResetTokenStore(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${password-reset.token-validity-minutes:60}") long tokenValidityMinutes,
+            @Value("${password-reset.max-cached-tokens:10000}") int maxCachedTokens,
+            @Value("${password-reset.prune-batch-size:1000}") int pruneBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenValidity = Duration.ofMinutes(tokenValidityMinutes);
+        this.maxCachedTokens = maxCachedTokens;
+        this.pruneBatchSize = pruneBatchSize;
+        this.prunedCounter = meterRegistry.counter("password.reset.tokens.pruned");
+        meterRegistry.gaugeMapSize("password.reset.tokens.cached", List.of(), index);
+    }
+
+    public Duration getTokenValidity() {
+        return tokenValidity;
+    }
+
+    /**
+     * Create a token for the user, valid for token-validity-minutes
+     */
+    public String issue(UUID userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        byte[] tokenHash = hash(token);
+        Instant expiresAt = Instant.now().plus(tokenValidity);
+
+        jdbcTemplate.update(INSERT_SQL, new MapSqlParameterSource()
+                .addValue("tokenHash", tokenHash)
+                .addValue("userId", userId)
+                .addValue("expiresAt", Timestamp.from(expiresAt)));
+        remember(HexFormat.of().formatHex(tokenHash), new IndexedToken(userId, expiresAt));
+        return token;
+    }
+
+    /**
+     * Whether the token exists and has not expired. A token used on another instance
+     * may still pass here until it expires; {@link #consume} is what decides.
+     */
+    public boolean isValid(String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        byte[] tokenHash = hash(token);
+        String key = HexFormat.of().formatHex(tokenHash);
+        IndexedToken indexed = index.get(key);
+        if (indexed != null) {
+            if (indexed.expiresAt().isAfter(Instant.now())) {
+                return true;
+            }
+            index.remove(key);
+            return false;
+        }
+        List<IndexedToken> found = jdbcTemplate.query(FIND_SQL, new MapSqlParameterSource("tokenHash", tokenHash),
+                (resultSet, rowNum) -> new IndexedToken(
+                        resultSet.getObject("user_id", UUID.class),
+                        resultSet.getTimestamp("expires_at").toInstant()));
+        if (found.isEmpty()) {
+            return false;
+        }
+        remember(key, found.get(0));
+        return true;
+    }
+
+    /**
+     * Use up a token, along with the rest of its user's outstanding tokens. Runs in the
+     * caller's transaction, so a failed reset leaves the token usable.
+     *
+     * @return the token's user, or empty if the token is unknown, expired or already used
+     */
+    public Optional<UUID> consume(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        byte[] tokenHash = hash(token);
+        index.remove(HexFormat.of().formatHex(tokenHash));
+        List<UUID> consumed = jdbcTemplate.query(CONSUME_SQL, new MapSqlParameterSource("tokenHash", tokenHash),
+                (resultSet, rowNum) -> resultSet.getObject("user_id", UUID.class));
+        if (consumed.isEmpty()) {
+            return Optional.empty();
+        }
+        UUID userId = consumed.get(0);
+        jdbcTemplate.update(REVOKE_USER_SQL, new MapSqlParameterSource("userId", userId));
+        index.values().removeIf(indexed -> indexed.userId().equals(userId));
+        return Optional.of(userId);
+    }
+
+    /**
+     * Drop expired tokens from the index and the table
+     */
+    @Scheduled(fixedDelayString = "${password-reset.prune-interval-ms:300000}")
+    public void prune() {
+        Instant now = Instant.now();
+        index.values().removeIf(indexed -> !indexed.expiresAt().isAfter(now));
+
+        MapSqlParameterSource params = new MapSqlParameterSource("batchSize", pruneBatchSize);
+        int total = 0;
+        int removed;
+        do {
+            removed = jdbcTemplate.update(PRUNE_SQL, params);
+            total += removed;
+        } while (removed == pruneBatchSize);
+        if (total > 0) {
+            prunedCounter.increment(total);
+            log.debug("Pruned {} expired password reset tokens", total);
+        }
+    }
+
+    private void remember(String key, IndexedToken indexed) {
+        if (index.size() < maxCachedTokens) {
+            index.put(key, indexed);
+        }
+    }
+
+    static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record IndexedToken(UUID userId, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-key request limit over a fixed window, kept in memory on this instance.
+ * <p>
+ * At most max-keys windows are tracked. When a new key arrives with the table full,
+ * expired windows are evicted first; if none have expired the request is refused, so
+ * a flood of distinct keys cannot grow the table or get through unthrottled.
+ */
+final class RequestThrottle {
+
+    private final int limit;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    RequestThrottle(int limit, long windowNanos, int maxKeys) {
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Count a request for the key
+     *
+     * @return false if the key has used up its window, or the table is full of live windows
+     */
+    boolean tryAcquire(String key, long now) {
+        if (!windows.containsKey(key) && windows.size() >= maxKeys) {
+            windows.values().removeIf(window -> window.expired(now, windowNanos));
+            if (windows.size() >= maxKeys) {
+                return false;
+            }
+        }
+        Window window = windows.compute(key, (ignored, current) ->
+                current == null || current.expired(now, windowNanos) ? new Window(now, 1) : current.next());
+        return window.count <= limit;
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    private record Window(long startedAt, int count) {
+
+        boolean expired(long now, long windowNanos) {
+            return now - startedAt >= windowNanos;
+        }
+
+        Window next() {
+            return new Window(startedAt, count == Integer.MAX_VALUE ? count : count + 1);
+        }
+    }
+}
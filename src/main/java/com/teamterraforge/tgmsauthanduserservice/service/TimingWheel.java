@@ -0,0 +1,133 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of ids due at a point in time.
+ * <p>
+ * Level 0 has one slot per tick; every level above has slots covering a whole turn of
+ * the level below. An entry sits at the lowest level whose turn reaches its due time
+ * and moves down a level each time its slot comes round, so scheduling is O(1) and
+ * advancing costs one step per elapsed tick plus the entries that fall due. Entries
+ * beyond the top level's turn wait in its last slot and are placed again from there.
+ * <p>
+ * Thread-safe; all methods synchronize on the wheel.
+ */
+final class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] ticksPerSlot;
+    private final List<Entry>[][] slots;
+    private final List<Long> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick, 2+ slots and 1+ levels");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.ticksPerSlot = new long[levels];
+        this.slots = new List[levels][wheelSize];
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            ticksPerSlot[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedule an id to fall due at the given epoch millisecond; ids already due come
+     * out of the next {@link #advance}
+     */
+    synchronized void schedule(long id, long dueAtMs) {
+        place(new Entry(id, Math.ceilDiv(dueAtMs, tickMs)));
+        size++;
+    }
+
+    /**
+     * Move the wheel forward to the given epoch millisecond
+     *
+     * @return ids that fell due, in no particular order
+     */
+    synchronized List<Long> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        int top = ticksPerSlot.length - 1;
+        if (targetTick - currentTick > ticksPerSlot[top] * wheelSize) {
+            // Fell behind by more than the whole wheel: place everything again from scratch
+            List<Entry> entries = new ArrayList<>();
+            for (List<Entry>[] level : slots) {
+                for (int slot = 0; slot < wheelSize; slot++) {
+                    if (level[slot] != null) {
+                        entries.addAll(level[slot]);
+                        level[slot] = null;
+                    }
+                }
+            }
+            currentTick = targetTick;
+            entries.forEach(this::place);
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = top; level > 0; level--) {
+                if (currentTick % ticksPerSlot[level] == 0) {
+                    List<Entry> cascading = take(level, currentTick);
+                    if (cascading != null) {
+                        cascading.forEach(this::place);
+                    }
+                }
+            }
+            List<Entry> expired = take(0, currentTick);
+            if (expired != null) {
+                expired.forEach(entry -> due.add(entry.id()));
+            }
+        }
+        List<Long> result = List.copyOf(due);
+        due.clear();
+        size -= result.size();
+        return result;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.dueTick() - currentTick;
+        if (delta <= 0) {
+            due.add(entry.id());
+            return;
+        }
+        for (int level = 0; level < ticksPerSlot.length; level++) {
+            if (delta < ticksPerSlot[level] * wheelSize) {
+                add(level, entry.dueTick(), entry);
+                return;
+            }
+        }
+        int top = ticksPerSlot.length - 1;
+        add(top, currentTick + ticksPerSlot[top] * wheelSize - 1, entry);
+    }
+
+    private void add(int level, long tick, Entry entry) {
+        int slot = (int) ((tick / ticksPerSlot[level]) % wheelSize);
+        if (slots[level][slot] == null) {
+            slots[level][slot] = new ArrayList<>();
+        }
+        slots[level][slot].add(entry);
+    }
+
+    private List<Entry> take(int level, long tick) {
+        int slot = (int) ((tick / ticksPerSlot[level]) % wheelSize);
+        List<Entry> entries = slots[level][slot];
+        slots[level][slot] = null;
+        return entries;
+    }
+
+    private record Entry(long id, long dueTick) {
+    }
+}
@@ -0,0 +1,508 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.OutboxEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Fans user change events out of the outbox to server-sent-event subscribers.
+ * <p>
+ * A single tail thread follows the outbox id sequence and advances a watermark: every
+ * id at or below it is either committed or will never exist. Ids are allocated before
+ * commit, so a gap in the sequence may still be filled by a running transaction; the
+ * tail waits until every transaction that could hold a missing id has ended (the
+ * snapshot xmin passes an xmax recorded after the gap was seen), or until
+ * {@code max-gap-wait-ms}.
+ * <p>
+ * Live subscribers get events through a bounded queue. A subscriber that resumes from
+ * an older Last-Event-ID, or whose queue overflows, reads from the outbox table itself
+ * until it reaches the watermark, so slow consumers never hold memory or lose events.
+ * Only a subscriber resuming from before rows removed by {@link OutboxCompactor}
+ * retention can have missed events; it gets a RESET event and should reload users.
+ */
+@Service
+@Slf4j
+public class UserChangeFeed {
+
+    private static final String TAIL_SQL = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload::text AS payload, created_at
+            FROM outbox
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String CATCH_UP_SQL = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload::text AS payload, created_at
+            FROM outbox
+            WHERE id > :after AND id <= :until
+              AND aggregate_type = :aggregateType
+              AND event_type IN (:types)
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String SNAPSHOT_SQL = """
+            SELECT pg_snapshot_xmin(s)::text::bigint AS xmin, pg_snapshot_xmax(s)::text::bigint AS xmax,
+                   (SELECT COALESCE(max(id), 0) FROM outbox) AS max_id
+            FROM pg_current_snapshot() AS snap(s)
+            """;
+
+    private static final String COMPACTED_THROUGH_SQL =
+            "SELECT compacted_through FROM outbox_compaction WHERE id = 1";
+
+    /**
+     * Marks a subscriber that starts at the watermark rather than a Last-Event-ID
+     */
+    private static final long FROM_NOW = -1;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long maxGapWaitMs;
+    private final int queueCapacity;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+
+    private final Counter gapsSkippedCounter;
+    private final Counter overflowCounter;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private volatile long watermark = -1;
+    private Horizon pendingHorizon;
+    private Thread tailThread;
+    private volatile boolean running;
+
+    public UserChangeFeed(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${user-changes.enabled:true}") boolean enabled,
+            @Value("${user-changes.batch-size:500}") int batchSize,
+            @Value("${user-changes.poll-interval-ms:250}") long pollIntervalMs,
+            @Value("${user-changes.max-gap-wait-ms:30000}") long maxGapWaitMs,
+            @Value("${user-changes.queue-capacity:1000}") int queueCapacity,
+            @Value("${user-changes.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${user-changes.timeout-ms:1800000}") long timeoutMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxGapWaitMs = maxGapWaitMs;
+        this.queueCapacity = queueCapacity;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+
+        this.gapsSkippedCounter = meterRegistry.counter("user.changes.gaps.skipped");
+        this.overflowCounter = meterRegistry.counter("user.changes.overflows");
+        meterRegistry.gaugeCollectionSize("user.changes.subscribers", List.of(), subscriptions);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("User change feed disabled");
+            return;
+        }
+        running = true;
+        tailThread = Thread.ofPlatform()
+                .name("user-change-feed")
+                .daemon(true)
+                .start(this::tailLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        subscriptions.forEach(Subscription::close);
+        if (tailThread != null) {
+            tailThread.join(Math.max(pollIntervalMs * 10, 5_000));
+        }
+    }
+
+    /**
+     * Open a change stream for events after {@code lastEventId}, or from now if null
+     *
+     * @param types comma-separated event types to deliver; all if blank
+     */
+    public SseEmitter subscribe(Long lastEventId, String types) {
+        if (!enabled) {
+            throw new IllegalStateException("User change feed is disabled");
+        }
+        if (lastEventId != null && lastEventId < 0) {
+            throw new IllegalArgumentException("Last-Event-ID must not be negative");
+        }
+        Set<OutboxEventType> eventTypes = parseTypes(types);
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = register(lastEventId, eventTypes, new ChangeSender() {
+            @Override
+            public void send(OutboxMessage change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.id()))
+                        .name(change.eventType())
+                        .data(change.payload(), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void reset(long position) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(position))
+                        .name("RESET")
+                        .data(Map.of("resumeFrom", position), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+
+        Thread.ofVirtual()
+                .name("user-change-subscriber")
+                .start(() -> {
+                    pump(subscription);
+                    emitter.complete();
+                });
+        log.info("User change subscriber connected - from: {}, types: {}",
+                lastEventId == null ? "now" : lastEventId, eventTypes);
+        return emitter;
+    }
+
+    static Set<OutboxEventType> parseTypes(String types) {
+        if (types == null || types.isBlank()) {
+            return EnumSet.allOf(OutboxEventType.class);
+        }
+        try {
+            Set<OutboxEventType> parsed = Arrays.stream(types.split(","))
+                    .map(String::trim)
+                    .filter(type -> !type.isEmpty())
+                    .map(type -> OutboxEventType.valueOf(type.toUpperCase()))
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(OutboxEventType.class)));
+            return parsed.isEmpty() ? EnumSet.allOf(OutboxEventType.class) : parsed;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown event type in: " + types
+                    + ". Supported: " + Arrays.toString(OutboxEventType.values()));
+        }
+    }
+
+    Subscription register(Long lastEventId, Set<OutboxEventType> types, ChangeSender sender) {
+        Subscription subscription = new Subscription(
+                lastEventId == null ? FROM_NOW : lastEventId, types, queueCapacity, sender);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    long watermark() {
+        return watermark;
+    }
+
+    private void tailLoop() {
+        while (running) {
+            int advanced;
+            try {
+                advanced = poll();
+            } catch (RuntimeException e) {
+                log.error("User change feed failed to read the outbox, retrying", e);
+                advanced = 0;
+            }
+            if (advanced < batchSize && !sleep(pollIntervalMs)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read the outbox past the watermark, advance it over settled ids and fan the new
+     * user events out to live subscribers
+     *
+     * @return number of outbox ids the watermark moved over
+     */
+    int poll() {
+        Snapshot snapshot = null;
+        if (watermark < 0) {
+            // Ids below the current max may belong to transactions still running
+            snapshot = snapshot();
+            if (pendingHorizon == null) {
+                pendingHorizon = new Horizon(-1, snapshot.maxId(), System.nanoTime());
+                return 0;
+            }
+            if (!horizonPassed(snapshot)) {
+                return 0;
+            }
+            watermark = pendingHorizon.highestId();
+            pendingHorizon = null;
+            log.info("User change feed started at outbox id {}", watermark);
+        }
+
+        long from = watermark;
+        long through = from;
+        List<OutboxMessage> rows = jdbcTemplate.query(TAIL_SQL, new MapSqlParameterSource()
+                .addValue("after", from)
+                .addValue("limit", batchSize), OutboxMessage.ROW_MAPPER);
+        List<OutboxMessage> settled = new ArrayList<>(rows.size());
+
+        for (OutboxMessage row : rows) {
+            if (row.id() > through + 1 && pendingHorizon != null && through < pendingHorizon.highestId()) {
+                if (snapshot == null) {
+                    snapshot = snapshot();
+                }
+                if (horizonPassed(snapshot)) {
+                    // Nothing can fill ids up to the horizon any more
+                    through = Math.min(row.id() - 1, pendingHorizon.highestId());
+                }
+            }
+            if (row.id() > through + 1) {
+                if (pendingHorizon == null || through >= pendingHorizon.highestId()) {
+                    pendingHorizon = new Horizon(-1, rows.getLast().id(), System.nanoTime());
+                }
+                break;
+            }
+            through = row.id();
+            if (OutboxWriter.AGGREGATE_USER.equals(row.aggregateType())) {
+                settled.add(row);
+            }
+        }
+        if (pendingHorizon != null && through >= pendingHorizon.highestId()) {
+            pendingHorizon = null;
+        }
+        if (through == from) {
+            return 0;
+        }
+
+        watermark = through;
+        for (Subscription subscription : subscriptions) {
+            offer(subscription, settled, through);
+        }
+        return (int) (through - from);
+    }
+
+    private void offer(Subscription subscription, List<OutboxMessage> changes, long through) {
+        synchronized (subscription) {
+            if (!subscription.live) {
+                return;
+            }
+            for (OutboxMessage change : changes) {
+                if (change.id() <= subscription.through) {
+                    continue;
+                }
+                if (subscription.accepts(change) && !subscription.queue.offer(change)) {
+                    // Falls back to reading the table once the queue has drained
+                    subscription.live = false;
+                    overflowCounter.increment();
+                    return;
+                }
+                subscription.through = change.id();
+            }
+            subscription.through = Math.max(subscription.through, through);
+        }
+    }
+
+    /**
+     * Deliver events to one subscriber until it disconnects
+     */
+    void pump(Subscription subscription) {
+        try {
+            while (!subscription.closed) {
+                if (drain(subscription, heartbeatMs) > 0) {
+                    continue;
+                }
+                if (subscription.isLive()) {
+                    subscription.sender.heartbeat();
+                } else if (!sleep(pollIntervalMs)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("User change subscriber disconnected: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+            subscriptions.remove(subscription);
+        }
+    }
+
+    /**
+     * Send whatever the subscriber can get right now: its queue when live, otherwise
+     * the rest of its queue and then one page read from the outbox
+     *
+     * @return number of events sent
+     */
+    int drain(Subscription subscription, long waitMs) throws IOException, InterruptedException {
+        List<OutboxMessage> batch = new ArrayList<>();
+        if (subscription.isLive()) {
+            OutboxMessage first = subscription.queue.poll(waitMs, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return 0;
+            }
+            batch.add(first);
+        }
+        subscription.queue.drainTo(batch);
+        if (batch.isEmpty()) {
+            return catchUp(subscription);
+        }
+        for (OutboxMessage change : batch) {
+            subscription.sender.send(change);
+        }
+        return batch.size();
+    }
+
+    private int catchUp(Subscription subscription) throws IOException {
+        long until = watermark;
+        if (until < 0) {
+            return 0;
+        }
+        if (subscription.through == FROM_NOW) {
+            subscription.through = until;
+        }
+
+        int sent = 0;
+        if (subscription.through < until) {
+            Long compactedThrough = jdbcTemplate.queryForObject(
+                    COMPACTED_THROUGH_SQL, new MapSqlParameterSource(), Long.class);
+            if (compactedThrough != null && subscription.through < compactedThrough) {
+                // Events after its position were removed by retention before it read them
+                subscription.sender.reset(compactedThrough);
+                subscription.through = compactedThrough;
+                return 1;
+            }
+            List<OutboxMessage> page = jdbcTemplate.query(CATCH_UP_SQL, new MapSqlParameterSource()
+                    .addValue("after", subscription.through)
+                    .addValue("until", until)
+                    .addValue("aggregateType", OutboxWriter.AGGREGATE_USER)
+                    .addValue("types", subscription.types.stream().map(Enum::name).toList())
+                    .addValue("limit", batchSize), OutboxMessage.ROW_MAPPER);
+            for (OutboxMessage change : page) {
+                subscription.sender.send(change);
+                subscription.through = change.id();
+            }
+            if (page.size() < batchSize) {
+                subscription.through = until;
+            }
+            sent = page.size();
+        }
+
+        synchronized (subscription) {
+            // The tail only offers to live subscribers, and only ids past their position
+            if (subscription.through >= watermark) {
+                subscription.live = true;
+            }
+        }
+        return sent;
+    }
+
+    private boolean horizonPassed(Snapshot snapshot) {
+        Horizon horizon = pendingHorizon;
+        if (horizon.xmax() < 0) {
+            // Recorded a poll after the gap was seen, by when the INSERT that drew a
+            // missing id has finished and its transaction has an xid below this xmax
+            pendingHorizon = new Horizon(snapshot.xmax(), horizon.highestId(), horizon.seenAtNanos());
+            return false;
+        }
+        if (snapshot.xmin() >= horizon.xmax()) {
+            return true;
+        }
+        if (System.nanoTime() - horizon.seenAtNanos() < TimeUnit.MILLISECONDS.toNanos(maxGapWaitMs)) {
+            return false;
+        }
+        gapsSkippedCounter.increment();
+        log.warn("Outbox ids up to {} still missing after {} ms, skipping them", horizon.highestId(), maxGapWaitMs);
+        return true;
+    }
+
+    private Snapshot snapshot() {
+        return jdbcTemplate.queryForObject(SNAPSHOT_SQL, new MapSqlParameterSource(), (resultSet, rowNum) ->
+                new Snapshot(resultSet.getLong("xmin"), resultSet.getLong("xmax"), resultSet.getLong("max_id")));
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gap below {@code highestId} waiting to settle; xmax is -1 until recorded
+     */
+    private record Horizon(long xmax, long highestId, long seenAtNanos) {
+    }
+
+    record Snapshot(long xmin, long xmax, long maxId) {
+    }
+
+    interface ChangeSender {
+
+        void send(OutboxMessage change) throws IOException;
+
+        void reset(long position) throws IOException;
+
+        void heartbeat() throws IOException;
+    }
+
+    /**
+     * One connected client. {@code through} is the last outbox id delivered, queued or
+     * filtered out for it; {@code live} and {@code through} are guarded by the
+     * subscription's monitor while the tail may touch them.
+     */
+    static final class Subscription {
+
+        private final Set<OutboxEventType> types;
+        private final Set<String> typeNames;
+        private final BlockingQueue<OutboxMessage> queue;
+        private final ChangeSender sender;
+        private long through;
+        private boolean live;
+        private volatile boolean closed;
+
+        private Subscription(long through, Set<OutboxEventType> types, int queueCapacity, ChangeSender sender) {
+            this.through = through;
+            this.types = types;
+            this.typeNames = types.stream().map(Enum::name).collect(Collectors.toUnmodifiableSet());
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.sender = sender;
+        }
+
+        boolean accepts(OutboxMessage change) {
+            return typeNames.contains(change.eventType());
+        }
+
+        synchronized boolean isLive() {
+            return live;
+        }
+
+        void close() {
+            closed = true;
+        }
+    }
+}
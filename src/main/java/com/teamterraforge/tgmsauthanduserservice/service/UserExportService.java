@@ -0,0 +1,156 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Service for streaming user export.
+ * Rows are read through a server-side cursor inside a read-only transaction and written
+ * to the response as they arrive, so memory use does not grow with the table.
+ */
+@Service
+@Slf4j
+public class UserExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT id, email, name, phone, role, created_at, last_login FROM users ORDER BY id";
+
+    private static final String CSV_HEADER = "id,email,name,phone,role,createdAt,lastLogin\n";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${user-export.fetch-size:1000}")
+    private int fetchSize;
+
+    public UserExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Stream all users to the given output in the requested format
+     */
+    public void exportUsers(OutputStream output, UserDataFormat format) throws IOException {
+        log.info("Starting user export - format: {}, fetch size: {}", format, fetchSize);
+
+        try {
+            long rows = format == UserDataFormat.CSV ? exportCsv(output) : exportNdjson(output);
+            log.info("User export finished - {} rows written", rows);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long exportNdjson(OutputStream output) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            long rows = streamRows(resultSet -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeStringField("id", resultSet.getString("id"));
+                    generator.writeStringField("email", resultSet.getString("email"));
+                    generator.writeStringField("name", resultSet.getString("name"));
+                    generator.writeStringField("phone", resultSet.getString("phone"));
+                    generator.writeStringField("role", resultSet.getString("role"));
+                    generator.writeStringField("createdAt", isoTimestamp(resultSet.getTimestamp("created_at")));
+                    generator.writeStringField("lastLogin", isoTimestamp(resultSet.getTimestamp("last_login")));
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            return rows;
+        }
+    }
+
+    private long exportCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+
+        StringBuilder line = new StringBuilder(256);
+        long rows = streamRows(resultSet -> {
+            line.setLength(0);
+            CsvSupport.appendField(line, resultSet.getString("id"));
+            line.append(',');
+            CsvSupport.appendField(line, resultSet.getString("email"));
+            line.append(',');
+            CsvSupport.appendField(line, resultSet.getString("name"));
+            line.append(',');
+            CsvSupport.appendField(line, resultSet.getString("phone"));
+            line.append(',');
+            CsvSupport.appendField(line, resultSet.getString("role"));
+            line.append(',');
+            CsvSupport.appendField(line, isoTimestamp(resultSet.getTimestamp("created_at")));
+            line.append(',');
+            CsvSupport.appendField(line, isoTimestamp(resultSet.getTimestamp("last_login")));
+            line.append('\n');
+            try {
+                writer.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Run the export query with a cursor-sized fetch inside a read-only transaction
+     */
+    private long streamRows(RowWriter rowWriter) {
+        long[] count = {0};
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> {
+                    rowWriter.write(resultSet);
+                    count[0]++;
+                }));
+        return count[0];
+    }
+
+    private static String isoTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().toString() : null;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet resultSet) throws SQLException;
+    }
+}
@@ -0,0 +1,129 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamterraforge.tgmsauthanduserservice.dto.RegisterRequest;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming reader for bulk user import payloads.
+ * Reads one line at a time so the payload is never held in memory.
+ */
+public class UserImportReader implements Closeable {
+
+    /**
+     * A parsed import row; either request or error is set
+     */
+    public record Row(long line, RegisterRequest request, String error) {
+    }
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("email", "password", "name");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final BufferedReader reader;
+    private final UserDataFormat format;
+    private Map<String, Integer> columns;
+    private long line;
+
+    public UserImportReader(InputStream input, UserDataFormat format) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+    }
+
+    /**
+     * Read the next non-blank row, or null at end of input
+     */
+    public Row next() throws IOException {
+        if (format == UserDataFormat.CSV && columns == null) {
+            readHeader();
+        }
+
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            RegisterRequest request = format == UserDataFormat.CSV ? parseCsv(text) : parseJson(text);
+            return new Row(line, request, null);
+        } catch (Exception e) {
+            return new Row(line, null, "Malformed row: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        line++;
+        if (header == null) {
+            columns = Map.of();
+            return;
+        }
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+
+        Map<String, Integer> parsed = new HashMap<>();
+        List<String> names = CsvSupport.parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            parsed.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!parsed.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing required column: " + required);
+            }
+        }
+        columns = parsed;
+    }
+
+    private RegisterRequest parseCsv(String text) {
+        List<String> fields = CsvSupport.parseLine(text);
+        String role = field(fields, "role");
+
+        return RegisterRequest.builder()
+                .email(field(fields, "email"))
+                .password(field(fields, "password"))
+                .name(field(fields, "name"))
+                .phone(field(fields, "phone"))
+                .role(role != null ? UserRole.valueOf(role.toUpperCase(Locale.ROOT)) : UserRole.TOURIST)
+                .build();
+    }
+
+    private RegisterRequest parseJson(String text) throws IOException {
+        RegisterRequest request = OBJECT_MAPPER.readValue(text, RegisterRequest.class);
+        if (request.getRole() == null) {
+            request.setRole(UserRole.TOURIST);
+        }
+        return request;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,290 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.RegisterRequest;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserImportError;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserImportResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Service for bulk user import.
+ * Rows are streamed in fixed-size chunks: passwords are hashed in parallel, the chunk is
+ * loaded into a temporary staging table with COPY and merged into users in one statement.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE user_import_staging (
+                line_no       BIGINT NOT NULL,
+                email         VARCHAR(255) NOT NULL,
+                password_hash TEXT NOT NULL,
+                name          VARCHAR(200) NOT NULL,
+                phone         VARCHAR(30),
+                role          VARCHAR(20) NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL =
+            "COPY user_import_staging (line_no, email, password_hash, name, phone, role) FROM STDIN WITH (FORMAT csv)";
+
+    // Also writes a USER_CREATED outbox event per inserted user, with the same payload
+    // as OutboxWriter, in the chunk's transaction
+    private static final String MERGE_SQL = """
+            WITH inserted AS (
+                INSERT INTO users (email, password_hash, name, phone, role)
+                SELECT email, password_hash, name, phone, role::user_role
+                FROM user_import_staging
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, email, name, phone, role
+            ), outboxed AS (
+                INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload)
+                SELECT 'USER', id, 'USER_CREATED',
+                       jsonb_build_object('id', id, 'email', email, 'name', name, 'phone', phone, 'role', role)
+                FROM inserted
+            )
+            SELECT s.line_no, s.email
+            FROM user_import_staging s
+            WHERE NOT EXISTS (SELECT 1 FROM inserted i WHERE i.email = s.email)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final UserStatsService userStatsService;
+    private final ForkJoinPool hashingPool;
+
+    @Value("${user-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${user-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public UserImportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            UserStatsService userStatsService,
+            @Value("${user-import.hashing-threads:0}") int hashingThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.userStatsService = userStatsService;
+        this.hashingPool = new ForkJoinPool(
+                hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Import users from a streamed CSV or NDJSON payload
+     */
+    public UserImportResponse importUsers(InputStream input, UserDataFormat format) throws IOException {
+        log.info("Starting bulk user import - format: {}, chunk size: {}", format, chunkSize);
+
+        ImportReport report = new ImportReport(maxReportedErrors);
+        List<UserImportReader.Row> chunk = new ArrayList<>(chunkSize);
+
+        try (UserImportReader reader = new UserImportReader(input, format)) {
+            UserImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                report.totalRows++;
+
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    report.reject(row.line(), row.request() != null ? row.request().getEmail() : null, error);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        flush(chunk, report);
+
+        log.info("Bulk user import finished - total: {}, imported: {}, failed: {}",
+                report.totalRows, report.imported, report.failed);
+
+        return UserImportResponse.builder()
+                .totalRows(report.totalRows)
+                .imported(report.imported)
+                .failed(report.failed)
+                .errors(report.errors)
+                .errorsTruncated(report.failed > report.errors.size())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    /**
+     * Hash, stage and merge one chunk of valid rows in its own transaction
+     */
+    private void flush(List<UserImportReader.Row> rows, ImportReport report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<UserImportReader.Row> unique = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        for (UserImportReader.Row row : rows) {
+            String email = row.request().getEmail().trim().toLowerCase(Locale.ROOT);
+            if (seen.add(email)) {
+                unique.add(row);
+            } else {
+                report.reject(row.line(), email, "Duplicate email in import");
+            }
+        }
+
+        List<String> hashes = hashingPool.submit(() -> unique.parallelStream()
+                .map(row -> passwordEncoder.encode(row.request().getPassword()))
+                .toList()).join();
+
+        StringBuilder copyData = new StringBuilder(unique.size() * 160);
+        for (int i = 0; i < unique.size(); i++) {
+            appendCopyRow(copyData, unique.get(i), hashes.get(i));
+        }
+
+        try {
+            List<UserImportError> conflicts = transactionTemplate.execute(status ->
+                    jdbcTemplate.execute((ConnectionCallback<List<UserImportError>>) connection -> {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute(CREATE_STAGING_SQL);
+                        }
+                        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                        try {
+                            copyManager.copyIn(COPY_SQL, new StringReader(copyData.toString()));
+                        } catch (IOException e) {
+                            throw new SQLException("Failed to stream import chunk", e);
+                        }
+                        return readConflicts(connection);
+                    }));
+
+            Set<Long> conflictLines = new HashSet<>();
+            for (UserImportError conflict : conflicts) {
+                conflictLines.add(conflict.getLine());
+                report.reject(conflict.getLine(), conflict.getEmail(), conflict.getMessage());
+            }
+            report.imported += unique.size() - conflicts.size();
+            recordSignups(unique, conflictLines);
+        } catch (DataAccessException e) {
+            log.error("Bulk import chunk failed", e);
+            for (UserImportReader.Row row : unique) {
+                report.reject(row.line(), row.request().getEmail(), "Import failed: database error");
+            }
+        }
+    }
+
+    private void recordSignups(List<UserImportReader.Row> rows, Set<Long> conflictLines) {
+        Map<UserRole, Long> importedByRole = new EnumMap<>(UserRole.class);
+        for (UserImportReader.Row row : rows) {
+            if (!conflictLines.contains(row.line())) {
+                importedByRole.merge(row.request().getRole(), 1L, Long::sum);
+            }
+        }
+        importedByRole.forEach(userStatsService::recordSignups);
+    }
+
+    private List<UserImportError> readConflicts(Connection connection) throws SQLException {
+        List<UserImportError> conflicts = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(MERGE_SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                conflicts.add(UserImportError.builder()
+                        .line(resultSet.getLong(1))
+                        .email(resultSet.getString(2))
+                        .message("Email already registered")
+                        .build());
+            }
+        }
+        return conflicts;
+    }
+
+    private void appendCopyRow(StringBuilder out, UserImportReader.Row row, String passwordHash) {
+        RegisterRequest request = row.request();
+        out.append(row.line()).append(',');
+        CsvSupport.appendField(out, request.getEmail().trim().toLowerCase(Locale.ROOT));
+        out.append(',');
+        CsvSupport.appendField(out, passwordHash);
+        out.append(',');
+        CsvSupport.appendField(out, request.getName().trim());
+        out.append(',');
+        CsvSupport.appendField(out, request.getPhone());
+        out.append(',');
+        CsvSupport.appendField(out, request.getRole().name());
+        out.append('\n');
+    }
+
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<RegisterRequest> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    /**
+     * Running totals and a bounded list of rejected rows
+     */
+    private static final class ImportReport {
+
+        private final int maxErrors;
+        private final List<UserImportError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long failed;
+
+        private ImportReport(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long line, String email, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(UserImportError.builder()
+                        .line(line)
+                        .email(email)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+}
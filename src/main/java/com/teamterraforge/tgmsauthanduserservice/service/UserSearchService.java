@@ -0,0 +1,146 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for admin user search.
+ * Matches partial name, email or phone, ranks each user by the trigram similarity of
+ * its best matching field and pages with a (score, id) keyset cursor.
+ * <p>
+ * Each field is searched through its GiST trigram index in similarity order and stops
+ * after one page, so a broad term never ranks every matching user. A user's score is its
+ * similarity on a field it matched, which makes the union of the per-field pages hold
+ * the best page overall.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchService {
+
+    private static final int MIN_QUERY_LENGTH = 3;
+
+    private static final String SCORE = """
+            GREATEST(CASE WHEN u.name ILIKE :pattern THEN similarity(u.name, :q) END,
+                     CASE WHEN u.email ILIKE :pattern THEN similarity(u.email, :q) END,
+                     CASE WHEN u.phone ILIKE :pattern THEN similarity(u.phone, :q) END)::float8""";
+
+    // One page per field, read from the GiST index in distance order
+    private static final String FIELD_CANDIDATES_SQL = """
+            (SELECT u.id, u.email, u.name, u.phone, u.role::text AS role, u.created_at, u.last_login,
+                    %1$s AS score
+             FROM users u
+             WHERE u.%2$s ILIKE :pattern
+               AND (%1$s < :afterScore OR (%1$s = :afterScore AND u.id > :afterId))
+             ORDER BY u.%2$s <-> :q, u.id
+             LIMIT :limit)""";
+
+    private static final String SEARCH_SQL = """
+            SELECT id, email, name, phone, role, created_at, last_login, score
+            FROM (
+                %s
+                UNION
+                %s
+                UNION
+                %s
+            ) candidates
+            ORDER BY score DESC, id
+            LIMIT :limit
+            """.formatted(
+            FIELD_CANDIDATES_SQL.formatted(SCORE, "name"),
+            FIELD_CANDIDATES_SQL.formatted(SCORE, "email"),
+            FIELD_CANDIDATES_SQL.formatted(SCORE, "phone"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${user-search.max-limit:100}")
+    private int maxLimit;
+
+    /**
+     * Search users by partial name, email or phone, best matches first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserResponse> searchUsers(String query, int limit, String cursor) {
+        String term = query != null ? query.trim() : "";
+        if (term.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int pageSize = Math.min(limit, maxLimit);
+
+        double afterScore = Double.MAX_VALUE;
+        UUID afterId = new UUID(0L, 0L);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                afterScore = Double.parseDouble(parts[0]);
+                afterId = UUID.fromString(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        log.debug("Searching users - query: {}, limit: {}", term, pageSize);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", term)
+                .addValue("pattern", "%" + escapeLike(term) + "%")
+                .addValue("afterScore", afterScore)
+                .addValue("afterId", afterId)
+                .addValue("limit", pageSize + 1);
+
+        List<UserResponse> users = new ArrayList<>(pageSize + 1);
+        List<Double> scores = new ArrayList<>(pageSize + 1);
+        jdbcTemplate.query(SEARCH_SQL, params, resultSet -> {
+            users.add(UserResponse.builder()
+                    .id(resultSet.getObject("id", UUID.class))
+                    .email(resultSet.getString("email"))
+                    .name(resultSet.getString("name"))
+                    .phone(resultSet.getString("phone"))
+                    .role(UserRole.valueOf(resultSet.getString("role")))
+                    .createdAt(toInstant(resultSet.getTimestamp("created_at")))
+                    .lastLogin(toInstant(resultSet.getTimestamp("last_login")))
+                    .build());
+            scores.add(resultSet.getDouble("score"));
+        });
+
+        boolean hasMore = users.size() > pageSize;
+        List<UserResponse> content = hasMore ? users.subList(0, pageSize) : users;
+        String nextCursor = null;
+        if (hasMore) {
+            UserResponse last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(scores.get(content.size() - 1), last.getId());
+        }
+
+        return CursorPageResponse.<UserResponse>builder()
+                .content(new ArrayList<>(content))
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
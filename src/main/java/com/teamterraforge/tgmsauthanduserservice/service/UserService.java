@@ -2,8 +2,9 @@ package com.teamterraforge.tgmsauthanduserservice.service;
 
 import com.teamterraforge.tgmsauthanduserservice.dto.*;
 import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.OutboxEventType;
 import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
-import com.teamterraforge.tgmsauthanduserservice.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,8 +14,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -28,7 +27,11 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JwtService jwtService;
+    private final UserStatsService userStatsService;
+    private final AuditService auditService;
+    private final OutboxWriter outboxWriter;
+    private final PasswordResetMailer passwordResetMailer;
+    private final PasswordResetTokenStore passwordResetTokenStore;
 
     /**
      * Get user by ID
@@ -74,6 +77,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
         
+        Map<String, Object> beforeState = AuditService.userSnapshot(user);
         boolean updated = false;
         
         if (request.getName() != null && !request.getName().isBlank()) {
@@ -90,6 +94,9 @@ public class UserService {
         
         if (updated) {
             userRepository.save(user);
+            auditService.record(AuditAction.PROFILE_UPDATED, userId, AuditService.RESOURCE_USER, userId,
+                    beforeState, AuditService.userSnapshot(user));
+            outboxWriter.userChanged(OutboxEventType.USER_UPDATED, user);
             log.info("Profile updated successfully for user: {}", userId);
         } else {
             log.debug("No profile changes for user: {}", userId);
@@ -122,37 +129,36 @@ public class UserService {
         
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        auditService.record(AuditAction.PASSWORD_CHANGED, userId, AuditService.RESOURCE_USER, userId, null, null);
         
         log.info("Password changed successfully for user: {}", userId);
     }
 
     /**
      * Initiate forgot password process
-     * Generates a JWT token for password reset (valid for 1 hour)
+     * The reset email is sent in the background, so the response is the same, and takes
+     * the same time, whether or not an account exists for the email
      */
-    @Transactional(readOnly = true)
-    public PasswordResetResponse forgotPassword(ForgotPasswordRequest request) {
+    public PasswordResetResponse forgotPassword(ForgotPasswordRequest request, String clientAddress) {
         log.debug("Forgot password request for email: {}", request.getEmail());
         
-        User user = userRepository.findByEmailIgnoreCase(request.getEmail())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + request.getEmail()));
-        
-        // Generate a password reset token (JWT with 1 hour expiration)
-        String resetToken = generatePasswordResetToken(user);
-        
-        // In production, you would send this token via email
-        // For now, we'll return it in the response (NOT RECOMMENDED FOR PRODUCTION)
-        log.info("Password reset token generated for user: {}", user.getId());
-        log.warn("DEVELOPMENT MODE: Reset token returned in response. In production, send via email only.");
+        passwordResetMailer.request(request.getEmail(), clientAddress);
         
         return PasswordResetResponse.builder()
-                .message("Password reset instructions have been sent to your email")
-                .email(user.getEmail())
+                .message("If an account exists for this email, password reset instructions have been sent to it")
+                .email(request.getEmail())
                 .build();
     }
 
     /**
-     * Reset password using token
+     * Check a reset token without using it up
+     */
+    public boolean isResetTokenValid(ResetTokenRequest request) {
+        return passwordResetTokenStore.isValid(request.getToken());
+    }
+
+    /**
+     * Reset password using a token from the reset email
      */
     @Transactional
     public void resetPassword(ResetPasswordRequest request) {
@@ -162,23 +168,17 @@ public class UserService {
             throw new IllegalArgumentException("New password and confirmation do not match");
         }
         
-        // Validate and extract user email from token
-        String email;
-        try {
-            email = jwtService.extractUsername(request.getToken());
-            if (!jwtService.isTokenValid(request.getToken(), email)) {
-                throw new IllegalArgumentException("Invalid or expired reset token");
-            }
-        } catch (Exception e) {
-            log.error("Invalid reset token: {}", e.getMessage());
-            throw new IllegalArgumentException("Invalid or expired reset token");
-        }
+        // Single-use: the token is deleted here and restored if the reset rolls back
+        UUID userId = passwordResetTokenStore.consume(request.getToken())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid or expired reset token"));
         
-        User user = userRepository.findByEmailIgnoreCase(email)
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         
         user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        auditService.record(AuditAction.PASSWORD_RESET, user.getId(), AuditService.RESOURCE_USER, user.getId(),
+                null, null);
         
         log.info("Password reset successfully for user: {}", user.getId());
     }
@@ -195,6 +195,10 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
         
         userRepository.delete(user);
+        userStatsService.recordDeletion(user.getRole());
+        auditService.record(AuditAction.ACCOUNT_DELETED, userId, AuditService.RESOURCE_USER, userId,
+                AuditService.userSnapshot(user), null);
+        outboxWriter.userDeleted(userId);
         log.info("Account deleted successfully for user: {}", userId);
     }
 
@@ -255,26 +259,6 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
     }
 
-    /**
-     * Generate password reset token (JWT valid for 1 hour)
-     */
-    private String generatePasswordResetToken(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("purpose", "password_reset");
-        claims.put("userId", user.getId().toString());
-        
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + 3600000); // 1 hour
-        
-        return io.jsonwebtoken.Jwts.builder()
-                .claims(claims)
-                .subject(user.getEmail())
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(jwtService.getSigningKey())
-                .compact();
-    }
-
     /**
      * Map User entity to UserResponse DTO
      */
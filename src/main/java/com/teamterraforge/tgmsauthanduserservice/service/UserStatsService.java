@@ -0,0 +1,325 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.DailyUserStats;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserStatsResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service for the admin dashboard user statistics.
+ * Register, login and delete events are counted in memory and flushed as batched upserts
+ * into the daily rollup table, so hot (today, role) rows are not locked per request.
+ * A nightly job reconciles recent days against the users table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatsService {
+
+    private static final String UPSERT_DAILY_SQL = """
+            INSERT INTO user_stats_daily (day, role, signups, deletions, active_users)
+            VALUES (?, ?::user_role, ?, ?, ?)
+            ON CONFLICT (day, role) DO UPDATE SET
+                signups = user_stats_daily.signups + EXCLUDED.signups,
+                deletions = user_stats_daily.deletions + EXCLUDED.deletions,
+                active_users = user_stats_daily.active_users + EXCLUDED.active_users
+            """;
+
+    private static final String UPSERT_TOTAL_SQL = """
+            INSERT INTO user_role_totals (role, user_count)
+            VALUES (?::user_role, ?)
+            ON CONFLICT (role) DO UPDATE SET user_count = user_role_totals.user_count + EXCLUDED.user_count
+            """;
+
+    private static final String RECONCILE_SIGNUPS_SQL = """
+            INSERT INTO user_stats_daily (day, role, signups)
+            SELECT (created_at AT TIME ZONE 'UTC')::date, role, count(*)
+            FROM users
+            WHERE created_at >= ?
+            GROUP BY 1, 2
+            ON CONFLICT (day, role) DO UPDATE SET signups = GREATEST(user_stats_daily.signups, EXCLUDED.signups)
+            """;
+
+    private static final String RECONCILE_ACTIVE_SQL = """
+            INSERT INTO user_stats_daily (day, role, active_users)
+            SELECT (last_login AT TIME ZONE 'UTC')::date, role, count(*)
+            FROM users
+            WHERE last_login >= ?
+            GROUP BY 1, 2
+            ON CONFLICT (day, role) DO UPDATE SET active_users = GREATEST(user_stats_daily.active_users, EXCLUDED.active_users)
+            """;
+
+    private static final String RECONCILE_TOTALS_SQL = """
+            INSERT INTO user_role_totals (role, user_count)
+            SELECT r.role, count(u.id)
+            FROM unnest(enum_range(NULL::user_role)) AS r(role)
+            LEFT JOIN users u ON u.role = r.role
+            GROUP BY r.role
+            ON CONFLICT (role) DO UPDATE SET user_count = EXCLUDED.user_count
+            """;
+
+    private static final String SELECT_RANGE_SQL = """
+            SELECT day, role::text AS role, signups, deletions, active_users
+            FROM user_stats_daily
+            WHERE day BETWEEN ? AND ?
+            ORDER BY day
+            """;
+
+    private static final String SELECT_TOTALS_SQL = "SELECT role::text AS role, user_count FROM user_role_totals";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<StatsKey, Counters> pending = new ConcurrentHashMap<>();
+
+    @Value("${user-stats.max-range-days:366}")
+    private int maxRangeDays;
+
+    @Value("${user-stats.reconcile-days:3}")
+    private int reconcileDays;
+
+    /**
+     * Count a new user once the registering transaction commits
+     */
+    public void recordSignup(UserRole role) {
+        recordSignups(role, 1);
+    }
+
+    /**
+     * Count a batch of new users once the surrounding transaction commits
+     */
+    public void recordSignups(UserRole role, long count) {
+        if (count > 0) {
+            AfterCommit.run(() -> counters(today(), role).signups.add(count));
+        }
+    }
+
+    /**
+     * Count a deleted user once the deleting transaction commits
+     */
+    public void recordDeletion(UserRole role) {
+        AfterCommit.run(() -> counters(today(), role).deletions.increment());
+    }
+
+    /**
+     * Count a login as an active user if it is the user's first login today
+     */
+    public void recordLogin(UserRole role, Instant previousLogin) {
+        LocalDate today = today();
+        if (previousLogin == null || previousLogin.atZone(ZoneOffset.UTC).toLocalDate().isBefore(today)) {
+            AfterCommit.run(() -> counters(today, role).activeUsers.increment());
+        }
+    }
+
+    /**
+     * Get per-day and per-role statistics for an inclusive date range
+     */
+    @Transactional(readOnly = true)
+    public UserStatsResponse getStats(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRangeDays + " days");
+        }
+        log.debug("Fetching user stats from {} to {}", from, to);
+
+        Map<LocalDate, DailyUserStats> days = new TreeMap<>();
+        Map<UserRole, Long> signupsByRole = zeroByRole();
+        long[] totals = new long[2];
+
+        jdbcTemplate.query(SELECT_RANGE_SQL, resultSet -> {
+            LocalDate day = resultSet.getDate("day").toLocalDate();
+            UserRole role = UserRole.valueOf(resultSet.getString("role"));
+            long signups = resultSet.getLong("signups");
+            long deletions = resultSet.getLong("deletions");
+            long activeUsers = resultSet.getLong("active_users");
+
+            DailyUserStats stats = days.computeIfAbsent(day, UserStatsService::emptyDay);
+            stats.getSignups().put(role, signups);
+            stats.getDeletions().put(role, deletions);
+            stats.getActiveUsers().put(role, activeUsers);
+            stats.setTotalSignups(stats.getTotalSignups() + signups);
+            stats.setTotalDeletions(stats.getTotalDeletions() + deletions);
+            stats.setTotalActiveUsers(stats.getTotalActiveUsers() + activeUsers);
+
+            signupsByRole.merge(role, signups, Long::sum);
+            totals[0] += signups;
+            totals[1] += deletions;
+        }, Date.valueOf(from), Date.valueOf(to));
+
+        Map<UserRole, Long> usersByRole = zeroByRole();
+        jdbcTemplate.query(SELECT_TOTALS_SQL, resultSet -> {
+            usersByRole.put(UserRole.valueOf(resultSet.getString("role")), resultSet.getLong("user_count"));
+        });
+
+        long tourists = usersByRole.get(UserRole.TOURIST);
+        Double guideTouristRatio = tourists > 0 ? (double) usersByRole.get(UserRole.GUIDE) / tourists : null;
+
+        return UserStatsResponse.builder()
+                .from(from)
+                .to(to)
+                .days(new ArrayList<>(days.values()))
+                .signupsByRole(signupsByRole)
+                .totalSignups(totals[0])
+                .totalDeletions(totals[1])
+                .usersByRole(usersByRole)
+                .guideTouristRatio(guideTouristRatio)
+                .build();
+    }
+
+    /**
+     * Write buffered counters to the rollup tables
+     */
+    @Scheduled(fixedDelayString = "${user-stats.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> dailyRows = new ArrayList<>();
+        Map<UserRole, Long> totalDeltas = new EnumMap<>(UserRole.class);
+        Map<StatsKey, long[]> drained = new HashMap<>();
+
+        for (Map.Entry<StatsKey, Counters> entry : pending.entrySet()) {
+            long[] values = entry.getValue().drain();
+            if (values[0] == 0 && values[1] == 0 && values[2] == 0) {
+                continue;
+            }
+            StatsKey key = entry.getKey();
+            drained.put(key, values);
+            dailyRows.add(new Object[]{Date.valueOf(key.day()), key.role().name(), values[0], values[1], values[2]});
+            totalDeltas.merge(key.role(), values[0] - values[1], Long::sum);
+        }
+        evictStaleKeys();
+
+        if (dailyRows.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> totalRows = new ArrayList<>();
+        totalDeltas.forEach((role, delta) -> {
+            if (delta != 0) {
+                totalRows.add(new Object[]{role.name(), delta});
+            }
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+                if (!totalRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_TOTAL_SQL, totalRows);
+                }
+            });
+            log.debug("Flushed user stats for {} day/role rows", dailyRows.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to flush user stats, keeping counters for the next attempt", e);
+            drained.forEach((key, values) -> counters(key.day(), key.role()).add(values));
+        }
+    }
+
+    /**
+     * Nightly reconciliation of recent days against the users table.
+     * Signups and active users are only raised, never lowered: deleted users and
+     * repeat logins make the users table undercount what the events recorded.
+     */
+    @Scheduled(cron = "${user-stats.reconcile-cron:0 15 0 * * *}", zone = "UTC")
+    public void reconcile() {
+        flush();
+        LocalDate since = today().minusDays(reconcileDays);
+        Instant sinceInstant = since.atStartOfDay(ZoneOffset.UTC).toInstant();
+        log.info("Reconciling user stats since {}", since);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            int signupRows = jdbcTemplate.update(RECONCILE_SIGNUPS_SQL, Timestamp.from(sinceInstant));
+            int activeRows = jdbcTemplate.update(RECONCILE_ACTIVE_SQL, Timestamp.from(sinceInstant));
+            jdbcTemplate.update(RECONCILE_TOTALS_SQL);
+            log.info("User stats reconciled - signup rows: {}, active rows: {}", signupRows, activeRows);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private Counters counters(LocalDate day, UserRole role) {
+        return pending.computeIfAbsent(new StatsKey(day, role), key -> new Counters());
+    }
+
+    /**
+     * Drop counters for days that can no longer receive events
+     */
+    private void evictStaleKeys() {
+        LocalDate yesterday = today().minusDays(1);
+        pending.entrySet().removeIf(entry -> entry.getKey().day().isBefore(yesterday) && entry.getValue().isEmpty());
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static DailyUserStats emptyDay(LocalDate day) {
+        return DailyUserStats.builder()
+                .day(day)
+                .signups(zeroByRole())
+                .deletions(zeroByRole())
+                .activeUsers(zeroByRole())
+                .build();
+    }
+
+    private static Map<UserRole, Long> zeroByRole() {
+        Map<UserRole, Long> map = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            map.put(role, 0L);
+        }
+        return map;
+    }
+
+    private record StatsKey(LocalDate day, UserRole role) {
+    }
+
+    /**
+     * Lock-free counters for one day and role
+     */
+    private static final class Counters {
+
+        private final LongAdder signups = new LongAdder();
+        private final LongAdder deletions = new LongAdder();
+        private final LongAdder activeUsers = new LongAdder();
+
+        private long[] drain() {
+            return new long[]{signups.sumThenReset(), deletions.sumThenReset(), activeUsers.sumThenReset()};
+        }
+
+        private void add(long[] values) {
+            signups.add(values[0]);
+            deletions.add(values[1]);
+            activeUsers.add(values[2]);
+        }
+
+        private boolean isEmpty() {
+            return signups.sum() == 0 && deletions.sum() == 0 && activeUsers.sum() == 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- V11__notification_dispatch.sql
+
+-- ========================
+-- NOTIFICATION DISPATCH
+-- ========================
+
+-- Dispatchers lease the rows they claim instead of holding row locks while providers
+-- send. A row whose lease has run out (the instance died mid-send) is claimed again.
+ALTER TABLE notifications
+    ADD COLUMN claimed_until TIMESTAMPTZ;
+
+-- Claims scan pending rows in id order; sent and failed rows are never read by the
+-- dispatcher, so they are left out of the index.
+CREATE INDEX idx_notifications_pending
+    ON notifications(id)
+    WHERE status = 'PENDING';
@@ -0,0 +1,21 @@
+-- V12__notification_retries.sql
+
+-- ========================
+-- NOTIFICATION RETRIES
+-- ========================
+
+-- Notifications that failed max-attempts times stop being retried
+ALTER TYPE notification_status ADD VALUE IF NOT EXISTS 'DEAD_LETTER';
+
+-- attempts counts failed sends; next_attempt_at is set while a FAILED row waits for
+-- its retry. Rows that failed before retries existed keep a NULL next_attempt_at and
+-- are not retried.
+ALTER TABLE notifications
+    ADD COLUMN attempts        INT NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at TIMESTAMPTZ;
+
+-- Retry times are rebuilt from FAILED rows at startup and overdue ones are swept by
+-- range; only rows awaiting a retry are indexed.
+CREATE INDEX idx_notifications_retry
+    ON notifications(next_attempt_at)
+    WHERE status = 'FAILED' AND next_attempt_at IS NOT NULL;
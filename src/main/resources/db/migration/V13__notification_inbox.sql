@@ -0,0 +1,18 @@
+-- V13__notification_inbox.sql
+
+-- ========================
+-- NOTIFICATION INBOX
+-- ========================
+
+-- Set when the recipient reads the notification in the app
+ALTER TABLE notifications
+    ADD COLUMN read_at TIMESTAMPTZ;
+
+-- Inbox pages are read newest first by id within one user
+CREATE INDEX idx_notifications_user_inbox
+    ON notifications(user_id, id);
+
+-- Unread counts are reconciled from here; read notifications are left out
+CREATE INDEX idx_notifications_user_unread
+    ON notifications(user_id)
+    WHERE read_at IS NULL;
@@ -0,0 +1,42 @@
+-- V14__notification_broadcasts.sql
+
+-- ========================
+-- NOTIFICATION BROADCASTS
+-- ========================
+
+-- One announcement to every user, or every user of one role. Recipients are fanned
+-- out into notifications in chunks of users in id order; last_user_id is where the
+-- next chunk starts, so a broadcast resumes where it stopped after a restart.
+CREATE TABLE notification_broadcasts (
+                                         id               BIGSERIAL PRIMARY KEY,
+                                         channel          notification_channel NOT NULL,
+                                         template_key     VARCHAR(100) NOT NULL,
+                                         payload          JSONB NOT NULL,
+                                         audience_role    user_role,          -- NULL: all users
+                                         status           VARCHAR(20) NOT NULL DEFAULT 'PENDING'
+                                             CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'CANCELLED')),
+                                         total_recipients BIGINT NOT NULL DEFAULT 0,
+                                         enqueued         BIGINT NOT NULL DEFAULT 0,
+                                         last_user_id     UUID,
+                                         created_by       UUID REFERENCES users(id) ON DELETE SET NULL,
+                                         created_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+                                         started_at       TIMESTAMPTZ,
+                                         completed_at     TIMESTAMPTZ
+);
+
+CREATE INDEX idx_notification_broadcasts_active
+    ON notification_broadcasts(id)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+-- Chunks of one role walk this index instead of filtering every user
+CREATE INDEX idx_users_role_id
+    ON users(role, id);
+
+-- Notifications created by a broadcast, for its delivery counts and for removing
+-- the unsent ones when it is cancelled. No foreign key, to keep fan-out inserts cheap.
+ALTER TABLE notifications
+    ADD COLUMN broadcast_id BIGINT;
+
+CREATE INDEX idx_notifications_broadcast
+    ON notifications(broadcast_id, status)
+    WHERE broadcast_id IS NOT NULL;
@@ -0,0 +1,22 @@
+-- V15__password_reset_tokens.sql
+
+-- ========================
+-- PASSWORD RESET TOKENS
+-- ========================
+
+-- Outstanding reset tokens. Only the SHA-256 of a token is stored, so the table
+-- cannot be used to reset passwords. A token is deleted when it is used, which makes
+-- it single-use; expired ones are pruned.
+CREATE TABLE password_reset_tokens (
+                                       token_hash  BYTEA PRIMARY KEY,
+                                       user_id     UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                                       expires_at  TIMESTAMPTZ NOT NULL,
+                                       created_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- A successful reset removes the user's other outstanding tokens
+CREATE INDEX idx_password_reset_tokens_user
+    ON password_reset_tokens(user_id);
+
+CREATE INDEX idx_password_reset_tokens_expiry
+    ON password_reset_tokens(expires_at);
@@ -0,0 +1,61 @@
+-- V16__guide_search_changes.sql
+
+-- ========================
+-- GUIDE SEARCH CHANGE LOG
+-- ========================
+
+-- One row per change to what the guide search index holds: a guide's searchable
+-- columns, its areas, or the names of those areas. Each instance follows the id
+-- sequence and reloads the guides it names. Rows are pruned after a retention period.
+CREATE TABLE guide_search_changes (
+                                      id          BIGSERIAL PRIMARY KEY,
+                                      guide_id    UUID NOT NULL,
+                                      changed_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_guide_search_changes_changed_at
+    ON guide_search_changes(changed_at);
+
+CREATE OR REPLACE FUNCTION log_guide_search_change()
+    RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_TABLE_NAME = 'areas' THEN
+        INSERT INTO guide_search_changes (guide_id)
+        SELECT ga.guide_id FROM guide_areas ga WHERE ga.area_id = NEW.id;
+    ELSIF TG_TABLE_NAME = 'guides' THEN
+        IF TG_OP = 'DELETE' THEN
+            INSERT INTO guide_search_changes (guide_id) VALUES (OLD.id);
+        ELSE
+            INSERT INTO guide_search_changes (guide_id) VALUES (NEW.id);
+        END IF;
+    ELSE
+        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+            INSERT INTO guide_search_changes (guide_id) VALUES (OLD.guide_id);
+        END IF;
+        -- A guide_areas row moved to another guide changes both guides
+        IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.guide_id <> OLD.guide_id) THEN
+            INSERT INTO guide_search_changes (guide_id) VALUES (NEW.guide_id);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_guides_search_insert_delete
+    AFTER INSERT OR DELETE ON guides
+    FOR EACH ROW EXECUTE FUNCTION log_guide_search_change();
+
+-- last_active_at and photos are not indexed, so touching them logs nothing
+CREATE TRIGGER trg_guides_search_update
+    AFTER UPDATE OF title, bio, languages, per_day_rate, currency_code, verified, profile_complete_score ON guides
+    FOR EACH ROW EXECUTE FUNCTION log_guide_search_change();
+
+CREATE TRIGGER trg_guide_areas_search
+    AFTER INSERT OR UPDATE OR DELETE ON guide_areas
+    FOR EACH ROW EXECUTE FUNCTION log_guide_search_change();
+
+CREATE TRIGGER trg_areas_search
+    AFTER UPDATE OF canonical_name ON areas
+    FOR EACH ROW EXECUTE FUNCTION log_guide_search_change();
@@ -0,0 +1,18 @@
+-- V17__notification_inbox_channel.sql
+
+-- ========================
+-- NOTIFICATION INBOX: IN-APP ONLY
+-- ========================
+
+-- The inbox, its unread count and read marks cover only in-app (PUSH) notifications;
+-- email and SMS rows are delivery records. Narrow the V13 indexes to the same rows.
+DROP INDEX idx_notifications_user_inbox;
+DROP INDEX idx_notifications_user_unread;
+
+CREATE INDEX idx_notifications_user_inbox
+    ON notifications(user_id, id)
+    WHERE channel = 'PUSH';
+
+CREATE INDEX idx_notifications_user_unread
+    ON notifications(user_id)
+    WHERE channel = 'PUSH' AND read_at IS NULL;
@@ -0,0 +1,14 @@
+-- V18__scrub_password_reset_payloads.sql
+
+-- ========================
+-- PASSWORD RESET EMAILS WITHOUT TOKENS
+-- ========================
+
+-- Reset tokens used to be written into the payload of their password.reset
+-- notification, next to the hashed copy in password_reset_tokens. The dispatcher now
+-- issues the token when it sends the email, so remove the raw tokens already stored;
+-- unsent emails get a fresh token when they go out.
+UPDATE notifications
+SET payload = payload - 'resetToken'
+WHERE template_key = 'password.reset'
+  AND payload ? 'resetToken';
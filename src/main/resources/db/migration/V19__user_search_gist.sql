@@ -0,0 +1,23 @@
+-- V19__user_search_gist.sql
+
+-- ========================
+-- ADMIN USER SEARCH
+-- ========================
+
+-- GiST trigram indexes serve both ILIKE '%term%' and ORDER BY column <-> term, so
+-- each searched field returns its best matches in similarity order and stops after
+-- one page. They replace the GIN indexes, which can only filter and left every
+-- match of a broad term to be ranked and sorted.
+
+DROP INDEX IF EXISTS idx_users_name_trgm;
+DROP INDEX IF EXISTS idx_users_email_trgm;
+DROP INDEX IF EXISTS idx_users_phone_trgm;
+
+CREATE INDEX idx_users_name_trgm
+    ON users USING gist (name gist_trgm_ops);
+
+CREATE INDEX idx_users_email_trgm
+    ON users USING gist (email gist_trgm_ops);
+
+CREATE INDEX idx_users_phone_trgm
+    ON users USING gist (phone gist_trgm_ops);
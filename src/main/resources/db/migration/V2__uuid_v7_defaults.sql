@@ -0,0 +1,40 @@
+-- V2__uuid_v7_defaults.sql
+
+-- ========================
+-- UUIDv7 GENERATOR
+-- ========================
+
+-- Time-ordered UUIDs (RFC 9562 version 7): 48-bit unix epoch milliseconds followed by
+-- random bits. New keys land at the right-hand edge of the primary key B-tree instead of
+-- on random leaf pages. Built from gen_random_uuid() so no extra extension is required;
+-- setting bits 52 and 53 turns the version nibble 0100 (v4) into 0111 (v7).
+
+CREATE OR REPLACE FUNCTION uuid_generate_v7()
+    RETURNS UUID
+    LANGUAGE sql
+    VOLATILE
+AS $$
+SELECT encode(
+               set_bit(
+                       set_bit(
+                               overlay(uuid_send(gen_random_uuid())
+                                       PLACING substring(int8send(floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                                       FROM 1 FOR 6),
+                               52, 1),
+                       53, 1),
+               'hex')::UUID;
+$$;
+
+-- ========================
+-- PRIMARY KEY DEFAULTS
+-- ========================
+
+ALTER TABLE users               ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE guides              ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE areas               ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE licenses            ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE guide_areas         ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE availability_blocks ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE bookings            ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE holds               ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE reviews             ALTER COLUMN id SET DEFAULT uuid_generate_v7();
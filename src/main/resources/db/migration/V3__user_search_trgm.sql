@@ -0,0 +1,19 @@
+-- V3__user_search_trgm.sql
+
+-- ========================
+-- ADMIN USER SEARCH
+-- ========================
+
+-- Trigram GIN indexes let ILIKE '%term%' on name, email and phone use an index
+-- instead of scanning every user; similarity() on the same columns ranks matches.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_users_name_trgm
+    ON users USING gin (name gin_trgm_ops);
+
+CREATE INDEX idx_users_email_trgm
+    ON users USING gin (email gin_trgm_ops);
+
+CREATE INDEX idx_users_phone_trgm
+    ON users USING gin (phone gin_trgm_ops);
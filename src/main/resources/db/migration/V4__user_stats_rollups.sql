@@ -0,0 +1,45 @@
+-- V4__user_stats_rollups.sql
+
+-- ========================
+-- USER STATISTICS ROLLUPS
+-- ========================
+
+-- One row per UTC day and role, kept up to date from register, login and delete
+-- events so dashboard range queries read one row per day instead of scanning users.
+
+CREATE TABLE user_stats_daily (
+                                  day            DATE      NOT NULL,
+                                  role           user_role NOT NULL,
+                                  signups        BIGINT    NOT NULL DEFAULT 0,
+                                  deletions      BIGINT    NOT NULL DEFAULT 0,
+                                  active_users   BIGINT    NOT NULL DEFAULT 0,
+                                  PRIMARY KEY (day, role)
+);
+
+-- Current number of users per role, used for the guide/tourist ratio.
+
+CREATE TABLE user_role_totals (
+                                  role        user_role PRIMARY KEY,
+                                  user_count  BIGINT    NOT NULL DEFAULT 0
+);
+
+-- Backfill from existing users. Deletions before this migration are not recoverable,
+-- and active users can only be seeded from each user's most recent login.
+
+INSERT INTO user_stats_daily (day, role, signups)
+SELECT (created_at AT TIME ZONE 'UTC')::date, role, count(*)
+FROM users
+GROUP BY 1, 2;
+
+INSERT INTO user_stats_daily (day, role, active_users)
+SELECT (last_login AT TIME ZONE 'UTC')::date, role, count(*)
+FROM users
+WHERE last_login IS NOT NULL
+GROUP BY 1, 2
+ON CONFLICT (day, role) DO UPDATE SET active_users = EXCLUDED.active_users;
+
+INSERT INTO user_role_totals (role, user_count)
+SELECT r.role, count(u.id)
+FROM unnest(enum_range(NULL::user_role)) AS r(role)
+LEFT JOIN users u ON u.role = r.role
+GROUP BY r.role;
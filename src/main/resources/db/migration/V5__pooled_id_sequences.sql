@@ -0,0 +1,16 @@
+-- V5__pooled_id_sequences.sql
+
+-- ========================
+-- POOLED ID SEQUENCES
+-- ========================
+
+-- audit_log and notifications are mapped with sequence generation and a pooled
+-- optimizer (allocationSize = 50), so Hibernate reserves 50 ids per nextval call
+-- and can batch inserts. The BIGSERIAL sequences are kept, with their current
+-- values, and only step by 50 from now on. The column defaults stay, so plain SQL
+-- inserts still work; the pooled optimizer never hands out a value that nextval
+-- returns directly.
+
+ALTER SEQUENCE audit_log_id_seq INCREMENT BY 50;
+
+ALTER SEQUENCE notifications_id_seq INCREMENT BY 50;
@@ -0,0 +1,83 @@
+-- V6__partition_audit_log.sql
+
+-- ========================
+-- PARTITIONED AUDIT_LOG
+-- ========================
+
+-- audit_log becomes a monthly RANGE partitioned table on created_at (UTC months).
+-- Time-range queries prune to the months they touch, retention drops whole
+-- partitions instead of deleting rows, and a BRIN index on created_at stays a few
+-- pages per partition because rows arrive in time order.
+
+-- Move the legacy table aside and free its index names. The id sequence is kept
+-- (with its pooled increment) and handed over to the new table.
+ALTER TABLE audit_log RENAME TO audit_log_legacy;
+ALTER TABLE audit_log_legacy RENAME CONSTRAINT audit_log_pkey TO audit_log_legacy_pkey;
+ALTER INDEX idx_audit_resource RENAME TO idx_audit_resource_legacy;
+ALTER SEQUENCE audit_log_id_seq OWNED BY NONE;
+
+CREATE TABLE audit_log (
+                           id             BIGINT NOT NULL DEFAULT nextval('audit_log_id_seq'),
+                           actor_user_id  UUID REFERENCES users(id) ON DELETE SET NULL,
+                           action         VARCHAR(100) NOT NULL,
+                           before_state   JSONB,
+                           after_state    JSONB,
+                           resource_type  VARCHAR(100) NOT NULL,
+                           resource_id    UUID NOT NULL,
+                           created_at     TIMESTAMPTZ NOT NULL DEFAULT now(),
+                           PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+
+-- Creates the partition holding the UTC month of month_start if it does not exist.
+-- Partitions are named audit_log_yYYYYmMM; the maintenance job relies on that name.
+CREATE OR REPLACE FUNCTION create_audit_log_partition(month_start DATE)
+    RETURNS TEXT
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    start_date     DATE := date_trunc('month', month_start)::date;
+    partition_name TEXT := format('audit_log_y%sm%s', to_char(start_date, 'YYYY'), to_char(start_date, 'MM'));
+BEGIN
+    EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+            partition_name,
+            start_date::timestamp AT TIME ZONE 'UTC',
+            (start_date + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END;
+$$;
+
+-- One partition per month from the oldest legacy row through three months ahead.
+DO $$
+DECLARE
+    first_month DATE;
+    m           DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(min(created_at), now()) AT TIME ZONE 'UTC')::date
+    INTO first_month
+    FROM audit_log_legacy;
+
+    FOR m IN
+        SELECT generate_series(first_month::timestamp,
+                               date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months',
+                               INTERVAL '1 month')::date
+    LOOP
+        PERFORM create_audit_log_partition(m);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO audit_log (id, actor_user_id, action, before_state, after_state, resource_type, resource_id, created_at)
+SELECT id, actor_user_id, action, before_state, after_state, resource_type, resource_id, created_at
+FROM audit_log_legacy;
+
+DROP TABLE audit_log_legacy;
+
+-- Indexes on the parent are created on every current and future partition.
+CREATE INDEX idx_audit_created_brin
+    ON audit_log USING brin (created_at) WITH (pages_per_range = 32);
+
+CREATE INDEX idx_audit_resource
+    ON audit_log(resource_type, resource_id);
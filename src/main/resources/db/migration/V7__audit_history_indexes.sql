@@ -0,0 +1,21 @@
+-- V7__audit_history_indexes.sql
+
+-- ========================
+-- AUDIT HISTORY INDEXES
+-- ========================
+
+-- Keyset pagination reads audit history newest first on (created_at, id). Each
+-- index below ends in those columns so a page is a short index range scan with no
+-- sort, and the resource index supersedes the old (resource_type, resource_id) one.
+-- The BRIN index on created_at stays for wide time-range scans.
+
+DROP INDEX idx_audit_resource;
+
+CREATE INDEX idx_audit_resource_created
+    ON audit_log(resource_type, resource_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_audit_actor_created
+    ON audit_log(actor_user_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_audit_created_id
+    ON audit_log(created_at DESC, id DESC);
@@ -0,0 +1,25 @@
+-- V8__audit_log_patches.sql
+
+-- ========================
+-- AUDIT LOG PATCHES
+-- ========================
+
+-- State changes are stored as RFC 6902 patches against the previous state instead
+-- of full before/after snapshots. Periodic checkpoint rows carry the full state in
+-- after_state (NULL after a deletion); a state is rebuilt from the latest checkpoint
+-- plus the patches that follow it. Rows with neither a patch nor a checkpoint
+-- (logins, password changes) do not change the audited state.
+ALTER TABLE audit_log
+    ADD COLUMN patch      JSONB,
+    ADD COLUMN checkpoint BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Existing rows hold full snapshots, so every state-carrying row is a checkpoint.
+UPDATE audit_log
+SET checkpoint = TRUE
+WHERE before_state IS NOT NULL
+   OR after_state IS NOT NULL;
+
+-- Finds the latest checkpoint at or before an entry with a short backward scan.
+CREATE INDEX idx_audit_resource_checkpoint
+    ON audit_log(resource_type, resource_id, created_at DESC, id DESC)
+    WHERE checkpoint;
@@ -0,0 +1,12 @@
+-- V9__outbox_publishing.sql
+
+-- ========================
+-- OUTBOX PUBLISHING
+-- ========================
+
+-- Publisher workers repeatedly claim the oldest unpublished rows in id order. A
+-- partial index keeps that scan proportional to the backlog, not to the number of
+-- rows ever published.
+CREATE INDEX idx_outbox_unpublished
+    ON outbox(id)
+    WHERE NOT published;
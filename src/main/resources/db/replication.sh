@@ -0,0 +1,4 @@
+#!/bin/sh
+# Allow streaming replication connections so a local replica can run pg_basebackup.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
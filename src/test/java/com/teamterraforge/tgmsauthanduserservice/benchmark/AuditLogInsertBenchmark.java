@@ -0,0 +1,127 @@
+package com.teamterraforge.tgmsauthanduserservice.benchmark;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import com.teamterraforge.tgmsauthanduserservice.repository.AuditLogRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk insert throughput for audit_log: one INSERT ... RETURNING round trip per row,
+ * which is what Hibernate issues for IDENTITY ids, against persisting through the
+ * pooled sequence with JDBC batching.
+ *
+ * Needs a migrated PostgreSQL (docker compose up -d postgres) and is skipped otherwise:
+ * mvn test -Dtest=AuditLogInsertBenchmark -Dbenchmark=true [-Dbenchmark.rows=20000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuditLogInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int FLUSH_EVERY = 1_000;
+    private static final String RESOURCE_TYPE = "BENCHMARK";
+
+    private static final String IDENTITY_INSERT_SQL = """
+            INSERT INTO audit_log (actor_user_id, action, before_state, after_state, resource_type, resource_id, created_at)
+            VALUES (NULL, ?, NULL, ?::jsonb, ?, ?, ?)
+            RETURNING id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM audit_log WHERE resource_type = ?", RESOURCE_TYPE);
+    }
+
+    @Test
+    void compareInsertThroughput() {
+        // Warm up connections, statement caches and the JIT
+        insertRowByRow(1_000);
+        insertBatched(1_000);
+
+        long rowByRowNanos = time(() -> insertRowByRow(ROWS));
+        long batchedNanos = time(() -> insertBatched(ROWS));
+
+        System.out.printf("audit_log insert, %d rows%n", ROWS);
+        System.out.printf("  identity, row by row : %8.0f rows/s (%d ms)%n", rate(rowByRowNanos), rowByRowNanos / 1_000_000);
+        System.out.printf("  pooled sequence, batch 50: %8.0f rows/s (%d ms)%n", rate(batchedNanos), batchedNanos / 1_000_000);
+        System.out.printf("  speed-up: %.1fx%n", (double) rowByRowNanos / batchedNanos);
+
+        Long inserted = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_log WHERE resource_type = ?", Long.class, RESOURCE_TYPE);
+        assertThat(inserted).isEqualTo(2L * ROWS + 2_000);
+    }
+
+    private void insertRowByRow(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                jdbcTemplate.queryForObject(IDENTITY_INSERT_SQL, Long.class,
+                        "USER_LOGIN", "{\"seq\":" + i + "}", RESOURCE_TYPE, UUID.randomUUID(),
+                        Timestamp.from(Instant.now()));
+            }
+        });
+    }
+
+    private void insertBatched(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<AuditLog> chunk = new ArrayList<>(FLUSH_EVERY);
+            for (int i = 0; i < rows; i++) {
+                chunk.add(AuditLog.builder()
+                        .action("USER_LOGIN")
+                        .afterState(Map.of("seq", i))
+                        .resourceType(RESOURCE_TYPE)
+                        .resourceId(UUID.randomUUID())
+                        .build());
+                if (chunk.size() == FLUSH_EVERY) {
+                    persist(chunk);
+                }
+            }
+            persist(chunk);
+        });
+    }
+
+    private void persist(List<AuditLog> chunk) {
+        auditLogRepository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+
+    private static double rate(long nanos) {
+        return ROWS / (nanos / 1_000_000_000.0);
+    }
+}
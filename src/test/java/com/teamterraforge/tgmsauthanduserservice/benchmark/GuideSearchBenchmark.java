@@ -0,0 +1,117 @@
+package com.teamterraforge.tgmsauthanduserservice.benchmark;
+
+import com.teamterraforge.tgmsauthanduserservice.service.GuideSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query latency of the in-memory guide search index over synthetic guide profiles:
+ * text queries of one and several words, filtered queries and filter-only browsing,
+ * each returning a page of 20 with all facet counts.
+ *
+ * Runs in memory, no database needed:
+ * mvn test -Dtest=GuideSearchBenchmark -Dbenchmark=true [-Dbenchmark.guides=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GuideSearchBenchmark {
+
+    private static final int GUIDES = Integer.getInteger("benchmark.guides", 100_000);
+    private static final int QUERIES = 2_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final UUID START = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private static final String[] PLACES = {"Galle", "Kandy", "Ella", "Sigiriya", "Mirissa", "Colombo", "Jaffna",
+            "Trincomalee", "Nuwara Eliya", "Anuradhapura", "Polonnaruwa", "Dambulla", "Yala", "Arugam Bay"};
+    private static final String[] TOPICS = {"heritage", "wildlife", "safari", "hiking", "temples", "surfing", "food",
+            "tea", "birdwatching", "photography", "history", "culture", "beaches", "train", "waterfalls"};
+    private static final String[] WORDS = {"licensed", "friendly", "experienced", "family", "private", "small",
+            "group", "tours", "local", "guide", "years", "sunrise", "village", "market", "cooking", "cycling",
+            "rainforest", "elephants", "leopards", "whales", "colonial", "fort", "ancient", "rock", "lake"};
+    private static final String[] LANGUAGES = {"English", "Sinhala", "Tamil", "German", "French", "Japanese",
+            "Chinese", "Russian", "Italian", "Spanish"};
+    private static final String[] CURRENCIES = {"USD", "LKR", "EUR"};
+
+    @Test
+    void searchGuides() {
+        GuideSearchIndex index = new GuideSearchIndex(
+                List.of(new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("200"), new BigDecimal("500")), 20);
+        long started = System.nanoTime();
+        index.apply(guides(new Random(42)), List.of());
+        System.out.printf("Indexed %,d guides in %,.0f ms%n", index.size(), (System.nanoTime() - started) / 1e6);
+
+        List<GuideSearchIndex.Query> single = new ArrayList<>();
+        List<GuideSearchIndex.Query> multi = new ArrayList<>();
+        List<GuideSearchIndex.Query> filtered = new ArrayList<>();
+        List<GuideSearchIndex.Query> browse = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            single.add(query(pick(random, TOPICS), null, null, null));
+            multi.add(query(pick(random, PLACES) + " " + pick(random, TOPICS) + " " + pick(random, WORDS), null, null, null));
+            filtered.add(query(pick(random, PLACES), pick(random, LANGUAGES), pick(random, CURRENCIES), true));
+            browse.add(query(null, pick(random, LANGUAGES), null, null));
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(index, single);
+            run(index, multi);
+            run(index, filtered);
+            run(index, browse);
+        }
+        report("One word", run(index, single));
+        report("Three words", run(index, multi));
+        report("Word and filters", run(index, filtered));
+        report("Filter only", run(index, browse));
+    }
+
+    private static List<GuideSearchIndex.Document> guides(Random random) {
+        List<GuideSearchIndex.Document> guides = new ArrayList<>(GUIDES);
+        for (int i = 0; i < GUIDES; i++) {
+            String place = pick(random, PLACES);
+            String title = place + " " + pick(random, TOPICS) + " " + pick(random, WORDS);
+            StringBuilder bio = new StringBuilder();
+            for (int w = 0; w < 40; w++) {
+                bio.append(w % 8 == 0 ? pick(random, TOPICS) : pick(random, WORDS)).append(' ');
+            }
+            List<String> languages = List.of(pick(random, LANGUAGES), pick(random, LANGUAGES));
+            guides.add(new GuideSearchIndex.Document(UUID.randomUUID(), UUID.randomUUID(), title, bio.toString(),
+                    languages, List.of(place, pick(random, PLACES)), BigDecimal.valueOf(10 + random.nextInt(600)),
+                    pick(random, CURRENCIES), random.nextBoolean(), random.nextInt(101)));
+        }
+        return guides;
+    }
+
+    private static GuideSearchIndex.Query query(String text, String language, String currency, Boolean verified) {
+        return new GuideSearchIndex.Query(text, language, currency, verified, null, null,
+                Double.POSITIVE_INFINITY, START, 20);
+    }
+
+    private static long[] run(GuideSearchIndex index, List<GuideSearchIndex.Query> queries) {
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long started = System.nanoTime();
+            GuideSearchIndex.Result result = index.search(queries.get(i));
+            nanos[i] = System.nanoTime() - started;
+            assertThat(result.total()).isGreaterThanOrEqualTo(result.hits().size());
+        }
+        return nanos;
+    }
+
+    private static void report(String queries, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-18s p50 %6.2f ms   p99 %6.2f ms   max %6.2f ms%n", queries,
+                nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 99 / 100] / 1e6, nanos[nanos.length - 1] / 1e6);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
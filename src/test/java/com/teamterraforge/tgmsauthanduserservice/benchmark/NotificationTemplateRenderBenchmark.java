@@ -0,0 +1,114 @@
+package com.teamterraforge.tgmsauthanduserservice.benchmark;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationMessage;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationTemplate;
+import com.teamterraforge.tgmsauthanduserservice.service.NotificationTemplates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rendering throughput for notification templates: compiling the template text for
+ * every message, as a naive renderer would, against the cached compiled template
+ * rendering into pooled buffers.
+ *
+ * Runs in memory, no database needed:
+ * mvn test -Dtest=NotificationTemplateRenderBenchmark -Dbenchmark=true [-Dbenchmark.messages=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NotificationTemplateRenderBenchmark {
+
+    private static final int MESSAGES = Integer.getInteger("benchmark.messages", 100_000);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final String TEMPLATE_KEY = "booking.confirmed";
+    private static final String TEMPLATE = """
+            Hi {{recipient.name}},
+
+            Your booking {{bookingId}} with {{guide.name}} is confirmed for {{booking.date}} at {{booking.time}}.
+            Meeting point: {{booking.meetingPoint}}. Group size: {{booking.groupSize}}.
+
+            We will text {{recipient.phone}} if anything changes.
+            Thank you for travelling with us!
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void renderMessages() throws IOException {
+        Files.writeString(directory.resolve(TEMPLATE_KEY + ".tmpl"), TEMPLATE);
+        NotificationTemplates templates = new NotificationTemplates(directory.toString(), "en", false, 64, 16_384);
+        templates.reload();
+        List<NotificationMessage> messages = messages();
+
+        long parsePerMessage = 0;
+        long compiled = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            parsePerMessage = time(() -> {
+                long chars = 0;
+                for (NotificationMessage message : messages) {
+                    StringBuilder out = new StringBuilder();
+                    NotificationTemplate.compile(TEMPLATE_KEY, TEMPLATE).renderTo(message, out);
+                    chars += out.length();
+                }
+                return chars;
+            });
+            compiled = time(() -> {
+                long[] chars = {0};
+                for (NotificationMessage message : messages) {
+                    templates.render(message, body -> chars[0] += body.length());
+                }
+                return chars[0];
+            });
+        }
+
+        report("Compile per message", parsePerMessage);
+        report("Cached, pooled buffers", compiled);
+        assertThat(compiled).isLessThan(parsePerMessage);
+    }
+
+    private static List<NotificationMessage> messages() {
+        List<NotificationMessage> messages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            Map<String, Object> payload = Map.of(
+                    "bookingId", "B-" + i,
+                    "guide", Map.of("name", "Guide " + (i % 500)),
+                    "booking", Map.of("date", "2024-03-" + (1 + i % 28), "time", "09:30",
+                            "meetingPoint", "Galle Fort main gate", "groupSize", 1 + i % 12));
+            messages.add(new NotificationMessage(i, UUID.randomUUID(), NotificationChannel.EMAIL, TEMPLATE_KEY,
+                    payload, "user" + i + "@example.com", "+9477" + (1_000_000 + i), "User " + i, Instant.now()));
+        }
+        return messages;
+    }
+
+    private static long time(Run run) {
+        long started = System.nanoTime();
+        long chars = run.render();
+        long elapsed = System.nanoTime() - started;
+        assertThat(chars).isPositive();
+        return elapsed;
+    }
+
+    private static void report(String approach, long nanos) {
+        double millis = nanos / 1_000_000.0;
+        System.out.printf("%-24s %,d messages in %,.0f ms (%,.0f messages/s)%n",
+                approach, MESSAGES, millis, MESSAGES / (millis / 1000));
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        long render();
+    }
+}
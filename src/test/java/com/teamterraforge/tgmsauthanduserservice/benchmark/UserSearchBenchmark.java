@@ -0,0 +1,129 @@
+package com.teamterraforge.tgmsauthanduserservice.benchmark;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserResponse;
+import com.teamterraforge.tgmsauthanduserservice.service.UserSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admin user search latency for broad terms that match most users ("com" in every
+ * email, "077" in most phones), first page and ten pages deep, next to a narrow term.
+ *
+ * Needs a migrated PostgreSQL (docker compose up -d postgres) and is skipped otherwise:
+ * mvn test -Dtest=UserSearchBenchmark -Dbenchmark=true [-Dbenchmark.users=200000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserSearchBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 200_000);
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 10;
+    private static final int ROUNDS = 20;
+    private static final String EMAIL_DOMAIN = "@search-benchmark.com";
+
+    private static final String[] FIRST_NAMES = {"Nimal", "Kamal", "Saman", "Anura", "Dilani", "Chamari", "Ruwan",
+            "Priya", "Tharindu", "Sanduni", "John", "Emma", "Lukas", "Sofia", "Kenji", "Amelie"};
+    private static final String[] LAST_NAMES = {"Perera", "Silva", "Fernando", "Jayasuriya", "Bandara", "Wickrama",
+            "Dissanayake", "Smith", "Muller", "Rossi", "Tanaka", "Dubois"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(1_000);
+        for (int i = 0; i < USERS; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            rows.add(new Object[]{
+                    first + " " + last,
+                    first.toLowerCase() + "." + last.toLowerCase() + i + EMAIL_DOMAIN,
+                    "+9477" + String.format("%07d", random.nextInt(10_000_000))});
+            if (rows.size() == 1_000) {
+                insert(rows);
+            }
+        }
+        insert(rows);
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + EMAIL_DOMAIN);
+    }
+
+    @Test
+    void searchUsers() {
+        for (String term : List.of("com", "077", "nimal perera", "perera12345")) {
+            search(term);
+        }
+        System.out.printf("Admin user search, %,d users, page size %d%n", USERS, PAGE_SIZE);
+        for (String term : List.of("com", "077", "nimal perera", "perera12345")) {
+            long firstPageNanos = 0;
+            long deepPageNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long[] nanos = search(term);
+                firstPageNanos += nanos[0];
+                deepPageNanos += nanos[1];
+            }
+            System.out.printf("  %-14s first page %6.2f ms, page %d %6.2f ms%n", "\"" + term + "\"",
+                    firstPageNanos / ROUNDS / 1e6, PAGES, deepPageNanos / ROUNDS / 1e6);
+        }
+    }
+
+    /**
+     * Page through the first PAGES pages of a term, checking no user is returned twice
+     *
+     * @return latency of the first and the last page
+     */
+    private long[] search(String term) {
+        Set<UUID> seen = new HashSet<>();
+        String cursor = null;
+        long[] nanos = new long[2];
+        for (int page = 0; page < PAGES; page++) {
+            long started = System.nanoTime();
+            CursorPageResponse<UserResponse> result = userSearchService.searchUsers(term, PAGE_SIZE, cursor);
+            long elapsed = System.nanoTime() - started;
+            if (page == 0) {
+                nanos[0] = elapsed;
+            }
+            nanos[1] = elapsed;
+            for (UserResponse user : result.getContent()) {
+                assertThat(seen.add(user.getId())).isTrue();
+            }
+            if (!result.isHasMore()) {
+                break;
+            }
+            cursor = result.getNextCursor();
+        }
+        return nanos;
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (name, email, phone, password_hash) VALUES (?, ?, ?, 'benchmark')", rows);
+        rows.clear();
+    }
+}
@@ -0,0 +1,145 @@
+package com.teamterraforge.tgmsauthanduserservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReadWriteRoutingDataSource
+ * Tests routing decisions between primary and replica pools
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadYourWritesTracker writesTracker;
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        writesTracker = new ReadYourWritesTracker(60_000);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica, lagMonitor, writesTracker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_WithHealthyReplica_ShouldUseReplica() throws SQLException {
+        // Given
+        beginTransaction(true);
+        when(lagMonitor.isHealthy()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When & Then
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void writeTransaction_ShouldUsePrimary() throws SQLException {
+        // Given
+        beginTransaction(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When & Then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransaction_WithLaggingReplica_ShouldFallBackToPrimary() throws SQLException {
+        // Given
+        beginTransaction(true);
+        when(lagMonitor.isHealthy()).thenReturn(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When & Then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaUnreachable_ShouldFallBackToPrimary() throws SQLException {
+        // Given
+        beginTransaction(true);
+        when(lagMonitor.isHealthy()).thenReturn(true);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When & Then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        verify(lagMonitor).markUnhealthy();
+    }
+
+    @Test
+    void readAfterOwnWrite_ShouldStickToPrimary() throws SQLException {
+        // Given
+        authenticate("writer@example.com");
+        beginTransaction(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        routingDataSource.getConnection();
+
+        // When
+        beginTransaction(true);
+        when(lagMonitor.isHealthy()).thenReturn(true);
+
+        // Then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void readAfterOtherUsersWrite_ShouldUseReplica() throws SQLException {
+        // Given
+        writesTracker.recordWrite("someone-else@example.com");
+        authenticate("reader@example.com");
+        beginTransaction(true);
+        when(lagMonitor.isHealthy()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When & Then
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority("ROLE_TOURIST"))));
+    }
+}
@@ -0,0 +1,116 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditArchiveService
+ * Tests that a month is served from its segment only after the partition has been dropped
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditArchiveServiceTest {
+
+    private static final String PARTITION = "audit_log_y2024m01";
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 10);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AuditPartitionService partitionService;
+
+    private AuditArchive archive;
+    private AuditArchiveService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archive = spy(new AuditArchive(true, directory.toString()));
+        archive.load();
+        service = new AuditArchiveService(jdbcTemplate, transactionManager, partitionService, archive);
+        ReflectionTestUtils.setField(service, "afterMonths", 3);
+        ReflectionTestUtils.setField(service, "fetchSize", 1000);
+        when(partitionService.listPartitions()).thenReturn(List.of(PARTITION));
+        when(jdbcTemplate.queryForObject(contains("count(*)"), eq(Long.class))).thenReturn(1L);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row());
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void archivePartitions_ShouldDropPartitionBeforeServingSegment() {
+        // When
+        List<String> archived = service.archivePartitions(TODAY);
+
+        // Then
+        assertThat(archived).containsExactly(PARTITION);
+        InOrder inOrder = inOrder(partitionService, archive);
+        inOrder.verify(partitionService).detachAndDrop(PARTITION);
+        inOrder.verify(archive).register(eq(YearMonth.of(2024, 1)), any(AuditSegment.class));
+        assertThat(archive.months()).containsExactly(YearMonth.of(2024, 1));
+        assertThat(archive.segmentPath(PARTITION)).exists();
+    }
+
+    @Test
+    void archivePartitions_WhenDropFails_ShouldDeleteSegmentAndNotServeIt() {
+        // Given
+        doThrow(new DataAccessResourceFailureException("lock timeout"))
+                .when(partitionService).detachAndDrop(PARTITION);
+
+        // When
+        List<String> archived = service.archivePartitions(TODAY);
+
+        // Then
+        assertThat(archived).isEmpty();
+        assertThat(archive.months()).isEmpty();
+        assertThat(archive.segmentPath(PARTITION)).doesNotExist();
+        verify(archive, never()).register(any(), any());
+    }
+
+    private static ResultSet row() throws Exception {
+        UUID resourceId = UUID.fromString("018f0000-0000-7000-8000-000000000001");
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("id")).thenReturn(1L);
+        when(resultSet.getObject(anyString(), eq(UUID.class))).thenReturn(resourceId);
+        when(resultSet.getString("action")).thenReturn("USER_LOGIN");
+        when(resultSet.getString("resource_type")).thenReturn(AuditService.RESOURCE_USER);
+        when(resultSet.getTimestamp("created_at"))
+                .thenReturn(Timestamp.from(Instant.parse("2024-01-15T10:30:00Z")));
+        return resultSet;
+    }
+}
@@ -0,0 +1,165 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary;
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for AuditArchive
+ * Tests segment round trips and archive queries over memory-mapped segments
+ */
+class AuditArchiveTest {
+
+    private static final Instant FIRST_PAGE = Instant.parse("9999-12-31T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private final UUID userId = UUID.fromString("018f0000-0000-7000-8000-000000000001");
+    private final UUID otherUserId = UUID.fromString("f18f0000-0000-7000-8000-000000000002");
+
+    private AuditArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // January: userId registers and is renamed; otherUserId logs in many times
+        List<AuditSegmentRow> january = new ArrayList<>();
+        january.add(row(1L, userId, "2024-01-05T10:00:00Z", true, "{\"name\":\"John Doe\",\"role\":\"TOURIST\"}", null));
+        january.add(row(2L, userId, "2024-01-06T10:00:00Z", false, null,
+                "[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"John Smith\"}]"));
+        for (long id = 3; id < 10_003; id++) {
+            january.add(row(id, otherUserId, Instant.parse("2024-01-07T00:00:00Z").plusSeconds(id).toString(),
+                    false, null, null));
+        }
+        writeSegment("audit_log_y2024m01", january);
+
+        // February: userId changes phone
+        writeSegment("audit_log_y2024m02", List.of(
+                row(20_000L, userId, "2024-02-01T09:00:00Z", false, null,
+                        "[{\"op\":\"add\",\"path\":\"/phone\",\"value\":\"+94771234567\"}]")));
+
+        archive = new AuditArchive(true, directory.toString());
+        archive.load();
+    }
+
+    @Test
+    void load_ShouldMapSegmentsNewestFirst() {
+        // Then
+        assertThat(archive.months()).containsExactly(YearMonth.of(2024, 2), YearMonth.of(2024, 1));
+    }
+
+    @Test
+    void findResourceHistory_ShouldPageNewestFirstAcrossSegments() {
+        // When
+        List<AuditLogSummary> firstPage = archive.findResourceHistory(
+                AuditService.RESOURCE_USER, userId, FIRST_PAGE, Long.MAX_VALUE, 2);
+        AuditLogSummary last = firstPage.get(firstPage.size() - 1);
+        List<AuditLogSummary> secondPage = archive.findResourceHistory(
+                AuditService.RESOURCE_USER, userId, last.getCreatedAt(), last.getId(), 2);
+
+        // Then
+        assertThat(firstPage).extracting(AuditLogSummary::getId).containsExactly(20_000L, 2L);
+        assertThat(secondPage).extracting(AuditLogSummary::getId).containsExactly(1L);
+    }
+
+    @Test
+    void findWindow_ShouldReturnOnlyEntriesInWindow() {
+        // When
+        List<AuditLogSummary> rows = archive.findWindow(Instant.parse("2024-01-07T00:00:10Z"),
+                Instant.parse("2024-01-07T00:00:13Z"), FIRST_PAGE, Long.MAX_VALUE, 50);
+
+        // Then
+        assertThat(rows).extracting(AuditLogSummary::getId).containsExactly(12L, 11L, 10L);
+    }
+
+    @Test
+    void findById_ShouldReturnEntryWithState() {
+        // When
+        Optional<AuditLog> entry = archive.findById(1L);
+
+        // Then
+        assertThat(entry).isPresent();
+        assertThat(entry.get().isCheckpoint()).isTrue();
+        assertThat(entry.get().getAfterState()).containsEntry("name", "John Doe");
+        assertThat(archive.findById(15_000L)).isEmpty();
+    }
+
+    @Test
+    void findLatestCheckpointAndPatches_ShouldAllowStateReconstruction() {
+        // When
+        AuditLog checkpoint = archive.findLatestCheckpoint(AuditService.RESOURCE_USER, userId,
+                Instant.parse("2024-02-01T09:00:00Z"), 20_000L).orElseThrow();
+        List<AuditLog> patches = archive.findPatchesBetween(AuditService.RESOURCE_USER, userId,
+                checkpoint.getCreatedAt(), checkpoint.getId(), Instant.parse("2024-02-01T09:00:00Z"), 20_000L);
+
+        // Then
+        assertThat(checkpoint.getId()).isEqualTo(1L);
+        assertThat(patches).extracting(AuditLog::getId).containsExactly(2L, 20_000L);
+        AuditDiffEngine diffEngine = new AuditDiffEngine(20, 30, 100);
+        assertThat(diffEngine.apply(diffEngine.apply(checkpoint.getAfterState(), patches.get(0).getPatch()),
+                patches.get(1).getPatch()))
+                .containsEntry("name", "John Smith")
+                .containsEntry("phone", "+94771234567");
+    }
+
+    @Test
+    void remove_ShouldDeleteSegmentFile() throws IOException {
+        // When
+        archive.remove(YearMonth.of(2024, 1));
+
+        // Then
+        assertThat(archive.months()).containsExactly(YearMonth.of(2024, 2));
+        assertThat(Files.exists(directory.resolve("audit_log_y2024m01.seg"))).isFalse();
+        assertThat(archive.findById(1L)).isEmpty();
+    }
+
+    @Test
+    void segmentWriter_RowsOutOfOrder_ShouldThrowException() throws IOException {
+        // Given
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory.resolve("audit_log_y2023m12.seg"))) {
+            writer.append(row(1L, otherUserId, "2023-12-01T00:00:00Z", false, null, null));
+
+            // When & Then
+            assertThatThrownBy(() -> writer.append(row(2L, userId, "2023-12-01T00:00:00Z", false, null, null)))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(directory.resolve("audit_log_y2023m12.seg")).doesNotExist();
+        assertThat(directory.resolve("audit_log_y2023m12.seg.tmp")).doesNotExist();
+    }
+
+    private void writeSegment(String partition, List<AuditSegmentRow> rows) throws IOException {
+        List<AuditSegmentRow> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(AuditSegmentRow::resourceId, AuditSegmentRow::compareResourceIds)
+                .thenComparing(AuditSegmentRow::createdAt)
+                .thenComparingLong(AuditSegmentRow::id));
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory.resolve(partition + ".seg"))) {
+            for (AuditSegmentRow row : sorted) {
+                writer.append(row);
+            }
+            assertThat(writer.finish()).isEqualTo(rows.size());
+        }
+    }
+
+    private static AuditSegmentRow row(long id, UUID resourceId, String createdAt, boolean checkpoint,
+                                       String afterState, String patch) {
+        String action = checkpoint ? "USER_REGISTERED" : patch != null ? "PROFILE_UPDATED" : "USER_LOGIN";
+        return new AuditSegmentRow(id, resourceId, action, AuditService.RESOURCE_USER, resourceId,
+                Instant.parse(createdAt), checkpoint, null, afterState, patch);
+    }
+}
@@ -0,0 +1,222 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for AuditDiffEngine
+ * Tests patch computation, reconstruction, checkpoint policy and storage savings
+ */
+@Slf4j
+class AuditDiffEngineTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private AuditDiffEngine diffEngine;
+
+    @BeforeEach
+    void setUp() {
+        diffEngine = new AuditDiffEngine(3, 30, 100);
+    }
+
+    @Test
+    void diff_ShouldProduceOnlyChangedFields() {
+        // Given
+        Map<String, Object> before = state("john@example.com", "John Doe", null);
+        Map<String, Object> after = state("john@example.com", "John Smith", "+1234567890");
+        after.remove("role");
+        after.put("a/b~c", "escaped");
+
+        // When
+        List<Map<String, Object>> patch = diffEngine.diff(before, after);
+
+        // Then
+        assertThat(patch).containsExactly(
+                Map.of("op", "replace", "path", "/name", "value", "John Smith"),
+                Map.of("op", "replace", "path", "/phone", "value", "+1234567890"),
+                Map.of("op", "remove", "path", "/role"),
+                Map.of("op", "add", "path", "/a~1b~0c", "value", "escaped"));
+        assertThat(diffEngine.apply(before, patch)).isEqualTo(after);
+        assertThat(before).containsEntry("name", "John Doe");
+    }
+
+    @Test
+    void diff_WithNestedObjects_ShouldPatchNestedFields() {
+        // Given
+        Map<String, Object> before = new LinkedHashMap<>(Map.of("profile", new LinkedHashMap<>(Map.of("city", "Kandy", "zip", "20000"))));
+        Map<String, Object> after = new LinkedHashMap<>(Map.of("profile", new LinkedHashMap<>(Map.of("city", "Galle", "zip", "20000"))));
+
+        // When
+        List<Map<String, Object>> patch = diffEngine.diff(before, after);
+
+        // Then
+        assertThat(patch).containsExactly(Map.of("op", "replace", "path", "/profile/city", "value", "Galle"));
+        assertThat(diffEngine.apply(before, patch)).isEqualTo(after);
+    }
+
+    @Test
+    void apply_WhenPatchDoesNotFitState_ShouldThrowException() {
+        // Given
+        List<Map<String, Object>> patch = List.of(Map.of("op", "remove", "path", "/missing"));
+
+        // When & Then
+        assertThatThrownBy(() -> diffEngine.apply(state("a@example.com", "A", null), patch))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void compact_ShouldCheckpointFirstEventAndEveryIntervalChanges() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.parse("2024-01-16T10:30:00Z");
+        List<AuditEvent> events = List.of(
+                update(userId, null, state("a@example.com", "A", null), now),
+                update(userId, state("a@example.com", "A", null), state("a@example.com", "B", null), now),
+                update(userId, state("a@example.com", "B", null), state("a@example.com", "C", null), now),
+                update(userId, state("a@example.com", "C", null), state("a@example.com", "D", null), now),
+                new AuditEvent(userId, AuditAction.USER_LOGIN, AuditService.RESOURCE_USER, userId, null, null, now),
+                update(userId, state("a@example.com", "D", null), null, now));
+
+        // When
+        List<AuditDiffEngine.Compacted> compacted = events.stream().map(diffEngine::compact).toList();
+
+        // Then
+        assertThat(compacted).extracting(AuditDiffEngine.Compacted::checkpoint)
+                .containsExactly(true, false, false, true, false, true);
+        assertThat(compacted.get(1).patch()).containsExactly(Map.of("op", "replace", "path", "/name", "value", "B"));
+        assertThat(compacted.get(3).state()).containsEntry("name", "D");
+        assertThat(compacted.get(4).patch()).isNull();
+        assertThat(compacted.get(5).state()).isNull();
+    }
+
+    @Test
+    void compact_WhenLastCheckpointTooOld_ShouldCheckpoint() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Instant first = Instant.parse("2024-01-01T00:00:00Z");
+        diffEngine.compact(update(userId, null, state("a@example.com", "A", null), first));
+
+        // When
+        AuditDiffEngine.Compacted compacted = diffEngine.compact(update(userId,
+                state("a@example.com", "A", null), state("a@example.com", "B", null), first.plus(31, ChronoUnit.DAYS)));
+
+        // Then
+        assertThat(compacted.checkpoint()).isTrue();
+    }
+
+    @Test
+    void compact_AfterForget_ShouldCheckpoint() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+        AuditEvent created = update(userId, null, state("a@example.com", "A", null), now);
+        diffEngine.compact(created);
+        diffEngine.forget(List.of(created));
+
+        // When
+        AuditDiffEngine.Compacted compacted = diffEngine.compact(update(userId,
+                state("a@example.com", "A", null), state("a@example.com", "B", null), now));
+
+        // Then
+        assertThat(compacted.checkpoint()).isTrue();
+    }
+
+    /**
+     * Synthetic workload: 1,000 users register, then receive 30 profile updates each
+     * touching one or two fields, interleaved in random order. Compares the JSON
+     * stored in audit_log with full before/after snapshots against patches plus
+     * checkpoints every 20 changes, and checks every final state reconstructs.
+     */
+    @Test
+    void compact_SyntheticProfileUpdateWorkload_ShouldStoreFarLessState() throws Exception {
+        // Given
+        AuditDiffEngine engine = new AuditDiffEngine(20, 30, 10_000);
+        Random random = new Random(42);
+        int users = 1_000;
+        int updatesPerUser = 30;
+
+        List<UUID> userIds = new ArrayList<>();
+        Map<UUID, Map<String, Object>> current = new HashMap<>();
+        List<AuditEvent> events = new ArrayList<>();
+        Instant now = Instant.parse("2024-01-16T10:30:00Z");
+        for (int i = 0; i < users; i++) {
+            UUID userId = UUID.randomUUID();
+            userIds.add(userId);
+            Map<String, Object> state = state("user" + i + "@example.com", "User Number " + i, "+9477" + (1_000_000 + i));
+            current.put(userId, state);
+            events.add(update(userId, null, state, now));
+        }
+        for (int i = 0; i < users * updatesPerUser; i++) {
+            UUID userId = userIds.get(random.nextInt(users));
+            Map<String, Object> before = current.get(userId);
+            Map<String, Object> after = new LinkedHashMap<>(before);
+            after.put("name", "Renamed User " + random.nextInt(1_000_000));
+            if (random.nextInt(4) == 0) {
+                after.put("phone", "+9471" + (1_000_000 + random.nextInt(9_000_000)));
+            }
+            current.put(userId, after);
+            events.add(update(userId, before, after, now));
+        }
+
+        // When
+        long fullBytes = 0;
+        long compactBytes = 0;
+        int checkpoints = 0;
+        Map<UUID, Map<String, Object>> rebuilt = new HashMap<>();
+        for (AuditEvent event : events) {
+            fullBytes += jsonSize(event.beforeState()) + jsonSize(event.afterState());
+            AuditDiffEngine.Compacted compacted = engine.compact(event);
+            compactBytes += jsonSize(compacted.state()) + jsonSize(compacted.patch());
+            if (compacted.checkpoint()) {
+                checkpoints++;
+                rebuilt.put(event.resourceId(), compacted.state());
+            } else {
+                rebuilt.put(event.resourceId(), engine.apply(rebuilt.get(event.resourceId()), compacted.patch()));
+            }
+        }
+
+        // Then
+        double savings = 1.0 - (double) compactBytes / fullBytes;
+        log.debug("Audit diff workload: {} events, {} checkpoints, full snapshots {} bytes, "
+                        + "patches + checkpoints {} bytes, {} saved",
+                events.size(), checkpoints, fullBytes, compactBytes, String.format("%.1f%%", savings * 100));
+        assertThat(rebuilt).isEqualTo(current);
+        assertThat(savings).isGreaterThan(0.55);
+    }
+
+    private static long jsonSize(Object value) throws Exception {
+        return value == null ? 0 : OBJECT_MAPPER.writeValueAsBytes(value).length;
+    }
+
+    private static AuditEvent update(UUID userId, Map<String, Object> before, Map<String, Object> after,
+                                     Instant occurredAt) {
+        AuditAction action = before == null ? AuditAction.USER_REGISTERED
+                : after == null ? AuditAction.ACCOUNT_DELETED : AuditAction.PROFILE_UPDATED;
+        return new AuditEvent(userId, action, AuditService.RESOURCE_USER, userId, before, after, occurredAt);
+    }
+
+    private static Map<String, Object> state(String email, String name, String phone) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("email", email);
+        state.put("name", name);
+        state.put("phone", phone);
+        state.put("role", "TOURIST");
+        return state;
+    }
+}
@@ -0,0 +1,204 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+import com.teamterraforge.tgmsauthanduserservice.repository.AuditLogRepository;
+import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditLogWriter
+ * Tests buffering, overflow handling and batched writes
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLogWriter auditLogWriter;
+    private boolean started;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditLogWriter = new AuditLogWriter(
+                auditLogRepository, userRepository, transactionTemplate, new AuditDiffEngine(20, 30, 100),
+                meterRegistry, 2, 100, 20);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (started) {
+            auditLogWriter.stop();
+        }
+    }
+
+    @Test
+    void enqueue_WhenBufferFull_ShouldDropAndCountEvent() {
+        // Given
+        auditLogWriter.enqueue(event(UUID.randomUUID()));
+        auditLogWriter.enqueue(event(UUID.randomUUID()));
+
+        // When
+        boolean accepted = auditLogWriter.enqueue(event(UUID.randomUUID()));
+
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(meterRegistry.get("audit.events.dropped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("audit.buffer.backlog").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_WhenStateChangeIsDropped_ShouldCheckpointResourceOnNextEvent() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Set.of(userId));
+        Map<String, Object> registered = Map.of("name", "John Doe", "role", "TOURIST");
+        Map<String, Object> withPhone = Map.of("name", "John Doe", "role", "TOURIST", "phone", "+94771234567");
+        Map<String, Object> withoutPhone = Map.of("name", "John Smith", "role", "TOURIST");
+        auditLogWriter.write(List.of(new AuditEvent(userId, AuditAction.USER_REGISTERED,
+                AuditService.RESOURCE_USER, userId, null, registered, Instant.now())));
+        auditLogWriter.enqueue(event(UUID.randomUUID()));
+        auditLogWriter.enqueue(event(UUID.randomUUID()));
+        boolean accepted = auditLogWriter.enqueue(new AuditEvent(userId, AuditAction.PROFILE_UPDATED,
+                AuditService.RESOURCE_USER, userId, registered, withPhone, Instant.now()));
+
+        // When
+        auditLogWriter.write(List.of(new AuditEvent(userId, AuditAction.PROFILE_UPDATED,
+                AuditService.RESOURCE_USER, userId, withPhone, withoutPhone, Instant.now())));
+
+        // Then
+        assertThat(accepted).isFalse();
+        ArgumentCaptor<List<AuditLog>> saved = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository, times(2)).saveAll(saved.capture());
+        AuditLog next = saved.getAllValues().get(1).get(0);
+        assertThat(next.isCheckpoint()).isTrue();
+        assertThat(next.getAfterState()).isEqualTo(withoutPhone);
+        assertThat(next.getPatch()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_ShouldSaveAllEventsAndClearDeletedActors() {
+        // Given
+        UUID existingUser = UUID.randomUUID();
+        UUID deletedUser = UUID.randomUUID();
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Set.of(existingUser));
+        Instant occurredAt = Instant.parse("2024-01-16T10:30:00Z");
+        AuditEvent existing = new AuditEvent(existingUser, AuditAction.USER_LOGIN, AuditService.RESOURCE_USER,
+                existingUser, null, null, occurredAt);
+
+        // When
+        auditLogWriter.write(List.of(existing, event(deletedUser)));
+
+        // Then
+        ArgumentCaptor<List<AuditLog>> saved = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(AuditLog::getActorUserId).containsExactly(existingUser, null);
+        assertThat(saved.getValue()).extracting(AuditLog::getResourceId).containsExactly(existingUser, deletedUser);
+        assertThat(saved.getValue().get(0).getCreatedAt()).isEqualTo(occurredAt);
+        assertThat(meterRegistry.get("audit.events.written").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_ProfileUpdates_ShouldStoreCheckpointThenPatch() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Set.of(userId));
+        Map<String, Object> registered = Map.of("name", "John Doe", "role", "TOURIST");
+        Map<String, Object> renamed = Map.of("name", "John Smith", "role", "TOURIST");
+
+        // When
+        auditLogWriter.write(List.of(
+                new AuditEvent(userId, AuditAction.USER_REGISTERED, AuditService.RESOURCE_USER, userId,
+                        null, registered, Instant.now()),
+                new AuditEvent(userId, AuditAction.PROFILE_UPDATED, AuditService.RESOURCE_USER, userId,
+                        registered, renamed, Instant.now())));
+
+        // Then
+        ArgumentCaptor<List<AuditLog>> saved = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository).saveAll(saved.capture());
+        AuditLog checkpoint = saved.getValue().get(0);
+        AuditLog update = saved.getValue().get(1);
+        assertThat(checkpoint.isCheckpoint()).isTrue();
+        assertThat(checkpoint.getAfterState()).isEqualTo(registered);
+        assertThat(update.isCheckpoint()).isFalse();
+        assertThat(update.getBeforeState()).isNull();
+        assertThat(update.getAfterState()).isNull();
+        assertThat(update.getPatch()).containsExactly(Map.of("op", "replace", "path", "/name", "value", "John Smith"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backgroundWriter_ShouldFlushBufferedEventsInTransaction() throws InterruptedException {
+        // Given
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        AtomicInteger written = new AtomicInteger();
+        when(auditLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<AuditLog> entities = invocation.getArgument(0);
+            written.addAndGet(entities.size());
+            return entities;
+        });
+        auditLogWriter.start();
+        started = true;
+
+        // When
+        auditLogWriter.enqueue(event(UUID.randomUUID()));
+        auditLogWriter.enqueue(event(UUID.randomUUID()));
+
+        // Then
+        await(() -> written.get() == 2 && meterRegistry.get("audit.flush.latency").timer().count() > 0);
+        assertThat(written.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.buffer.backlog").gauge().value()).isZero();
+        assertThat(meterRegistry.get("audit.flush.latency").timer().count()).isPositive();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static AuditEvent event(UUID userId) {
+        return new AuditEvent(userId, AuditAction.USER_LOGIN, AuditService.RESOURCE_USER, userId,
+                null, null, Instant.now());
+    }
+}
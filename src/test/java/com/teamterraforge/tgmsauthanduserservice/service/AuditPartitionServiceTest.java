@@ -0,0 +1,75 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditPartitionService
+ * Tests partition pre-creation and retention
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private AuditPartitionService auditPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(auditPartitionService, "premakeMonths", 2);
+        ReflectionTestUtils.setField(auditPartitionService, "retentionMonths", 12);
+    }
+
+    @Test
+    void createFuturePartitions_ShouldCreateCurrentAndUpcomingMonths() {
+        // When
+        auditPartitionService.createFuturePartitions(LocalDate.of(2024, 11, 20));
+
+        // Then
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(Date.valueOf("2024-11-01")));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(Date.valueOf("2024-12-01")));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(Date.valueOf("2025-01-01")));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void dropExpiredPartitions_ShouldDropOnlyMonthsOutsideRetention() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "audit_log_y2023m01", "audit_log_y2023m02", "audit_log_y2023m03", "audit_log_y2024m03"));
+
+        // When
+        List<String> dropped = auditPartitionService.dropExpiredPartitions(LocalDate.of(2024, 2, 15));
+
+        // Then
+        assertThat(dropped).containsExactly("audit_log_y2023m01", "audit_log_y2023m02");
+        verify(jdbcTemplate).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_y2023m01 CONCURRENTLY");
+        verify(jdbcTemplate).execute("DROP TABLE audit_log_y2023m01");
+        verify(jdbcTemplate, never()).execute("DROP TABLE audit_log_y2023m03");
+    }
+
+    @Test
+    void partitionMonth_UnexpectedName_ShouldBeIgnored() {
+        // When & Then
+        assertThat(AuditPartitionService.partitionMonth("audit_log_y2024m05")).isEqualTo(YearMonth.of(2024, 5));
+        assertThat(AuditPartitionService.partitionMonth("audit_log_manual_copy")).isNull();
+    }
+}
@@ -0,0 +1,187 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditLogSummary;
+import com.teamterraforge.tgmsauthanduserservice.dto.AuditStateResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.AuditLog;
+import com.teamterraforge.tgmsauthanduserservice.repository.AuditLogRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditQueryService
+ * Tests keyset cursor handling for audit history and state reconstruction
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditQueryServiceTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditArchive archive;
+
+    @Spy
+    private AuditDiffEngine diffEngine = new AuditDiffEngine(20, 30, 100);
+
+    @InjectMocks
+    private AuditQueryService auditQueryService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(auditQueryService, "maxLimit", 100);
+    }
+
+    @Test
+    void getActorHistory_FirstPage_ShouldStartAfterNewestEntry() {
+        // Given
+        Instant newer = Instant.parse("2024-01-16T10:30:00.123456Z");
+        Instant older = Instant.parse("2024-01-15T08:00:00Z");
+        when(auditLogRepository.findActorHistory(eq(userId), any(Instant.class), eq(Long.MAX_VALUE), eq(Limit.of(2))))
+                .thenReturn(List.of(summary(12L, newer), summary(11L, older)));
+
+        // When
+        CursorPageResponse<AuditLogSummary> page = auditQueryService.getActorHistory(userId, 1, null);
+
+        // Then
+        assertThat(page.getContent()).extracting(AuditLogSummary::getId).containsExactly(12L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(CursorCodec.decode(page.getNextCursor(), 2)).containsExactly(newer.toString(), "12");
+    }
+
+    @Test
+    void getActorHistory_WithCursor_ShouldContinueFromPosition() {
+        // Given
+        Instant createdAt = Instant.parse("2024-01-16T10:30:00.123456Z");
+        String cursor = CursorCodec.encode(createdAt, 12L);
+        when(auditLogRepository.findActorHistory(userId, createdAt, 12L, Limit.of(51))).thenReturn(List.of());
+
+        // When
+        CursorPageResponse<AuditLogSummary> page = auditQueryService.getActorHistory(userId, 50, cursor);
+
+        // Then
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getActorHistory_WhenDatabaseRunsOut_ShouldContinueIntoArchive() {
+        // Given
+        Instant recent = Instant.parse("2024-06-02T10:00:00Z");
+        Instant archived = Instant.parse("2024-01-20T08:00:00Z");
+        when(auditLogRepository.findActorHistory(eq(userId), any(Instant.class), eq(Long.MAX_VALUE), eq(Limit.of(3))))
+                .thenReturn(List.of(summary(40L, recent)));
+        when(archive.findActorHistory(userId, recent, 40L, 2))
+                .thenReturn(List.of(summary(7L, archived), summary(6L, archived)));
+
+        // When
+        CursorPageResponse<AuditLogSummary> page = auditQueryService.getActorHistory(userId, 2, null);
+
+        // Then
+        assertThat(page.getContent()).extracting(AuditLogSummary::getId).containsExactly(40L, 7L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(CursorCodec.decode(page.getNextCursor(), 2)).containsExactly(archived.toString(), "7");
+    }
+
+    @Test
+    void getWindow_FromNotBeforeTo_ShouldThrowException() {
+        // Given
+        Instant instant = Instant.parse("2024-01-16T00:00:00Z");
+
+        // When & Then
+        assertThatThrownBy(() -> auditQueryService.getWindow(instant, instant, 50, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(auditLogRepository);
+    }
+
+    @Test
+    void getEntry_NotFound_ShouldThrowException() {
+        // Given
+        when(auditLogRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> auditQueryService.getEntry(99L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void getStateAt_ShouldApplyPatchesSinceLatestCheckpoint() {
+        // Given
+        Instant base = Instant.parse("2024-01-16T10:00:00Z");
+        AuditLog checkpoint = entry(10L, base, true, Map.of("name", "John Doe", "phone", "+1111111111"), null);
+        AuditLog rename = entry(11L, base.plusSeconds(60), false, null,
+                List.of(Map.of("op", "replace", "path", "/name", "value", "John Smith")));
+        AuditLog target = entry(13L, base.plusSeconds(120), false, null,
+                List.of(Map.of("op", "remove", "path", "/phone")));
+        when(auditLogRepository.findById(13L)).thenReturn(Optional.of(target));
+        when(auditLogRepository.findLatestCheckpoint(AuditService.RESOURCE_USER, userId, target.getCreatedAt(), 13L,
+                Limit.of(1))).thenReturn(List.of(checkpoint));
+        when(auditLogRepository.findPatchesBetween(AuditService.RESOURCE_USER, userId,
+                base, 10L, target.getCreatedAt(), 13L)).thenReturn(List.of(rename, target));
+
+        // When
+        AuditStateResponse response = auditQueryService.getStateAt(13L);
+
+        // Then
+        assertThat(response.getState()).isEqualTo(Map.of("name", "John Smith"));
+        assertThat(response.getCheckpointId()).isEqualTo(10L);
+        assertThat(response.getPatchesApplied()).isEqualTo(2);
+        assertThat(response.getAsOf()).isEqualTo(target.getCreatedAt());
+    }
+
+    @Test
+    void getStateAt_WithoutRetainedCheckpoint_ShouldThrowException() {
+        // Given
+        AuditLog target = entry(13L, Instant.parse("2024-01-16T10:00:00Z"), false, null, List.of());
+        when(auditLogRepository.findById(13L)).thenReturn(Optional.of(target));
+        when(auditLogRepository.findLatestCheckpoint(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        // When & Then
+        assertThatThrownBy(() -> auditQueryService.getStateAt(13L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("checkpoint");
+        verify(auditLogRepository, never()).findPatchesBetween(any(), any(), any(), any(), any(), any());
+    }
+
+    private AuditLog entry(Long id, Instant createdAt, boolean checkpoint, Map<String, Object> state,
+                           List<Map<String, Object>> patch) {
+        return AuditLog.builder()
+                .id(id)
+                .action("PROFILE_UPDATED")
+                .resourceType(AuditService.RESOURCE_USER)
+                .resourceId(userId)
+                .afterState(state)
+                .patch(patch)
+                .checkpoint(checkpoint)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private AuditLogSummary summary(Long id, Instant createdAt) {
+        return new AuditLogSummary(id, userId, "USER_LOGIN", AuditService.RESOURCE_USER, userId, createdAt);
+    }
+}
@@ -0,0 +1,80 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.AuditAction;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditService
+ * Tests durability modes and audit snapshots
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditServiceTest {
+
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_TransactionalDurability_ShouldWriteImmediately() {
+        // Given
+        AuditService auditService = new AuditService(auditLogWriter, AuditService.Durability.TRANSACTIONAL);
+        UUID userId = UUID.randomUUID();
+
+        // When
+        auditService.record(AuditAction.PASSWORD_CHANGED, userId, AuditService.RESOURCE_USER, userId, null, null);
+
+        // Then
+        ArgumentCaptor<List<AuditEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(auditLogWriter).write(events.capture());
+        assertThat(events.getValue()).singleElement()
+                .satisfies(event -> assertThat(event.action()).isEqualTo(AuditAction.PASSWORD_CHANGED));
+        verify(auditLogWriter, never()).enqueue(any());
+    }
+
+    @Test
+    void record_BufferedDurability_ShouldEnqueue() {
+        // Given
+        AuditService auditService = new AuditService(auditLogWriter, AuditService.Durability.BUFFERED);
+        UUID userId = UUID.randomUUID();
+
+        // When
+        auditService.record(AuditAction.USER_LOGIN, userId, AuditService.RESOURCE_USER, userId, null, null);
+
+        // Then
+        verify(auditLogWriter).enqueue(any(AuditEvent.class));
+        verify(auditLogWriter, never()).write(any());
+    }
+
+    @Test
+    void userSnapshot_ShouldNotExposePasswordHash() {
+        // Given
+        User user = User.builder()
+                .email("test@example.com")
+                .passwordHash("$2a$10$secret")
+                .name("Test User")
+                .role(UserRole.GUIDE)
+                .build();
+
+        // When
+        Map<String, Object> snapshot = AuditService.userSnapshot(user);
+
+        // Then
+        assertThat(snapshot).containsEntry("email", "test@example.com")
+                .containsEntry("role", "GUIDE")
+                .doesNotContainValue("$2a$10$secret");
+    }
+}
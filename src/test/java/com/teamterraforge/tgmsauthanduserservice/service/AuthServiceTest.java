@@ -3,6 +3,7 @@ package com.teamterraforge.tgmsauthanduserservice.service;
 import com.teamterraforge.tgmsauthanduserservice.dto.LoginRequest;
 import com.teamterraforge.tgmsauthanduserservice.dto.RegisterRequest;
 import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.OutboxEventType;
 import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
 import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
 import com.teamterraforge.tgmsauthanduserservice.security.JwtService;
@@ -52,6 +53,15 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private AuthService authService;
 
@@ -110,6 +120,8 @@ class AuthServiceTest {
         verify(userRepository).existsByEmailIgnoreCase("test@example.com");
         verify(passwordEncoder).encode("Test1234");
         verify(userRepository).save(any(User.class));
+        verify(userStatsService).recordSignup(UserRole.TOURIST);
+        verify(outboxWriter).userChanged(OutboxEventType.USER_CREATED, mockUser);
         verify(jwtService).generateToken(any(UserDetails.class), any(UUID.class));
     }
 
@@ -152,6 +164,7 @@ class AuthServiceTest {
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByEmailIgnoreCase("test@example.com");
         verify(userRepository).save(mockUser); // Save for lastLogin update
+        verify(userStatsService).recordLogin(eq(mockUser.getRole()), any());
     }
 
     @Test
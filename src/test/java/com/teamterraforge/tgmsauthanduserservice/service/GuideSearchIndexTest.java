@@ -0,0 +1,165 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for GuideSearchIndex
+ * Tests term matching and ranking, filters and facets, updates and removals, and paging
+ */
+class GuideSearchIndexTest {
+
+    private static final UUID START = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private GuideSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GuideSearchIndex(List.of(new BigDecimal("50"), new BigDecimal("100")), 20);
+    }
+
+    @Test
+    void search_ShouldRequireEveryTermAndRankTitleMatchesFirst() {
+        // Given
+        GuideSearchIndex.Document inTitle = document("Galle Fort walks", "Colonial history tours.",
+                List.of("English"), "45.00", "USD", true, 50);
+        GuideSearchIndex.Document inBio = document("Coastal guide", "I walk visitors around Galle Fort every day.",
+                List.of("English"), "45.00", "USD", true, 50);
+        GuideSearchIndex.Document galleOnly = document("Galle beaches", "Surfing and snorkelling.",
+                List.of("English"), "45.00", "USD", true, 50);
+        index.apply(List.of(inTitle, inBio, galleOnly), List.of());
+
+        // When
+        GuideSearchIndex.Result result = index.search(query("galle fort", null, null, null, null, null));
+
+        // Then
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).extracting(hit -> hit.document().guideId())
+                .containsExactly(inTitle.guideId(), inBio.guideId());
+        assertThat(result.hits().get(0).score()).isGreaterThan(result.hits().get(1).score());
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndAccentsAndKeepSinhalaWordsWhole() {
+        // Given
+        GuideSearchIndex.Document french = document("Visites guidées", "Café et marché", List.of("Français"),
+                null, null, false, 10);
+        GuideSearchIndex.Document sinhala = document("ගාල්ල කොටුව", null, List.of("Sinhala"), null, null, false, 10);
+        index.apply(List.of(french, sinhala), List.of());
+
+        // When & Then
+        assertThat(index.search(query("GUIDEES cafe francais", null, null, null, null, null)).hits())
+                .extracting(hit -> hit.document().guideId()).containsExactly(french.guideId());
+        assertThat(index.search(query("කොටුව", null, null, null, null, null)).hits())
+                .extracting(hit -> hit.document().guideId()).containsExactly(sinhala.guideId());
+        assertThat(GuideSearchIndex.tokenize("ගාල්ල කොටුව")).containsExactly("ගාල්ල", "කොටුව");
+    }
+
+    @Test
+    void search_WithFilters_ShouldCountFacetsOverFilteredMatches() {
+        // Given
+        index.apply(List.of(
+                document("Kandy tours", null, List.of("English", "German"), "40.00", "USD", true, 80),
+                document("Kandy temples", null, List.of("english"), "75.00", "usd", false, 60),
+                document("Kandy hikes", null, List.of("French"), "120.00", "EUR", true, 70),
+                document("Kandy cooking", null, List.of("English"), null, "LKR", true, 90),
+                document("Ella hikes", null, List.of("English"), "30.00", "USD", true, 40)), List.of());
+
+        // When
+        GuideSearchIndex.Result result = index.search(query("kandy", "ENGLISH", null, null, null, null));
+        GuideSearchIndex.Result rated = index.search(query("kandy", "english", "USD", null,
+                new BigDecimal("50"), new BigDecimal("100")));
+
+        // Then
+        assertThat(result.total()).isEqualTo(3);
+        Map<String, Map<String, Integer>> facets = result.facets();
+        assertThat(facets.get(GuideSearchIndex.LANGUAGE_FACET)).containsExactly(
+                Map.entry("english", 3), Map.entry("german", 1));
+        assertThat(facets.get(GuideSearchIndex.CURRENCY_FACET)).containsOnly(
+                Map.entry("USD", 2), Map.entry("LKR", 1));
+        assertThat(facets.get(GuideSearchIndex.VERIFIED_FACET)).containsExactly(
+                Map.entry("true", 2), Map.entry("false", 1));
+        assertThat(facets.get(GuideSearchIndex.RATE_FACET)).containsExactly(
+                Map.entry("0-50", 1), Map.entry("50-100", 1), Map.entry("100+", 0));
+
+        assertThat(rated.hits()).extracting(hit -> hit.document().title()).containsExactly("Kandy temples");
+    }
+
+    @Test
+    void apply_ShouldReplaceChangedGuidesAndDropRemovedOnes() {
+        // Given
+        GuideSearchIndex.Document original = document("Sigiriya climbs", null, List.of("English"), "60.00", "USD", true, 50);
+        GuideSearchIndex.Document other = document("Sigiriya sunrise", null, List.of("German"), "60.00", "USD", true, 50);
+        index.apply(List.of(original, other), List.of());
+
+        // When
+        GuideSearchIndex.Document changed = new GuideSearchIndex.Document(original.guideId(), original.userId(),
+                "Dambulla caves", null, List.of("Japanese"), List.of(), new BigDecimal("60.00"), "USD", true, 50);
+        index.apply(List.of(changed), List.of(other.guideId()));
+
+        // Then
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search(query("sigiriya", null, null, null, null, null)).hits()).isEmpty();
+        assertThat(index.search(query("german", null, null, null, null, null)).hits()).isEmpty();
+        assertThat(index.search(query("dambulla", "japanese", null, null, null, null)).hits())
+                .extracting(hit -> hit.document().guideId()).containsExactly(original.guideId());
+
+        // Freed slots are reused by new guides
+        GuideSearchIndex.Document added = document("Sigiriya again", null, List.of("German"), null, null, false, 0);
+        index.apply(List.of(added), List.of());
+        assertThat(index.search(query("sigiriya german", null, null, null, null, null)).hits())
+                .extracting(hit -> hit.document().guideId()).containsExactly(added.guideId());
+    }
+
+    @Test
+    void search_WithoutText_ShouldPageThroughAllMatchesByProfileScore() {
+        // Given
+        List<GuideSearchIndex.Document> documents = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            documents.add(document("Guide " + i, null, List.of("English"), "20.00", "USD", i % 2 == 0, i % 5));
+        }
+        index.apply(documents, List.of());
+
+        // When
+        List<UUID> seen = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        double afterScore = Double.POSITIVE_INFINITY;
+        UUID afterId = START;
+        GuideSearchIndex.Result page;
+        do {
+            page = index.search(new GuideSearchIndex.Query(null, null, null, null, null, null, afterScore, afterId, 10));
+            page.hits().forEach(hit -> {
+                seen.add(hit.document().guideId());
+                scores.add(hit.score());
+            });
+            GuideSearchIndex.Hit last = page.hits().get(page.hits().size() - 1);
+            afterScore = last.score();
+            afterId = last.document().guideId();
+        } while (page.hasMore());
+
+        // Then
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+        assertThat(scores).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        assertThat(page.total()).isEqualTo(25);
+    }
+
+    private static GuideSearchIndex.Query query(String text, String language, String currency, Boolean verified,
+                                                BigDecimal minRate, BigDecimal maxRate) {
+        return new GuideSearchIndex.Query(text, language, currency, verified, minRate, maxRate,
+                Double.POSITIVE_INFINITY, START, 10);
+    }
+
+    private static GuideSearchIndex.Document document(String title, String bio, List<String> languages, String rate,
+                                                      String currency, boolean verified, int score) {
+        return new GuideSearchIndex.Document(UUID.randomUUID(), UUID.randomUUID(), title, bio, languages, List.of(),
+                rate != null ? new BigDecimal(rate) : null, currency, verified, score);
+    }
+}
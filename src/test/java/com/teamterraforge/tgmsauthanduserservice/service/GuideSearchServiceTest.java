@@ -0,0 +1,232 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GuideSearchService
+ * Tests applying logged guide changes, waiting for change ids still in flight, bounded gap tracking
+ * and search validation
+ */
+@ExtendWith(MockitoExtension.class)
+class GuideSearchServiceTest {
+
+    private static final String CHANGES = "WHERE id > :after";
+    private static final String GAPS = "WHERE id IN (:ids)";
+    private static final String RELOAD = "WHERE g.id IN (:guideIds)";
+    private static final String LOAD = "WHERE g.id > :afterId";
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_ShouldReloadChangedGuidesAndRemoveDeletedOnes() {
+        // Given
+        GuideSearchService service = service();
+        GuideSearchIndex index = new GuideSearchIndex(List.of(), 20);
+        GuideSearchIndex.Document updated = document("Mirissa whale watching");
+        GuideSearchIndex.Document deleted = document("Mirissa beaches");
+        index.apply(List.of(document(updated.guideId(), "Old title"), deleted), List.of());
+        when(jdbcTemplate.query(contains(CHANGES), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(
+                        new GuideSearchService.Change(1, updated.guideId()),
+                        new GuideSearchService.Change(2, deleted.guideId()),
+                        new GuideSearchService.Change(3, updated.guideId())));
+        when(jdbcTemplate.query(contains(RELOAD), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(updated));
+
+        // When
+        int reindexed = service.applyChanges(index);
+
+        // Then
+        assertThat(reindexed).isEqualTo(2);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(search(index, "mirissa")).containsExactly(updated.guideId());
+        assertThat(search(index, "old")).isEmpty();
+        ArgumentCaptor<SqlParameterSource> reload = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).query(contains(RELOAD), reload.capture(), any(RowMapper.class));
+        assertThat((List<UUID>) reload.getValue().getValue("guideIds"))
+                .containsExactly(updated.guideId(), deleted.guideId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_WithMissingChangeId_ShouldPickItUpOnceCommitted() {
+        // Given - change 2 belongs to a transaction still open during the first refresh
+        GuideSearchService service = service();
+        GuideSearchIndex index = new GuideSearchIndex(List.of(), 20);
+        GuideSearchIndex.Document first = document("Ella hikes");
+        GuideSearchIndex.Document late = document("Ella train rides");
+        when(jdbcTemplate.query(contains(CHANGES), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(new GuideSearchService.Change(1, first.guideId()),
+                        new GuideSearchService.Change(3, first.guideId())))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(contains(GAPS), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(new GuideSearchService.Change(2, late.guideId())));
+        when(jdbcTemplate.query(contains(RELOAD), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(first), List.of(late));
+
+        // When
+        service.applyChanges(index);
+        int reindexed = service.applyChanges(index);
+
+        // Then
+        assertThat(reindexed).isEqualTo(1);
+        assertThat(search(index, "ella")).containsExactlyInAnyOrder(first.guideId(), late.guideId());
+        ArgumentCaptor<SqlParameterSource> gaps = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).query(contains(GAPS), gaps.capture(), any(RowMapper.class));
+        assertThat((List<Long>) gaps.getValue().getValue("ids")).containsExactly(2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_WithManyGaps_ShouldLookThemUpInBatches() {
+        // Given - batches of 2, ids 2 to 4 missing
+        GuideSearchService service = service(2, 30_000, 100);
+        missChangeIds();
+
+        // When
+        applyChangesThreeTimes(service);
+
+        // Then
+        ArgumentCaptor<SqlParameterSource> gaps = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, times(2)).query(contains(GAPS), gaps.capture(), any(RowMapper.class));
+        assertThat(gaps.getAllValues()).extracting(params -> (List<Long>) params.getValue("ids"))
+                .allSatisfy(ids -> assertThat(ids).hasSizeLessThanOrEqualTo(2))
+                .flatExtracting(ids -> ids).containsExactlyInAnyOrder(2L, 3L, 4L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_WithExpiredGaps_ShouldDropThemBeforeLookingThemUp() {
+        // Given - gaps expire as soon as they are missed
+        GuideSearchService service = service(2, -1, 100);
+        missChangeIds();
+
+        // When
+        applyChangesThreeTimes(service);
+
+        // Then
+        verify(jdbcTemplate, never()).query(contains(GAPS), any(SqlParameterSource.class), any(RowMapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_WithMoreMissingIdsThanTracked_ShouldReloadTheIndex() {
+        // Given - ids 1 to 9 never commit, and only 5 are tracked
+        GuideSearchService service = service(100, 30_000, 5);
+        JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        when(jdbcOperations.queryForObject(contains("max(id)"), eq(Long.class))).thenReturn(0L, 10L);
+        when(jdbcTemplate.query(contains(LOAD), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(contains(RELOAD), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(contains(CHANGES), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(new GuideSearchService.Change(10, UUID.randomUUID())));
+        service.refresh();
+
+        // When
+        service.refresh();
+        service.refresh();
+
+        // Then
+        verify(jdbcOperations, times(2)).queryForObject(contains("max(id)"), eq(Long.class));
+        verify(jdbcTemplate, never()).query(contains(GAPS), any(SqlParameterSource.class), any(RowMapper.class));
+    }
+
+    @Test
+    void search_ShouldRejectInvalidRequestsAndWaitForTheIndex() {
+        // Given
+        GuideSearchService service = service();
+
+        // When & Then
+        assertThatThrownBy(() -> service.search("galle", null, null, null, null, null, 20, null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Guide search index is still loading");
+
+        JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        when(jdbcOperations.queryForObject(contains("max(id)"), eq(Long.class))).thenReturn(0L);
+        service.refresh();
+        assertThatThrownBy(() -> service.search("galle", null, null, null,
+                new BigDecimal("100"), new BigDecimal("50"), 20, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("minRate must not be greater than maxRate");
+        assertThat(service.search("galle", null, null, null, null, null, 20, null).getTotal()).isZero();
+    }
+
+    @Test
+    void parseLanguages_ShouldAcceptCsvAndJsonArrays() {
+        assertThat(GuideSearchService.parseLanguages("English, Sinhala ,Tamil"))
+                .containsExactly("English", "Sinhala", "Tamil");
+        assertThat(GuideSearchService.parseLanguages("[\"English\", \"German\"]"))
+                .containsExactly("English", "German");
+        assertThat(GuideSearchService.parseLanguages(" ")).isEmpty();
+    }
+
+    private GuideSearchService service() {
+        return service(100, 30_000, 10_000);
+    }
+
+    private GuideSearchService service(int batchSize, long maxGapWaitMs, int maxTrackedGaps) {
+        return new GuideSearchService(jdbcTemplate, new SimpleMeterRegistry(), true, batchSize, maxGapWaitMs,
+                maxTrackedGaps, 24, 50, List.of(new BigDecimal("50"), new BigDecimal("100")), 20);
+    }
+
+    /**
+     * Changes 1 and then 5 arrive on the first two refreshes, leaving ids 2 to 4 missing
+     */
+    @SuppressWarnings("unchecked")
+    private void missChangeIds() {
+        UUID guideId = UUID.randomUUID();
+        when(jdbcTemplate.query(contains(CHANGES), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(new GuideSearchService.Change(1, guideId)))
+                .thenReturn(List.of(new GuideSearchService.Change(5, guideId)))
+                .thenReturn(List.of());
+        lenient().when(jdbcTemplate.query(contains(RELOAD), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+    }
+
+    private static void applyChangesThreeTimes(GuideSearchService service) {
+        GuideSearchIndex index = new GuideSearchIndex(List.of(), 20);
+        for (int refresh = 0; refresh < 3; refresh++) {
+            service.applyChanges(index);
+        }
+    }
+
+    private static List<UUID> search(GuideSearchIndex index, String text) {
+        return index.search(new GuideSearchIndex.Query(text, null, null, null, null, null,
+                        Double.POSITIVE_INFINITY, new UUID(Long.MIN_VALUE, Long.MIN_VALUE), 10))
+                .hits().stream().map(hit -> hit.document().guideId()).toList();
+    }
+
+    private static GuideSearchIndex.Document document(String title) {
+        return document(UUID.randomUUID(), title);
+    }
+
+    private static GuideSearchIndex.Document document(UUID guideId, String title) {
+        return new GuideSearchIndex.Document(guideId, UUID.randomUUID(), title, null, List.of("English"),
+                List.of("Southern Province"), new BigDecimal("40.00"), "USD", true, 60);
+    }
+}
@@ -0,0 +1,236 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.BroadcastRequest;
+import com.teamterraforge.tgmsauthanduserservice.dto.BroadcastResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationBroadcastService
+ * Tests chunked fan-out, resuming after the last user, inbox and stream resyncs, backlog throttling
+ * and cancellation
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationBroadcastServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private NotificationTemplates templates;
+
+    @Mock
+    private NotificationInboxService inboxService;
+
+    @Mock
+    private NotificationStream stream;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fanOut_ShouldInsertChunksUntilOneComesBackShortThenComplete() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        backlog(0);
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(active(null)), List.of(active(first)), List.of());
+        when(jdbcTemplate.queryForObject(contains("WITH recipients"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(new NotificationBroadcastService.FanOut(100, first),
+                        new NotificationBroadcastService.FanOut(42, second));
+
+        // When
+        service.fanOut();
+
+        // Then
+        ArgumentCaptor<SqlParameterSource> progress = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, times(2)).update(contains("enqueued = enqueued + :inserted"), progress.capture());
+        assertThat(progress.getAllValues()).extracting(params -> params.getValue("status"))
+                .containsExactly("RUNNING", "COMPLETED");
+        assertThat(progress.getAllValues()).extracting(params -> params.getValue("lastUserId"))
+                .containsExactly(first, second);
+        verify(inboxService, times(2)).resetUnreadCounts();
+        verify(stream, times(2)).resync(any());
+        assertThat(meterRegistry.get("notifications.broadcast.enqueued").counter().count()).isEqualTo(142.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fanOut_PushChunk_ShouldResyncOnlyStreamsOfItsRecipients() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        // Negative halves sort after positive ones in PostgreSQL, unlike UUID.compareTo
+        UUID after = UUID.fromString("7fffffff-0000-7000-8000-000000000000");
+        UUID recipient = UUID.fromString("80000000-0000-7000-8000-000000000001");
+        UUID last = UUID.fromString("90000000-0000-7000-8000-000000000000");
+        UUID later = UUID.fromString("a0000000-0000-7000-8000-000000000000");
+        backlog(0);
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(active(after)));
+        when(jdbcTemplate.queryForObject(contains("WITH recipients"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(new NotificationBroadcastService.FanOut(42, last));
+
+        // When
+        service.fanOut();
+
+        // Then
+        ArgumentCaptor<Predicate<UUID>> users = ArgumentCaptor.forClass(Predicate.class);
+        InOrder inOrder = inOrder(transactionTemplate, inboxService, stream);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(inboxService).resetUnreadCounts();
+        inOrder.verify(stream).resync(users.capture());
+        assertThat(users.getValue().test(recipient)).isTrue();
+        assertThat(users.getValue().test(last)).isTrue();
+        assertThat(users.getValue().test(after)).isFalse();
+        assertThat(users.getValue().test(later)).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fanOut_EmailChunk_ShouldLeaveInboxAndStreamsAlone() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        backlog(0);
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(new NotificationBroadcastService.ActiveBroadcast(
+                        7L, NotificationChannel.EMAIL, null, null)), List.of());
+        when(jdbcTemplate.queryForObject(contains("WITH recipients"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(new NotificationBroadcastService.FanOut(42, UUID.randomUUID()));
+
+        // When
+        service.fanOut();
+
+        // Then
+        verifyNoInteractions(inboxService, stream);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fanOutChunk_WithRole_ShouldSelectRoleAfterLastUser() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        UUID lastUserId = UUID.randomUUID();
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(new NotificationBroadcastService.ActiveBroadcast(
+                        7L, NotificationChannel.SMS, UserRole.GUIDE, lastUserId)));
+        when(jdbcTemplate.queryForObject(contains("WITH recipients"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(new NotificationBroadcastService.FanOut(0, null));
+
+        // When
+        NotificationBroadcastService.Chunk chunk = service.fanOutChunk();
+
+        // Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).queryForObject(sql.capture(), params.capture(), any(RowMapper.class));
+        assertThat(sql.getValue())
+                .contains("u.role = CAST(:role AS user_role)")
+                .contains("u.phone IS NOT NULL");
+        assertThat(params.getValue().getValue("afterUserId")).isEqualTo(lastUserId);
+        assertThat(params.getValue().getValue("role")).isEqualTo("GUIDE");
+        assertThat(chunk.completed()).isTrue();
+        verify(jdbcTemplate).update(contains("enqueued = enqueued + :inserted"),
+                argThat((SqlParameterSource progress) -> lastUserId.equals(progress.getValue("lastUserId"))));
+    }
+
+    @Test
+    void fanOut_WhenPendingBacklogIsFull_ShouldWait() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        backlog(20_001);
+
+        // When
+        service.fanOut();
+
+        // Then
+        verifyNoInteractions(transactionTemplate);
+        assertThat(meterRegistry.get("notifications.broadcast.throttled").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cancel_WhenAlreadyCompleted_ShouldThrowException() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        when(jdbcTemplate.update(contains("'CANCELLED'"), any(SqlParameterSource.class))).thenReturn(0);
+        when(jdbcTemplate.query(contains("WHERE id = :id"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(BroadcastResponse.builder().id(7L).status("COMPLETED").build()));
+
+        // When & Then
+        assertThatThrownBy(() -> service.cancel(7L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Broadcast 7 is already COMPLETED");
+        verify(jdbcTemplate, never()).update(contains("DELETE FROM notifications"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void create_WithUnknownTemplate_ShouldThrowException() {
+        // Given
+        NotificationBroadcastService service = service(100);
+        when(templates.find("launch.announcement", null))
+                .thenThrow(new IllegalArgumentException("No notification template: launch.announcement"));
+        BroadcastRequest request = BroadcastRequest.builder()
+                .channel(NotificationChannel.PUSH)
+                .templateKey("launch.announcement")
+                .payload(Map.of("title", "New tours"))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> service.create(request, UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("launch.announcement");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private NotificationBroadcastService service(int chunkSize) {
+        return new NotificationBroadcastService(jdbcTemplate, transactionTemplate, templates, inboxService,
+                stream, meterRegistry, true, chunkSize, 10, 20_000, 100);
+    }
+
+    private void backlog(long pending) {
+        when(jdbcTemplate.queryForObject(contains("status = 'PENDING' LIMIT :limit"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(pending);
+    }
+
+    private static NotificationBroadcastService.ActiveBroadcast active(UUID lastUserId) {
+        return new NotificationBroadcastService.ActiveBroadcast(7L, NotificationChannel.PUSH, null, lastUserId);
+    }
+}
@@ -0,0 +1,115 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for NotificationCoalescer
+ * Tests grouping by user, channel and template, digest payloads and window handling
+ */
+class NotificationCoalescerTest {
+
+    private static final String BOOKING_REQUESTED = "booking.requested";
+    private static final Instant T0 = Instant.parse("2024-01-15T10:00:00Z");
+
+    private final UUID guideId = UUID.randomUUID();
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new NotificationCoalescer(meterRegistry, Set.of(BOOKING_REQUESTED), 300, 5, 2, 1000);
+    }
+
+    @Test
+    void release_ShouldMergeGroupIntoDigestOnceWindowCloses() {
+        // Given
+        List<Notification> released = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            coalescer.offer(guideId, NotificationChannel.PUSH, BOOKING_REQUESTED, Map.of("bookingId", "B-" + i),
+                    T0.plusSeconds(i * 10), released);
+        }
+
+        // When
+        List<Notification> early = coalescer.release(T0.plusSeconds(200));
+        List<Notification> digests = coalescer.release(T0.plusSeconds(310));
+
+        // Then
+        assertThat(released).isEmpty();
+        assertThat(early).isEmpty();
+        assertThat(digests).hasSize(1);
+        Notification digest = digests.get(0);
+        assertThat(digest.getTemplateKey()).isEqualTo("booking.requested.digest");
+        assertThat(digest.getUserId()).isEqualTo(guideId);
+        assertThat(digest.getPayload())
+                .containsEntry("bookingId", "B-3")
+                .containsEntry("digestCount", 3)
+                .containsEntry("digestItems", List.of(Map.of("bookingId", "B-2"), Map.of("bookingId", "B-3")));
+        assertThat(meterRegistry.get("notifications.coalesced").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void release_WithSingleNotification_ShouldReleaseItUnchanged() {
+        // Given
+        List<Notification> released = new ArrayList<>();
+        coalescer.offer(guideId, NotificationChannel.EMAIL, BOOKING_REQUESTED, Map.of("bookingId", "B-1"), T0, released);
+
+        // When
+        List<Notification> result = coalescer.releaseAll();
+
+        // Then
+        assertThat(result).singleElement().satisfies(notification -> {
+            assertThat(notification.getTemplateKey()).isEqualTo(BOOKING_REQUESTED);
+            assertThat(notification.getPayload()).isEqualTo(Map.of("bookingId", "B-1"));
+        });
+    }
+
+    @Test
+    void offer_ShouldKeepChannelsAndTemplatesApartAndPassOthersThrough() {
+        // Given
+        List<Notification> released = new ArrayList<>();
+
+        // When
+        boolean email = coalescer.offer(guideId, NotificationChannel.EMAIL, BOOKING_REQUESTED, Map.of(), T0, released);
+        boolean push = coalescer.offer(guideId, NotificationChannel.PUSH, BOOKING_REQUESTED, Map.of(), T0, released);
+        boolean reset = coalescer.offer(guideId, NotificationChannel.EMAIL, "password.reset", Map.of(), T0, released);
+
+        // Then
+        assertThat(email).isTrue();
+        assertThat(push).isTrue();
+        assertThat(reset).isFalse();
+        assertThat(coalescer.releaseAll()).extracting(Notification::getChannel)
+                .containsExactlyInAnyOrder(NotificationChannel.EMAIL, NotificationChannel.PUSH);
+    }
+
+    @Test
+    void offer_WhenGroupReachesMaxItems_ShouldReleaseItImmediately() {
+        // Given
+        List<Notification> released = new ArrayList<>();
+
+        // When
+        for (int i = 1; i <= 6; i++) {
+            coalescer.offer(guideId, NotificationChannel.SMS, BOOKING_REQUESTED, Map.of("bookingId", "B-" + i), T0,
+                    released);
+        }
+
+        // Then
+        assertThat(released).singleElement()
+                .satisfies(digest -> assertThat(digest.getPayload()).containsEntry("digestCount", 5));
+        assertThat(coalescer.releaseAll()).singleElement()
+                .satisfies(rest -> assertThat(rest.getPayload()).isEqualTo(Map.of("bookingId", "B-6")));
+    }
+}
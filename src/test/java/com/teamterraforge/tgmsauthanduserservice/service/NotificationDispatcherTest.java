@@ -0,0 +1,266 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationDispatcher
+ * Tests channel grouping, provider batching, bulk status updates, per-channel limits and secret resolution
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NotificationRetryScheduler retries;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void dispatchBatch_ShouldGroupByChannelAndSplitIntoProviderBatches() throws InterruptedException {
+        // Given
+        StubProvider email = new StubProvider(NotificationChannel.EMAIL, 2);
+        StubProvider sms = new StubProvider(NotificationChannel.SMS, 10);
+        NotificationDispatcher dispatcher = dispatcher(List.of(email, sms), 4);
+        claims(List.of(message(1, NotificationChannel.EMAIL), message(2, NotificationChannel.SMS),
+                message(3, NotificationChannel.EMAIL), message(4, NotificationChannel.EMAIL)));
+
+        // When
+        int claimed = dispatcher.dispatchBatch();
+        dispatcher.awaitInFlight(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(claimed).isEqualTo(4);
+        assertThat(email.batches).extracting(List::size).containsExactlyInAnyOrder(2, 1);
+        assertThat(sms.batches).extracting(List::size).containsExactly(1);
+        assertThat(markedIds("'SENT'")).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        verify(retries, never()).recordFailures(any(), any());
+        assertThat(meterRegistry.get("notifications.sent").tag("channel", "email").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("notifications.delivery.lag").tag("channel", "sms").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_WithPartialFailure_ShouldMarkEachOutcomeInBulk() throws InterruptedException {
+        // Given
+        StubProvider email = new StubProvider(NotificationChannel.EMAIL, 50);
+        email.rejectedIds.add(2L);
+        NotificationDispatcher dispatcher = dispatcher(List.of(email), 4);
+        claims(List.of(message(1, NotificationChannel.EMAIL), message(2, NotificationChannel.EMAIL),
+                message(3, NotificationChannel.EMAIL)));
+
+        // When
+        dispatcher.dispatchBatch();
+        dispatcher.awaitInFlight(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(markedIds("'SENT'")).containsExactly(1L, 3L);
+        assertThat(failedIds(NotificationChannel.EMAIL)).containsExactly(2L);
+        assertThat(meterRegistry.get("notifications.failed").tag("channel", "email").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void dispatchBatch_WhenProviderThrows_ShouldMarkWholeBatchFailed() throws InterruptedException {
+        // Given
+        StubProvider push = new StubProvider(NotificationChannel.PUSH, 50);
+        push.down = true;
+        NotificationDispatcher dispatcher = dispatcher(List.of(push), 4);
+        claims(List.of(message(1, NotificationChannel.PUSH), message(2, NotificationChannel.PUSH)));
+
+        // When
+        dispatcher.dispatchBatch();
+        dispatcher.awaitInFlight(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(failedIds(NotificationChannel.PUSH)).containsExactly(1L, 2L);
+        verify(jdbcTemplate, never()).update(contains("'SENT'"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void dispatchBatch_WithSecretTemplate_ShouldResolveSecretsOnlyForSending() throws InterruptedException {
+        // Given - the secret of notification 3 cannot be issued
+        StubProvider email = new StubProvider(NotificationChannel.EMAIL, 50);
+        NotificationSecretResolver resolver = new NotificationSecretResolver() {
+            @Override
+            public String templateKey() {
+                return "password.reset";
+            }
+
+            @Override
+            public Map<String, Object> resolve(NotificationMessage message) {
+                if (message.id() == 3) {
+                    throw new IllegalStateException("Token store unavailable");
+                }
+                return Map.of("resetToken", "token-" + message.id());
+            }
+        };
+        NotificationDispatcher dispatcher = dispatcher(List.of(email), List.of(resolver), 4);
+        NotificationMessage reset = message(2, NotificationChannel.EMAIL, "password.reset");
+        claims(List.of(message(1, NotificationChannel.EMAIL), reset,
+                message(3, NotificationChannel.EMAIL, "password.reset")));
+
+        // When
+        dispatcher.dispatchBatch();
+        dispatcher.awaitInFlight(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(email.batches).hasSize(1);
+        assertThat(email.batches.get(0)).extracting(NotificationMessage::id).containsExactly(1L, 2L);
+        assertThat(email.batches.get(0).get(0).payload()).doesNotContainKey("resetToken");
+        assertThat(email.batches.get(0).get(1).payload())
+                .containsEntry("resetToken", "token-2")
+                .containsEntry("bookingId", "B-2");
+        assertThat(reset.payload()).doesNotContainKey("resetToken");
+        assertThat(markedIds("'SENT'")).containsExactly(1L, 2L);
+        assertThat(failedIds(NotificationChannel.EMAIL)).containsExactly(3L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchBatch_WithChannelAtConcurrencyLimit_ShouldLeaveItOutOfTheClaim() throws InterruptedException {
+        // Given
+        StubProvider email = new StubProvider(NotificationChannel.EMAIL, 50);
+        StubProvider sms = new StubProvider(NotificationChannel.SMS, 50);
+        email.release = new CountDownLatch(1);
+        NotificationDispatcher dispatcher = dispatcher(List.of(email, sms), 1);
+        claims(List.of(message(1, NotificationChannel.EMAIL)));
+        dispatcher.dispatchBatch();
+
+        // When
+        claims(List.of());
+        dispatcher.dispatchBatch();
+
+        // Then
+        ArgumentCaptor<SqlParameterSource> claim = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, times(2)).query(contains("SKIP LOCKED"), claim.capture(), any(RowMapper.class));
+        assertThat(claim.getAllValues().get(0).getValue("channels")).isEqualTo(List.of("EMAIL", "SMS"));
+        assertThat(claim.getAllValues().get(1).getValue("channels")).isEqualTo(List.of("SMS"));
+
+        email.release.countDown();
+        dispatcher.awaitInFlight(Duration.ofSeconds(5));
+        assertThat(markedIds("'SENT'")).containsExactly(1L);
+    }
+
+    private NotificationDispatcher dispatcher(List<NotificationProvider> providers, int concurrency) {
+        return dispatcher(providers, List.of(), concurrency);
+    }
+
+    private NotificationDispatcher dispatcher(List<NotificationProvider> providers,
+                                              List<NotificationSecretResolver> secretResolvers, int concurrency) {
+        return new NotificationDispatcher(jdbcTemplate, providers, secretResolvers, retries, meterRegistry, false,
+                200, 10, 300, concurrency, concurrency, concurrency);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void claims(List<NotificationMessage> messages) {
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class))).thenReturn(messages);
+    }
+
+    private List<Long> markedIds(String status) {
+        ArgumentCaptor<SqlParameterSource> update = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, atLeastOnce()).update(contains(status), update.capture());
+        List<Long> ids = new ArrayList<>();
+        for (SqlParameterSource params : update.getAllValues()) {
+            @SuppressWarnings("unchecked")
+            List<Long> batch = (List<Long>) params.getValue("ids");
+            ids.addAll(batch);
+        }
+        return ids;
+    }
+
+    private List<Long> failedIds(NotificationChannel channel) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(retries).recordFailures(eq(channel), ids.capture());
+        return ids.getValue();
+    }
+
+    private static NotificationMessage message(long id, NotificationChannel channel) {
+        return message(id, channel, "booking.confirmed");
+    }
+
+    private static NotificationMessage message(long id, NotificationChannel channel, String templateKey) {
+        return new NotificationMessage(id, UUID.randomUUID(), channel, templateKey,
+                Map.of("bookingId", "B-" + id), "user" + id + "@example.com", "+9477000000" + id, "User " + id,
+                Instant.now().minusSeconds(2));
+    }
+
+    private static final class StubProvider implements NotificationProvider {
+
+        private final NotificationChannel channel;
+        private final int maxBatchSize;
+        private final List<List<NotificationMessage>> batches = Collections.synchronizedList(new ArrayList<>());
+        private final Set<Long> rejectedIds = new HashSet<>();
+        private volatile boolean down;
+        private volatile CountDownLatch release;
+
+        private StubProvider(NotificationChannel channel, int maxBatchSize) {
+            this.channel = channel;
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public NotificationChannel channel() {
+            return channel;
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @Override
+        public List<NotificationDelivery> send(List<NotificationMessage> messages) {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (down) {
+                throw new IllegalStateException("Provider unavailable");
+            }
+            batches.add(messages);
+            return messages.stream()
+                    .map(message -> rejectedIds.contains(message.id())
+                            ? NotificationDelivery.failed(message.id(), "Invalid recipient")
+                            : NotificationDelivery.delivered(message.id()))
+                    .toList();
+        }
+    }
+}
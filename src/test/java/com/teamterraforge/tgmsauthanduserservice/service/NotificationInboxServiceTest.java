@@ -0,0 +1,149 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.NotificationResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationStatus;
+import com.teamterraforge.tgmsauthanduserservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationInboxService
+ * Tests keyset paging, incremental unread counts of in-app notifications and their reconciliation
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationInboxServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    private final UUID userId = UUID.randomUUID();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void getInbox_ShouldReturnPageAndCursorToContinueAfterLastId() {
+        // Given
+        NotificationInboxService service = service(600);
+        when(notificationRepository.findInbox(userId, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(LongStream.of(30, 29, 27).mapToObj(this::notification).toList());
+        when(notificationRepository.findInbox(userId, 29L, Limit.of(3)))
+                .thenReturn(List.of(notification(27)));
+
+        // When
+        CursorPageResponse<NotificationResponse> first = service.getInbox(userId, 2, null);
+        CursorPageResponse<NotificationResponse> second = service.getInbox(userId, 2, first.getNextCursor());
+
+        // Then
+        assertThat(first.getContent()).extracting(NotificationResponse::getId).containsExactly(30L, 29L);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getContent()).extracting(NotificationResponse::getId).containsExactly(27L);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getUnreadCount_ShouldCountOnceThenFollowStoresAndReads() {
+        // Given
+        NotificationInboxService service = service(600);
+        when(notificationRepository.countUnread(userId)).thenReturn(4L);
+        when(notificationRepository.markRead(eq(userId), eq(30L), any(Instant.class))).thenReturn(1);
+        when(notificationRepository.markAllRead(eq(userId), any(Instant.class))).thenReturn(5);
+
+        // When & Then
+        assertThat(service.getUnreadCount(userId)).isEqualTo(4);
+        service.recordStored(List.of(notification(31), notification(32),
+                notification(33, NotificationChannel.EMAIL)));
+        assertThat(service.getUnreadCount(userId)).isEqualTo(6);
+        service.markRead(userId, 30L);
+        assertThat(service.getUnreadCount(userId)).isEqualTo(5);
+        service.markAllRead(userId);
+        assertThat(service.getUnreadCount(userId)).isZero();
+        verify(notificationRepository, times(1)).countUnread(userId);
+    }
+
+    @Test
+    void getUnreadCount_WhenCachedCountIsStale_ShouldReconcileFromDatabase() {
+        // Given
+        NotificationInboxService service = service(0);
+        when(notificationRepository.countUnread(userId)).thenReturn(4L, 7L);
+
+        // When
+        long first = service.getUnreadCount(userId);
+        long second = service.getUnreadCount(userId);
+
+        // Then
+        assertThat(first).isEqualTo(4);
+        assertThat(second).isEqualTo(7);
+        assertThat(meterRegistry.get("notifications.unread.reconciled").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void markRead_WithNotificationOfAnotherUser_ShouldThrowException() {
+        // Given
+        NotificationInboxService service = service(600);
+        when(notificationRepository.markRead(eq(userId), eq(99L), any(Instant.class))).thenReturn(0);
+        when(notificationRepository.existsByIdAndUserIdAndChannel(99L, userId, NotificationChannel.PUSH)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> service.markRead(userId, 99L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void getInbox_WithInvalidCursor_ShouldThrowException() {
+        // Given
+        NotificationInboxService service = service(600);
+
+        // When & Then
+        assertThatThrownBy(() -> service.getInbox(userId, 20, CursorCodec.encode("abc")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        verifyNoInteractions(notificationRepository);
+    }
+
+    private NotificationInboxService service(long reconcileAfterSeconds) {
+        return new NotificationInboxService(notificationRepository, meterRegistry, 100, reconcileAfterSeconds, 1000);
+    }
+
+    private Notification notification(long id) {
+        return notification(id, NotificationChannel.PUSH);
+    }
+
+    private Notification notification(long id, NotificationChannel channel) {
+        return Notification.builder()
+                .id(id)
+                .userId(userId)
+                .channel(channel)
+                .templateKey("booking.confirmed")
+                .payload(Map.of("bookingId", "B-" + id))
+                .status(NotificationStatus.SENT)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
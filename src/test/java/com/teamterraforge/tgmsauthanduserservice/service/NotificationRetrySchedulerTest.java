@@ -0,0 +1,150 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationRetryScheduler
+ * Tests scheduling of failed sends, dead-lettering, requeueing due rows and rebuilding at startup
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationRetrySchedulerTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationRetryScheduler scheduler;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = System.currentTimeMillis();
+        scheduler = new NotificationRetryScheduler(jdbcTemplate, meterRegistry, false, 5, 30, 21_600, 1000, 64, 3, 60);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordFailures_ShouldScheduleRetriesAndCountDeadLetters() throws SQLException {
+        // Given
+        when(jdbcTemplate.query(and(contains("'DEAD_LETTER'"), contains("AND status = 'PENDING'")),
+                any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> map(invocation.getArgument(2), List.of(
+                        row(1, "FAILED", now + 30_000),
+                        row(2, "DEAD_LETTER", null),
+                        row(3, "FAILED", now + 60_000))));
+        when(jdbcTemplate.update(contains("'PENDING'"), any(SqlParameterSource.class))).thenReturn(1);
+
+        // When
+        scheduler.recordFailures(NotificationChannel.EMAIL, List.of(1L, 2L, 3L));
+        int early = scheduler.requeueDue(now + 29_000);
+        int requeued = scheduler.requeueDue(now + 31_000);
+
+        // Then
+        assertThat(early).isZero();
+        assertThat(requeued).isEqualTo(1);
+        assertThat(requeuedIds()).containsExactly(1L);
+        assertThat(meterRegistry.get("notifications.dead_lettered").tag("channel", "email").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("notifications.retries.scheduled").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ShouldPageThroughFailedRowsAndScheduleThem() throws SQLException {
+        // Given - one full page followed by a short one
+        List<Map<String, Object>> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            firstPage.add(row(id, "FAILED", now + 120_000));
+        }
+        when(jdbcTemplate.query(contains("afterId"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    SqlParameterSource params = invocation.getArgument(1);
+                    return (Long) params.getValue("afterId") == 0L
+                            ? map(invocation.getArgument(2), firstPage)
+                            : map(invocation.getArgument(2), List.of(row(1001, "FAILED", now - 1_000)));
+                });
+        when(jdbcTemplate.update(contains("'PENDING'"), any(SqlParameterSource.class))).thenReturn(1);
+
+        // When
+        int scheduled = scheduler.rebuild();
+        scheduler.requeueDue(now);
+
+        // Then
+        assertThat(scheduled).isEqualTo(1001);
+        assertThat(requeuedIds()).containsExactly(1001L);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, times(2)).query(contains("afterId"), params.capture(), any(RowMapper.class));
+        assertThat(params.getValue().getValue("afterId")).isEqualTo(1000L);
+    }
+
+    @Test
+    void requeueDue_WithNothingDue_ShouldNotTouchTheDatabase() {
+        // When
+        int requeued = scheduler.requeueDue(now + 60_000);
+
+        // Then
+        assertThat(requeued).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private List<Long> requeuedIds() {
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, atLeastOnce()).update(contains("'PENDING'"), params.capture());
+        List<Long> ids = new ArrayList<>();
+        for (SqlParameterSource source : params.getAllValues()) {
+            @SuppressWarnings("unchecked")
+            List<Long> batch = (List<Long>) source.getValue("ids");
+            ids.addAll(batch);
+        }
+        return ids;
+    }
+
+    private static Map<String, Object> row(long id, String status, Long nextAttemptAt) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("status", status);
+        row.put("next_attempt_at", nextAttemptAt == null ? null : new Timestamp(nextAttemptAt));
+        return row;
+    }
+
+    /**
+     * Runs the scheduler's row mapper over rows served by a mocked result set
+     */
+    private static <T> List<T> map(RowMapper<T> mapper, List<Map<String, Object>> rows) throws SQLException {
+        List<T> mapped = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            ResultSet resultSet = mock(ResultSet.class);
+            lenient().when(resultSet.getLong("id")).thenReturn((Long) row.get("id"));
+            lenient().when(resultSet.getString("status")).thenReturn((String) row.get("status"));
+            lenient().when(resultSet.getTimestamp("next_attempt_at")).thenReturn((Timestamp) row.get("next_attempt_at"));
+            mapped.add(mapper.mapRow(resultSet, i));
+        }
+        return mapped;
+    }
+}
@@ -0,0 +1,200 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.NotificationResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.Notification;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for NotificationStream
+ * Tests per-user fan-out, bulk resyncs, queue overflow handling and the per-user connection cap
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationStreamTest {
+
+    @Mock
+    private NotificationInboxService inboxService;
+
+    private final UUID userId = UUID.randomUUID();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void publish_ShouldDeliverPushNotificationsToEveryConnectionOfRecipient() throws Exception {
+        // Given
+        NotificationStream stream = stream(true, 10, 5);
+        Recorder phone = new Recorder();
+        Recorder browser = new Recorder();
+        Recorder otherUser = new Recorder();
+        NotificationStream.Connection first = stream.register(userId, phone);
+        NotificationStream.Connection second = stream.register(userId, browser);
+        NotificationStream.Connection third = stream.register(UUID.randomUUID(), otherUser);
+
+        // When
+        stream.publish(List.of(notification(1, NotificationChannel.PUSH), notification(2, NotificationChannel.PUSH)));
+        stream.drain(first, 0);
+        stream.drain(second, 0);
+        stream.drain(third, 0);
+
+        // Then
+        assertThat(phone.ids()).containsExactly(1L, 2L);
+        assertThat(browser.ids()).containsExactly(1L, 2L);
+        assertThat(otherUser.ids()).isEmpty();
+        assertThat(meterRegistry.get("notifications.stream.delivered").counter().count()).isEqualTo(4.0);
+    }
+
+    @Test
+    void publish_WithOtherChannels_ShouldIgnoreThem() throws Exception {
+        // Given
+        NotificationStream stream = stream(true, 10, 5);
+        Recorder recorder = new Recorder();
+        NotificationStream.Connection connection = stream.register(userId, recorder);
+
+        // When
+        stream.publish(List.of(notification(1, NotificationChannel.EMAIL), notification(2, NotificationChannel.SMS)));
+
+        // Then
+        assertThat(stream.drain(connection, 0)).isZero();
+        assertThat(recorder.ids()).isEmpty();
+    }
+
+    @Test
+    void drain_WhenQueueOverflows_ShouldSendResyncThenFollowNewNotifications() throws Exception {
+        // Given
+        NotificationStream stream = stream(true, 3, 5);
+        Recorder recorder = new Recorder();
+        NotificationStream.Connection connection = stream.register(userId, recorder);
+        stream.publish(LongStream.rangeClosed(1, 5)
+                .mapToObj(id -> notification(id, NotificationChannel.PUSH))
+                .toList());
+
+        // When
+        stream.drain(connection, 0);
+        stream.publish(List.of(notification(6, NotificationChannel.PUSH)));
+        stream.drain(connection, 0);
+
+        // Then
+        assertThat(recorder.resyncs).isEqualTo(1);
+        assertThat(recorder.ids()).containsExactly(6L);
+        assertThat(meterRegistry.get("notifications.stream.overflows").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void resync_ShouldQueueOneBulkResyncPerMatchingConnection() throws Exception {
+        // Given
+        NotificationStream stream = stream(true, 10, 5);
+        Recorder recipient = new Recorder();
+        Recorder otherUser = new Recorder();
+        NotificationStream.Connection connection = stream.register(userId, recipient);
+        NotificationStream.Connection other = stream.register(UUID.randomUUID(), otherUser);
+
+        // When
+        int told = stream.resync(userId::equals);
+        stream.resync(userId::equals);
+        stream.publish(List.of(notification(1, NotificationChannel.PUSH)));
+        stream.drain(connection, 0);
+
+        // Then
+        assertThat(told).isEqualTo(1);
+        assertThat(recipient.resyncReasons).containsExactly("bulk");
+        assertThat(recipient.ids()).containsExactly(1L);
+        assertThat(stream.drain(other, 0)).isZero();
+        assertThat(otherUser.resyncs).isZero();
+    }
+
+    @Test
+    void register_BeyondMaxConnectionsPerUser_ShouldCloseOldest() {
+        // Given
+        NotificationStream stream = stream(true, 10, 2);
+
+        // When
+        NotificationStream.Connection oldest = stream.register(userId, new Recorder());
+        NotificationStream.Connection middle = stream.register(userId, new Recorder());
+        NotificationStream.Connection newest = stream.register(userId, new Recorder());
+
+        // Then
+        assertThat(oldest.isClosed()).isTrue();
+        assertThat(middle.isClosed()).isFalse();
+        assertThat(newest.isClosed()).isFalse();
+        assertThat(stream.connectionCount(userId)).isEqualTo(2);
+        assertThat(meterRegistry.get("notifications.stream.connections").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void subscribe_WhenDisabled_ShouldThrowException() {
+        // Given
+        NotificationStream stream = stream(false, 10, 5);
+
+        // When & Then
+        assertThatThrownBy(() -> stream.subscribe(userId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Notification stream is disabled");
+    }
+
+    private NotificationStream stream(boolean enabled, int queueCapacity, int maxConnectionsPerUser) {
+        return new NotificationStream(inboxService, meterRegistry, enabled, queueCapacity, 15_000, 60_000,
+                maxConnectionsPerUser);
+    }
+
+    private Notification notification(long id, NotificationChannel channel) {
+        return Notification.builder()
+                .id(id)
+                .userId(userId)
+                .channel(channel)
+                .templateKey("booking.confirmed")
+                .payload(Map.of("bookingId", "B-" + id))
+                .status(NotificationStatus.PENDING)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private static final class Recorder implements NotificationStream.NotificationSender {
+
+        private final List<NotificationResponse> sent = new ArrayList<>();
+        private final List<String> resyncReasons = new ArrayList<>();
+        private int resyncs;
+
+        @Override
+        public void send(NotificationResponse notification) {
+            sent.add(notification);
+        }
+
+        @Override
+        public void unread(long count) {
+        }
+
+        @Override
+        public void resync(String reason) {
+            resyncs++;
+            resyncReasons.add(reason);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        List<Long> ids() {
+            return sent.stream().map(NotificationResponse::getId).toList();
+        }
+    }
+}
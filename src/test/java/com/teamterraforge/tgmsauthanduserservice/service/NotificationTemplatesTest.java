@@ -0,0 +1,135 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for NotificationTemplates and NotificationTemplate
+ * Tests placeholder rendering, locale fallback and hot reload from the template directory
+ */
+class NotificationTemplatesTest {
+
+    @TempDir
+    Path directory;
+
+    private NotificationTemplates templates;
+
+    @BeforeEach
+    void setUp() {
+        templates = new NotificationTemplates(directory.toString(), "en", true, 4, 1024);
+    }
+
+    @Test
+    void render_ShouldFillPayloadNestedAndRecipientFields() throws IOException {
+        // Given
+        write("booking.confirmed.tmpl",
+                "Hi {{recipient.name}}, booking {{ bookingId }} on {{booking.date}} is confirmed.{{missing}}");
+        templates.load();
+
+        // When
+        String rendered = templates.render(message("booking.confirmed",
+                Map.of("bookingId", "B-42", "booking", Map.of("date", "2024-03-01"))));
+
+        // Then
+        assertThat(rendered).isEqualTo("Hi John Doe, booking B-42 on 2024-03-01 is confirmed.");
+    }
+
+    @Test
+    void render_ShouldUseClosestLocaleAndFallBackToDefault() throws IOException {
+        // Given
+        write("welcome.tmpl", "Welcome {{recipient.name}}");
+        write("si/welcome.tmpl", "ආයුබෝවන් {{recipient.name}}");
+        templates.load();
+
+        // When & Then
+        assertThat(templates.render(message("welcome", Map.of("locale", "si-LK")))).isEqualTo("ආයුබෝවන් John Doe");
+        assertThat(templates.render(message("welcome", Map.of("locale", "ta")))).isEqualTo("Welcome John Doe");
+        assertThat(templates.render(message("welcome", Map.of()))).isEqualTo("Welcome John Doe");
+        assertThatThrownBy(() -> templates.render(message("unknown", Map.of())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown");
+    }
+
+    @Test
+    void find_WithDigestKey_ShouldPreferDigestTemplateAndFallBackToBaseTemplate() throws IOException {
+        // Given
+        write("booking.requested.tmpl", "New booking request {{bookingId}}");
+        write("review.received.tmpl", "New review");
+        write("review.received.digest.tmpl", "{{digestCount}} new reviews");
+        templates.load();
+
+        // When & Then
+        assertThat(templates.render(message("booking.requested.digest", Map.of("bookingId", "B-7", "digestCount", 3))))
+                .isEqualTo("New booking request B-7");
+        assertThat(templates.render(message("review.received.digest", Map.of("digestCount", 4))))
+                .isEqualTo("4 new reviews");
+    }
+
+    @Test
+    void reload_ShouldRecompileOnlyChangedFilesAndDropDeletedOnes() throws IOException {
+        // Given
+        Path welcome = write("welcome.tmpl", "Welcome {{recipient.name}}");
+        Path reminder = write("reminder.tmpl", "Your tour starts soon");
+        templates.load();
+
+        // When
+        Files.writeString(welcome, "Hello again {{recipient.name}}");
+        Files.setLastModifiedTime(welcome, FileTime.from(Instant.now().plusSeconds(10)));
+        Files.delete(reminder);
+        int compiled = templates.reload();
+
+        // Then
+        assertThat(compiled).isEqualTo(1);
+        assertThat(templates.render(message("welcome", Map.of()))).isEqualTo("Hello again John Doe");
+        assertThatThrownBy(() -> templates.find("reminder", null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reload_WithBrokenTemplate_ShouldKeepPreviousVersion() throws IOException {
+        // Given
+        Path welcome = write("welcome.tmpl", "Welcome {{recipient.name}}");
+        templates.load();
+
+        // When
+        Files.writeString(welcome, "Welcome {{recipient.name");
+        Files.setLastModifiedTime(welcome, FileTime.from(Instant.now().plusSeconds(10)));
+        int compiled = templates.reload();
+
+        // Then
+        assertThat(compiled).isZero();
+        assertThat(templates.render(message("welcome", Map.of()))).isEqualTo("Welcome John Doe");
+    }
+
+    @Test
+    void compile_WithUnknownRecipientField_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> NotificationTemplate.compile("welcome", "Hi {{recipient.address}}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("address");
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = directory.resolve(name);
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, content);
+    }
+
+    private static NotificationMessage message(String templateKey, Map<String, Object> payload) {
+        return new NotificationMessage(1L, UUID.randomUUID(), NotificationChannel.EMAIL, templateKey,
+                new HashMap<>(payload), "john@example.com", "+94771234567", "John Doe", Instant.now());
+    }
+}
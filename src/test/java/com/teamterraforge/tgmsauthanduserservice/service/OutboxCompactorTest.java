@@ -0,0 +1,143 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxCompactor
+ * Tests batched retention, superseded-event collapsing and throttling
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxCompactorTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void removeExpired_ShouldRunBatchesUntilOneComesBackShort() {
+        // Given
+        OutboxCompactor compactor = compactor(OutboxCompactor.Mode.ARCHIVE, 5_000);
+        healthy();
+        when(namedJdbcTemplate.queryForObject(contains("DELETE FROM outbox"), any(SqlParameterSource.class),
+                eq(Long.class))).thenReturn(1000L, 1000L, 10L);
+
+        // When
+        long removed = compactor.removeExpired(Instant.now());
+
+        // Then
+        assertThat(removed).isEqualTo(2010);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(namedJdbcTemplate, times(3)).queryForObject(sql.capture(), any(SqlParameterSource.class), eq(Long.class));
+        assertThat(sql.getValue()).contains("INSERT INTO outbox_archive").contains("compacted_through");
+        assertThat(meterRegistry.get("outbox.compaction.removed").tag("reason", "retention").counter().count())
+                .isEqualTo(2010.0);
+    }
+
+    @Test
+    void removeExpired_WhenReplicationLagging_ShouldBackOff() {
+        // Given
+        OutboxCompactor compactor = compactor(OutboxCompactor.Mode.DELETE, 5_000);
+        when(jdbcTemplate.queryForObject(contains("pg_stat_replication"), eq(Long.class))).thenReturn(12_000L);
+
+        // When
+        long removed = compactor.removeExpired(Instant.now());
+
+        // Then
+        assertThat(removed).isZero();
+        verify(namedJdbcTemplate, never()).queryForObject(anyString(), any(SqlParameterSource.class), eq(Long.class));
+        assertThat(meterRegistry.get("outbox.compaction.throttled").tag("reason", "replication_lag").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void removeExpired_WhenVacuumBehind_ShouldBackOff() {
+        // Given
+        OutboxCompactor compactor = compactor(OutboxCompactor.Mode.DELETE, 5_000);
+        when(jdbcTemplate.queryForObject(contains("pg_stat_replication"), eq(Long.class))).thenReturn(0L);
+        when(jdbcTemplate.queryForObject(contains("n_dead_tup"), eq(Long.class))).thenReturn(500_000L);
+
+        // When
+        long removed = compactor.removeExpired(Instant.now());
+
+        // Then
+        assertThat(removed).isZero();
+        assertThat(meterRegistry.get("outbox.compaction.throttled").tag("reason", "dead_tuples").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void collapseSuperseded_ShouldContinueAfterLastScannedRowUntilNothingIsLeft() {
+        // Given
+        OutboxCompactor compactor = compactor(OutboxCompactor.Mode.DELETE, 5_000);
+        healthy();
+        Timestamp firstEnd = Timestamp.from(Instant.parse("2024-01-16T10:00:00Z"));
+        when(namedJdbcTemplate.query(contains("superseded"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    SqlParameterSource params = invocation.getArgument(1);
+                    if ((Long) params.getValue("afterId") == 0L) {
+                        return List.of(new OutboxCompactor.CollapseBatch(7, firstEnd, 120L));
+                    }
+                    return List.of();
+                });
+
+        // When
+        long collapsed = compactor.collapseSuperseded(Instant.now());
+
+        // Then
+        assertThat(collapsed).isEqualTo(7);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(namedJdbcTemplate, times(2)).query(contains("superseded"), params.capture(), any(RowMapper.class));
+        assertThat(params.getValue().getValue("afterId")).isEqualTo(120L);
+        assertThat(params.getValue().getValue("afterCreatedAt")).isEqualTo(firstEnd);
+    }
+
+    private void healthy() {
+        when(jdbcTemplate.queryForObject(contains("pg_stat_replication"), eq(Long.class))).thenReturn(0L);
+        when(jdbcTemplate.queryForObject(contains("n_dead_tup"), eq(Long.class))).thenReturn(10L);
+    }
+
+    private OutboxCompactor compactor(OutboxCompactor.Mode mode, long maxReplicationLagMs) {
+        return new OutboxCompactor(namedJdbcTemplate, transactionTemplate, meterRegistry, true, mode, 24, true, 60,
+                1000, 10, 0, maxReplicationLagMs, 200_000);
+    }
+}
@@ -0,0 +1,153 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxPublisher
+ * Tests slot locking, claiming, publishing and marking outbox batches
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxPublisherTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final List<OutboxMessage> delivered = new ArrayList<>();
+    private boolean sinkDown;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxPublisher outboxPublisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // In-process stub sink
+        OutboxSink sink = messages -> {
+            if (sinkDown) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            delivered.addAll(messages);
+        };
+        outboxPublisher = new OutboxPublisher(jdbcTemplate, transactionTemplate, sink, meterRegistry,
+                false, 4, 100, 50);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private void slotLockAvailable(boolean available) {
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), any(SqlParameterSource.class),
+                eq(Boolean.class))).thenReturn(available);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_ShouldPublishClaimedRowsAndMarkThemPublished() {
+        // Given
+        slotLockAvailable(true);
+        List<OutboxMessage> claimed = List.of(message(11L), message(12L));
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class))).thenReturn(claimed);
+
+        // When
+        int published = outboxPublisher.publishBatch(2);
+
+        // Then
+        assertThat(published).isEqualTo(2);
+        assertThat(delivered).containsExactlyElementsOf(claimed);
+
+        ArgumentCaptor<SqlParameterSource> lock = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).queryForObject(contains("pg_try_advisory_xact_lock"), lock.capture(), eq(Boolean.class));
+        assertThat(lock.getValue().getValue("worker")).isEqualTo(2);
+
+        ArgumentCaptor<SqlParameterSource> claim = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).query(contains("SKIP LOCKED"), claim.capture(), any(RowMapper.class));
+        assertThat(claim.getValue().getValue("worker")).isEqualTo(2);
+        assertThat(claim.getValue().getValue("workers")).isEqualTo(4);
+
+        ArgumentCaptor<MapSqlParameterSource> mark = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).update(contains("published = TRUE"), mark.capture());
+        assertThat(mark.getValue().getValue("ids")).isEqualTo(List.of(11L, 12L));
+
+        assertThat(meterRegistry.get("outbox.events.published").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("outbox.publish.lag").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_WhenSinkFails_ShouldLeaveRowsUnpublished() {
+        // Given
+        slotLockAvailable(true);
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(message(11L)));
+        sinkDown = true;
+
+        // When & Then
+        assertThatThrownBy(() -> outboxPublisher.publishBatch(0)).isInstanceOf(IllegalStateException.class);
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+        assertThat(meterRegistry.get("outbox.events.published").counter().count()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_NothingToClaim_ShouldReturnZero() {
+        // Given
+        slotLockAvailable(true);
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+
+        // When
+        int published = outboxPublisher.publishBatch(1);
+
+        // Then
+        assertThat(published).isZero();
+        assertThat(delivered).isEmpty();
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_WhenSlotIsHeldByAnotherInstance_ShouldNotClaimRows() {
+        // Given - the same slot on another instance is mid-batch
+        slotLockAvailable(false);
+
+        // When
+        int published = outboxPublisher.publishBatch(3);
+
+        // Then
+        assertThat(published).isZero();
+        assertThat(delivered).isEmpty();
+        verify(jdbcTemplate, never()).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    private static OutboxMessage message(long id) {
+        return new OutboxMessage(id, OutboxWriter.AGGREGATE_USER, UUID.randomUUID(), "USER_UPDATED",
+                "{\"name\":\"John\"}", Instant.now().minusMillis(150));
+    }
+}
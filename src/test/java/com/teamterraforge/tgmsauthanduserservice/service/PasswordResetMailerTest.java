@@ -0,0 +1,182 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.User;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.NotificationChannel;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PasswordResetMailer
+ * Tests background lookup, reset email queueing, token issue at send time, request throttling
+ * and the bounded request queue
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordResetMailerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordResetTokenStore tokenStore;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordResetMailer mailer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (mailer != null) {
+            mailer.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void send_WithKnownEmail_ShouldQueueResetEmailWithoutToken() {
+        // Given
+        mailer = mailer(10);
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .name("Test User")
+                .role(UserRole.TOURIST)
+                .build();
+        when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(tokenStore.getTokenValidity()).thenReturn(Duration.ofMinutes(60));
+
+        // When
+        mailer.send("test@example.com");
+
+        // Then
+        ArgumentCaptor<Map<String, Object>> payload = ArgumentCaptor.forClass(Map.class);
+        verify(notificationService).notify(eq(user.getId()), eq(NotificationChannel.EMAIL),
+                eq(PasswordResetMailer.TEMPLATE_KEY), payload.capture());
+        assertThat(payload.getValue())
+                .doesNotContainKey("resetToken")
+                .containsEntry("expiresInMinutes", 60L);
+        verify(tokenStore, never()).issue(any());
+        assertThat(outcome("queued")).isEqualTo(1.0);
+    }
+
+    @Test
+    void resolve_ShouldIssueTokenForEmailBeingSent() {
+        // Given
+        mailer = mailer(10);
+        UUID userId = UUID.randomUUID();
+        when(tokenStore.issue(userId)).thenReturn("reset-token");
+        NotificationMessage message = new NotificationMessage(7L, userId, NotificationChannel.EMAIL,
+                PasswordResetMailer.TEMPLATE_KEY, Map.of("expiresInMinutes", 60L), "test@example.com", null,
+                "Test User", Instant.now());
+
+        // When
+        Map<String, Object> secrets = mailer.resolve(message);
+
+        // Then
+        assertThat(mailer.templateKey()).isEqualTo(PasswordResetMailer.TEMPLATE_KEY);
+        assertThat(secrets).containsExactly(Map.entry("resetToken", "reset-token"));
+    }
+
+    @Test
+    void send_WithUnknownEmail_ShouldNotQueueAnything() {
+        // Given
+        mailer = mailer(10);
+        when(userRepository.findByEmailIgnoreCase("nobody@example.com")).thenReturn(Optional.empty());
+
+        // When
+        mailer.send("nobody@example.com");
+
+        // Then
+        verifyNoInteractions(tokenStore, notificationService);
+        assertThat(outcome("unknown_email")).isEqualTo(1.0);
+    }
+
+    @Test
+    void request_WhenQueueIsFull_ShouldDropRequest() throws InterruptedException {
+        // Given
+        mailer = mailer(1);
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByEmailIgnoreCase(anyString())).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        // When
+        mailer.request("first@example.com", "203.0.113.1");
+        assertThat(lookupStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        mailer.request("second@example.com", "203.0.113.2");
+        mailer.request("third@example.com", "203.0.113.3");
+        release.countDown();
+
+        // Then
+        assertThat(outcome("dropped")).isEqualTo(1.0);
+        verify(notificationService, never()).notify(any(), any(), anyString(), anyMap());
+    }
+
+    @Test
+    void request_OverClientOrEmailLimit_ShouldNotQueue() throws InterruptedException {
+        // Given - 3 requests per client and 2 per email
+        mailer = mailer(10);
+        CountDownLatch lookups = new CountDownLatch(5);
+        when(userRepository.findByEmailIgnoreCase(anyString())).thenAnswer(invocation -> {
+            lookups.countDown();
+            return Optional.empty();
+        });
+
+        // When
+        mailer.request("victim@example.com", "198.51.100.1");
+        mailer.request("Victim@Example.com ", "198.51.100.2");
+        mailer.request("victim@example.com", "198.51.100.3");
+        mailer.request("a@example.com", "203.0.113.9");
+        mailer.request("b@example.com", "203.0.113.9");
+        mailer.request("c@example.com", "203.0.113.9");
+        mailer.request("d@example.com", "203.0.113.9");
+
+        // Then
+        assertThat(lookups.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(userRepository, times(5)).findByEmailIgnoreCase(anyString());
+        verify(userRepository, never()).findByEmailIgnoreCase("d@example.com");
+        assertThat(outcome("throttled_email")).isEqualTo(1.0);
+        assertThat(outcome("throttled_client")).isEqualTo(1.0);
+    }
+
+    private PasswordResetMailer mailer(int queueCapacity) {
+        return new PasswordResetMailer(userRepository, tokenStore, notificationService, meterRegistry, queueCapacity,
+                900, 3, 2, 1000);
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("password.reset.requests").tag("outcome", outcome).counter().count();
+    }
+}
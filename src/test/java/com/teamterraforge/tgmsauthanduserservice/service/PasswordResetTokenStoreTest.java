@@ -0,0 +1,113 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PasswordResetTokenStore
+ * Tests hashed storage, single-lookup validation through the index and one-time consumption
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordResetTokenStoreTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordResetTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new PasswordResetTokenStore(jdbcTemplate, meterRegistry, 60, 100, 2);
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyHashAndValidateFromIndex() {
+        // When
+        String token = store.issue(userId);
+        boolean valid = store.isValid(token);
+
+        // Then
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).update(contains("INSERT INTO password_reset_tokens"), params.capture());
+        assertThat((byte[]) params.getValue().getValue("tokenHash")).isEqualTo(PasswordResetTokenStore.hash(token));
+        assertThat(token).hasSize(43);
+        assertThat(valid).isTrue();
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void isValid_WithTokenIssuedElsewhere_ShouldReadOnceThenUseIndex() throws Exception {
+        // Given
+        ResultSet row = mock(ResultSet.class);
+        when(row.getObject("user_id", UUID.class)).thenReturn(userId);
+        when(row.getTimestamp("expires_at")).thenReturn(Timestamp.from(Instant.now().plusSeconds(600)));
+        when(jdbcTemplate.query(contains("SELECT user_id, expires_at"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> List.of(((RowMapper<?>) invocation.getArgument(2)).mapRow(row, 0)));
+
+        // When
+        boolean first = store.isValid("token-from-another-instance");
+        boolean second = store.isValid("token-from-another-instance");
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(jdbcTemplate, times(1)).query(any(String.class), any(SqlParameterSource.class), any(RowMapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consume_ShouldUseTokenOnceAndRevokeUsersOtherTokens() {
+        // Given
+        String token = store.issue(userId);
+        String other = store.issue(userId);
+        when(jdbcTemplate.query(contains("RETURNING user_id"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(userId), List.of());
+
+        // When
+        Optional<UUID> first = store.consume(token);
+        Optional<UUID> second = store.consume(token);
+
+        // Then
+        assertThat(first).contains(userId);
+        assertThat(second).isEmpty();
+        verify(jdbcTemplate).update(contains("WHERE user_id = :userId"), any(SqlParameterSource.class));
+        assertThat(store.isValid(other)).isFalse();
+    }
+
+    @Test
+    void prune_ShouldDeleteExpiredTokensInBatches() {
+        // Given
+        when(jdbcTemplate.update(contains("expires_at <= now()"), any(SqlParameterSource.class))).thenReturn(2, 2, 1);
+
+        // When
+        store.prune();
+
+        // Then
+        verify(jdbcTemplate, times(3)).update(contains("expires_at <= now()"), any(SqlParameterSource.class));
+        assertThat(meterRegistry.get("password.reset.tokens.pruned").counter().count()).isEqualTo(5.0);
+    }
+}
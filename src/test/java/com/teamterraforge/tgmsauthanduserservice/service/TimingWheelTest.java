@@ -0,0 +1,93 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TimingWheel
+ * Tests firing at the due tick across levels, overflow beyond the wheel and large clock jumps
+ */
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void advance_ShouldReturnEntriesOnlyOnceTheyAreDue() {
+        // Given - 10 ms ticks, 4 slots, 2 levels: 40 ms on level 0, 160 ms in total
+        TimingWheel wheel = new TimingWheel(10, 4, 2, START);
+        wheel.schedule(1, START + 25);
+        wheel.schedule(2, START + 95);
+        wheel.schedule(3, START - 5);
+
+        // When & Then
+        assertThat(wheel.advance(START)).containsExactly(3L);
+        assertThat(wheel.advance(START + 20)).isEmpty();
+        assertThat(wheel.advance(START + 30)).containsExactly(1L);
+        assertThat(wheel.advance(START + 90)).isEmpty();
+        assertThat(wheel.advance(START + 100)).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_WithEntryBeyondTheWheel_ShouldHoldItUntilDue() {
+        // Given
+        TimingWheel wheel = new TimingWheel(10, 4, 2, START);
+        wheel.schedule(1, START + 1_000);
+
+        // When & Then
+        for (long now = START; now < START + 1_000; now += 10) {
+            assertThat(wheel.advance(now)).isEmpty();
+        }
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START + 1_000)).containsExactly(1L);
+    }
+
+    @Test
+    void advance_AfterClockJumpPastTheWheel_ShouldReturnAllOverdueEntries() {
+        // Given
+        TimingWheel wheel = new TimingWheel(10, 4, 2, START);
+        wheel.schedule(1, START + 50);
+        wheel.schedule(2, START + 150);
+        wheel.schedule(3, START + 10_000);
+
+        // When
+        List<Long> due = wheel.advance(START + 5_000);
+
+        // Then
+        assertThat(due).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void advance_WithRandomSchedule_ShouldFireEveryEntryWithinOneTickOfItsDueTime() {
+        // Given
+        TimingWheel wheel = new TimingWheel(10, 8, 3, START);
+        Random random = new Random(42);
+        long[] dueAt = new long[2_000];
+        for (int id = 0; id < dueAt.length; id++) {
+            dueAt[id] = START + random.nextInt(20_000);
+            wheel.schedule(id, dueAt[id]);
+        }
+
+        // When
+        List<Long> late = new ArrayList<>();
+        int fired = 0;
+        for (long now = START; now <= START + 20_010; now += 10) {
+            for (long id : wheel.advance(now)) {
+                fired++;
+                if (now < dueAt[(int) id] || now >= dueAt[(int) id] + 10) {
+                    late.add(id);
+                }
+            }
+        }
+
+        // Then
+        assertThat(fired).isEqualTo(dueAt.length);
+        assertThat(late).isEmpty();
+    }
+}
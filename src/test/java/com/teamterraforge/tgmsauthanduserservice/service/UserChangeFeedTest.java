@@ -0,0 +1,317 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.OutboxEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for UserChangeFeed
+ * Tests watermark advancement over outbox id gaps, fan-out and catch-up from the table
+ */
+@ExtendWith(MockitoExtension.class)
+class UserChangeFeedTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Committed outbox rows as seen by the feed's queries
+    private final NavigableMap<Long, OutboxMessage> outbox = new TreeMap<>();
+    private long xmin = 100;
+    private long xmax = 100;
+    private long compactedThrough;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    String sql = invocation.getArgument(0);
+                    SqlParameterSource params = invocation.getArgument(1);
+                    long after = (Long) params.getValue("after");
+                    int limit = (Integer) params.getValue("limit");
+                    if (!sql.contains(":until")) {
+                        return outbox.tailMap(after, false).values().stream().limit(limit).toList();
+                    }
+                    long until = (Long) params.getValue("until");
+                    List<String> types = (List<String>) params.getValue("types");
+                    return outbox.subMap(after, false, until, true).values().stream()
+                            .filter(row -> types.contains(row.eventType()))
+                            .limit(limit)
+                            .toList();
+                });
+        lenient().when(jdbcTemplate.queryForObject(contains("pg_current_snapshot"), any(SqlParameterSource.class),
+                        any(RowMapper.class)))
+                .thenAnswer(invocation -> new UserChangeFeed.Snapshot(xmin, xmax,
+                        outbox.isEmpty() ? 0 : outbox.lastKey()));
+        lenient().when(jdbcTemplate.queryForObject(contains("outbox_compaction"), any(SqlParameterSource.class),
+                        eq(Long.class)))
+                .thenAnswer(invocation -> compactedThrough);
+    }
+
+    @Test
+    void poll_WithGapHeldByOpenTransaction_ShouldWaitForItToCommit() {
+        // Given
+        UserChangeFeed feed = feed(60_000, 1000);
+        commit(1, 2);
+        started(feed);
+        Recorder recorder = new Recorder();
+        UserChangeFeed.Subscription subscription = feed.register(null, allTypes(), recorder);
+        drainAll(feed, subscription);
+
+        // Id 4 was drawn by a transaction (xid 105) that has not committed yet
+        commit(3, 5);
+        xmin = 105;
+        xmax = 110;
+
+        // When
+        feed.poll();
+        feed.poll();
+        feed.poll();
+
+        // Then
+        assertThat(feed.watermark()).isEqualTo(3);
+
+        // When
+        commit(4);
+        xmin = 110;
+        feed.poll();
+        drainAll(feed, subscription);
+
+        // Then
+        assertThat(feed.watermark()).isEqualTo(5);
+        assertThat(recorder.ids()).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void poll_WithGapFromRolledBackTransaction_ShouldSkipItOnceOlderTransactionsEnd() {
+        // Given
+        UserChangeFeed feed = feed(60_000, 1000);
+        commit(1);
+        started(feed);
+        Recorder recorder = new Recorder();
+        UserChangeFeed.Subscription subscription = feed.register(null, allTypes(), recorder);
+        drainAll(feed, subscription);
+
+        commit(2, 4);
+        xmin = 105;
+        xmax = 110;
+        feed.poll();
+        feed.poll();
+
+        // When - the transaction holding id 3 rolled back
+        xmin = 110;
+        feed.poll();
+        drainAll(feed, subscription);
+
+        // Then
+        assertThat(feed.watermark()).isEqualTo(4);
+        assertThat(recorder.ids()).containsExactly(2L, 4L);
+        assertThat(meterRegistry.get("user.changes.gaps.skipped").counter().count()).isZero();
+    }
+
+    @Test
+    void poll_WithGapOlderThanMaxWait_ShouldSkipItAndCount() {
+        // Given
+        UserChangeFeed feed = feed(0, 1000);
+        commit(1);
+        started(feed);
+        commit(3);
+        xmin = 105;
+        xmax = 110;
+
+        // When
+        feed.poll();
+        feed.poll();
+        feed.poll();
+
+        // Then
+        assertThat(feed.watermark()).isEqualTo(3);
+        assertThat(meterRegistry.get("user.changes.gaps.skipped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void poll_WithSeveralSubscribers_ShouldDeliverOnlyRequestedEventTypes() {
+        // Given
+        UserChangeFeed feed = feed(60_000, 1000);
+        started(feed);
+        Recorder everything = new Recorder();
+        Recorder deletions = new Recorder();
+        UserChangeFeed.Subscription first = feed.register(null, allTypes(), everything);
+        UserChangeFeed.Subscription second = feed.register(null, EnumSet.of(OutboxEventType.USER_DELETED), deletions);
+        drainAll(feed, first);
+        drainAll(feed, second);
+
+        outbox.put(1L, message(1, "USER_CREATED"));
+        outbox.put(2L, message(2, "USER_DELETED"));
+        outbox.put(3L, message(3, "USER_UPDATED"));
+
+        // When
+        feed.poll();
+        drainAll(feed, first);
+        drainAll(feed, second);
+
+        // Then
+        assertThat(everything.ids()).containsExactly(1L, 2L, 3L);
+        assertThat(deletions.ids()).containsExactly(2L);
+    }
+
+    @Test
+    void drain_WhenQueueOverflows_ShouldCatchUpFromOutboxWithoutLosingEvents() {
+        // Given
+        UserChangeFeed feed = feed(60_000, 2);
+        started(feed);
+        Recorder recorder = new Recorder();
+        UserChangeFeed.Subscription subscription = feed.register(null, allTypes(), recorder);
+        drainAll(feed, subscription);
+        commit(1, 2, 3, 4, 5);
+
+        // When
+        feed.poll();
+        commit(6);
+        feed.poll();
+        drainAll(feed, subscription);
+
+        // Then
+        assertThat(recorder.ids()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(subscription.isLive()).isTrue();
+        assertThat(meterRegistry.get("user.changes.overflows").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void register_WithLastEventId_ShouldReplayFromOutboxThenFollowLive() {
+        // Given
+        UserChangeFeed feed = feed(60_000, 1000);
+        commit(1, 2, 3, 4);
+        started(feed);
+        Recorder recorder = new Recorder();
+
+        // When
+        UserChangeFeed.Subscription subscription = feed.register(2L, allTypes(), recorder);
+        drainAll(feed, subscription);
+        commit(5);
+        feed.poll();
+        drainAll(feed, subscription);
+
+        // Then
+        assertThat(recorder.ids()).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void register_WithLastEventIdBeforeCompactedRows_ShouldSendResetThenContinue() {
+        // Given - rows 1 to 3 were removed by retention
+        UserChangeFeed feed = feed(60_000, 1000);
+        commit(4, 5);
+        compactedThrough = 3;
+        started(feed);
+        Recorder recorder = new Recorder();
+
+        // When
+        UserChangeFeed.Subscription subscription = feed.register(1L, allTypes(), recorder);
+        drainAll(feed, subscription);
+
+        // Then
+        assertThat(recorder.resets).containsExactly(3L);
+        assertThat(recorder.ids()).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void parseTypes_WithUnknownType_ShouldThrowException() {
+        // When & Then
+        assertThat(UserChangeFeed.parseTypes(" user_created ,USER_DELETED"))
+                .containsExactlyInAnyOrder(OutboxEventType.USER_CREATED, OutboxEventType.USER_DELETED);
+        assertThat(UserChangeFeed.parseTypes(null)).isEqualTo(allTypes());
+        assertThatThrownBy(() -> UserChangeFeed.parseTypes("USER_RENAMED"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("USER_RENAMED");
+    }
+
+    private UserChangeFeed feed(long maxGapWaitMs, int queueCapacity) {
+        return new UserChangeFeed(jdbcTemplate, meterRegistry, false, 100, 10, maxGapWaitMs, queueCapacity,
+                15_000, 60_000);
+    }
+
+    /**
+     * Polls through start-up, which waits out transactions open at the time
+     */
+    private static void started(UserChangeFeed feed) {
+        for (int i = 0; i < 3 && feed.watermark() < 0; i++) {
+            feed.poll();
+        }
+        assertThat(feed.watermark()).isNotNegative();
+    }
+
+    private static void drainAll(UserChangeFeed feed, UserChangeFeed.Subscription subscription) {
+        try {
+            while (feed.drain(subscription, 0) > 0 || !subscription.isLive()) {
+                // Until the queue is empty and the subscriber follows the tail again
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void commit(long... ids) {
+        for (long id : ids) {
+            outbox.put(id, message(id, "USER_UPDATED"));
+        }
+    }
+
+    private static EnumSet<OutboxEventType> allTypes() {
+        return EnumSet.allOf(OutboxEventType.class);
+    }
+
+    private static OutboxMessage message(long id, String eventType) {
+        return new OutboxMessage(id, OutboxWriter.AGGREGATE_USER, UUID.randomUUID(), eventType,
+                "{\"name\":\"John\"}", Instant.now());
+    }
+
+    private static final class Recorder implements UserChangeFeed.ChangeSender {
+
+        private final List<OutboxMessage> sent = new ArrayList<>();
+        private final List<Long> resets = new ArrayList<>();
+
+        @Override
+        public void send(OutboxMessage change) {
+            sent.add(change);
+        }
+
+        @Override
+        public void reset(long position) {
+            resets.add(position);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        List<Long> ids() {
+            return sent.stream().map(OutboxMessage::id).toList();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserExportService
+ * Tests CSV and NDJSON output, the cursor fetch size and the read-only transaction
+ */
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-01-15T10:30:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private UserExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserExportService(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(service, "fetchSize", 250);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    @Test
+    void exportUsers_AsCsv_ShouldWriteHeaderAndQuoteFields() throws Exception {
+        // Given
+        stubRows(List.of(
+                row("0190a1b2-0000-7000-8000-000000000001", "jane@example.com", "Doe, Jane", "+94771234567",
+                        "GUIDE", null),
+                row("0190a1b2-0000-7000-8000-000000000002", "bob@example.com", "Bob \"B\"", null,
+                        "TOURIST", CREATED_AT.plusSeconds(60))));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        service.exportUsers(output, UserDataFormat.CSV);
+
+        // Then
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,email,name,phone,role,createdAt,lastLogin\n"
+                        + "0190a1b2-0000-7000-8000-000000000001,jane@example.com,\"Doe, Jane\",+94771234567,GUIDE,"
+                        + "2024-01-15T10:30:00Z,\n"
+                        + "0190a1b2-0000-7000-8000-000000000002,bob@example.com,\"Bob \"\"B\"\"\",,TOURIST,"
+                        + "2024-01-15T10:30:00Z,2024-01-15T10:31:00Z\n");
+    }
+
+    @Test
+    void exportUsers_AsNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        // Given
+        stubRows(List.of(
+                row("0190a1b2-0000-7000-8000-000000000001", "jane@example.com", "Jane", null, "GUIDE", null),
+                row("0190a1b2-0000-7000-8000-000000000002", "bob@example.com", "Bob", null, "ADMIN", null)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        service.exportUsers(output, UserDataFormat.NDJSON);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEmpty();
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("email").asText()).isEqualTo("jane@example.com");
+        assertThat(first.get("createdAt").asText()).isEqualTo("2024-01-15T10:30:00Z");
+        assertThat(first.get("phone").isNull()).isTrue();
+        assertThat(new ObjectMapper().readTree(lines[1]).get("role").asText()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void exportUsers_ShouldStreamThroughCursorInReadOnlyTransaction() throws Exception {
+        // Given
+        stubRows(List.of());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        service.exportUsers(output, UserDataFormat.NDJSON);
+
+        // Then
+        assertThat(output.size()).isZero();
+        verify(connection).prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        verify(statement).setFetchSize(250);
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        verify(transactionManager).commit(any());
+    }
+
+    /**
+     * Run the statement creator against a mocked connection, then feed the rows to the handler
+     */
+    private void stubRows(List<Map<String, Object>> rows) throws Exception {
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        doAnswer(invocation -> {
+            PreparedStatementCreator creator = invocation.getArgument(0);
+            assertThat(creator.createPreparedStatement(connection)).isSameAs(statement);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> values : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                lenient().when(resultSet.getString(anyString()))
+                        .thenAnswer(call -> (String) values.get(call.<String>getArgument(0)));
+                lenient().when(resultSet.getTimestamp(anyString()))
+                        .thenAnswer(call -> (Timestamp) values.get(call.<String>getArgument(0)));
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static Map<String, Object> row(String id, String email, String name, String phone, String role,
+                                           Instant lastLogin) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("email", email);
+        values.put("name", name);
+        values.put("phone", phone);
+        values.put("role", role);
+        values.put("created_at", Timestamp.from(CREATED_AT));
+        values.put("last_login", lastLogin != null ? Timestamp.from(lastLogin) : null);
+        return values;
+    }
+}
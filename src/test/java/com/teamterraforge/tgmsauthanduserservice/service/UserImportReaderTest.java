@@ -0,0 +1,109 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for UserImportReader
+ * Tests streaming parsing of CSV and NDJSON import payloads
+ */
+class UserImportReaderTest {
+
+    @Test
+    void csv_WithHeaderInAnyOrder_ShouldMapColumns() throws IOException {
+        // Given
+        String csv = "name,email,password,role\n"
+                + "\"Doe, Jane\",jane@example.com,Secret123,guide\n";
+
+        try (UserImportReader reader = reader(csv, UserDataFormat.CSV)) {
+            // When
+            UserImportReader.Row row = reader.next();
+
+            // Then
+            assertThat(row.error()).isNull();
+            assertThat(row.line()).isEqualTo(2);
+            assertThat(row.request().getName()).isEqualTo("Doe, Jane");
+            assertThat(row.request().getEmail()).isEqualTo("jane@example.com");
+            assertThat(row.request().getRole()).isEqualTo(UserRole.GUIDE);
+            assertThat(row.request().getPhone()).isNull();
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void csv_WithInvalidRole_ShouldReportRowErrorAndContinue() throws IOException {
+        // Given
+        String csv = "email,password,name,role\n"
+                + "a@example.com,Secret123,Alice,PILOT\n"
+                + "\n"
+                + "b@example.com,Secret123,Bob,\n";
+
+        try (UserImportReader reader = reader(csv, UserDataFormat.CSV)) {
+            // When
+            UserImportReader.Row first = reader.next();
+            UserImportReader.Row second = reader.next();
+
+            // Then
+            assertThat(first.request()).isNull();
+            assertThat(first.error()).startsWith("Malformed row");
+            assertThat(second.line()).isEqualTo(4);
+            assertThat(second.request().getRole()).isEqualTo(UserRole.TOURIST);
+        }
+    }
+
+    @Test
+    void csv_WithMissingRequiredColumn_ShouldThrowException() {
+        // Given
+        String csv = "email,name\na@example.com,Alice\n";
+        UserImportReader reader = reader(csv, UserDataFormat.CSV);
+
+        // When & Then
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("password");
+    }
+
+    @Test
+    void ndjson_ShouldParseEachLineIndependently() throws IOException {
+        // Given
+        String ndjson = "{\"email\":\"a@example.com\",\"password\":\"Secret123\",\"name\":\"Alice\"}\n"
+                + "{not json}\n"
+                + "{\"email\":\"b@example.com\",\"password\":\"Secret123\",\"name\":\"Bob\",\"role\":\"GUIDE\"}\n";
+
+        try (UserImportReader reader = reader(ndjson, UserDataFormat.NDJSON)) {
+            // When
+            UserImportReader.Row first = reader.next();
+            UserImportReader.Row second = reader.next();
+            UserImportReader.Row third = reader.next();
+
+            // Then
+            assertThat(first.request().getRole()).isEqualTo(UserRole.TOURIST);
+            assertThat(second.error()).isNotNull();
+            assertThat(second.line()).isEqualTo(2);
+            assertThat(third.request().getRole()).isEqualTo(UserRole.GUIDE);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void format_FromContentType_ShouldResolveKnownTypes() {
+        assertThat(UserDataFormat.fromContentType("text/csv; charset=UTF-8"))
+                .isEqualTo(UserDataFormat.CSV);
+        assertThat(UserDataFormat.fromContentType("application/x-ndjson"))
+                .isEqualTo(UserDataFormat.NDJSON);
+        assertThatThrownBy(() -> UserDataFormat.fromContentType("application/json"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private UserImportReader reader(String content, UserDataFormat format) {
+        return new UserImportReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
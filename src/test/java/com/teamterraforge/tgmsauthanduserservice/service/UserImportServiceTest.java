@@ -0,0 +1,197 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.UserImportError;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserImportResponse;
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserImportService
+ * Tests COPY staging per chunk, conflict and duplicate reporting, the reported-error cap
+ * and failed chunks
+ */
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static final String HEADER = "email,password,name,role\n";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PGConnection pgConnection;
+
+    @Mock
+    private CopyManager copyManager;
+
+    @Mock
+    private PreparedStatement mergeStatement;
+
+    private final List<String> copiedChunks = new ArrayList<>();
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserImportService(jdbcTemplate, transactionTemplate, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), userStatsService, 2);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 1000);
+        lenient().when(passwordEncoder.encode(anyString()))
+                .thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_ShouldCopyEachChunkAndReportEmailConflicts() throws Exception {
+        // Given - b@example.com is already registered
+        stubDatabase();
+        ResultSet conflicts = mock(ResultSet.class);
+        when(conflicts.next()).thenReturn(true, false);
+        when(conflicts.getLong(1)).thenReturn(3L);
+        when(conflicts.getString(2)).thenReturn("b@example.com");
+        ResultSet noConflicts = mock(ResultSet.class);
+        when(mergeStatement.executeQuery()).thenReturn(conflicts, noConflicts);
+        String csv = HEADER
+                + "A@Example.com,Secret123,Alice,GUIDE\n"
+                + "b@example.com,Secret123,Bob,TOURIST\n"
+                + "c@example.com,Secret123,\"Doe, Carol\",TOURIST\n";
+
+        // When
+        UserImportResponse response = service.importUsers(input(csv), UserDataFormat.CSV);
+
+        // Then
+        assertThat(copiedChunks).containsExactly(
+                "2,a@example.com,hash-Secret123,Alice,,GUIDE\n3,b@example.com,hash-Secret123,Bob,,TOURIST\n",
+                "4,c@example.com,hash-Secret123,\"Doe, Carol\",,TOURIST\n");
+        assertThat(response.getTotalRows()).isEqualTo(3);
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors()).extracting(UserImportError::getLine, UserImportError::getMessage)
+                .containsExactly(tuple(3L, "Email already registered"));
+        verify(transactionTemplate, times(2)).execute(any(TransactionCallback.class));
+        verify(userStatsService).recordSignups(UserRole.GUIDE, 1);
+        verify(userStatsService).recordSignups(UserRole.TOURIST, 1);
+    }
+
+    @Test
+    void importUsers_WithMoreErrorsThanReported_ShouldCountAllButListOnlyTheCap() throws IOException {
+        // Given
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 2);
+        String csv = HEADER
+                + "a@example.com,short,Alice,TOURIST\n"
+                + "not-an-email,Secret123,Bob,TOURIST\n"
+                + "c@example.com,Secret123,C,TOURIST\n"
+                + "d@example.com,Secret123,Dave,PILOT\n";
+
+        // When
+        UserImportResponse response = service.importUsers(input(csv), UserDataFormat.CSV);
+
+        // Then
+        assertThat(response.getTotalRows()).isEqualTo(4);
+        assertThat(response.getImported()).isZero();
+        assertThat(response.getFailed()).isEqualTo(4);
+        assertThat(response.getErrors()).extracting(UserImportError::getLine).containsExactly(2L, 3L);
+        assertThat(response.isErrorsTruncated()).isTrue();
+        verifyNoInteractions(jdbcTemplate, transactionTemplate, userStatsService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_WhenChunkFails_ShouldRejectItsRowsAndDuplicates() throws IOException {
+        // Given
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+        when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        String csv = HEADER
+                + "a@example.com,Secret123,Alice,TOURIST\n"
+                + "A@EXAMPLE.COM,Secret123,Alice Again,TOURIST\n"
+                + "b@example.com,Secret123,Bob,TOURIST\n";
+
+        // When
+        UserImportResponse response = service.importUsers(input(csv), UserDataFormat.CSV);
+
+        // Then
+        assertThat(response.getImported()).isZero();
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getErrors()).extracting(UserImportError::getLine, UserImportError::getMessage)
+                .containsExactly(
+                        tuple(3L, "Duplicate email in import"),
+                        tuple(2L, "Import failed: database error"),
+                        tuple(4L, "Import failed: database error"));
+        verifyNoInteractions(userStatsService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubDatabase() throws Exception {
+        when(transactionTemplate.execute(any(TransactionCallback.class))).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                ((ConnectionCallback<Object>) invocation.getArgument(0)).doInConnection(connection));
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(contains("COPY user_import_staging"), any(Reader.class))).thenAnswer(invocation -> {
+            try (BufferedReader reader = new BufferedReader(invocation.getArgument(1))) {
+                copiedChunks.add(reader.lines().map(line -> line + "\n").collect(Collectors.joining()));
+            }
+            return 0L;
+        });
+        when(connection.prepareStatement(contains("INSERT INTO users"))).thenReturn(mergeStatement);
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.dto.CursorPageResponse;
+import com.teamterraforge.tgmsauthanduserservice.dto.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserSearchService
+ * Tests query validation, keyset cursor handling and the bounded candidate query
+ */
+@ExtendWith(MockitoExtension.class)
+class UserSearchServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private UserSearchService userSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userSearchService, "maxLimit", 100);
+    }
+
+    @Test
+    void searchUsers_ShortQuery_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> userSearchService.searchUsers(" jo ", 20, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least 3 characters");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void searchUsers_InvalidCursor_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> userSearchService.searchUsers("john", 20, "not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void searchUsers_MoreRowsThanLimit_ShouldReturnNextCursor() throws Exception {
+        // Given
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        stubRows(new Object[]{firstId, 0.9}, new Object[]{secondId, 0.5});
+
+        // When
+        CursorPageResponse<UserResponse> page = userSearchService.searchUsers("john", 1, null);
+
+        // Then
+        assertThat(page.getContent()).extracting(UserResponse::getId).containsExactly(firstId);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(CursorCodec.decode(page.getNextCursor(), 2)).containsExactly("0.9", firstId.toString());
+    }
+
+    @Test
+    void searchUsers_WithCursor_ShouldBindKeysetAndEscapePattern() {
+        // Given
+        UUID afterId = UUID.randomUUID();
+        String cursor = CursorCodec.encode(0.75, afterId);
+
+        // When
+        CursorPageResponse<UserResponse> page = userSearchService.searchUsers("50%_off", 500, cursor);
+
+        // Then
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).query(anyString(), params.capture(), any(RowCallbackHandler.class));
+        MapSqlParameterSource bound = (MapSqlParameterSource) params.getValue();
+        assertThat(bound.getValue("afterScore")).isEqualTo(0.75);
+        assertThat(bound.getValue("afterId")).isEqualTo(afterId);
+        assertThat(bound.getValue("pattern")).isEqualTo("%50\\%\\_off%");
+        assertThat(bound.getValue("limit")).isEqualTo(101);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchUsers_BroadTerm_ShouldRankOnlyOnePagePerField() {
+        // When
+        userSearchService.searchUsers("com", 20, null);
+
+        // Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        assertThat(sql.getValue())
+                .contains("ORDER BY u.name <-> :q, u.id", "ORDER BY u.email <-> :q, u.id",
+                        "ORDER BY u.phone <-> :q, u.id");
+        // Three per-field pages and the final page, nothing ranked without a limit
+        assertThat(sql.getValue().split("LIMIT :limit", -1)).hasSize(5);
+        assertThat(sql.getValue().split("ORDER BY", -1)).hasSize(5);
+    }
+
+    private void stubRows(Object[]... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Object[] row : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getObject("id", UUID.class)).thenReturn((UUID) row[0]);
+                when(resultSet.getString(anyString())).thenReturn("TOURIST");
+                when(resultSet.getDouble("score")).thenReturn((Double) row[1]);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+}
@@ -4,7 +4,6 @@ import com.teamterraforge.tgmsauthanduserservice.dto.*;
 import com.teamterraforge.tgmsauthanduserservice.entity.User;
 import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
 import com.teamterraforge.tgmsauthanduserservice.repository.UserRepository;
-import com.teamterraforge.tgmsauthanduserservice.security.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -44,7 +43,19 @@ class UserServiceNewApisTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private JwtService jwtService;
+    private UserStatsService userStatsService;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PasswordResetMailer passwordResetMailer;
+
+    @Mock
+    private PasswordResetTokenStore passwordResetTokenStore;
 
     @InjectMocks
     private UserService userService;
@@ -209,39 +220,43 @@ class UserServiceNewApisTest {
     // ===== FORGOT PASSWORD TESTS =====
 
     @Test
-    @DisplayName("Should generate password reset token")
-    void shouldGeneratePasswordResetToken() {
+    @DisplayName("Should queue password reset email")
+    void shouldQueuePasswordResetEmail() {
         // Given
         ForgotPasswordRequest request = ForgotPasswordRequest.builder()
                 .email("test@example.com")
                 .build();
 
-        when(userRepository.findByEmailIgnoreCase("test@example.com"))
-                .thenReturn(Optional.of(testUser));
-
         // When
-        PasswordResetResponse response = userService.forgotPassword(request);
+        PasswordResetResponse response = userService.forgotPassword(request, "203.0.113.7");
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getEmail()).isEqualTo("test@example.com");
         assertThat(response.getMessage()).contains("reset instructions");
+        verify(passwordResetMailer).request("test@example.com", "203.0.113.7");
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    @DisplayName("Should throw exception for forgot password with invalid email")
-    void shouldThrowExceptionForInvalidEmail() {
+    @DisplayName("Should return same response for forgot password with unknown email")
+    void shouldReturnSameResponseForUnknownEmail() {
         // Given
-        ForgotPasswordRequest request = ForgotPasswordRequest.builder()
+        ForgotPasswordRequest known = ForgotPasswordRequest.builder()
+                .email("test@example.com")
+                .build();
+        ForgotPasswordRequest unknown = ForgotPasswordRequest.builder()
                 .email("nonexistent@example.com")
                 .build();
 
-        when(userRepository.findByEmailIgnoreCase("nonexistent@example.com"))
-                .thenReturn(Optional.empty());
+        // When
+        PasswordResetResponse knownResponse = userService.forgotPassword(known, "203.0.113.7");
+        PasswordResetResponse unknownResponse = userService.forgotPassword(unknown, "203.0.113.7");
 
-        // When & Then
-        assertThatThrownBy(() -> userService.forgotPassword(request))
-                .isInstanceOf(UsernameNotFoundException.class);
+        // Then
+        assertThat(unknownResponse.getMessage()).isEqualTo(knownResponse.getMessage());
+        assertThat(unknownResponse.getEmail()).isEqualTo("nonexistent@example.com");
+        verify(passwordResetMailer).request("nonexistent@example.com", "203.0.113.7");
     }
 
     // ===== RESET PASSWORD TESTS =====
@@ -256,10 +271,8 @@ class UserServiceNewApisTest {
                 .confirmPassword("NewPassword123")
                 .build();
 
-        when(jwtService.extractUsername("validToken")).thenReturn("test@example.com");
-        when(jwtService.isTokenValid("validToken", "test@example.com")).thenReturn(true);
-        when(userRepository.findByEmailIgnoreCase("test@example.com"))
-                .thenReturn(Optional.of(testUser));
+        when(passwordResetTokenStore.consume("validToken")).thenReturn(Optional.of(testUserId));
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
         when(passwordEncoder.encode("NewPassword123")).thenReturn("newHashedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
@@ -267,8 +280,7 @@ class UserServiceNewApisTest {
         userService.resetPassword(request);
 
         // Then
-        verify(jwtService).extractUsername("validToken");
-        verify(jwtService).isTokenValid("validToken", "test@example.com");
+        verify(passwordResetTokenStore).consume("validToken");
         verify(passwordEncoder).encode("NewPassword123");
         verify(userRepository).save(testUser);
     }
@@ -299,12 +311,13 @@ class UserServiceNewApisTest {
                 .confirmPassword("NewPassword123")
                 .build();
 
-        when(jwtService.extractUsername("invalidToken")).thenThrow(new RuntimeException("Invalid token"));
+        when(passwordResetTokenStore.consume("invalidToken")).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> userService.resetPassword(request))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Invalid or expired");
+        verify(userRepository, never()).save(any(User.class));
     }
 
     // ===== DELETE ACCOUNT TESTS =====
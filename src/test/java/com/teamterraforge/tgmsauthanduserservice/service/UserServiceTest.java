@@ -31,6 +31,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private UserService userService;
 
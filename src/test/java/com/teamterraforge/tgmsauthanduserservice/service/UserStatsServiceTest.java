@@ -0,0 +1,150 @@
+package com.teamterraforge.tgmsauthanduserservice.service;
+
+import com.teamterraforge.tgmsauthanduserservice.entity.enums.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserStatsService
+ * Tests event buffering, flushing and range validation
+ */
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private UserStatsService userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userStatsService, "maxRangeDays", 366);
+    }
+
+    @Test
+    void flush_AfterSignupsAndDeletion_ShouldUpsertDailyRowAndTotals() {
+        // Given
+        runTransactionCallbacks();
+        userStatsService.recordSignup(UserRole.GUIDE);
+        userStatsService.recordSignups(UserRole.GUIDE, 2);
+        userStatsService.recordDeletion(UserRole.GUIDE);
+
+        // When
+        userStatsService.flush();
+
+        // Then
+        List<List<Object[]>> batches = captureBatches(2);
+        assertThat(batches.get(0)).singleElement()
+                .satisfies(row -> assertThat(row).containsExactly(
+                        Date.valueOf(LocalDate.now(ZoneOffset.UTC)), "GUIDE", 3L, 1L, 0L));
+        assertThat(batches.get(1)).singleElement()
+                .satisfies(row -> assertThat(row).containsExactly("GUIDE", 2L));
+    }
+
+    @Test
+    void recordLogin_SecondLoginSameDay_ShouldNotCountActiveUserAgain() {
+        // Given
+        userStatsService.recordLogin(UserRole.TOURIST, Instant.now());
+
+        // When
+        userStatsService.flush();
+
+        // Then
+        verifyNoInteractions(transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    void recordLogin_FirstLoginToday_ShouldCountActiveUser() {
+        // Given
+        runTransactionCallbacks();
+        userStatsService.recordLogin(UserRole.TOURIST, Instant.now().minus(2, ChronoUnit.DAYS));
+
+        // When
+        userStatsService.flush();
+
+        // Then
+        List<List<Object[]>> batches = captureBatches(1);
+        assertThat(batches.get(0)).singleElement()
+                .satisfies(row -> assertThat(row).endsWith(0L, 0L, 1L));
+    }
+
+    @Test
+    void flush_WhenDatabaseFails_ShouldRetainCountersForNextFlush() {
+        // Given
+        runTransactionCallbacks();
+        userStatsService.recordSignup(UserRole.TOURIST);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+
+        // When
+        userStatsService.flush();
+        userStatsService.flush();
+
+        // Then
+        List<List<Object[]>> batches = captureBatches(3);
+        assertThat(batches.get(1)).singleElement()
+                .satisfies(row -> assertThat(row).containsExactly(
+                        Date.valueOf(LocalDate.now(ZoneOffset.UTC)), "TOURIST", 1L, 0L, 0L));
+    }
+
+    @Test
+    void getStats_FromAfterTo_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> userStatsService.getStats(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void getStats_RangeTooLong_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> userStatsService.getStats(LocalDate.of(2022, 1, 1), LocalDate.of(2024, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("366 days");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionCallbacks() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> captureBatches(int expectedCalls) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(expectedCalls)).batchUpdate(anyString(), rows.capture());
+        return rows.getAllValues();
+    }
+}
@@ -0,0 +1,80 @@
+-- uuid_v7_vs_v4.sql
+--
+-- Compares insert throughput and primary key index size for random (v4) and
+-- time-ordered (v7) UUID keys. Requires the V2 migration (uuid_generate_v7).
+--
+-- Usage:
+--   psql -h localhost -U tgms_user -d tgms_auth -v rows=10000000 -v batch=10000 \
+--        -f src/test/resources/benchmark/uuid_v7_vs_v4.sql
+--
+-- Rows are inserted in batches of :batch so index pages are split the way a steady
+-- OLTP write stream splits them, rather than in one sorted bulk load.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+    \set rows 10000000
+\endif
+\if :{?batch}
+\else
+    \set batch 10000
+\endif
+\timing on
+
+DROP TABLE IF EXISTS bench_uuid_v4;
+DROP TABLE IF EXISTS bench_uuid_v7;
+
+CREATE TABLE bench_uuid_v4 (
+    id         UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    email      VARCHAR(255) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE bench_uuid_v7 (
+    id         UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    email      VARCHAR(255) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE OR REPLACE PROCEDURE bench_fill(target REGCLASS, total BIGINT, batch_size INT)
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    done BIGINT := 0;
+BEGIN
+    WHILE done < total LOOP
+        EXECUTE format('INSERT INTO %s (email) SELECT ''user'' || g || ''@bench.local'' FROM generate_series($1, $2) g',
+                       target)
+            USING done + 1, LEAST(done + batch_size, total);
+        done := done + batch_size;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+\echo '== v4 (random) insert =='
+CALL bench_fill('bench_uuid_v4', :rows, :batch);
+
+\echo '== v7 (time-ordered) insert =='
+CALL bench_fill('bench_uuid_v7', :rows, :batch);
+
+\timing off
+VACUUM ANALYZE bench_uuid_v4;
+VACUUM ANALYZE bench_uuid_v7;
+
+\echo '== primary key index size =='
+SELECT c.relname                                     AS index_name,
+       pg_size_pretty(pg_relation_size(c.oid))       AS index_size,
+       pg_relation_size(c.oid) / current_setting('block_size')::INT AS pages
+FROM pg_class c
+WHERE c.relname IN ('bench_uuid_v4_pkey', 'bench_uuid_v7_pkey')
+ORDER BY c.relname;
+
+\echo '== heap/index correlation (1.0 = index order matches insert order) =='
+SELECT tablename, attname, correlation
+FROM pg_stats
+WHERE tablename IN ('bench_uuid_v4', 'bench_uuid_v7') AND attname = 'id';
+
+DROP PROCEDURE bench_fill(REGCLASS, BIGINT, INT);
+DROP TABLE bench_uuid_v4;
+DROP TABLE bench_uuid_v7;